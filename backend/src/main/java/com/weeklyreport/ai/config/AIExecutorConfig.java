@@ -0,0 +1,51 @@
+package com.weeklyreport.ai.config;
+
+import com.weeklyreport.ai.service.AIAnalysisScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * AI分析执行器配置
+ * 调度器属于AI模块，线程池随模块一起定义，通用的 AsyncConfig 不依赖功能包
+ */
+@Configuration
+public class AIExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AIExecutorConfig.class);
+
+    /**
+     * AI分析专用线程池 - 分级公平队列，交互式重新提交与项目审批严格优先于批量周报分析
+     */
+    @Bean(name = "aiAnalysisExecutor")
+    public Executor aiAnalysisExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        logger.info("🔧 创建AI分析专用线程池");
+        
+        AIAnalysisScheduler executor = new AIAnalysisScheduler(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+        
+        // 优化线程池配置以支持更多并发
+        executor.setCorePoolSize(5);        // 提高核心线程数
+        executor.setMaxPoolSize(15);        // 提高最大线程数
+        executor.setQueueCapacity(200);     // 增加队列容量
+        executor.setThreadNamePrefix("ai-analysis-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setKeepAliveSeconds(300);  // 延长线程存活时间
+        executor.setAllowCoreThreadTimeOut(false); // 核心线程保持活跃
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(180); // 增加关闭等待时间
+        
+        executor.initialize();
+        
+        logger.info("🚀 AI分析线程池配置完成 - 核心线程数: {}, 最大线程数: {}, 队列容量: {}", 
+                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        
+        return executor;
+    }
+}
@@ -18,6 +18,7 @@ import java.util.Objects;
  * - confidence DECIMAL(3,2) 
  * - status VARCHAR(20) NOT NULL DEFAULT 'PENDING'
  * - processing_time_ms BIGINT
+ * - prompt_tokens, completion_tokens INT (模型返回的实际token用量)
  * - model_version VARCHAR(100)
  * - parameters TEXT
  * - error_message TEXT
@@ -68,6 +69,12 @@ public class AIAnalysisResult {
     @Column(name = "processing_time_ms")
     private Long processingTimeMs; // 处理耗时（毫秒）
 
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens; // 提示词token数（模型实际计费值）
+
+    @Column(name = "completion_tokens")
+    private Integer completionTokens; // 生成token数（模型实际计费值）
+
     @Column(name = "model_version", length = 100)
     private String modelVersion; // AI模型版本
 
@@ -205,6 +212,22 @@ public class AIAnalysisResult {
         this.processingTimeMs = processingTimeMs;
     }
 
+    public Integer getPromptTokens() {
+        return promptTokens;
+    }
+
+    public void setPromptTokens(Integer promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+
+    public Integer getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public void setCompletionTokens(Integer completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
     public String getModelVersion() {
         return modelVersion;
     }
@@ -0,0 +1,426 @@
+package com.weeklyreport.ai.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * AI分析调度器
+ * 替代FIFO队列的分级公平队列线程池：每个优先级类别一条队列，类别之间严格按优先级出队，
+ * 类别内部按用户做加权公平排队（WFQ）。交互式重新提交、项目审批无论何时到达都排在已排队的批量任务之前；
+ * 同一类别内同一用户反复提交只会推高自己流的虚拟时间，不会饿死其他用户。
+ */
+public class AIAnalysisScheduler extends ThreadPoolTaskExecutor {
+
+    public static final String QUEUE_WAIT_METRIC = "ai.scheduler.queue.wait";
+    public static final String QUEUE_DEPTH_METRIC = "ai.scheduler.queue.depth";
+
+    // 空闲流的完成时间超过此数量时清理，避免按用户累积
+    private static final int MAX_TRACKED_FLOWS = 1024;
+
+    /**
+     * 任务优先级类别，按声明顺序严格优先
+     */
+    public enum WorkClass {
+        /** 用户被拒后重新提交，正在页面等待结果 */
+        INTERACTIVE_RESUBMIT,
+        /** 项目创建/提交审批，管理员等待AI结论 */
+        PROJECT_APPROVAL,
+        /** 周报常规提交、批量或后台重新分析，以及经 execute()/submit() 进入的未声明类别任务 */
+        BULK
+    }
+
+    private final Map<WorkClass, ClassLane> lanes = new EnumMap<>(WorkClass.class);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<WorkClass, Timer> waitTimers = new EnumMap<>(WorkClass.class);
+
+    public AIAnalysisScheduler(MeterRegistry meterRegistry) {
+        for (WorkClass workClass : WorkClass.values()) {
+            lanes.put(workClass, new ClassLane());
+            waitTimers.put(workClass, Timer.builder(QUEUE_WAIT_METRIC)
+                .description("Time AI analysis tasks spend queued before a worker picks them up")
+                .tag("class", workClass.name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry));
+        }
+        Gauge.builder(QUEUE_DEPTH_METRIC, this, AIAnalysisScheduler::getQueueSize)
+            .description("AI analysis tasks waiting in the fair queue")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 与FIFO队列相同，队列满之前线程池保持核心线程数，满后才扩容到最大线程数
+     */
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        return new FairQueue(queueCapacity);
+    }
+
+    /**
+     * 按优先级类别和用户提交AI分析任务
+     */
+    public <T> CompletableFuture<T> schedule(WorkClass workClass, Long userId, Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        super.execute(newTask(workClass, userId, () -> {
+            try {
+                future.complete(work.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * 未声明类别的任务（如@Async）按批量任务、系统流调度
+     */
+    @Override
+    public void execute(Runnable task) {
+        super.execute(task instanceof FairTask ? task : newTask(WorkClass.BULK, null, task));
+    }
+
+    /**
+     * submit() 默认直接交给底层线程池，不经过 execute()；这里改走公平队列，与 execute() 同样按批量任务调度
+     */
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * 当前队列中各类别的任务数
+     */
+    public Map<WorkClass, Integer> getQueuedByClass() {
+        Map<WorkClass, Integer> counts = new EnumMap<>(WorkClass.class);
+        for (WorkClass workClass : WorkClass.values()) {
+            counts.put(workClass, 0);
+        }
+        for (Runnable runnable : getThreadPoolExecutor().getQueue()) {
+            if (runnable instanceof FairTask fairTask) {
+                counts.merge(fairTask.workClass, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private FairTask newTask(WorkClass workClass, Long userId, Runnable delegate) {
+        double finishTag = lanes.get(workClass).nextFinishTag(userId != null ? userId.toString() : "system");
+        return new FairTask(workClass, finishTag, sequence.getAndIncrement(), delegate);
+    }
+
+    private void onDispatch(FairTask task) {
+        lanes.get(task.workClass).advance(task.finishTag);
+        waitTimers.get(task.workClass).record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 单个类别内的WFQ虚拟时钟，每个用户一个流，权重相同
+     */
+    private static final class ClassLane {
+        private final Map<String, Double> flowFinishTags = new HashMap<>();
+        private double virtualTime;
+
+        synchronized double nextFinishTag(String flow) {
+            double start = Math.max(virtualTime, flowFinishTags.getOrDefault(flow, 0.0));
+            double finish = start + 1.0;
+            flowFinishTags.put(flow, finish);
+            if (flowFinishTags.size() > MAX_TRACKED_FLOWS) {
+                flowFinishTags.values().removeIf(tag -> tag <= virtualTime);
+            }
+            return finish;
+        }
+
+        // 虚拟时间推进到正在服务的任务，新到达的流从此处开始计费
+        synchronized void advance(double finishTag) {
+            virtualTime = Math.max(virtualTime, finishTag);
+        }
+    }
+
+    private final class FairTask implements Runnable, Comparable<FairTask> {
+        private final WorkClass workClass;
+        private final double finishTag;
+        private final long seq;
+        private final long enqueuedAt = System.nanoTime();
+        private final Runnable delegate;
+
+        private FairTask(WorkClass workClass, double finishTag, long seq, Runnable delegate) {
+            this.workClass = workClass;
+            this.finishTag = finishTag;
+            this.seq = seq;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            onDispatch(this);
+            delegate.run();
+        }
+
+        @Override
+        public int compareTo(FairTask other) {
+            int byTag = Double.compare(finishTag, other.finishTag);
+            return byTag != 0 ? byTag : Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * 有容量上限的分级队列：每个类别一条按完成时间排序的子队列，出队时取优先级最高的非空子队列；
+     * 满时offer返回false以触发拒绝策略
+     */
+    private final class FairQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+        private final int capacity;
+        private final Map<WorkClass, PriorityQueue<FairTask>> queues = new EnumMap<>(WorkClass.class);
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private int count;
+
+        private FairQueue(int capacity) {
+            this.capacity = Math.max(capacity, 1);
+            for (WorkClass workClass : WorkClass.values()) {
+                queues.put(workClass, new PriorityQueue<>());
+            }
+        }
+
+        @Override
+        public boolean offer(Runnable runnable) {
+            FairTask task = runnable instanceof FairTask fairTask ? fairTask : newTask(WorkClass.BULK, null, runnable);
+            lock.lock();
+            try {
+                if (count >= capacity) {
+                    return false;
+                }
+                queues.get(task.workClass).offer(task);
+                count++;
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean offer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (count >= capacity) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                return offer(runnable);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(Runnable runnable) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (count >= capacity) {
+                    notFull.await();
+                }
+                offer(runnable);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    notEmpty.await();
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (count == 0) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                for (PriorityQueue<FairTask> queue : queues.values()) {
+                    if (!queue.isEmpty()) {
+                        return queue.peek();
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof FairTask task)) {
+                return false;
+            }
+            lock.lock();
+            try {
+                if (!queues.get(task.workClass).remove(task)) {
+                    return false;
+                }
+                count--;
+                notFull.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            lock.lock();
+            try {
+                return capacity - count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> target) {
+            return drainTo(target, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> target, int maxElements) {
+            lock.lock();
+            try {
+                int drained = 0;
+                while (drained < maxElements && count > 0) {
+                    target.add(dequeue());
+                    drained++;
+                }
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 快照迭代器，按出队顺序；remove 委托给队列本身（线程池 purge/remove 使用）
+         */
+        @Override
+        public Iterator<Runnable> iterator() {
+            List<Runnable> snapshot = new ArrayList<>();
+            lock.lock();
+            try {
+                for (PriorityQueue<FairTask> queue : queues.values()) {
+                    List<FairTask> ordered = new ArrayList<>(queue);
+                    ordered.sort(null);
+                    snapshot.addAll(ordered);
+                }
+            } finally {
+                lock.unlock();
+            }
+            Iterator<Runnable> delegate = snapshot.iterator();
+            return new Iterator<>() {
+                private Runnable last;
+
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public Runnable next() {
+                    last = delegate.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    FairQueue.this.remove(last);
+                }
+            };
+        }
+
+        // 调用方持有锁
+        private Runnable dequeue() {
+            for (PriorityQueue<FairTask> queue : queues.values()) {
+                FairTask task = queue.poll();
+                if (task != null) {
+                    count--;
+                    notFull.signal();
+                    return task;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -6,18 +6,22 @@ import com.weeklyreport.ai.dto.DeepSeekRequest;
 import com.weeklyreport.ai.dto.DeepSeekResponse;
 import com.weeklyreport.ai.entity.AIAnalysisResult;
 import com.weeklyreport.ai.repository.AIAnalysisResultRepository;
+import com.weeklyreport.task.entity.DevTaskReport;
+import com.weeklyreport.task.entity.TaskReport;
+import com.weeklyreport.task.repository.DevTaskReportRepository;
+import com.weeklyreport.task.repository.TaskReportRepository;
 import com.weeklyreport.weeklyreport.entity.WeeklyReport;
-import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
-import com.weeklyreport.weeklyreport.service.WeeklyReportNotificationService;
+import com.weeklyreport.weeklyreport.service.WeeklyReportStatusManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -78,21 +82,30 @@ public class AIAnalysisService {
     @Value("${ai.deepseek.max-tokens:2000}")
     private Integer deepseekMaxTokens;
 
-    @Value("${weekly-report.ai.confidence-threshold:0.7}")
-    private double weeklyReportConfidenceThreshold;
+    @Value("${ai.timeout-ms:30000}")
+    private long aiTimeoutMs;
 
     @Autowired
     private AIAnalysisResultRepository aiAnalysisResultRepository;
 
     @Autowired
-    private WeeklyReportNotificationService notificationService;
+    private WeeklyReportStatusManager weeklyReportStatusManager;
 
     @Autowired
     @Qualifier("aiRestTemplate")
     private RestTemplate restTemplate;
 
     @Autowired(required = false)
-    private WeeklyReportRepository weeklyReportRepository;
+    private TaskReportRepository taskReportRepository;
+
+    @Autowired(required = false)
+    private DevTaskReportRepository devTaskReportRepository;
+
+    @Autowired
+    private PromptAssembler promptAssembler;
+
+    @Autowired(required = false)
+    private AIMonitoringService aiMonitoringService;
 
     @Autowired
     @Qualifier("aiAnalysisExecutor")
@@ -134,13 +147,17 @@ public class AIAnalysisService {
      * 执行AI分析 - 调用真实的DeepSeek API
      */
     private void performAnalysis(AIAnalysisResult result, WeeklyReport report) {
-        String userPrompt = buildWeeklyReportPrompt(report);
+        PromptAssembler.AssembledPrompt assembledPrompt = buildWeeklyReportPrompt(report);
+        String userPrompt = assembledPrompt.getText();
+        String monitoringId = startMonitoring("WEEKLY_REPORT");
         long startTime = System.currentTimeMillis();
 
         try {
             // 调用DeepSeek API - 周报分析
-            String aiResponse = callDeepSeekAPI(WEEKLY_REPORT_SYSTEM_PROMPT, userPrompt);
+            DeepSeekResponse deepSeekResponse = callDeepSeekAPI(WEEKLY_REPORT_SYSTEM_PROMPT, userPrompt);
+            String aiResponse = extractContent(deepSeekResponse);
             long processingTime = System.currentTimeMillis() - startTime;
+            recordTokenUsage(result, deepSeekResponse);
 
             // 解析并验证JSON响应
             Map<String, Object> parsedResult = parseAndValidateJsonResponse(aiResponse);
@@ -157,12 +174,16 @@ public class AIAnalysisService {
             result.setUpdatedAt(LocalDateTime.now());
 
             // 将完整的JSON结果存储在metadata字段
-            result.setMetadata(buildMetadata(WEEKLY_REPORT_SYSTEM_PROMPT, userPrompt, aiResponse, parsedResult));
+            result.setMetadata(buildMetadata(WEEKLY_REPORT_SYSTEM_PROMPT, assembledPrompt, aiResponse, parsedResult, result));
 
-            logger.info("周报AI分析成功，处理时间: {}ms, 结果长度: {}", processingTime, aiResponse.length());
+            recordLatency(monitoringId, "WEEKLY_REPORT", true, processingTime, result);
+
+            logger.info("周报AI分析成功，处理时间: {}ms, 结果长度: {}, prompt tokens: {}, completion tokens: {}",
+                       processingTime, aiResponse.length(), result.getPromptTokens(), result.getCompletionTokens());
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             logger.error("DeepSeek API调用失败: {}", e.getMessage(), e);
+            recordLatency(monitoringId, "WEEKLY_REPORT", false, processingTime, result);
 
             // 失败时设置错误状态
             result.setResult("AI分析失败: " + e.getMessage());
@@ -175,22 +196,20 @@ public class AIAnalysisService {
     }
 
     /**
-     * 异步分析项目
+     * 异步分析项目（项目审批类别，优先于批量周报分析）
      */
-    @Async("aiAnalysisExecutor")
     public CompletableFuture<AIAnalysisResult> analyzeProjectAsync(com.weeklyreport.project.entity.Project project) {
         logger.info("🚀 启动异步项目分析，项目ID: {}, 线程: {}", project.getId(), Thread.currentThread().getName());
 
-        return CompletableFuture
-            .supplyAsync(() -> {
-                try {
-                    return analyzeProjectSync(project);
-                } catch (Exception e) {
-                    logger.error("🤖 ❌ 项目分析执行失败，项目ID: {}, 错误: {}", project.getId(), e.getMessage());
-                    throw new RuntimeException("项目分析失败: " + e.getMessage(), e);
-                }
-            }, aiAnalysisExecutor)  // 使用配置的AI分析线程池
-            .orTimeout(30, TimeUnit.SECONDS)
+        return scheduleAnalysis(AIAnalysisScheduler.WorkClass.PROJECT_APPROVAL, project.getCreatedBy(), () -> {
+            try {
+                return analyzeProjectSync(project);
+            } catch (Exception e) {
+                logger.error("🤖 ❌ 项目分析执行失败，项目ID: {}, 错误: {}", project.getId(), e.getMessage());
+                throw new RuntimeException("项目分析失败: " + e.getMessage(), e);
+            }
+        })
+            .orTimeout(aiTimeoutMs, TimeUnit.MILLISECONDS)
             .whenComplete((result, throwable) -> {
                 if (throwable != null) {
                     logger.error("🤖 ❌ 异步项目分析失败，项目ID: {}, 错误: {}", 
@@ -234,22 +253,50 @@ public class AIAnalysisService {
 
     /**
      * 分析项目 (保持向后兼容)
+     * 经AI分析线程池按项目审批优先级排队执行，调用线程最多等待 ai.timeout-ms；
+     * 超时返回失败的分析结果，由调用方按未通过处理，不无限占用请求线程
      */
     public AIAnalysisResult analyzeProject(com.weeklyreport.project.entity.Project project) {
-        return analyzeProjectSync(project);
+        try {
+            return scheduleAnalysis(AIAnalysisScheduler.WorkClass.PROJECT_APPROVAL, project.getCreatedBy(),
+                                    () -> analyzeProjectSync(project))
+                .get(aiTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (java.util.concurrent.TimeoutException e) {
+            logger.warn("⏰ 项目AI分析超时({} ms)，项目ID: {}", aiTimeoutMs, project.getId());
+            AIAnalysisResult result = new AIAnalysisResult();
+            result.setEntityType(AIAnalysisResult.EntityType.PROJECT);
+            result.setReportId(project.getId());
+            result.setAnalysisType(AIAnalysisResult.AnalysisType.PROGRESS_ANALYSIS);
+            result.markAsFailed(String.format("AI分析超时(%d秒)，请稍后重试", aiTimeoutMs / 1000));
+            result.setCreatedAt(LocalDateTime.now());
+            result.setUpdatedAt(LocalDateTime.now());
+            return aiAnalysisResultRepository.save(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI分析被中断", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("AI分析失败: " + e.getMessage(), e);
+        }
     }
 
     /**
      * 执行项目分析 - 调用真实的DeepSeek API (专业项目经理角色)
      */
     private void performProjectAnalysis(AIAnalysisResult result, com.weeklyreport.project.entity.Project project) {
-        String userPrompt = buildProjectPrompt(project);
+        PromptAssembler.AssembledPrompt assembledPrompt = promptAssembler.buildProjectPrompt(project);
+        String userPrompt = assembledPrompt.getText();
+        String monitoringId = startMonitoring("PROJECT");
         long startTime = System.currentTimeMillis();
 
         try {
             // 调用DeepSeek API - 使用项目经理角色的系统提示词
-            String aiResponse = callDeepSeekAPI(PROJECT_ANALYSIS_SYSTEM_PROMPT, userPrompt);
+            DeepSeekResponse deepSeekResponse = callDeepSeekAPI(PROJECT_ANALYSIS_SYSTEM_PROMPT, userPrompt);
+            String aiResponse = extractContent(deepSeekResponse);
             long processingTime = System.currentTimeMillis() - startTime;
+            recordTokenUsage(result, deepSeekResponse);
 
             // 解析并验证JSON响应
             Map<String, Object> parsedResult = parseAndValidateJsonResponse(aiResponse);
@@ -271,13 +318,16 @@ public class AIAnalysisService {
             result.setUpdatedAt(LocalDateTime.now());
 
             // 将完整的JSON结果存储在metadata字段
-            result.setMetadata(buildMetadata(PROJECT_ANALYSIS_SYSTEM_PROMPT, userPrompt, aiResponse, parsedResult));
+            result.setMetadata(buildMetadata(PROJECT_ANALYSIS_SYSTEM_PROMPT, assembledPrompt, aiResponse, parsedResult, result));
+
+            recordLatency(monitoringId, "PROJECT", true, processingTime, result);
 
             logger.info("项目AI分析成功 - 可行性评分: {}, 风险等级: {}, 置信度: {}, 处理时间: {}ms",
                        feasibilityScore, riskLevel, confidence, processingTime);
         } catch (Exception e) {
             long processingTime = System.currentTimeMillis() - startTime;
             logger.error("DeepSeek API项目分析失败: {}", e.getMessage(), e);
+            recordLatency(monitoringId, "PROJECT", false, processingTime, result);
 
             // 失败时设置错误状态
             result.setResult("AI分析失败: " + e.getMessage());
@@ -292,7 +342,7 @@ public class AIAnalysisService {
     /**
      * 调用DeepSeek API
      */
-    private String callDeepSeekAPI(String systemPrompt, String userPrompt) throws Exception {
+    private DeepSeekResponse callDeepSeekAPI(String systemPrompt, String userPrompt) throws Exception {
         String url = deepseekBaseUrl + "/chat/completions";
 
         // 构建请求
@@ -329,44 +379,88 @@ public class AIAnalysisService {
             throw new RuntimeException("DeepSeek API返回空响应");
         }
 
-        String content = deepSeekResponse.getChoices().get(0).getMessage().getContent();
         logger.info("DeepSeek API响应成功，tokens使用: {}",
                    deepSeekResponse.getUsage() != null ? deepSeekResponse.getUsage().getTotalTokens() : "unknown");
 
-        return content;
+        return deepSeekResponse;
     }
 
-    private String buildWeeklyReportPrompt(WeeklyReport report) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("请在100到150字内总结以下周报的核心亮点与风险提示。\n");
-        prompt.append("标题: ").append(safeValue(report.getTitle())).append('\n');
-        prompt.append("报告周期: ").append(safeValue(report.getReportWeek())).append('\n');
-        prompt.append("工作概览: ").append(truncateForPrompt(report.getContent(), 280)).append('\n');
-        prompt.append("备注: ").append(truncateForPrompt(report.getAdditionalNotes(), 200)).append('\n');
-        prompt.append("发展机会: ").append(truncateForPrompt(report.getDevelopmentOpportunities(), 200));
-        return prompt.toString();
+    private String extractContent(DeepSeekResponse deepSeekResponse) {
+        return deepSeekResponse.getChoices().get(0).getMessage().getContent();
     }
 
-    private String buildProjectPrompt(com.weeklyreport.project.entity.Project project) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("请在100到150字内给出项目进度与风险建议。\n");
-        prompt.append("项目名称: ").append(safeValue(project.getName())).append('\n');
-        prompt.append("项目描述: ").append(truncateForPrompt(project.getDescription(), 280)).append('\n');
-        prompt.append("预期结果: ").append(truncateForPrompt(project.getExpectedResults(), 200)).append('\n');
-        prompt.append("时间线: ").append(truncateForPrompt(project.getTimeline(), 120)).append('\n');
-        prompt.append("项目成员: ").append(truncateForPrompt(project.getMembers(), 180));
-        return prompt.toString();
+    /**
+     * 记录DeepSeek返回的实际token用量，用于成本与延迟统计
+     */
+    private void recordTokenUsage(AIAnalysisResult result, DeepSeekResponse deepSeekResponse) {
+        DeepSeekResponse.Usage usage = deepSeekResponse.getUsage();
+        if (usage != null) {
+            result.setPromptTokens(usage.getPromptTokens());
+            result.setCompletionTokens(usage.getCompletionTokens());
+        }
+    }
+
+    /**
+     * 登记一次AI调用开始，返回监控请求ID
+     */
+    private String startMonitoring(String analysisType) {
+        return aiMonitoringService != null ? aiMonitoringService.recordRequestStart(analysisType) : null;
+    }
+
+    /**
+     * 上报本次调用的延迟与token用量到窗口化指标
+     */
+    private void recordLatency(String monitoringId, String analysisType, boolean success,
+                               long processingTime, AIAnalysisResult result) {
+        if (aiMonitoringService == null) {
+            return;
+        }
+        Integer totalTokens = null;
+        if (result.getPromptTokens() != null && result.getCompletionTokens() != null) {
+            totalTokens = result.getPromptTokens() + result.getCompletionTokens();
+        }
+        aiMonitoringService.recordRequestComplete(monitoringId, analysisType,
+                                                  processingTime, success, totalTokens);
+    }
+
+    /**
+     * 组装周报提示词，结构化的日常任务/发展任务内容从关联表读取
+     */
+    private PromptAssembler.AssembledPrompt buildWeeklyReportPrompt(WeeklyReport report) {
+        List<TaskReport> taskReports = List.of();
+        List<DevTaskReport> devTaskReports = List.of();
+        if (report.getId() != null) {
+            if (taskReportRepository != null) {
+                taskReports = taskReportRepository.findByWeeklyReportId(report.getId());
+            }
+            if (devTaskReportRepository != null) {
+                devTaskReports = devTaskReportRepository.findByWeeklyReportIdWithProjectAndPhase(report.getId());
+            }
+        }
+
+        PromptAssembler.AssembledPrompt prompt = promptAssembler.buildWeeklyReportPrompt(report, taskReports, devTaskReports);
+        if (!prompt.getTruncatedSections().isEmpty()) {
+            logger.debug("周报ID {} 提示词超出token预算，已截断段落: {}", report.getId(), prompt.getTruncatedSections());
+        }
+        return prompt;
     }
 
     /**
      * 构建完整的metadata JSON，包含prompt和AI分析结果
      */
-    private String buildMetadata(String systemPrompt, String userPrompt, String rawResponse, Map<String, Object> parsedResult) {
+    private String buildMetadata(String systemPrompt, PromptAssembler.AssembledPrompt userPrompt, String rawResponse,
+                                 Map<String, Object> parsedResult, AIAnalysisResult result) {
         Map<String, Object> metadata = new HashMap<>();
 
         // 存储prompt信息
         metadata.put("systemPrompt", truncateForMetadata(systemPrompt, 500));
-        metadata.put("userPrompt", truncateForMetadata(userPrompt, 500));
+        metadata.put("userPrompt", truncateForMetadata(userPrompt.getText(), 500));
+        metadata.put("estimatedPromptTokens", userPrompt.getTokenCount());
+        metadata.put("truncatedSections", userPrompt.getTruncatedSections());
+
+        // 存储实际token用量
+        metadata.put("promptTokens", result.getPromptTokens());
+        metadata.put("completionTokens", result.getCompletionTokens());
 
         // 存储AI的完整JSON分析结果
         metadata.put("aiAnalysis", parsedResult);
@@ -534,6 +628,11 @@ public class AIAnalysisService {
         return null;
     }
 
+    /**
+     * 经状态管理器按AI分析结果转换周报状态
+     * 当前在事务中时（分析结果尚未提交）推迟到提交后执行：状态转换在独立事务中进行，
+     * 而 weekly_reports.ai_analysis_id 外键要求分析结果已经可见。
+     */
     private void updateWeeklyReportStatus(WeeklyReport sourceReport, AIAnalysisResult analysisResult) {
         if (analysisResult == null || analysisResult.getEntityType() != AIAnalysisResult.EntityType.WEEKLY_REPORT) {
             return;
@@ -541,56 +640,27 @@ public class AIAnalysisService {
         if (sourceReport == null || sourceReport.getId() == null) {
             return;
         }
-        if (weeklyReportRepository == null) {
-            logger.warn("WeeklyReportRepository 未注入，无法同步周报状态");
+        if (weeklyReportStatusManager == null) {
+            logger.warn("WeeklyReportStatusManager 未注入，无法同步周报状态");
             return;
         }
 
-        try {
-            weeklyReportRepository.findById(sourceReport.getId()).ifPresent(report -> {
-                report.setAiAnalysisId(analysisResult.getId());
-
-                if (analysisResult.getStatus() == AIAnalysisResult.AnalysisStatus.COMPLETED) {
-                    double confidence = analysisResult.getConfidence() != null ? analysisResult.getConfidence() : 0.0;
-
-                    // 统一格式的调试日志
-                    String logPattern = "🔍[状态检查] 周报ID={}, 状态={}, 置信度={}, 阈值={}, 决策={}, 触发点={}";
-                    String decision = confidence >= weeklyReportConfidenceThreshold ? "APPROVE" : "REJECT";
-                    logger.info(logPattern, report.getId(),
-                        report.getStatus(),
-                        confidence, weeklyReportConfidenceThreshold, decision,
-                        "AIAnalysisService.updateWeeklyReportStatus");
-
-                    if (confidence >= weeklyReportConfidenceThreshold) {
-                        // AI分析通过：进入待审核状态
-                        report.aiApprove();
-                        logger.info("✅ 周报ID {} AI分析通过，置信度={}，状态: {}",
-                            report.getId(), confidence, report.getStatus());
-                    } else {
-                        // AI分析置信度不足：拒绝
-                        String summary = analysisResult.getResult() != null ? analysisResult.getResult() : "AI分析建议请参考详情";
-                        String rejectionReason = String.format(
-                            "AI分析置信度过低: %.0f%% (阈值: %.0f%%)。建议: %s",
-                            confidence * 100,
-                            weeklyReportConfidenceThreshold * 100,
-                            summary
-                        );
-                        report.aiReject(rejectionReason);
-                        logger.info("⚠️ 周报ID {} AI分析置信度不足，已拒绝，置信度={}，状态: {}",
-                            report.getId(), confidence, report.getStatus());
-                    }
-                } else {
-                    // AI分析失败：拒绝
-                    String reason = analysisResult.getErrorMessage() != null ? analysisResult.getErrorMessage() : "AI分析失败";
-                    report.aiReject("AI分析失败: " + reason);
-                    logger.warn("❌ 周报ID {} AI分析失败，原因: {}，状态: {}",
-                        report.getId(), reason, report.getStatus());
+        Runnable update = () -> {
+            try {
+                weeklyReportStatusManager.processAIAnalysisResult(sourceReport.getId(), analysisResult);
+            } catch (Exception e) {
+                logger.error("同步周报AI分析状态失败，周报ID: {}, 错误: {}", sourceReport.getId(), e.getMessage(), e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
                 }
-
-                weeklyReportRepository.save(report);
             });
-        } catch (Exception e) {
-            logger.error("同步周报AI分析状态失败，周报ID: {}, 错误: {}", sourceReport.getId(), e.getMessage(), e);
+        } else {
+            update.run();
         }
     }
 
@@ -629,24 +699,6 @@ public class AIAnalysisService {
         return value.substring(0, maxLength) + "...";
     }
 
-    private String truncateForPrompt(String value, int maxLength) {
-        if (value == null) {
-            return "无";
-        }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return "无";
-        }
-        if (trimmed.length() <= maxLength) {
-            return trimmed;
-        }
-        return trimmed.substring(0, Math.max(0, maxLength)).trim() + "…";
-    }
-
-    private String safeValue(String value) {
-        return (value == null || value.trim().isEmpty()) ? "无" : value.trim();
-    }
-
 
     private String escapeJson(String value) {
         if (value == null) {
@@ -661,71 +713,72 @@ public class AIAnalysisService {
 
     /**
      * 异步分析周报 - 真正的异步实现
+     * 被拒后重新提交的周报按交互优先级调度，常规提交按批量优先级调度
      */
-    @Async("aiAnalysisExecutor")
     public CompletableFuture<AIAnalysisResult> analyzeWeeklyReportAsync(WeeklyReport report) {
-        logger.info("🚀 启动异步AI分析，周报ID: {}, 线程: {}", report.getId(), Thread.currentThread().getName());
-
-        return CompletableFuture
-            .supplyAsync(() -> {
-                try {
-                    // 模拟AI分析处理时间
-                    logger.info("🤖 正在执行AI分析，周报ID: {}, 线程: {}", report.getId(), Thread.currentThread().getName());
-                    return analyzeWeeklyReportSync(report);
-                } catch (Exception e) {
-                    logger.error("🤖 ❌ AI分析执行失败，周报ID: {}, 错误: {}", report.getId(), e.getMessage());
-                    throw new RuntimeException("AI分析失败: " + e.getMessage(), e);
-                }
-            }, aiAnalysisExecutor)  // 使用配置的AI分析线程池
-            .orTimeout(30, TimeUnit.SECONDS) // 30秒超时
+        AIAnalysisScheduler.WorkClass workClass = report.getRejectedAt() != null
+            ? AIAnalysisScheduler.WorkClass.INTERACTIVE_RESUBMIT
+            : AIAnalysisScheduler.WorkClass.BULK;
+        return analyzeWeeklyReportAsync(report, workClass);
+    }
+
+    /**
+     * 按指定优先级类别异步分析周报
+     */
+    public CompletableFuture<AIAnalysisResult> analyzeWeeklyReportAsync(WeeklyReport report,
+                                                                        AIAnalysisScheduler.WorkClass workClass) {
+        logger.info("🚀 启动异步AI分析，周报ID: {}, 优先级类别: {}, 线程: {}",
+                   report.getId(), workClass, Thread.currentThread().getName());
+
+        return scheduleAnalysis(workClass, report.getUserId(), () -> {
+            try {
+                // 模拟AI分析处理时间
+                logger.info("🤖 正在执行AI分析，周报ID: {}, 线程: {}", report.getId(), Thread.currentThread().getName());
+                return analyzeWeeklyReportSync(report);
+            } catch (Exception e) {
+                logger.error("🤖 ❌ AI分析执行失败，周报ID: {}, 错误: {}", report.getId(), e.getMessage());
+                throw new RuntimeException("AI分析失败: " + e.getMessage(), e);
+            }
+        })
+            .orTimeout(aiTimeoutMs, TimeUnit.MILLISECONDS)
             .whenComplete((result, throwable) -> {
                 if (throwable != null) {
                     logger.error("🤖 ❌ 异步AI分析失败，周报ID: {}, 错误类型: {}, 错误: {}",
                                report.getId(), throwable.getClass().getSimpleName(), throwable.getMessage());
 
-                    // 超时或失败时，自动恢复周报状态为REJECTED
+                    // 超时或失败时，经状态管理器将仍处于AI_PROCESSING的周报转为REJECTED并通知提交者
+                    String errorMsg;
+                    if (throwable instanceof java.util.concurrent.TimeoutException) {
+                        errorMsg = String.format("AI分析超时(%d秒)，可能是网络问题或API响应慢，请稍后重试", aiTimeoutMs / 1000);
+                        logger.warn("⏰ 周报ID {} AI分析超时，自动设置为拒绝状态", report.getId());
+                    } else {
+                        errorMsg = "AI分析失败: " + throwable.getMessage();
+                        logger.warn("❌ 周报ID {} AI分析失败，自动设置为拒绝状态", report.getId());
+                    }
                     try {
-                        WeeklyReport failedReport = weeklyReportRepository.findById(report.getId()).orElse(null);
-                        if (failedReport != null && failedReport.getStatus() == WeeklyReport.ReportStatus.AI_PROCESSING) {
-                            String errorMsg;
-                            if (throwable instanceof java.util.concurrent.TimeoutException) {
-                                errorMsg = "AI分析超时(30秒)，可能是网络问题或API响应慢，请稍后重试";
-                                logger.warn("⏰ 周报ID {} AI分析超时，自动设置为拒绝状态", report.getId());
-                            } else {
-                                errorMsg = "AI分析失败: " + throwable.getMessage();
-                                logger.warn("❌ 周报ID {} AI分析失败，自动设置为拒绝状态", report.getId());
-                            }
-
-                            failedReport.aiReject(errorMsg);
-                            weeklyReportRepository.save(failedReport);
-                            logger.info("🔄 周报ID {} 状态已从AI_PROCESSING恢复为REJECTED", report.getId());
-
-                            // 发送AI分析完成通知（会触发AI拒绝邮件）
-                            try {
-                                notificationService.handleAIAnalysisCompleted(report.getId());
-                                logger.info("📧 AI分析失败通知已触发，周报ID: {}", report.getId());
-                            } catch (Exception e) {
-                                logger.error("📧 ❌ 触发AI分析失败通知时出错，周报ID: {}", report.getId(), e);
-                            }
-                        }
+                        weeklyReportStatusManager.processAIAnalysisFailure(report.getId(), errorMsg);
                     } catch (Exception e) {
                         logger.error("🤖 ❌ 恢复周报状态时出错，周报ID: {}", report.getId(), e);
                     }
                 } else {
+                    // 状态转换与通知已由状态管理器在分析结果保存后完成
                     logger.info("🤖 ✅ 异步AI分析完成，周报ID: {}, 结果ID: {}",
                                report.getId(), result.getId());
-
-                    // 触发AI分析完成通知
-                    try {
-                        notificationService.handleAIAnalysisCompleted(report.getId());
-                        logger.info("📧 AI分析完成通知已触发，周报ID: {}", report.getId());
-                    } catch (Exception e) {
-                        logger.error("📧 ❌ 触发AI分析完成通知失败，周报ID: {}", report.getId(), e);
-                    }
                 }
             });
     }
 
+    /**
+     * 提交到AI分析线程池；优先级调度器不可用时（如测试中替换的执行器）退化为普通提交
+     */
+    private <T> CompletableFuture<T> scheduleAnalysis(AIAnalysisScheduler.WorkClass workClass, Long userId,
+                                                     java.util.function.Supplier<T> work) {
+        if (aiAnalysisExecutor instanceof AIAnalysisScheduler scheduler) {
+            return scheduler.schedule(workClass, userId, work);
+        }
+        return CompletableFuture.supplyAsync(work, aiAnalysisExecutor);
+    }
+
     /**
      * 获取分析结果
      */
@@ -0,0 +1,152 @@
+package com.weeklyreport.ai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI调用延迟与吞吐指标
+ * 基于Micrometer的滑动时间窗口直方图（HdrHistogram环形缓冲），按 provider × 分析类型
+ * 发布p50/p95/p99延迟和每秒token数。记录路径无锁，仪表盘读取只取快照，二者互不阻塞。
+ */
+@Component
+public class AILatencyMetrics {
+
+    public static final String LATENCY_METRIC = "ai.analysis.latency";
+    public static final String TOKENS_METRIC = "ai.analysis.tokens";
+    public static final String THROUGHPUT_METRIC = "ai.analysis.tokens.per.second";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final Duration window;
+
+    // 缓存已注册的Meter，避免每次记录都走builder和注册表查找
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> tokenSummaries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> throughputSummaries = new ConcurrentHashMap<>();
+
+    public AILatencyMetrics(ObjectProvider<MeterRegistry> registryProvider,
+                            @Value("${ai.metrics.window-minutes:5}") long windowMinutes) {
+        this(registryProvider.getIfAvailable(SimpleMeterRegistry::new), Duration.ofMinutes(windowMinutes));
+    }
+
+    AILatencyMetrics(MeterRegistry registry, Duration window) {
+        this.registry = registry;
+        this.window = window;
+    }
+
+    /**
+     * 记录一次AI调用
+     * @param provider AI提供方（如deepseek）
+     * @param analysisType 分析类型
+     * @param success 是否成功
+     * @param durationMs 耗时（毫秒）
+     * @param totalTokens 本次调用的token总数，未知时为null
+     */
+    public void record(String provider, String analysisType, boolean success, long durationMs, Integer totalTokens) {
+        String outcome = success ? "success" : "error";
+        timers.computeIfAbsent(key(provider, analysisType, outcome), k -> Timer.builder(LATENCY_METRIC)
+                .description("AI analysis end-to-end latency")
+                .tag("provider", provider)
+                .tag("analysis_type", analysisType)
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(5)
+                .register(registry))
+            .record(durationMs, TimeUnit.MILLISECONDS);
+
+        if (success && totalTokens != null && totalTokens > 0) {
+            String key = key(provider, analysisType, outcome);
+            tokenSummaries.computeIfAbsent(key, k -> summary(TOKENS_METRIC, "Tokens consumed per AI analysis", provider, analysisType))
+                .record(totalTokens);
+            if (durationMs > 0) {
+                throughputSummaries.computeIfAbsent(key, k -> summary(THROUGHPUT_METRIC, "AI generation throughput (tokens/s)", provider, analysisType))
+                    .record(totalTokens * 1000.0 / durationMs);
+            }
+        }
+    }
+
+    /**
+     * 当前窗口内的延迟分位数与吞吐快照，键为 provider/分析类型
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new HashMap<>();
+        timers.forEach((key, timer) -> {
+            if (key.endsWith("|success")) {
+                String seriesKey = key.substring(0, key.length() - "|success".length());
+                result.put(seriesKey.replace('|', '/'), seriesSnapshot(seriesKey, timer));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 指定provider的快照
+     */
+    public Map<String, Object> snapshot(String provider) {
+        Map<String, Object> result = new HashMap<>();
+        snapshot().forEach((key, value) -> {
+            if (key.startsWith(provider + "/")) {
+                result.put(key.substring(provider.length() + 1), value);
+            }
+        });
+        return result;
+    }
+
+    private Map<String, Object> seriesSnapshot(String seriesKey, Timer timer) {
+        Map<String, Object> stats = new HashMap<>();
+        HistogramSnapshot latency = timer.takeSnapshot();
+        stats.put("count", latency.count());
+        stats.put("meanMs", latency.mean(TimeUnit.MILLISECONDS));
+        stats.put("maxMs", latency.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile value : latency.percentileValues()) {
+            stats.put(percentileLabel(value.percentile()) + "Ms", value.value(TimeUnit.MILLISECONDS));
+        }
+
+        DistributionSummary throughput = throughputSummaries.get(seriesKey + "|success");
+        if (throughput != null) {
+            for (ValueAtPercentile value : throughput.takeSnapshot().percentileValues()) {
+                stats.put("tokensPerSecond" + percentileLabel(value.percentile()).toUpperCase(), value.value());
+            }
+        }
+        DistributionSummary tokens = tokenSummaries.get(seriesKey + "|success");
+        if (tokens != null) {
+            stats.put("totalTokens", (long) tokens.totalAmount());
+        }
+        return stats;
+    }
+
+    private DistributionSummary summary(String name, String description, String provider, String analysisType) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .tag("provider", provider)
+            .tag("analysis_type", analysisType)
+            .publishPercentiles(PERCENTILES)
+            .distributionStatisticExpiry(window)
+            .distributionStatisticBufferLength(5)
+            .register(registry);
+    }
+
+    private static String percentileLabel(double percentile) {
+        return "p" + Math.round(percentile * 100);
+    }
+
+    private static String key(String provider, String analysisType, String outcome) {
+        return provider + "|" + analysisType + "|" + outcome;
+    }
+}
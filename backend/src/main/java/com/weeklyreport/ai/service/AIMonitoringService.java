@@ -11,13 +11,18 @@ import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * AI监控服务
- * 监控AI服务的性能和状态
+ * 监控AI服务的性能和状态；延迟分位数与token吞吐委托给 {@link AILatencyMetrics}，
+ * 通过Micrometer按时间窗口发布
  */
 @Service
 public class AIMonitoringService {
     
     private static final Logger logger = LoggerFactory.getLogger(AIMonitoringService.class);
     
+    private static final String DEFAULT_PROVIDER = "deepseek";
+    
+    private final AILatencyMetrics latencyMetrics;
+    
     // 监控指标
     private final AtomicLong totalRequests = new AtomicLong(0);
     private final AtomicLong successfulRequests = new AtomicLong(0);
@@ -30,13 +35,14 @@ public class AIMonitoringService {
     private final Map<String, AtomicLong> errorsByType = new ConcurrentHashMap<>();
     
     // 状态信息
-    private LocalDateTime lastRequestTime;
-    private LocalDateTime serviceStartTime;
+    private volatile LocalDateTime lastRequestTime;
+    private volatile LocalDateTime serviceStartTime;
     
     /**
      * 构造函数
      */
-    public AIMonitoringService() {
+    public AIMonitoringService(AILatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
         this.serviceStartTime = LocalDateTime.now();
         logger.info("AI Monitoring Service initialized at {}", serviceStartTime);
     }
@@ -68,7 +74,21 @@ public class AIMonitoringService {
      * @param success 是否成功
      */
     public void recordRequestComplete(String requestId, String requestType, long responseTimeMs, boolean success) {
+        recordRequestComplete(requestId, requestType, responseTimeMs, success, null);
+    }
+    
+    /**
+     * 记录请求完成（含token用量）
+     * @param requestId 请求ID
+     * @param requestType 请求类型
+     * @param responseTimeMs 响应时间（毫秒）
+     * @param success 是否成功
+     * @param totalTokens 本次消耗的token总数，未知时为null
+     */
+    public void recordRequestComplete(String requestId, String requestType, long responseTimeMs,
+                                      boolean success, Integer totalTokens) {
         activeRequests.decrementAndGet();
+        latencyMetrics.record(DEFAULT_PROVIDER, requestType, success, responseTimeMs, totalTokens);
         
         if (success) {
             successfulRequests.incrementAndGet();
@@ -146,8 +166,11 @@ public class AIMonitoringService {
         metrics.put("requestsByType", requestsByType);
         metrics.put("errorsByType", errorsByType);
         metrics.put("averageResponseTimes", calculateAverageResponseTimes());
+        metrics.put("latencyPercentiles", latencyMetrics.snapshot());
         metrics.put("serviceUptime", getServiceUptime());
-        metrics.put("lastRequestTime", lastRequestTime);
+        if (lastRequestTime != null) {
+            metrics.put("lastRequestTime", lastRequestTime);
+        }
         
         return metrics;
     }
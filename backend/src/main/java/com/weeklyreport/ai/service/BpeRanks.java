@@ -0,0 +1,123 @@
+package com.weeklyreport.ai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * BPE词表（token字节序列 → rank）
+ * 所有token字节连续存放在一个数组中，开放寻址哈希表直接按 (bytes, from, to) 区间查找，
+ * 合并过程中的每次rank查找都不创建String或数组。
+ */
+final class BpeRanks {
+
+    static final int NONE = Integer.MAX_VALUE;
+
+    static final BpeRanks EMPTY = new Builder(0).build();
+
+    private final byte[] pool;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] ranks;
+    // 槽位存放 条目下标+1，0 表示空
+    private final int[] slots;
+    private final int mask;
+
+    private BpeRanks(byte[] pool, int[] offsets, int[] lengths, int[] ranks, int size) {
+        this.pool = pool;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.ranks = ranks;
+        int capacity = Integer.highestOneBit(Math.max(4, size * 2) - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hash(pool, offsets[entry], offsets[entry] + lengths[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    /**
+     * 由 ISO-8859-1 编码的字符串键构造（每个char对应一个字节），测试使用
+     */
+    static BpeRanks of(Map<String, Integer> ranks) {
+        Builder builder = new Builder(ranks.size());
+        ranks.forEach((key, rank) -> builder.add(key.getBytes(StandardCharsets.ISO_8859_1), rank));
+        return builder.build();
+    }
+
+    int size() {
+        return ranks.length;
+    }
+
+    /**
+     * bytes[from, to) 对应的rank，不在词表中时返回 {@link #NONE}
+     */
+    int rank(byte[] bytes, int from, int to) {
+        int length = to - from;
+        int slot = hash(bytes, from, to) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            entry--;
+            if (lengths[entry] == length
+                    && Arrays.equals(pool, offsets[entry], offsets[entry] + length, bytes, from, to)) {
+                return ranks[entry];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        // FNV-1a，再混合高位，避免低位聚集
+        int h = 0x811c9dc5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static final class Builder {
+
+        private byte[] pool;
+        private int[] offsets;
+        private int[] lengths;
+        private int[] ranks;
+        private int size;
+        private int poolSize;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.pool = new byte[capacity * 8];
+            this.offsets = new int[capacity];
+            this.lengths = new int[capacity];
+            this.ranks = new int[capacity];
+        }
+
+        Builder add(byte[] token, int rank) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+                ranks = Arrays.copyOf(ranks, size * 2);
+            }
+            if (poolSize + token.length > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + token.length));
+            }
+            System.arraycopy(token, 0, pool, poolSize, token.length);
+            offsets[size] = poolSize;
+            lengths[size] = token.length;
+            ranks[size] = rank;
+            poolSize += token.length;
+            size++;
+            return this;
+        }
+
+        BpeRanks build() {
+            return new BpeRanks(Arrays.copyOf(pool, poolSize), Arrays.copyOf(offsets, size),
+                                Arrays.copyOf(lengths, size), Arrays.copyOf(ranks, size), size);
+        }
+    }
+}
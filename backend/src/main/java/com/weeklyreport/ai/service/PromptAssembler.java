@@ -0,0 +1,274 @@
+package com.weeklyreport.ai.service;
+
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.entity.ProjectPhase;
+import com.weeklyreport.task.entity.DevTaskReport;
+import com.weeklyreport.task.entity.Task;
+import com.weeklyreport.task.entity.TaskReport;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt组装器
+ * 按token预算组装AI分析的用户提示词：各段落按优先级先分配保底额度，
+ * 剩余额度再按优先级补足，段落内多行内容按"注水"方式均分，避免单个长任务挤占全部预算。
+ */
+@Component
+public class PromptAssembler {
+
+    private static final String EMPTY_VALUE = "无";
+
+    private final PromptTokenizer tokenizer;
+
+    @Value("${ai.prompt.weekly-report-max-tokens:1800}")
+    private int weeklyReportMaxTokens = 1800;
+
+    @Value("${ai.prompt.project-max-tokens:1200}")
+    private int projectMaxTokens = 1200;
+
+    public PromptAssembler(PromptTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    /**
+     * 组装周报分析提示词：工作概览（{@link WeeklyReport#getContent()}）之外，附上结构化的日常任务与发展任务内容
+     */
+    public AssembledPrompt buildWeeklyReportPrompt(WeeklyReport report,
+                                                   List<TaskReport> taskReports,
+                                                   List<DevTaskReport> devTaskReports) {
+        List<String> thisWeek = new ArrayList<>();
+        List<String> nextWeek = new ArrayList<>();
+        Map<Long, Project> projects = new LinkedHashMap<>();
+
+        for (TaskReport taskReport : safeList(taskReports)) {
+            Task task = taskReport.getTask();
+            String name = task != null ? safeValue(task.getTaskName()) : EMPTY_VALUE;
+            if (Boolean.FALSE.equals(taskReport.getIsWeek())) {
+                nextWeek.add("- [日常] " + name + " | 预期结果: "
+                    + safeValue(task != null ? task.getExpectedResults() : null));
+            } else {
+                thisWeek.add("- [日常] " + name
+                    + " | 实际结果: " + safeValue(taskReport.getActualResults())
+                    + " | 差异分析: " + safeValue(taskReport.getResultDifferenceAnalysis()));
+            }
+        }
+
+        for (DevTaskReport devTaskReport : safeList(devTaskReports)) {
+            Project project = devTaskReport.getProject();
+            ProjectPhase phase = devTaskReport.getProjectPhase();
+            String label = "- [发展] " + (project != null ? safeValue(project.getName()) : "项目#" + devTaskReport.getProjectId())
+                + "/" + (phase != null ? safeValue(phase.getPhaseName()) : "阶段#" + devTaskReport.getPhasesId());
+            if (project != null) {
+                projects.putIfAbsent(project.getId(), project);
+            }
+            if (Boolean.FALSE.equals(devTaskReport.getIsWeek())) {
+                nextWeek.add(label + " | 预期结果: " + safeValue(phase != null ? phase.getExpectedResults() : null));
+            } else {
+                thisWeek.add(label
+                    + " | 实际结果: " + safeValue(devTaskReport.getActualResults())
+                    + " | 差异分析: " + safeValue(devTaskReport.getResultDifferenceAnalysis()));
+            }
+        }
+
+        List<String> projectContext = new ArrayList<>();
+        for (Project project : projects.values()) {
+            projectContext.add("- " + safeValue(project.getName()) + ": " + safeValue(project.getDescription()));
+        }
+
+        List<Section> sections = List.of(
+            Section.single("标题", safeValue(report.getTitle()), 0, 64),
+            Section.single("报告周期", safeValue(report.getReportWeek()), 0, 16),
+            Section.single("工作概览", safeValue(report.getContent()), 1, 120),
+            Section.list("本周工作", thisWeek, 1, 480),
+            Section.list("下周规划", nextWeek, 2, 160),
+            Section.single("备注", safeValue(report.getAdditionalNotes()), 3, 96),
+            Section.single("发展机会", safeValue(report.getDevelopmentOpportunities()), 3, 96),
+            Section.list("项目背景", projectContext, 4, 0)
+        );
+        return assemble("请在100到150字内总结以下周报的核心亮点与风险提示。", sections, weeklyReportMaxTokens);
+    }
+
+    /**
+     * 组装项目分析提示词
+     */
+    public AssembledPrompt buildProjectPrompt(Project project) {
+        List<Section> sections = List.of(
+            Section.single("项目名称", safeValue(project.getName()), 0, 64),
+            Section.single("项目描述", safeValue(project.getDescription()), 1, 320),
+            Section.single("预期结果", safeValue(project.getExpectedResults()), 2, 200),
+            Section.single("时间线", safeValue(project.getTimeline()), 3, 120),
+            Section.single("止损点", safeValue(project.getStopLoss()), 3, 80),
+            Section.single("项目成员", safeValue(project.getMembers()), 4, 80)
+        );
+        return assemble("请在100到150字内给出项目进度与风险建议。", sections, projectMaxTokens);
+    }
+
+    AssembledPrompt assemble(String instruction, List<Section> sections, int maxTokens) {
+        int remaining = Math.max(0, maxTokens - tokenizer.countTokens(instruction + "\n"));
+
+        // 计算每个段落完整内容所需的token数
+        int[] need = new int[sections.size()];
+        int[] granted = new int[sections.size()];
+        for (int i = 0; i < sections.size(); i++) {
+            need[i] = sections.get(i).headerTokens(tokenizer) + sections.get(i).bodyTokens(tokenizer);
+        }
+
+        List<Integer> byPriority = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            byPriority.add(i);
+        }
+        byPriority.sort(Comparator.comparingInt(i -> sections.get(i).priority));
+
+        // 第一轮：按优先级发放保底额度；第二轮：按优先级补足剩余需求
+        for (int i : byPriority) {
+            int grant = Math.min(remaining, Math.min(need[i], sections.get(i).headerTokens(tokenizer) + sections.get(i).floorTokens));
+            granted[i] = grant;
+            remaining -= grant;
+        }
+        for (int i : byPriority) {
+            int grant = Math.min(remaining, need[i] - granted[i]);
+            granted[i] += grant;
+            remaining -= grant;
+        }
+
+        StringBuilder prompt = new StringBuilder(instruction).append('\n');
+        List<String> truncatedSections = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            Section section = sections.get(i);
+            if (granted[i] < need[i]) {
+                truncatedSections.add(section.label);
+            }
+            section.render(prompt, granted[i], tokenizer);
+        }
+
+        String text = prompt.toString().trim();
+        return new AssembledPrompt(text, tokenizer.countTokens(text), truncatedSections);
+    }
+
+    private static <T> List<T> safeList(List<T> values) {
+        return values != null ? values : List.of();
+    }
+
+    private static String safeValue(String value) {
+        return (value == null || value.trim().isEmpty()) ? EMPTY_VALUE : value.trim();
+    }
+
+    /**
+     * 提示词段落：单值字段为一行，任务列表为多行
+     */
+    static class Section {
+        private final String label;
+        private final List<String> lines;
+        private final int priority;
+        private final int floorTokens;
+        private final boolean multiLine;
+
+        private Section(String label, List<String> lines, int priority, int floorTokens, boolean multiLine) {
+            this.label = label;
+            this.lines = lines;
+            this.priority = priority;
+            this.floorTokens = floorTokens;
+            this.multiLine = multiLine;
+        }
+
+        static Section single(String label, String value, int priority, int floorTokens) {
+            return new Section(label, List.of(value), priority, floorTokens, false);
+        }
+
+        static Section list(String label, List<String> lines, int priority, int floorTokens) {
+            return new Section(label, lines, priority, floorTokens, true);
+        }
+
+        private String header() {
+            return multiLine ? label + ":\n" : label + ": ";
+        }
+
+        int headerTokens(PromptTokenizer tokenizer) {
+            return tokenizer.countTokens(header());
+        }
+
+        int bodyTokens(PromptTokenizer tokenizer) {
+            if (lines.isEmpty()) {
+                return tokenizer.countTokens(EMPTY_VALUE + "\n");
+            }
+            int total = 0;
+            for (String line : lines) {
+                total += tokenizer.countTokens(line + "\n");
+            }
+            return total;
+        }
+
+        void render(StringBuilder out, int budget, PromptTokenizer tokenizer) {
+            int available = budget - headerTokens(tokenizer);
+            if (available <= 0) {
+                return;
+            }
+            out.append(header());
+            if (lines.isEmpty()) {
+                out.append(EMPTY_VALUE).append('\n');
+                return;
+            }
+
+            // 注水分配：需求小的行先拿满，剩余额度在较长的行之间均分
+            int[] lineNeed = new int[lines.size()];
+            Integer[] order = new Integer[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                lineNeed[i] = tokenizer.countTokens(lines.get(i) + "\n");
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> lineNeed[i]));
+
+            int[] lineBudget = new int[lines.size()];
+            int left = available;
+            for (int k = 0; k < order.length; k++) {
+                int share = left / (order.length - k);
+                lineBudget[order[k]] = Math.min(lineNeed[order[k]], share);
+                left -= lineBudget[order[k]];
+            }
+
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (lineBudget[i] >= lineNeed[i]) {
+                    out.append(line).append('\n');
+                } else if (lineBudget[i] > 2) {
+                    out.append(tokenizer.truncate(line, lineBudget[i] - 2).trim()).append("…\n");
+                }
+            }
+        }
+    }
+
+    /**
+     * 组装结果：提示词文本、token数及被截断的段落
+     */
+    public static class AssembledPrompt {
+        private final String text;
+        private final int tokenCount;
+        private final List<String> truncatedSections;
+
+        public AssembledPrompt(String text, int tokenCount, List<String> truncatedSections) {
+            this.text = text;
+            this.tokenCount = tokenCount;
+            this.truncatedSections = truncatedSections;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getTokenCount() {
+            return tokenCount;
+        }
+
+        public List<String> getTruncatedSections() {
+            return truncatedSections;
+        }
+    }
+}
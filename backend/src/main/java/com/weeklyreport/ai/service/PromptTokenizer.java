@@ -0,0 +1,238 @@
+package com.weeklyreport.ai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt分词器
+ * 基于本地BPE词表计算token数量，不依赖任何网络服务
+ *
+ * 词表格式与tiktoken一致：每行 "base64(token字节) rank"。默认使用随代码提供的 cl100k_base 词表
+ * （resources/ai/tokenizer，来源见同目录 README）。DeepSeek 未公开tiktoken格式词表，cl100k 对中文的切分
+ * 比 DeepSeek 更细，计数偏高，用于预算控制是保守的。
+ * 词表文件缺失时退化为按字符类别估算（中文约0.6 token/字，其他约0.3 token/字符），
+ * 仍远比 length()/4 准确。
+ */
+@Component
+public class PromptTokenizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptTokenizer.class);
+
+    // 预分词规则（与tiktoken cl100k_base一致）
+    private static final Pattern PRE_TOKENIZE_PATTERN = Pattern.compile(
+        "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}" +
+        "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+",
+        Pattern.UNICODE_CHARACTER_CLASS);
+
+    private static final double CJK_TOKENS_PER_CHAR = 0.6;
+    private static final double OTHER_TOKENS_PER_CHAR = 0.3;
+
+    private final BpeRanks ranks;
+
+    public PromptTokenizer(@Value("${ai.tokenizer.vocab-path:classpath:ai/tokenizer/cl100k_base.tiktoken}") String vocabPath) {
+        this.ranks = loadRanks(vocabPath);
+    }
+
+    /**
+     * 以 ISO-8859-1 字符串为键的词表构造（测试使用）
+     */
+    PromptTokenizer(Map<String, Integer> ranks) {
+        this.ranks = BpeRanks.of(ranks);
+    }
+
+    /**
+     * 是否已加载BPE词表（否则使用估算模式）
+     */
+    public boolean isVocabularyLoaded() {
+        return ranks.size() > 0;
+    }
+
+    /**
+     * 计算文本的token数量
+     */
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        if (!isVocabularyLoaded()) {
+            return (int) Math.ceil(estimateUnits(text, 0, text.length()));
+        }
+        int total = 0;
+        Matcher matcher = PRE_TOKENIZE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            total += countPieceTokens(matcher.group());
+        }
+        return total;
+    }
+
+    /**
+     * 按token数截断文本，返回不超过maxTokens的最长前缀
+     */
+    public String truncate(String text, int maxTokens) {
+        if (text == null || text.isEmpty() || maxTokens <= 0) {
+            return "";
+        }
+        if (!isVocabularyLoaded()) {
+            return truncateByEstimate(text, maxTokens);
+        }
+
+        int used = 0;
+        int end = 0;
+        Matcher matcher = PRE_TOKENIZE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            int pieceTokens = countPieceTokens(matcher.group());
+            if (used + pieceTokens > maxTokens) {
+                // 当前片段放不下时，二分查找片段内可容纳的最长前缀
+                int lo = 0;
+                int hi = matcher.group().length();
+                while (lo < hi) {
+                    int mid = (lo + hi + 1) >>> 1;
+                    if (countPieceTokens(matcher.group().substring(0, mid)) <= maxTokens - used) {
+                        lo = mid;
+                    } else {
+                        hi = mid - 1;
+                    }
+                }
+                end = matcher.start() + lo;
+                break;
+            }
+            used += pieceTokens;
+            end = matcher.end();
+        }
+        if (end > 0 && end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private int countPieceTokens(String piece) {
+        byte[] bytes = piece.getBytes(StandardCharsets.UTF_8);
+        if (ranks.rank(bytes, 0, bytes.length) != BpeRanks.NONE) {
+            return 1;
+        }
+        return bytePairMerge(bytes);
+    }
+
+    /**
+     * 标准BPE合并（与tiktoken相同）：parts[i] 为第i个片段的起始字节，pairRanks[i] 缓存片段i与i+1合并后的rank。
+     * 每轮取rank最小的一对合并，只需重新查找合并点左右两对的rank，其余缓存不变。
+     * @return 最终片段数，即token数
+     */
+    int bytePairMerge(byte[] bytes) {
+        int count = bytes.length + 1;
+        int[] parts = new int[count];
+        int[] pairRanks = new int[count];
+        for (int i = 0; i < count; i++) {
+            parts[i] = i;
+        }
+        for (int i = 0; i < count - 2; i++) {
+            pairRanks[i] = ranks.rank(bytes, i, i + 2);
+        }
+        pairRanks[count - 2] = BpeRanks.NONE;
+        pairRanks[count - 1] = BpeRanks.NONE;
+
+        while (count > 2) {
+            int best = -1;
+            int bestRank = BpeRanks.NONE;
+            for (int i = 0; i < count - 2; i++) {
+                if (pairRanks[i] < bestRank) {
+                    bestRank = pairRanks[i];
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            // 合并片段 best 与 best+1：删除边界 parts[best+1]
+            System.arraycopy(parts, best + 2, parts, best + 1, count - best - 2);
+            System.arraycopy(pairRanks, best + 2, pairRanks, best + 1, count - best - 2);
+            count--;
+            pairRanks[best] = pairRank(bytes, parts, count, best);
+            if (best > 0) {
+                pairRanks[best - 1] = pairRank(bytes, parts, count, best - 1);
+            }
+        }
+        return count - 1;
+    }
+
+    // 片段i与i+1合并后的rank；没有右邻片段时为NONE
+    private int pairRank(byte[] bytes, int[] parts, int count, int i) {
+        return i + 2 < count ? ranks.rank(bytes, parts[i], parts[i + 2]) : BpeRanks.NONE;
+    }
+
+    private String truncateByEstimate(String text, int maxTokens) {
+        double used = 0;
+        int index = 0;
+        while (index < text.length()) {
+            int next = index + Character.charCount(text.codePointAt(index));
+            double units = estimateUnits(text, index, next);
+            if (Math.ceil(used + units) > maxTokens) {
+                break;
+            }
+            used += units;
+            index = next;
+        }
+        return text.substring(0, index);
+    }
+
+    private double estimateUnits(String text, int from, int to) {
+        double units = 0;
+        int index = from;
+        while (index < to) {
+            int codePoint = text.codePointAt(index);
+            units += isCjk(codePoint) ? CJK_TOKENS_PER_CHAR : OTHER_TOKENS_PER_CHAR;
+            index += Character.charCount(codePoint);
+        }
+        return units;
+    }
+
+    private boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL
+            || Character.UnicodeBlock.of(codePoint) == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+            || Character.UnicodeBlock.of(codePoint) == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS;
+    }
+
+    private static BpeRanks loadRanks(String vocabPath) {
+        Resource resource = new DefaultResourceLoader().getResource(vocabPath);
+        if (!resource.exists()) {
+            logger.warn("BPE词表不存在: {}，PromptTokenizer使用字符类别估算模式", vocabPath);
+            return BpeRanks.EMPTY;
+        }
+
+        BpeRanks.Builder builder = new BpeRanks.Builder(131072);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                builder.add(Base64.getDecoder().decode(line.substring(0, space)),
+                            Integer.parseInt(line.substring(space + 1).trim()));
+            }
+            BpeRanks loaded = builder.build();
+            logger.info("已加载BPE词表: {}，共{}个token", vocabPath, loaded.size());
+            return loaded;
+        } catch (Exception e) {
+            logger.error("加载BPE词表失败: {}，使用字符类别估算模式", vocabPath, e);
+            return BpeRanks.EMPTY;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.weeklyreport.analytics.controller;
+
+import com.weeklyreport.analytics.dto.DashboardSummary;
+import com.weeklyreport.analytics.service.DashboardService;
+import com.weeklyreport.common.dto.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 看板统计控制器
+ *
+ * API端点：
+ * GET /api/analytics/dashboard     - 周报状态分布、最近N周周报数、项目审批状态分布
+ * GET /api/analytics/productivity  - 指定日期以来各用户周报数排行
+ */
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private static final int MAX_WEEKS = 104;
+    private static final int MAX_LIMIT = 100;
+
+    private final DashboardService dashboardService;
+
+    public AnalyticsController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<DashboardSummary>> getDashboard(
+            @RequestParam(defaultValue = "12") int weeks) {
+        if (weeks < 1 || weeks > MAX_WEEKS) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("周数需在1到" + MAX_WEEKS + "之间"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(dashboardService.getSummary(weeks)));
+        } catch (Exception e) {
+            logger.error("Error getting dashboard summary", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("获取看板统计失败，请稍后重试"));
+        }
+    }
+
+    @GetMapping("/productivity")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<List<DashboardSummary.UserReportCount>>> getUserProductivity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("数量需在1到" + MAX_LIMIT + "之间"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(dashboardService.getUserProductivity(since, limit)));
+        } catch (Exception e) {
+            logger.error("Error getting user productivity", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("获取用户周报统计失败，请稍后重试"));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.weeklyreport.analytics.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 看板统计汇总
+ */
+public class DashboardSummary {
+
+    private LocalDate periodStart;                          // 统计周期起始周（周一），以下各项均限于此周期
+    private Map<String, Long> reportsByStatus;              // 周报状态 → 周报数
+    private List<WeekCount> reportsByWeek;                  // 最近N周（按创建周，倒序）
+    private Map<String, Long> projectsByApprovalStatus;     // 审批状态 → 周期内创建的项目数
+    private LocalDateTime generatedAt;
+
+    // Constructors
+    public DashboardSummary() {}
+
+    public DashboardSummary(LocalDate periodStart, Map<String, Long> reportsByStatus, List<WeekCount> reportsByWeek,
+                            Map<String, Long> projectsByApprovalStatus, LocalDateTime generatedAt) {
+        this.periodStart = periodStart;
+        this.reportsByStatus = reportsByStatus;
+        this.reportsByWeek = reportsByWeek;
+        this.projectsByApprovalStatus = projectsByApprovalStatus;
+        this.generatedAt = generatedAt;
+    }
+
+    // Getters and Setters
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public Map<String, Long> getReportsByStatus() { return reportsByStatus; }
+    public void setReportsByStatus(Map<String, Long> reportsByStatus) { this.reportsByStatus = reportsByStatus; }
+
+    public List<WeekCount> getReportsByWeek() { return reportsByWeek; }
+    public void setReportsByWeek(List<WeekCount> reportsByWeek) { this.reportsByWeek = reportsByWeek; }
+
+    public Map<String, Long> getProjectsByApprovalStatus() { return projectsByApprovalStatus; }
+    public void setProjectsByApprovalStatus(Map<String, Long> projectsByApprovalStatus) { this.projectsByApprovalStatus = projectsByApprovalStatus; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    /**
+     * 单周周报数
+     */
+    public static class WeekCount {
+
+        private LocalDate weekStart;
+        private long reportCount;
+
+        public WeekCount() {}
+
+        public WeekCount(LocalDate weekStart, long reportCount) {
+            this.weekStart = weekStart;
+            this.reportCount = reportCount;
+        }
+
+        public LocalDate getWeekStart() { return weekStart; }
+        public void setWeekStart(LocalDate weekStart) { this.weekStart = weekStart; }
+
+        public long getReportCount() { return reportCount; }
+        public void setReportCount(long reportCount) { this.reportCount = reportCount; }
+    }
+
+    /**
+     * 单个用户周报数
+     */
+    public static class UserReportCount {
+
+        private Long userId;
+        private String username;
+        private long reportCount;
+
+        public UserReportCount() {}
+
+        public UserReportCount(Long userId, String username, long reportCount) {
+            this.userId = userId;
+            this.username = username;
+            this.reportCount = reportCount;
+        }
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public long getReportCount() { return reportCount; }
+        public void setReportCount(long reportCount) { this.reportCount = reportCount; }
+    }
+}
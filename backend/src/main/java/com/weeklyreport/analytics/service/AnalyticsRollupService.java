@@ -0,0 +1,214 @@
+package com.weeklyreport.analytics.service;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import com.weeklyreport.notification.event.ProjectsBulkReviewedEvent;
+import com.weeklyreport.notification.event.WeeklyReportsBulkReviewedEvent;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 看板统计汇总维护
+ * weekly_report_rollup（创建周 × 用户 × 状态）和 project_approval_rollup（创建日 × 审批状态）
+ * 不做增减，而是按受影响的用户/日期从基础表重算：重算幂等，重复触发或漏掉中间事件都不会累积误差。
+ * 实体变更由 {@link EntityChangedEvent} 登记，同一事务内的登记合并后在提交后重算一次；
+ * 绕过实体监听的批量审批通过领域事件触发；夜间对账按用户ID区间分批重算，修正其他绕过路径造成的偏差。
+ */
+@Service
+public class AnalyticsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsRollupService.class);
+
+    static final String WEEK_START = "DATE_SUB(DATE(w.created_at), INTERVAL WEEKDAY(w.created_at) DAY)";
+
+    // %s 为 weekly_reports w 上的用户过滤条件
+    private static final String UPSERT_REPORT_ROLLUP_SQL =
+        "INSERT INTO weekly_report_rollup (week_start, user_id, status, report_count) " +
+        "SELECT " + WEEK_START + " AS week_start, w.user_id, w.status, COUNT(*) FROM weekly_reports w " +
+        "WHERE %s GROUP BY week_start, w.user_id, w.status " +
+        "ON DUPLICATE KEY UPDATE report_count = VALUES(report_count)";
+
+    // %1$s 为汇总行上的用户过滤条件，%2$s 为基础表上的同一条件
+    private static final String PRUNE_REPORT_ROLLUP_SQL =
+        "DELETE r FROM weekly_report_rollup r " +
+        "LEFT JOIN (SELECT " + WEEK_START + " AS week_start, w.user_id, w.status FROM weekly_reports w " +
+        "           WHERE %2$s GROUP BY week_start, w.user_id, w.status) s " +
+        "  ON s.week_start = r.week_start AND s.user_id = r.user_id AND s.status = r.status " +
+        "WHERE %1$s AND s.user_id IS NULL";
+
+    private static final String UPSERT_PROJECT_ROLLUP_SQL =
+        "INSERT INTO project_approval_rollup (stat_date, approval_status, project_count) " +
+        "SELECT DATE(p.created_at) AS stat_date, p.approval_status, COUNT(*) FROM projects p " +
+        "WHERE p.created_at >= :from AND p.created_at < :to GROUP BY stat_date, p.approval_status " +
+        "ON DUPLICATE KEY UPDATE project_count = VALUES(project_count)";
+
+    private static final String PRUNE_PROJECT_ROLLUP_SQL =
+        "DELETE r FROM project_approval_rollup r " +
+        "LEFT JOIN (SELECT DATE(p.created_at) AS stat_date, p.approval_status FROM projects p " +
+        "           WHERE p.created_at >= :from AND p.created_at < :to GROUP BY stat_date, p.approval_status) s " +
+        "  ON s.stat_date = r.stat_date AND s.approval_status = r.approval_status " +
+        "WHERE r.stat_date >= :from AND r.stat_date < :to AND s.stat_date IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int reconcileBatchSize;
+
+    public AnalyticsRollupService(JdbcTemplate jdbcTemplate,
+                                  @Value("${analytics.rollup.reconcile-batch-size:200}") int reconcileBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    /**
+     * 登记需要重算的用户/日期。有事务时同一事务内的登记合并，提交后统一重算；无事务时立即重算
+     */
+    public void scheduleRefresh(Collection<Long> userIds, Collection<LocalDate> projectDates) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(userIds, projectDates);
+            return;
+        }
+        PendingRefresh pending = (PendingRefresh) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRefresh();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.userIds.addAll(userIds);
+        pending.projectDates.addAll(projectDates);
+    }
+
+    /**
+     * 周报按作者重算（一次覆盖作者名下全部周和状态）。
+     * 在刷新时同步处理而不是AFTER_COMMIT：提交后阶段不能再注册事务同步，登记仍由 {@link #scheduleRefresh} 合并到提交后执行
+     */
+    @EventListener
+    public void onWeeklyReportChanged(EntityChangedEvent<WeeklyReport> event) {
+        Long userId = event.getEntity().getUserId();
+        if (userId != null) {
+            scheduleRefresh(List.of(userId), List.of());
+        }
+    }
+
+    /**
+     * 项目按创建日期重算，登记方式同 {@link #onWeeklyReportChanged}
+     */
+    @EventListener
+    public void onProjectChanged(EntityChangedEvent<Project> event) {
+        Project project = event.getEntity();
+        LocalDate createdDate = project.getCreatedAt() != null
+            ? project.getCreatedAt().toLocalDate()
+            : LocalDate.now();
+        scheduleRefresh(List.of(), List.of(createdDate));
+    }
+
+    /**
+     * 重算指定用户的全部周报汇总行、指定日期的项目汇总行。重算失败只记录日志，由夜间对账修正
+     */
+    public void refresh(Collection<Long> userIds, Collection<LocalDate> projectDates) {
+        try {
+            if (!userIds.isEmpty()) {
+                MapSqlParameterSource params = new MapSqlParameterSource("userIds", userIds);
+                namedJdbcTemplate.update(String.format(PRUNE_REPORT_ROLLUP_SQL,
+                    "r.user_id IN (:userIds)", "w.user_id IN (:userIds)"), params);
+                namedJdbcTemplate.update(String.format(UPSERT_REPORT_ROLLUP_SQL, "w.user_id IN (:userIds)"), params);
+            }
+            for (LocalDate date : projectDates) {
+                refreshProjectRange(date, date.plusDays(1));
+            }
+        } catch (Exception e) {
+            logger.warn("看板统计汇总重算失败，等待夜间对账修正 - 用户: {}, 日期: {}", userIds, projectDates, e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWeeklyReportsBulkReviewed(WeeklyReportsBulkReviewedEvent event) {
+        refresh(event.getReports().stream()
+            .map(WeeklyReportsBulkReviewedEvent.ReviewedReport::getReportAuthorId)
+            .collect(Collectors.toSet()), List.of());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectsBulkReviewed(ProjectsBulkReviewedEvent event) {
+        List<Long> projectIds = event.getProjects().stream()
+            .map(ProjectsBulkReviewedEvent.ReviewedProject::getProjectId)
+            .collect(Collectors.toList());
+        List<LocalDate> dates = namedJdbcTemplate.queryForList(
+            "SELECT DISTINCT DATE(created_at) FROM projects WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", projectIds), LocalDate.class);
+        refresh(List.of(), dates);
+    }
+
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 45 3 * * ?}")
+    public void runNightlyReconciliation() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.error("看板统计汇总对账失败", e);
+        }
+    }
+
+    /**
+     * 按用户ID区间分批重算全部周报汇总，再整体重算项目汇总；每条语句单独提交，不长时间持有锁
+     */
+    public void reconcile() {
+        Long maxUserId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        for (long lowerId = 0; lowerId < maxUserId; lowerId += reconcileBatchSize) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("lower", lowerId)
+                .addValue("upper", lowerId + reconcileBatchSize);
+            namedJdbcTemplate.update(String.format(PRUNE_REPORT_ROLLUP_SQL,
+                "r.user_id > :lower AND r.user_id <= :upper", "w.user_id > :lower AND w.user_id <= :upper"), params);
+            namedJdbcTemplate.update(String.format(UPSERT_REPORT_ROLLUP_SQL,
+                "w.user_id > :lower AND w.user_id <= :upper"), params);
+        }
+        refreshProjectRange(LocalDate.of(1970, 1, 1), LocalDate.now().plusDays(1));
+        logger.info("看板统计汇总对账完成 - 最大用户ID: {}", maxUserId);
+    }
+
+    private void refreshProjectRange(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("from", from)
+            .addValue("to", to);
+        namedJdbcTemplate.update(PRUNE_PROJECT_ROLLUP_SQL, params);
+        namedJdbcTemplate.update(UPSERT_PROJECT_ROLLUP_SQL, params);
+    }
+
+    /**
+     * 事务内登记的待重算键，提交后重算一次；回滚时丢弃
+     */
+    private final class PendingRefresh implements TransactionSynchronization {
+
+        private final Set<Long> userIds = new TreeSet<>();
+        private final Set<LocalDate> projectDates = new TreeSet<>();
+
+        @Override
+        public void afterCommit() {
+            refresh(userIds, projectDates);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AnalyticsRollupService.this);
+        }
+    }
+}
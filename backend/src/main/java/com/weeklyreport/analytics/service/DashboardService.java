@@ -0,0 +1,92 @@
+package com.weeklyreport.analytics.service;
+
+import com.weeklyreport.analytics.dto.DashboardSummary;
+import com.weeklyreport.analytics.dto.DashboardSummary.UserReportCount;
+import com.weeklyreport.analytics.dto.DashboardSummary.WeekCount;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 看板统计查询
+ * 只读 weekly_report_rollup / project_approval_rollup 中统计周期内的汇总行，读取量与周期长度成正比，与周报、项目总数无关
+ */
+@Service
+public class DashboardService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DashboardService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 最近 weeks 周（按创建周）的周报状态分布、每周周报数与项目审批状态分布
+     * 三项都限定在同一周期内，按汇总表主键前缀 week_start / stat_date 做范围扫描，不扫描全表
+     */
+    public DashboardSummary getSummary(int weeks) {
+        LocalDate fromWeek = weekStart(LocalDate.now()).minusWeeks(weeks - 1L);
+
+        // 状态分布与每周周报数取自同一次范围扫描
+        Map<String, Long> reportsByStatus = new LinkedHashMap<>();
+        for (WeeklyReport.ReportStatus status : WeeklyReport.ReportStatus.values()) {
+            reportsByStatus.put(status.name(), 0L);
+        }
+        Map<LocalDate, Long> weekTotals = new TreeMap<>(Comparator.reverseOrder());
+        jdbcTemplate.query(
+            "SELECT week_start, status, SUM(report_count) AS total FROM weekly_report_rollup " +
+            "WHERE week_start >= ? GROUP BY week_start, status",
+            rs -> {
+                long total = rs.getLong("total");
+                reportsByStatus.merge(rs.getString("status"), total, Long::sum);
+                weekTotals.merge(rs.getObject("week_start", LocalDate.class), total, Long::sum);
+            },
+            fromWeek);
+        List<WeekCount> reportsByWeek = weekTotals.entrySet().stream()
+            .map(entry -> new WeekCount(entry.getKey(), entry.getValue()))
+            .collect(Collectors.toList());
+
+        Map<String, Long> projectsByApprovalStatus = new LinkedHashMap<>();
+        for (Project.ApprovalStatus status : Project.ApprovalStatus.values()) {
+            projectsByApprovalStatus.put(status.name(), 0L);
+        }
+        jdbcTemplate.query(
+            "SELECT approval_status, SUM(project_count) AS total FROM project_approval_rollup " +
+            "WHERE stat_date >= ? GROUP BY approval_status",
+            rs -> {
+                projectsByApprovalStatus.put(rs.getString("approval_status"), rs.getLong("total"));
+            },
+            fromWeek);
+
+        return new DashboardSummary(fromWeek, reportsByStatus, reportsByWeek, projectsByApprovalStatus,
+                                    LocalDateTime.now());
+    }
+
+    /**
+     * 自 since 所在周起各用户提交的周报数（按创建周统计），按数量倒序取前 limit 名
+     */
+    public List<UserReportCount> getUserProductivity(LocalDate since, int limit) {
+        return jdbcTemplate.query(
+            "SELECT r.user_id, u.username, SUM(r.report_count) AS total FROM weekly_report_rollup r " +
+            "JOIN users u ON u.id = r.user_id " +
+            "WHERE r.week_start >= ? GROUP BY r.user_id, u.username ORDER BY total DESC, r.user_id LIMIT ?",
+            (rs, rowNum) -> new UserReportCount(rs.getLong("user_id"), rs.getString("username"), rs.getLong("total")),
+            weekStart(since), limit);
+    }
+
+    static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
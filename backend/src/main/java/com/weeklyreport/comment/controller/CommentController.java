@@ -1,6 +1,7 @@
 package com.weeklyreport.comment.controller;
 
 import com.weeklyreport.comment.dto.*;
+import com.weeklyreport.comment.service.CommentChangeBroadcaster;
 import com.weeklyreport.comment.service.WeeklyReportCommentService;
 import com.weeklyreport.common.dto.ApiResponse;
 import com.weeklyreport.core.exception.AuthenticationException;
@@ -12,11 +13,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
@@ -32,6 +35,9 @@ public class CommentController {
 
     private static final Logger logger = LoggerFactory.getLogger(CommentController.class);
 
+    // 增量接口单次返回的变更上限，订阅时补发同样受此限制
+    private static final int MAX_CHANGES_PER_REQUEST = 200;
+
     private final WeeklyReportCommentService commentService;
 
     @Autowired
@@ -60,6 +66,42 @@ public class CommentController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * 按游标增量获取评论变更
+     */
+    @GetMapping("/weekly-reports/{weeklyReportId}/comments/changes")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "获取评论增量变更", description = "返回游标之后新增、修改和删除的评论，按变更时间升序")
+    public ResponseEntity<ApiResponse<CommentChangesResponse>> getCommentChanges(
+            @Parameter(description = "周报ID") @PathVariable Long weeklyReportId,
+            @Parameter(description = "上次返回的游标（nextCursor 或列表中的 changeCursor），为空时从头开始") @RequestParam(required = false) String since,
+            @Parameter(description = "单次返回的最大变更数") @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        int safeLimit = Math.max(1, Math.min(limit, MAX_CHANGES_PER_REQUEST));
+        CommentChangesResponse response = commentService.getCommentChangesSince(weeklyReportId, since, safeLimit, currentUserId);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    /**
+     * 订阅评论实时变更（SSE）
+     */
+    @GetMapping(value = "/weekly-reports/{weeklyReportId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "订阅评论实时变更", description = "SSE推送该周报的评论变更，事件ID即变更游标，断线重连时通过 Last-Event-ID 或 since 补发")
+    public SseEmitter streamCommentChanges(
+            @Parameter(description = "周报ID") @PathVariable Long weeklyReportId,
+            @Parameter(description = "补发起点游标，浏览器重连时自动携带的 Last-Event-ID 优先") @RequestParam(required = false) String since,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        String resumeFrom = lastEventId != null && !lastEventId.isBlank() ? lastEventId : since;
+        return commentService.subscribeCommentChanges(weeklyReportId, resumeFrom, MAX_CHANGES_PER_REQUEST, currentUserId);
+    }
+
     /**
      * 创建评论
      */
@@ -110,6 +152,14 @@ public class CommentController {
             .body(ApiResponse.error(e.getMessage()));
     }
 
+    @ExceptionHandler(CommentChangeBroadcaster.SubscriberLimitException.class)
+    public ResponseEntity<ApiResponse<Void>> handleSubscriberLimit(CommentChangeBroadcaster.SubscriberLimitException e) {
+        logger.warn("Comment stream rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(ApiResponse.error(e.getMessage()));
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ApiResponse<Void>> handleAuthentication(AuthenticationException e) {
         logger.error("Authentication error: {}", e.getMessage());
@@ -0,0 +1,58 @@
+package com.weeklyreport.comment.dto;
+
+import java.util.List;
+
+/**
+ * 评论增量变更响应DTO
+ * changes 按变更时间升序，包含新增、修改和已删除（status=DELETED，内容已清空）的评论；
+ * 下次请求以 nextCursor 作为 since 参数
+ */
+public class CommentChangesResponse {
+
+    private List<CommentResponse> changes;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // 构造函数
+    public CommentChangesResponse() {}
+
+    public CommentChangesResponse(List<CommentResponse> changes, String nextCursor, boolean hasMore) {
+        this.changes = changes;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<CommentResponse> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<CommentResponse> changes) {
+        this.changes = changes;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return "CommentChangesResponse{" +
+                "changesSize=" + (changes != null ? changes.size() : 0) +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
@@ -12,6 +12,8 @@ public class CommentListResponse {
     private int pageNum;
     private int pageSize;
     private boolean hasMore;
+    // 当前最新变更游标，客户端用它订阅或拉取后续增量变更
+    private String changeCursor;
 
     // 构造函数
     public CommentListResponse() {}
@@ -65,6 +67,14 @@ public class CommentListResponse {
         this.hasMore = hasMore;
     }
 
+    public String getChangeCursor() {
+        return changeCursor;
+    }
+
+    public void setChangeCursor(String changeCursor) {
+        this.changeCursor = changeCursor;
+    }
+
     @Override
     public String toString() {
         return "CommentListResponse{" +
@@ -72,6 +82,7 @@ public class CommentListResponse {
                 ", pageNum=" + pageNum +
                 ", pageSize=" + pageSize +
                 ", hasMore=" + hasMore +
+                ", changeCursor='" + changeCursor + '\'' +
                 ", commentsSize=" + (comments != null ? comments.size() : 0) +
                 '}';
     }
@@ -22,7 +22,8 @@ import java.util.List;
     @Index(name = "idx_weekly_report_comments_user_id", columnList = "user_id"),
     @Index(name = "idx_weekly_report_comments_parent_id", columnList = "parent_comment_id"),
     @Index(name = "idx_weekly_report_comments_status", columnList = "status"),
-    @Index(name = "idx_weekly_report_comments_created_at", columnList = "created_at")
+    @Index(name = "idx_weekly_report_comments_created_at", columnList = "created_at"),
+    @Index(name = "idx_weekly_report_comments_report_updated", columnList = "weekly_report_id, updated_at, id")
 })
 public class WeeklyReportComment {
 
@@ -0,0 +1,37 @@
+package com.weeklyreport.comment.event;
+
+import com.weeklyreport.comment.dto.CommentResponse;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 评论变更事件
+ * 评论新增、修改、软删除后发布，携带已组装好的响应和变更游标，推送时无需再查库
+ */
+public class CommentChangedEvent extends ApplicationEvent {
+
+    private final Long weeklyReportId;
+    private final CommentResponse comment;
+    private final String cursor;
+
+    public CommentChangedEvent(Object source, Long weeklyReportId, CommentResponse comment, String cursor) {
+        super(source);
+        this.weeklyReportId = weeklyReportId;
+        this.comment = comment;
+        this.cursor = cursor;
+    }
+
+    // Getters
+    public Long getWeeklyReportId() { return weeklyReportId; }
+    public CommentResponse getComment() { return comment; }
+    public String getCursor() { return cursor; }
+
+    @Override
+    public String toString() {
+        return "CommentChangedEvent{" +
+                "weeklyReportId=" + weeklyReportId +
+                ", commentId=" + (comment != null ? comment.getId() : null) +
+                ", status=" + (comment != null ? comment.getStatus() : null) +
+                ", cursor='" + cursor + '\'' +
+                '}';
+    }
+}
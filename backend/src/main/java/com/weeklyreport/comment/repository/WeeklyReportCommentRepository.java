@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,10 +52,26 @@ public interface WeeklyReportCommentRepository extends JpaRepository<WeeklyRepor
                                                                 @Param("userId") Long userId, 
                                                                 @Param("isAdmin") boolean isAdmin);
 
-    // 删除评论（软删除）
+    // 删除评论（软删除），updatedAt 由调用方传入，与实体保存时的时间戳同源，保证变更游标单调
     @Modifying
-    @Query("UPDATE WeeklyReportComment c SET c.status = 'DELETED', c.updatedAt = CURRENT_TIMESTAMP WHERE c.id = :commentId")
-    int softDeleteComment(@Param("commentId") Long commentId);
+    @Query("UPDATE WeeklyReportComment c SET c.status = 'DELETED', c.updatedAt = :now " +
+           "WHERE c.id = :commentId AND c.status <> 'DELETED'")
+    int softDeleteComment(@Param("commentId") Long commentId, @Param("now") LocalDateTime now);
+
+    // 按 (updatedAt, id) 游标增量查询周报评论的变更，包含已软删除的评论；upperBound 为空表示不设上界
+    @Query("SELECT c FROM WeeklyReportComment c " +
+           "WHERE c.weeklyReportId = :weeklyReportId " +
+           "AND (c.updatedAt > :updatedAt OR (c.updatedAt = :updatedAt AND c.id > :id)) " +
+           "AND (:upperBound IS NULL OR c.updatedAt <= :upperBound) " +
+           "ORDER BY c.updatedAt ASC, c.id ASC")
+    List<WeeklyReportComment> findChangesSince(@Param("weeklyReportId") Long weeklyReportId,
+                                               @Param("updatedAt") LocalDateTime updatedAt,
+                                               @Param("id") Long id,
+                                               @Param("upperBound") LocalDateTime upperBound,
+                                               Pageable pageable);
+
+    // 周报评论的最新变更，用于列表响应中返回初始游标
+    Optional<WeeklyReportComment> findFirstByWeeklyReportIdOrderByUpdatedAtDescIdDesc(Long weeklyReportId);
 
     // 根据评论ID和用户ID查找评论（用于权限验证）
     @Query("SELECT c FROM WeeklyReportComment c WHERE c.id = :commentId AND c.userId = :userId AND c.status = 'ACTIVE'")
@@ -79,6 +97,22 @@ public interface WeeklyReportCommentRepository extends JpaRepository<WeeklyRepor
            "ORDER BY c.createdAt ASC")
     List<WeeklyReportComment> findRepliesWithUser(@Param("parentCommentId") Long parentCommentId);
 
+    // 批量查询多个顶级评论的回复，每个评论最多取前 limit 条（一次查询，按父评论分组后在内存中组装）
+    @Query(value = "SELECT id, weekly_report_id, user_id, parent_comment_id, content, comment_type, status, created_at, updated_at " +
+           "FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.parent_comment_id ORDER BY c.created_at ASC, c.id ASC) AS rn " +
+           "      FROM weekly_report_comments c " +
+           "      WHERE c.parent_comment_id IN (:parentCommentIds) AND c.status = 'ACTIVE') r " +
+           "WHERE r.rn <= :limit " +
+           "ORDER BY parent_comment_id, created_at ASC, id ASC",
+           nativeQuery = true)
+    List<WeeklyReportComment> findRepliesByParentCommentIds(@Param("parentCommentIds") Collection<Long> parentCommentIds,
+                                                            @Param("limit") int limit);
+
+    // 批量统计多个评论的回复数量，返回 [parentCommentId, count]
+    @Query("SELECT c.parentCommentId, COUNT(c) FROM WeeklyReportComment c " +
+           "WHERE c.parentCommentId IN :parentCommentIds AND c.status = 'ACTIVE' GROUP BY c.parentCommentId")
+    List<Object[]> countRepliesByParentCommentIds(@Param("parentCommentIds") Collection<Long> parentCommentIds);
+
     // 检查周报是否存在且已审核通过（只有APPROVED状态可评论）
     @Query("SELECT CASE WHEN COUNT(w) > 0 THEN true ELSE false END " +
            "FROM WeeklyReport w " +
@@ -0,0 +1,313 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentResponse;
+import com.weeklyreport.comment.event.CommentChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 评论变更实时推送（SSE）
+ * 按周报维护订阅连接，两条路径下发变更：
+ * 1. 实时推送：本实例评论事务提交后，按周报串行（同一周报的事件按提交顺序在一条通道上发送）推给订阅者；
+ * 2. 追赶：{@link WeeklyReportCommentService#catchUpSubscribers()} 定时从每个订阅已确认的游标查询 settle 窗口之前的变更，
+ *    按游标顺序补发实时推送没有送到的部分，包括其他实例上发生的变更。
+ * 事件ID只推进到“此前的变更都已下发”的已确认游标：实时推送的事件沿用当前已确认游标，
+ * 追赶时才按游标顺序推进，因此客户端带 Last-Event-ID 重连时不会跳过较早提交晚到的变更，最坏只是重复下发。
+ */
+@Component
+public class CommentChangeBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentChangeBroadcaster.class);
+
+    static final String EVENT_NAME = "comment";
+    static final String RESYNC_EVENT_NAME = "resync";
+    static final String CHECKPOINT_EVENT_NAME = "checkpoint";
+
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final Map<SseEmitter, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Void>> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Executor pushExecutor;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    public CommentChangeBroadcaster(@Qualifier("taskExecutor") Executor pushExecutor,
+                                    @Value("${comment.stream.timeout-ms:1800000}") long timeoutMillis,
+                                    @Value("${comment.stream.max-subscribers:500}") int maxSubscribers) {
+        this.pushExecutor = pushExecutor;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * 一条待下发的变更
+     */
+    public record Change(CommentCursor cursor, CommentResponse comment) {
+    }
+
+    /**
+     * 订阅周报评论变更，超出实例订阅上限时抛出 SubscriberLimitException
+     * @param from 已确认的起点游标，追赶从这里之后开始
+     */
+    public SseEmitter subscribe(Long weeklyReportId, CommentCursor from) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitException("评论实时订阅连接数已达上限，请稍后重试");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(weeklyReportId, emitter, from);
+        subscriptions.put(emitter, subscription);
+        // 增删都在 compute 内完成，避免空集合被移除的同时有新连接加入
+        subscribers.compute(weeklyReportId, (id, existing) -> {
+            Set<Subscription> target = existing != null ? existing : new CopyOnWriteArraySet<>();
+            target.add(subscription);
+            return target;
+        });
+
+        Runnable cleanup = () -> unsubscribe(subscription);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        logger.debug("评论订阅建立 - 周报: {}, 当前连接数: {}", weeklyReportId, subscriberCount.get());
+        return emitter;
+    }
+
+    /**
+     * 按游标顺序向单个连接下发变更（订阅时补发、定时追赶）
+     * 不晚于 settledBefore 的变更推进已确认游标；之后的变更照常下发，但事件ID仍为已确认游标
+     * @param settledBefore 为空表示都未确认（实时推送）
+     * @return 连接是否仍可用
+     */
+    public boolean deliver(SseEmitter emitter, List<Change> changes, LocalDateTime settledBefore) {
+        Subscription subscription = subscriptions.get(emitter);
+        return subscription != null && subscription.deliver(changes, settledBefore);
+    }
+
+    /**
+     * 向单个连接发送一条变更，事件ID即客户端重连时携带的 Last-Event-ID
+     */
+    public boolean send(SseEmitter emitter, CommentResponse comment, String eventId) {
+        try {
+            emitter.send(SseEmitter.event().id(eventId).name(EVENT_NAME).data(comment));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，由 onCompletion/onError 回调清理
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * 已确认游标推进而对应的变更都已经实时推送过时，只发送携带新事件ID的空事件，客户端忽略内容
+     */
+    public boolean sendCheckpoint(SseEmitter emitter, String eventId) {
+        try {
+            emitter.send(SseEmitter.event().id(eventId).name(CHECKPOINT_EVENT_NAME).data(""));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * 通知客户端积压的变更过多，需重新加载评论列表；连接保留，已确认游标跳到 resumeFrom，之后继续追赶和实时推送
+     */
+    public void sendResync(SseEmitter emitter, CommentCursor resumeFrom) {
+        Subscription subscription = subscriptions.get(emitter);
+        if (subscription != null) {
+            subscription.skipTo(resumeFrom);
+        }
+        try {
+            emitter.send(SseEmitter.event().id(resumeFrom.encode()).name(RESYNC_EVENT_NAME).data(""));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * 评论事务提交后排入该周报的推送通道；同一周报的推送串行执行，不同周报互不阻塞
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleCommentChanged(CommentChangedEvent event) {
+        Long weeklyReportId = event.getWeeklyReportId();
+        if (!subscribers.containsKey(weeklyReportId)) {
+            return;
+        }
+        Change change = new Change(CommentCursor.decode(event.getCursor()), event.getComment());
+        CompletableFuture<Void> queued = lanes.compute(weeklyReportId, (id, tail) ->
+            (tail != null ? tail.exceptionally(error -> null) : CompletableFuture.<Void>completedFuture(null))
+                .thenRunAsync(() -> push(weeklyReportId, change), pushExecutor));
+        queued.whenComplete((ignored, error) -> lanes.remove(weeklyReportId, queued));
+    }
+
+    /**
+     * 每个有订阅的周报需要追赶的起点：各订阅已确认游标中最早的一个
+     */
+    public Map<Long, CommentCursor> getCatchUpPositions() {
+        Map<Long, CommentCursor> positions = new HashMap<>();
+        subscribers.forEach((weeklyReportId, reportSubscriptions) -> {
+            for (Subscription subscription : reportSubscriptions) {
+                CommentCursor confirmed = subscription.getConfirmed();
+                positions.merge(weeklyReportId, confirmed, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        });
+        return positions;
+    }
+
+    /**
+     * 把追赶查询到的已确认变更（按游标排序）下发给该周报的全部订阅，各订阅只补发自己缺少的部分
+     */
+    public void catchUp(Long weeklyReportId, List<Change> changes, LocalDateTime settledBefore) {
+        Set<Subscription> reportSubscriptions = subscribers.get(weeklyReportId);
+        if (reportSubscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : reportSubscriptions) {
+            subscription.deliver(changes, settledBefore);
+        }
+    }
+
+    /**
+     * 定时发送心跳注释，防止代理因连接空闲而断开，同时及时清理已断开的连接
+     */
+    @Scheduled(fixedDelayString = "${comment.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Set<Subscription> reportSubscriptions : subscribers.values()) {
+            for (Subscription subscription : reportSubscriptions) {
+                SseEmitter emitter = subscription.emitter;
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void push(Long weeklyReportId, Change change) {
+        Set<Subscription> reportSubscriptions = subscribers.get(weeklyReportId);
+        if (reportSubscriptions == null) {
+            return;
+        }
+        int delivered = 0;
+        for (Subscription subscription : reportSubscriptions) {
+            try {
+                if (subscription.deliver(List.of(change), null)) {
+                    delivered++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("评论变更推送失败 - 周报: {}, 评论: {}", weeklyReportId, change.comment().getId(), e);
+            }
+        }
+        logger.debug("评论变更已推送 - 周报: {}, 评论: {}, 送达连接: {}",
+                     weeklyReportId, change.comment().getId(), delivered);
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription.emitter);
+        subscribers.computeIfPresent(subscription.weeklyReportId, (id, reportSubscriptions) -> {
+            if (reportSubscriptions.remove(subscription)) {
+                subscriberCount.decrementAndGet();
+            }
+            return reportSubscriptions.isEmpty() ? null : reportSubscriptions;
+        });
+    }
+
+    /**
+     * 单个订阅的下发状态；实时推送与追赶可能在不同线程同时进行，按订阅加锁保证同一连接上的发送顺序
+     */
+    private final class Subscription {
+        private final Long weeklyReportId;
+        private final SseEmitter emitter;
+        // 已确认游标：不晚于它的变更都已下发
+        private CommentCursor confirmed;
+        // 客户端当前持有的事件ID
+        private CommentCursor lastEventId;
+        // 已实时推送、尚未被已确认游标覆盖的变更，追赶时不重复发送
+        private final TreeSet<CommentCursor> pushedAhead = new TreeSet<>();
+
+        private Subscription(Long weeklyReportId, SseEmitter emitter, CommentCursor from) {
+            this.weeklyReportId = weeklyReportId;
+            this.emitter = emitter;
+            this.confirmed = from;
+            this.lastEventId = from;
+        }
+
+        synchronized CommentCursor getConfirmed() {
+            return confirmed;
+        }
+
+        synchronized void skipTo(CommentCursor cursor) {
+            if (cursor.compareTo(confirmed) > 0) {
+                confirmed = cursor;
+                lastEventId = cursor;
+                pushedAhead.headSet(cursor, true).clear();
+            }
+        }
+
+        synchronized boolean deliver(List<Change> changes, LocalDateTime settledBefore) {
+            for (Change change : changes) {
+                CommentCursor cursor = change.cursor();
+                if (cursor.compareTo(confirmed) <= 0) {
+                    continue;
+                }
+                boolean alreadyPushed = pushedAhead.contains(cursor);
+                if (settledBefore != null && !cursor.getUpdatedAt().isAfter(settledBefore)) {
+                    confirmed = cursor;
+                    pushedAhead.headSet(cursor, true).clear();
+                } else {
+                    pushedAhead.add(cursor);
+                }
+                if (!alreadyPushed) {
+                    if (!send(emitter, change.comment(), confirmed.encode())) {
+                        return false;
+                    }
+                    lastEventId = confirmed;
+                }
+            }
+            if (!confirmed.equals(lastEventId)) {
+                if (!sendCheckpoint(emitter, confirmed.encode())) {
+                    return false;
+                }
+                lastEventId = confirmed;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 实例订阅连接数超限
+     */
+    public static class SubscriberLimitException extends RuntimeException {
+        public SubscriberLimitException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.entity.WeeklyReportComment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 评论变更游标
+ * 由评论的 (updatedAt, id) 组成，对客户端不透明；时间截断到毫秒，与 updated_at 列精度一致。
+ * 截断只会让游标略早于库中的值，最坏情况是重复下发同一条变更，客户端按评论ID覆盖即可。
+ * 按 (updatedAt, id) 排序，与变更查询的键集顺序一致。
+ */
+public final class CommentCursor implements Comparable<CommentCursor> {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime updatedAt;
+    private final long id;
+
+    public CommentCursor(LocalDateTime updatedAt, long id) {
+        this.updatedAt = updatedAt.truncatedTo(ChronoUnit.MILLIS);
+        this.id = id;
+    }
+
+    public static CommentCursor of(WeeklyReportComment comment) {
+        return new CommentCursor(comment.getUpdatedAt(), comment.getId());
+    }
+
+    /**
+     * 解析客户端传回的游标，格式不合法时抛出 IllegalArgumentException
+     */
+    public static CommentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("无效的评论游标");
+            }
+            return new CommentCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                     Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException 和 Base64 解码错误都是 IllegalArgumentException
+            throw new IllegalArgumentException("无效的评论游标", e);
+        }
+    }
+
+    public String encode() {
+        String raw = updatedAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public int compareTo(CommentCursor other) {
+        int byTime = updatedAt.compareTo(other.updatedAt);
+        return byTime != 0 ? byTime : Long.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CommentCursor other)) {
+            return false;
+        }
+        return id == other.id && updatedAt.equals(other.updatedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(updatedAt, id);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,104 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentResponse;
+import com.weeklyreport.comment.entity.WeeklyReportComment;
+import com.weeklyreport.comment.repository.WeeklyReportCommentRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 评论楼层加载器
+ * 一页顶级评论固定用三次查询组装成树：回复（IN父评论ID，每楼限条数）、回复数（GROUP BY）、作者（IN用户ID），
+ * 查询次数与楼层数无关。超出内联条数的回复通过回复列表接口单独加载。
+ */
+@Component
+public class CommentThreadLoader {
+
+    private final WeeklyReportCommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final int inlineReplyLimit;
+
+    public CommentThreadLoader(WeeklyReportCommentRepository commentRepository,
+                               UserRepository userRepository,
+                               @Value("${comment.thread.inline-reply-limit:50}") int inlineReplyLimit) {
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.inlineReplyLimit = inlineReplyLimit;
+    }
+
+    /**
+     * 将一页顶级评论组装为带回复的响应，保持传入顺序
+     */
+    public List<CommentResponse> loadThreads(List<WeeklyReportComment> topLevelComments) {
+        if (topLevelComments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> parentIds = topLevelComments.stream()
+            .map(WeeklyReportComment::getId)
+            .collect(Collectors.toList());
+
+        List<WeeklyReportComment> replies = commentRepository.findRepliesByParentCommentIds(parentIds, inlineReplyLimit);
+        Map<Long, List<WeeklyReportComment>> repliesByParent = new HashMap<>();
+        for (WeeklyReportComment reply : replies) {
+            repliesByParent.computeIfAbsent(reply.getParentCommentId(), id -> new ArrayList<>()).add(reply);
+        }
+
+        Map<Long, Long> replyCounts = new HashMap<>();
+        for (Object[] row : commentRepository.countRepliesByParentCommentIds(parentIds)) {
+            replyCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Set<Long> authorIds = new LinkedHashSet<>();
+        topLevelComments.forEach(comment -> authorIds.add(comment.getUserId()));
+        replies.forEach(reply -> authorIds.add(reply.getUserId()));
+        Map<Long, User> authors = userRepository.findAllById(authorIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<CommentResponse> responses = new ArrayList<>(topLevelComments.size());
+        for (WeeklyReportComment comment : topLevelComments) {
+            CommentResponse response = toResponse(comment, authors.get(comment.getUserId()));
+            List<CommentResponse> replyResponses = repliesByParent.getOrDefault(comment.getId(), List.of()).stream()
+                .map(reply -> toResponse(reply, authors.get(reply.getUserId())))
+                .collect(Collectors.toList());
+            response.setReplies(replyResponses);
+            response.setReplyCount(replyCounts.getOrDefault(comment.getId(), 0L).intValue());
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    /**
+     * 转换实体为响应DTO，author为空时不填充用户信息
+     */
+    static CommentResponse toResponse(WeeklyReportComment comment, User author) {
+        CommentResponse response = new CommentResponse();
+        response.setId(comment.getId());
+        response.setWeeklyReportId(comment.getWeeklyReportId());
+        response.setUserId(comment.getUserId());
+        response.setParentCommentId(comment.getParentCommentId());
+        response.setContent(comment.getContent());
+        response.setCommentType(comment.getCommentType());
+        response.setStatus(comment.getStatus());
+        response.setCreatedAt(comment.getCreatedAt());
+        response.setUpdatedAt(comment.getUpdatedAt());
+
+        if (author != null) {
+            response.setUsername(author.getUsername());
+            response.setFullName(author.getFullName());
+            response.setUserRole(author.getRole());
+        }
+        return response;
+    }
+}
@@ -2,25 +2,37 @@ package com.weeklyreport.comment.service;
 
 import com.weeklyreport.comment.dto.*;
 import com.weeklyreport.comment.entity.WeeklyReportComment;
+import com.weeklyreport.comment.entity.WeeklyReportComment.CommentStatus;
 import com.weeklyreport.comment.entity.WeeklyReportComment.CommentType;
+import com.weeklyreport.comment.event.CommentChangedEvent;
 import com.weeklyreport.comment.repository.WeeklyReportCommentRepository;
 import com.weeklyreport.core.exception.AuthenticationException;
 import com.weeklyreport.user.entity.User;
 import com.weeklyreport.user.repository.UserRepository;
 import com.weeklyreport.weeklyreport.entity.WeeklyReport;
 import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import com.weeklyreport.weeklyreport.service.WeeklyReportCounterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,17 +44,35 @@ public class WeeklyReportCommentService {
 
     private static final Logger logger = LoggerFactory.getLogger(WeeklyReportCommentService.class);
 
+    // 单个周报每轮追赶最多补发的变更数，更多的留到下一轮
+    private static final int CATCH_UP_BATCH_SIZE = 200;
+
     private final WeeklyReportCommentRepository commentRepository;
     private final WeeklyReportRepository weeklyReportRepository;
     private final UserRepository userRepository;
+    private final CommentThreadLoader commentThreadLoader;
+    private final CommentChangeBroadcaster changeBroadcaster;
+    private final WeeklyReportCounterService counterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long changeSettleMillis;
 
     @Autowired
     public WeeklyReportCommentService(WeeklyReportCommentRepository commentRepository,
                                      WeeklyReportRepository weeklyReportRepository,
-                                     UserRepository userRepository) {
+                                     UserRepository userRepository,
+                                     CommentThreadLoader commentThreadLoader,
+                                     CommentChangeBroadcaster changeBroadcaster,
+                                     WeeklyReportCounterService counterService,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${comment.changes.settle-ms:1000}") long changeSettleMillis) {
         this.commentRepository = commentRepository;
         this.weeklyReportRepository = weeklyReportRepository;
         this.userRepository = userRepository;
+        this.commentThreadLoader = commentThreadLoader;
+        this.changeBroadcaster = changeBroadcaster;
+        this.counterService = counterService;
+        this.eventPublisher = eventPublisher;
+        this.changeSettleMillis = changeSettleMillis;
     }
 
     /**
@@ -80,9 +110,12 @@ public class WeeklyReportCommentService {
         }
 
         comment = commentRepository.save(comment);
+        counterService.adjustCommentCount(comment.getWeeklyReportId(), 1);
         logger.info("Comment created successfully with ID: {}", comment.getId());
-        
-        return convertToResponse(comment);
+
+        CommentResponse response = convertToResponse(comment);
+        publishChange(comment, response);
+        return response;
     }
 
     /**
@@ -96,11 +129,10 @@ public class WeeklyReportCommentService {
         validateAccessPermission(weeklyReportId, currentUserId);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<WeeklyReportComment> topLevelComments = commentRepository.findTopLevelCommentsWithUser(weeklyReportId, pageable);
+        Page<WeeklyReportComment> topLevelComments = commentRepository.findTopLevelCommentsByWeeklyReportId(weeklyReportId, pageable);
 
-        List<CommentResponse> commentResponses = topLevelComments.getContent().stream()
-            .map(this::convertToResponseWithReplies)
-            .collect(Collectors.toList());
+        // 回复、回复数、作者各一次批量查询，在内存中组装评论树
+        List<CommentResponse> commentResponses = commentThreadLoader.loadThreads(topLevelComments.getContent());
 
         CommentListResponse response = new CommentListResponse();
         response.setComments(commentResponses);
@@ -108,6 +140,9 @@ public class WeeklyReportCommentService {
         response.setPageNum(page);
         response.setPageSize(size);
         response.setHasMore(topLevelComments.hasNext());
+        response.setChangeCursor(commentRepository.findFirstByWeeklyReportIdOrderByUpdatedAtDescIdDesc(weeklyReportId)
+            .map(latest -> CommentCursor.of(latest).encode())
+            .orElse(null));
 
         logger.info("Retrieved {} comments for weekly report {}", commentResponses.size(), weeklyReportId);
         return response;
@@ -128,10 +163,12 @@ public class WeeklyReportCommentService {
         }
 
         comment.setContent(request.getContent());
-        comment = commentRepository.save(comment);
+        comment = commentRepository.saveAndFlush(comment);
 
         logger.info("Comment {} updated successfully", commentId);
-        return convertToResponse(comment);
+        CommentResponse response = convertToResponse(comment);
+        publishChange(comment, response);
+        return response;
     }
 
     /**
@@ -148,14 +185,101 @@ public class WeeklyReportCommentService {
             throw new AccessDeniedException("无权限删除此评论");
         }
 
-        int deletedCount = commentRepository.softDeleteComment(commentId);
+        LocalDateTime now = LocalDateTime.now();
+        int deletedCount = commentRepository.softDeleteComment(commentId, now);
         if (deletedCount == 0) {
             throw new EntityNotFoundException("评论不存在或已被删除");
         }
+        if (comment.getStatus() == CommentStatus.ACTIVE) {
+            counterService.adjustCommentCount(comment.getWeeklyReportId(), -1);
+        }
+
+        // 批量更新不会刷新已加载的实体，按更新后的状态组装删除变更
+        CommentResponse response = toChangeResponse(comment, null);
+        response.setStatus(CommentStatus.DELETED);
+        response.setContent("");
+        response.setUpdatedAt(now);
+        eventPublisher.publishEvent(new CommentChangedEvent(this, comment.getWeeklyReportId(), response,
+                                                            new CommentCursor(now, comment.getId()).encode()));
 
         logger.info("Comment {} deleted successfully", commentId);
     }
 
+    /**
+     * 按游标增量获取周报评论变更（新增、修改、软删除）
+     * 只返回 settle 时间窗之前的变更：updated_at 取自事务开始后的应用时钟，
+     * 时间戳较早的事务可能晚于较新的事务提交，留出窗口避免游标越过尚未提交的变更
+     * @param since 上次响应的 nextCursor，为空时从头开始
+     */
+    @Transactional(readOnly = true)
+    public CommentChangesResponse getCommentChangesSince(Long weeklyReportId, String since, int limit, Long currentUserId) {
+        validateAccessPermission(weeklyReportId, currentUserId);
+
+        CommentCursor cursor = since != null && !since.isBlank() ? CommentCursor.decode(since) : null;
+        List<WeeklyReportComment> changes = findChanges(weeklyReportId, cursor, settledBefore(), limit + 1);
+
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        String nextCursor = changes.isEmpty()
+            ? since
+            : CommentCursor.of(changes.get(changes.size() - 1)).encode();
+
+        logger.debug("Retrieved {} comment changes for weekly report {} since {}", changes.size(), weeklyReportId, since);
+        return new CommentChangesResponse(toChangeResponses(changes), nextCursor, hasMore);
+    }
+
+    /**
+     * 订阅周报评论的实时变更
+     * 先注册连接再补发 lastEventId 之后的变更，注册与补发之间提交的变更可能重复下发，客户端按评论ID覆盖即可；
+     * 补发不设时间上界，settle 窗口内的变更照常下发但不推进事件ID，窗口内晚提交的变更由定时追赶补上。
+     * 待补发的变更超过 replayLimit 时改为通知客户端重新加载评论列表
+     * @param lastEventId 断线重连时浏览器携带的 Last-Event-ID，为空时只接收订阅之后的变更
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribeCommentChanges(Long weeklyReportId, String lastEventId, int replayLimit, Long currentUserId) {
+        validateAccessPermission(weeklyReportId, currentUserId);
+        CommentCursor cursor = lastEventId != null && !lastEventId.isBlank() ? CommentCursor.decode(lastEventId) : null;
+        LocalDateTime settledBefore = settledBefore();
+
+        // 没有游标时从 settle 窗口起点开始追赶，窗口内晚提交的变更不会漏掉
+        SseEmitter emitter = changeBroadcaster.subscribe(weeklyReportId,
+            cursor != null ? cursor : new CommentCursor(settledBefore, 0L));
+        if (cursor != null) {
+            List<WeeklyReportComment> changes = findChanges(weeklyReportId, cursor, null, replayLimit + 1);
+            if (changes.size() > replayLimit) {
+                changeBroadcaster.sendResync(emitter, new CommentCursor(settledBefore, 0L));
+                logger.info("Too many comment changes to replay for weekly report {}, asked user {} to reload", weeklyReportId, currentUserId);
+                return emitter;
+            }
+            changeBroadcaster.deliver(emitter, toChanges(changes), settledBefore);
+            logger.info("Replayed {} comment changes for weekly report {} to user {}", changes.size(), weeklyReportId, currentUserId);
+        }
+        return emitter;
+    }
+
+    /**
+     * 定时追赶：按各周报订阅中最早的已确认游标查询 settle 窗口之前的变更，补发给落后的订阅。
+     * 其他实例上的评论变更不经本实例的实时推送，由这里在 catch-up-ms + settle-ms 内送达
+     */
+    @Scheduled(fixedDelayString = "${comment.stream.catch-up-ms:5000}")
+    @Transactional(readOnly = true)
+    public void catchUpSubscribers() {
+        for (Map.Entry<Long, CommentCursor> position : changeBroadcaster.getCatchUpPositions().entrySet()) {
+            Long weeklyReportId = position.getKey();
+            try {
+                LocalDateTime settledBefore = settledBefore();
+                List<WeeklyReportComment> changes = findChanges(weeklyReportId, position.getValue(), settledBefore, CATCH_UP_BATCH_SIZE);
+                if (!changes.isEmpty()) {
+                    changeBroadcaster.catchUp(weeklyReportId, toChanges(changes), settledBefore);
+                }
+            } catch (Exception e) {
+                logger.warn("Comment stream catch-up failed for weekly report {}", weeklyReportId, e);
+            }
+        }
+    }
+
     /**
      * 获取评论的回复列表
      */
@@ -247,53 +371,66 @@ public class WeeklyReportCommentService {
             .orElse(false);
     }
 
+    private List<WeeklyReportComment> findChanges(Long weeklyReportId, CommentCursor cursor, LocalDateTime upperBound, int limit) {
+        // 空游标等价于最早的时间点
+        LocalDateTime updatedAt = cursor != null ? cursor.getUpdatedAt() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        long id = cursor != null ? cursor.getId() : 0L;
+        return commentRepository.findChangesSince(weeklyReportId, updatedAt, id, upperBound, PageRequest.of(0, limit));
+    }
+
+    private LocalDateTime settledBefore() {
+        return LocalDateTime.now().minus(Duration.ofMillis(changeSettleMillis));
+    }
+
+    private List<CommentChangeBroadcaster.Change> toChanges(List<WeeklyReportComment> changes) {
+        List<CommentResponse> responses = toChangeResponses(changes);
+        List<CommentChangeBroadcaster.Change> result = new ArrayList<>(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            result.add(new CommentChangeBroadcaster.Change(CommentCursor.of(changes.get(i)), responses.get(i)));
+        }
+        return result;
+    }
+
     /**
-     * 转换实体为响应DTO
+     * 批量转换变更列表，作者一次IN查询加载
      */
-    private CommentResponse convertToResponse(WeeklyReportComment comment) {
-        CommentResponse response = new CommentResponse();
-        response.setId(comment.getId());
-        response.setWeeklyReportId(comment.getWeeklyReportId());
-        response.setUserId(comment.getUserId());
-        response.setParentCommentId(comment.getParentCommentId());
-        response.setContent(comment.getContent());
-        response.setCommentType(comment.getCommentType());
-        response.setStatus(comment.getStatus());
-        response.setCreatedAt(comment.getCreatedAt());
-        response.setUpdatedAt(comment.getUpdatedAt());
-
-        // 设置用户信息（如果已加载）
-        if (comment.getUser() != null) {
-            response.setUsername(comment.getUser().getUsername());
-            response.setFullName(comment.getUser().getFullName());
-            response.setUserRole(comment.getUser().getRole());
-        } else {
-            // 如果用户信息未加载，可以单独查询
-            userRepository.findById(comment.getUserId()).ifPresent(user -> {
-                response.setUsername(user.getUsername());
-                response.setFullName(user.getFullName());
-                response.setUserRole(user.getRole());
-            });
+    private List<CommentResponse> toChangeResponses(List<WeeklyReportComment> changes) {
+        if (changes.isEmpty()) {
+            return new ArrayList<>();
         }
-
-        return response;
+        Map<Long, User> authors = userRepository.findAllById(
+                changes.stream().map(WeeklyReportComment::getUserId).distinct().collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        return changes.stream()
+            .map(comment -> toChangeResponse(comment, authors.get(comment.getUserId())))
+            .collect(Collectors.toList());
     }
 
     /**
-     * 转换实体为响应DTO（包含回复）
+     * 变更响应：已删除评论只保留标识信息，不下发原内容
      */
-    private CommentResponse convertToResponseWithReplies(WeeklyReportComment comment) {
-        CommentResponse response = convertToResponse(comment);
-
-        // 获取回复
-        List<WeeklyReportComment> replies = commentRepository.findRepliesWithUser(comment.getId());
-        List<CommentResponse> replyResponses = replies.stream()
-            .map(this::convertToResponse)
-            .collect(Collectors.toList());
+    private CommentResponse toChangeResponse(WeeklyReportComment comment, User author) {
+        CommentResponse response = CommentThreadLoader.toResponse(comment, author);
+        if (comment.getStatus() == CommentStatus.DELETED) {
+            response.setContent("");
+        }
+        return response;
+    }
 
-        response.setReplies(replyResponses);
-        response.setReplyCount(replyResponses.size());
+    private void publishChange(WeeklyReportComment comment, CommentResponse response) {
+        eventPublisher.publishEvent(new CommentChangedEvent(this, comment.getWeeklyReportId(), response,
+                                                            CommentCursor.of(comment).encode()));
+    }
 
-        return response;
+    /**
+     * 转换实体为响应DTO
+     */
+    private CommentResponse convertToResponse(WeeklyReportComment comment) {
+        // 设置用户信息（如果已加载），否则单独查询；列表场景由 CommentThreadLoader 批量加载作者
+        User author = comment.getUser() != null
+            ? comment.getUser()
+            : userRepository.findById(comment.getUserId()).orElse(null);
+        return CommentThreadLoader.toResponse(comment, author);
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.weeklyreport.common.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 批量审批请求（周报/项目共用）
+ */
+public class BulkReviewRequest {
+
+    public static final int MAX_IDS = 100;
+
+    @NotEmpty(message = "审批对象不能为空")
+    @Size(max = MAX_IDS, message = "单次最多审批" + MAX_IDS + "条")
+    private List<Long> ids;
+
+    @Size(max = 2000, message = "拒绝理由不能超过2000个字符")
+    private String reason;              // 拒绝理由，批量拒绝时必填
+
+    // Constructors
+    public BulkReviewRequest() {}
+
+    public BulkReviewRequest(List<Long> ids, String reason) {
+        this.ids = ids;
+        this.reason = reason;
+    }
+
+    /**
+     * 去重并去掉空值，保持请求顺序；超出上限时抛出 IllegalArgumentException
+     */
+    public List<Long> distinctIds() {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids != null ? ids : List.of()));
+        distinct.removeIf(Objects::isNull);
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("审批对象不能为空");
+        }
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("单次最多审批" + MAX_IDS + "条");
+        }
+        return distinct;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    @Override
+    public String toString() {
+        return "BulkReviewRequest{" +
+                "ids=" + ids +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
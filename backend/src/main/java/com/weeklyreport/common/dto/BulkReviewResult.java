@@ -0,0 +1,84 @@
+package com.weeklyreport.common.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量审批结果，按请求顺序逐条返回处理结果
+ */
+public class BulkReviewResult {
+
+    /**
+     * 单条处理结果
+     */
+    public enum Outcome {
+        SUCCESS,            // 状态已变更
+        NOT_FOUND,          // 对象不存在
+        INVALID_STATUS      // 当前状态不允许该操作
+    }
+
+    private String targetStatus;
+    private int successCount;
+    private List<Item> items = new ArrayList<>();
+
+    // Constructors
+    public BulkReviewResult() {}
+
+    public BulkReviewResult(String targetStatus) {
+        this.targetStatus = targetStatus;
+    }
+
+    public void add(Long id, Outcome outcome, String currentStatus) {
+        items.add(new Item(id, outcome, currentStatus));
+        if (outcome == Outcome.SUCCESS) {
+            successCount++;
+        }
+    }
+
+    // Getters and Setters
+    public String getTargetStatus() { return targetStatus; }
+    public void setTargetStatus(String targetStatus) { this.targetStatus = targetStatus; }
+
+    public int getSuccessCount() { return successCount; }
+    public void setSuccessCount(int successCount) { this.successCount = successCount; }
+
+    public int getFailureCount() { return items.size() - successCount; }
+
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    @Override
+    public String toString() {
+        return "BulkReviewResult{" +
+                "targetStatus='" + targetStatus + '\'' +
+                ", successCount=" + successCount +
+                ", total=" + items.size() +
+                '}';
+    }
+
+    /**
+     * 单条结果：SUCCESS 时 currentStatus 为变更后的状态，INVALID_STATUS 时为校验时的状态
+     */
+    public static class Item {
+        private Long id;
+        private Outcome outcome;
+        private String currentStatus;
+
+        public Item() {}
+
+        public Item(Long id, Outcome outcome, String currentStatus) {
+            this.id = id;
+            this.outcome = outcome;
+            this.currentStatus = currentStatus;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public Outcome getOutcome() { return outcome; }
+        public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+        public String getCurrentStatus() { return currentStatus; }
+        public void setCurrentStatus(String currentStatus) { this.currentStatus = currentStatus; }
+    }
+}
@@ -0,0 +1,42 @@
+package com.weeklyreport.common.event;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * 实体变更事件
+ * 由各实体包内的JPA实体监听器在持久化/更新/删除后发布，缓存和索引服务按实体类型订阅，
+ * 实体层不依赖任何服务。订阅方使用 {@code @TransactionalEventListener(fallbackExecution = true)}
+ * 在事务提交后处理，回滚的变更不会进入缓存。
+ *
+ * @param <T> 实体类型，监听方法可声明为 {@code EntityChangedEvent<User>} 只接收该类实体
+ */
+public class EntityChangedEvent<T> extends ApplicationEvent implements ResolvableTypeProvider {
+
+    private final T entity;
+    private final boolean removed;
+
+    public EntityChangedEvent(T entity, boolean removed) {
+        super(entity);
+        this.entity = entity;
+        this.removed = removed;
+    }
+
+    // Getters
+    public T getEntity() { return entity; }
+    public boolean isRemoved() { return removed; }
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forInstance(entity));
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChangedEvent{" +
+                "entity=" + entity.getClass().getSimpleName() +
+                ", removed=" + removed +
+                '}';
+    }
+}
@@ -86,6 +86,41 @@ public class EmailSenderUtil {
         }
     }
 
+    /**
+     * 构建发给单个收件人的HTML邮件（不发送）
+     */
+    public MimeMessage createHtmlMessage(String recipient, String subject, String htmlContent) {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, MimeMessageHelper.MULTIPART_MODE_NO, StandardCharsets.UTF_8.name());
+            helper.setFrom(DEFAULT_FROM_ADDRESS);
+            helper.setTo(recipient);
+            helper.setSubject(subject);
+            helper.setText(htmlContent == null ? "" : htmlContent, true);
+            return mimeMessage;
+        } catch (MessagingException ex) {
+            LOGGER.error("❌ 准备HTML邮件失败: to={}", recipient, ex);
+            throw new MailPreparationException("准备HTML邮件失败", ex);
+        }
+    }
+
+    /**
+     * 在一个SMTP连接上依次投递多封邮件。
+     * 部分失败时抛出 MailSendException，可通过 getFailedMessages() 得到失败的邮件及原因。
+     */
+    public void sendBatch(MimeMessage... messages) {
+        if (messages.length == 0) {
+            return;
+        }
+        try {
+            mailSender.send(messages);
+            LOGGER.info("✅ HTML邮件批量发送成功: count={}", messages.length);
+        } catch (MailException ex) {
+            LOGGER.error("❌ 批量发送HTML邮件失败: count={}, 原因={}", messages.length, ex.getMessage());
+            throw ex;
+        }
+    }
+
     private String[] resolveRecipients(Collection<String> recipients) {
         if (recipients == null || recipients.isEmpty()) {
             throw new IllegalArgumentException("至少需要一个收件人邮箱地址");
@@ -1,9 +1,13 @@
 package com.weeklyreport.common.util;
 
 import java.time.LocalDate;
+import java.time.DayOfWeek;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
 import java.time.temporal.WeekFields;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Helper class for converting between date formats and Chinese week representations
@@ -14,10 +18,20 @@ public class WeekFormatHelper {
     private static final Locale CHINA_LOCALE = Locale.CHINA;
     private static final WeekFields WEEK_FIELDS = WeekFields.of(CHINA_LOCALE);
 
+    private static final Pattern ISO_WEEK_PATTERN = Pattern.compile("(\\d{4})-W(\\d{2})");
+
+    // Date prefix in report_week text, e.g. "2026-10-14" or "2026/10/14周"
+    private static final Pattern DATE_PREFIX_PATTERN = Pattern.compile("(\\d{4})[-/](\\d{1,2})[-/](\\d{1,2}).*");
+
+    // Month-week label written by the report form, e.g. "10月第3周（周三）"; weeks start on Sunday
+    private static final Pattern MONTH_WEEK_PATTERN = Pattern.compile("(?:(\\d{4})年)?(\\d{1,2})月第(\\d)周(?:（(周[一二三四五六日])）)?.*");
+
     private static final String[] CHINESE_WEEKDAYS = {
         "周一", "周二", "周三", "周四", "周五", "周六", "周日"
     };
 
+    private static final String SUNDAY_FIRST_WEEKDAYS = "日一二三四五六";
+
     private static final String[] CHINESE_MONTHS = {
         "一月", "二月", "三月", "四月", "五月", "六月",
         "七月", "八月", "九月", "十月", "十一月", "十二月"
@@ -118,4 +132,73 @@ public class WeekFormatHelper {
         }
         return formatToChineseWeek(weekStart);
     }
+
+    /**
+     * Convert LocalDate to ISO week key (ISO-8601 week-based year, Monday start)
+     * Example: "2026-W42"; weeks spanning a year boundary belong to the year of their Thursday
+     */
+    public static String formatIsoWeek(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        return String.format("%d-W%02d",
+            date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    /**
+     * Parse ISO week key ("2026-W42") to the Monday of that week
+     * @throws IllegalArgumentException if the key is malformed or the week does not exist in that year
+     */
+    public static LocalDate parseIsoWeek(String isoWeek) {
+        Matcher matcher = isoWeek != null ? ISO_WEEK_PATTERN.matcher(isoWeek.trim()) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Invalid ISO week: " + isoWeek);
+        }
+        int year = Integer.parseInt(matcher.group(1));
+        int week = Integer.parseInt(matcher.group(2));
+        // January 4th always falls in week 1
+        LocalDate anchor = LocalDate.of(year, 1, 4);
+        if (week < 1 || week > anchor.range(IsoFields.WEEK_OF_WEEK_BASED_YEAR).getMaximum()) {
+            throw new IllegalArgumentException("Invalid ISO week: " + isoWeek);
+        }
+        return anchor.with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week).with(DayOfWeek.MONDAY);
+    }
+
+    /**
+     * Resolve the Monday of the ISO week a report belongs to from its report_week text
+     * Accepts ISO week keys ("2026-W42"), dates ("2026-10-14", "2026/10/14周") and the report form's
+     * month-week labels ("10月第3周（周三）", Sunday-start weeks; the year comes from {@code fallback} when absent).
+     * Anything else resolves to the week of {@code fallback}, normally the date the report was created.
+     */
+    public static LocalDate resolveWeekStart(String reportWeek, LocalDate fallback) {
+        String text = reportWeek != null ? reportWeek.trim() : "";
+        try {
+            Matcher matcher = ISO_WEEK_PATTERN.matcher(text);
+            if (matcher.matches()) {
+                return parseIsoWeek(text);
+            }
+            matcher = DATE_PREFIX_PATTERN.matcher(text);
+            if (matcher.matches()) {
+                return LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3))).with(DayOfWeek.MONDAY);
+            }
+            matcher = MONTH_WEEK_PATTERN.matcher(text);
+            if (matcher.matches()) {
+                int month = Integer.parseInt(matcher.group(2));
+                int year = matcher.group(1) != null ? Integer.parseInt(matcher.group(1)) : fallback.getYear();
+                if (matcher.group(1) == null && month > fallback.getMonthValue() + 6) {
+                    // A December report written in January belongs to the previous year
+                    year--;
+                }
+                LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+                LocalDate weekSunday = firstOfMonth.minusDays(firstOfMonth.getDayOfWeek().getValue() % 7)
+                    .plusWeeks(Integer.parseInt(matcher.group(3)) - 1);
+                int dayOffset = matcher.group(4) != null ? SUNDAY_FIRST_WEEKDAYS.indexOf(matcher.group(4).charAt(1)) : 1;
+                return weekSunday.plusDays(dayOffset).with(DayOfWeek.MONDAY);
+            }
+        } catch (RuntimeException e) {
+            // Invalid dates such as "2026-13-40" are treated as unrecognised
+        }
+        return fallback.with(DayOfWeek.MONDAY);
+    }
 }
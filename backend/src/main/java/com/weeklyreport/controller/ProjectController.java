@@ -7,6 +7,7 @@ import com.weeklyreport.entity.Project;
 import com.weeklyreport.entity.ProjectPhase;
 import com.weeklyreport.entity.User;
 import com.weeklyreport.entity.AIAnalysisResult;
+import com.weeklyreport.project.service.ProjectMemberIndexer;
 import com.weeklyreport.repository.ProjectRepository;
 import com.weeklyreport.repository.ProjectPhaseRepository;
 import com.weeklyreport.repository.AIAnalysisResultRepository;
@@ -30,7 +31,11 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -65,6 +70,9 @@ public class ProjectController extends BaseController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProjectMemberIndexer projectMemberIndexer;
+
     /**
      * 获取当前用户
      */
@@ -180,6 +188,18 @@ public class ProjectController extends BaseController {
         }
     }
     
+    /**
+     * 同步项目成员索引；失败不影响项目保存，下次修改成员时会重建
+     */
+    private void reindexMembers(Project project) {
+        try {
+            int matched = projectMemberIndexer.reindex(project.getId(), project.getMembers());
+            logger.debug("Project {} member index rebuilt, matched users: {}", project.getId(), matched);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild member index for project: {}", project.getId(), e);
+        }
+    }
+
     /**
      * 根据审批状态计算项目进度
      */
@@ -218,15 +238,12 @@ public class ProjectController extends BaseController {
             
             // 使用JOIN查询一次性获取项目和创建者信息
             Page<ProjectWithCreatorProjection> projectPage = projectRepository.findAllProjectsWithCreator(pageable);
+            // 整页阶段一次IN查询取回
+            Map<Long, List<ProjectPhaseResponse>> phasesByProject = loadPhases(
+                projectPage.getContent().stream().map(ProjectWithCreatorProjection::getId).collect(Collectors.toList()));
             Page<ProjectResponse> responsePage = projectPage.map(projection -> {
                 ProjectResponse response = createProjectResponseFromProjection(projection);
-                
-                // 查询项目阶段
-                List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(projection.getId());
-                List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                    .map(ProjectPhaseResponse::new)
-                    .collect(Collectors.toList());
-                response.setPhases(phaseResponses);
+                response.setPhases(phasesOf(phasesByProject, projection.getId()));
                 return response;
             });
             
@@ -292,6 +309,7 @@ public class ProjectController extends BaseController {
             project.setApprovalStatus(Project.ApprovalStatus.AI_ANALYZING);
             
             Project savedProject = projectRepository.save(project);
+            reindexMembers(savedProject);
             logger.info("Project created: {} by user: {}, entering AI analysis", savedProject.getId(), currentUserId);
             
             // 触发AI分析流程
@@ -589,6 +607,7 @@ public class ProjectController extends BaseController {
             }
             
             Project savedProject = projectRepository.save(project);
+            reindexMembers(savedProject);
             logger.info("Project updated: {} by user: {}", savedProject.getId(), currentUserId);
             
             return ResponseEntity.ok(ApiResponse.success(new ProjectResponse(savedProject)));
@@ -800,6 +819,9 @@ public class ProjectController extends BaseController {
             
             // 先保存项目更新
             Project savedProject = projectRepository.save(project);
+            if (updateRequest.getMembers() != null) {
+                reindexMembers(savedProject);
+            }
             
             // 处理项目阶段更新
             if (updateRequest.getProjectPhases() != null) {
@@ -1088,15 +1110,12 @@ public class ProjectController extends BaseController {
         try {
             Long currentUserId = getCurrentUser().getId();
             List<Project> projects = projectRepository.findByCreatedByOrderByCreatedAtDesc(currentUserId);
+            Map<Long, List<ProjectPhaseResponse>> phasesByProject = loadPhases(
+                projects.stream().map(Project::getId).collect(Collectors.toList()));
             List<ProjectResponse> responses = projects.stream()
                 .map(project -> {
                     ProjectResponse response = new ProjectResponse(project);
-                    // 查询项目阶段
-                    List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(project.getId());
-                    List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                        .map(ProjectPhaseResponse::new)
-                        .collect(Collectors.toList());
-                    response.setPhases(phaseResponses);
+                    response.setPhases(phasesOf(phasesByProject, project.getId()));
                     return response;
                 })
                 .collect(Collectors.toList());
@@ -1132,24 +1151,7 @@ public class ProjectController extends BaseController {
                 logger.info("Admin fetching pending projects: {}", projectDetails.size());
             }
             
-            List<ProjectResponse> responses = projectDetails.stream()
-                .map(detail -> {
-                    // 从投影创建ProjectResponse，所有关联数据已通过JOIN获取
-                    ProjectResponse response = createProjectResponseFromDetailProjection(detail);
-                    
-                    // 查询项目阶段（这部分仍需单独查询，因为是一对多关系）
-                    List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(detail.getId());
-                    List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                        .map(ProjectPhaseResponse::new)
-                        .collect(Collectors.toList());
-                    response.setPhases(phaseResponses);
-                    
-                    logger.debug("Project {} loaded with {} phases, AI result: {}", 
-                               detail.getId(), phases.size(), detail.getAiResultId() != null ? "Yes" : "No");
-                    
-                    return response;
-                })
-                .collect(Collectors.toList());
+            List<ProjectResponse> responses = buildProjectResponsesWithPhases(projectDetails);
             
             logger.info("Successfully returned {} pending projects with full details", responses.size());
             return ResponseEntity.ok(ApiResponse.success(responses));
@@ -1167,23 +1169,43 @@ public class ProjectController extends BaseController {
      */
     private List<ProjectResponse> buildProjectResponsesWithPhases(
             List<com.weeklyreport.repository.projection.ProjectDetailProjection> projectDetails) {
+        // 项目阶段是一对多关系，整页一次IN查询取回后按项目分组
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = loadPhases(
+            projectDetails.stream()
+                .map(com.weeklyreport.repository.projection.ProjectDetailProjection::getId)
+                .collect(Collectors.toList()));
         return projectDetails.stream()
             .map(detail -> {
                 // 从投影创建ProjectResponse，所有关联数据已通过JOIN获取
                 ProjectResponse response = createProjectResponseFromDetailProjection(detail);
-                
-                // 查询项目阶段（这部分仍需单独查询，因为是一对多关系）
-                List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(detail.getId());
-                List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                    .map(ProjectPhaseResponse::new)
-                    .collect(Collectors.toList());
+                List<ProjectPhaseResponse> phaseResponses = phasesOf(phasesByProject, detail.getId());
                 response.setPhases(phaseResponses);
                 
                 logger.debug("Project {} loaded with {} phases, AI result: {}", 
-                           detail.getId(), phases.size(), detail.getAiResultId() != null ? "Yes" : "No");
+                           detail.getId(), phaseResponses.size(), detail.getAiResultId() != null ? "Yes" : "No");
                 
                 return response;
             })
             .collect(Collectors.toList());
     }
+
+    /**
+     * 批量加载一页项目的阶段，按项目ID分组
+     */
+    private Map<Long, List<ProjectPhaseResponse>> loadPhases(Collection<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = new HashMap<>();
+        for (ProjectPhase phase : projectPhaseRepository.findByProjectIdInOrderByCreatedAt(projectIds)) {
+            phasesByProject.computeIfAbsent(phase.getProjectId(), id -> new ArrayList<>())
+                .add(new ProjectPhaseResponse(phase));
+        }
+        return phasesByProject;
+    }
+
+    private List<ProjectPhaseResponse> phasesOf(Map<Long, List<ProjectPhaseResponse>> phasesByProject, Long projectId) {
+        List<ProjectPhaseResponse> phases = phasesByProject.get(projectId);
+        return phases != null ? phases : new ArrayList<>();
+    }
 }
\ No newline at end of file
@@ -12,7 +12,8 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 异步执行配置
- * 为AI分析回调等异步操作提供专用线程池
+ * 按负载划分线程池：默认@Async、附件后处理各自独立（AI分析见 AIExecutorConfig，AI任务见 AIAsyncConfig，邮件投递见 NotificationConfig），
+ * 某一类任务变慢不会占满其他负载的线程。线程池指标由 Spring Boot 自动注册，ExecutorMonitorService 定时记录繁忙状态。
  */
 @Configuration
 public class AsyncConfig implements AsyncConfigurer {
@@ -38,8 +39,8 @@ public class AsyncConfig implements AsyncConfigurer {
         // 队列容量
         executor.setQueueCapacity(100);
         
-        // 线程名前缀
-        executor.setThreadNamePrefix("ai-task-");
+        // 线程名前缀（AI任务使用独立的 aiTaskExecutor，邮件投递使用 notificationTaskExecutor）
+        executor.setThreadNamePrefix("async-default-");
         
         // 拒绝策略：由调用者线程执行
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
@@ -66,30 +67,24 @@ public class AsyncConfig implements AsyncConfigurer {
     }
     
     /**
-     * AI分析专用线程池 - 优化配置以支持更多并发
+     * 附件后处理线程池（缩略图/PDF预览生成）
+     * 图片解码与PDF渲染占用CPU和内存，使用小而有界的线程池；队列满时拒绝入队，
+     * 由 AttachmentThumbnailService 记录日志，列表页先回退为原文件预览并在读取时补交任务
      */
-    @Bean(name = "aiAnalysisExecutor")
-    public Executor aiAnalysisExecutor() {
-        logger.info("🔧 创建AI分析专用线程池");
-        
+    @Bean(name = "fileProcessingExecutor")
+    public Executor fileProcessingExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        
-        // 优化线程池配置以支持更多并发
-        executor.setCorePoolSize(5);        // 提高核心线程数
-        executor.setMaxPoolSize(15);        // 提高最大线程数
-        executor.setQueueCapacity(200);     // 增加队列容量
-        executor.setThreadNamePrefix("ai-analysis-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
-        executor.setKeepAliveSeconds(300);  // 延长线程存活时间
-        executor.setAllowCoreThreadTimeOut(false); // 核心线程保持活跃
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("file-process-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(180); // 增加关闭等待时间
-        
+        executor.setAwaitTerminationSeconds(30);
         executor.initialize();
-        
-        logger.info("🚀 AI分析线程池配置完成 - 核心线程数: {}, 最大线程数: {}, 队列容量: {}", 
-                   executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
-        
+
+        logger.info("附件后处理线程池配置完成 - 线程数: {}, 队列容量: {}",
+                   executor.getMaxPoolSize(), executor.getQueueCapacity());
         return executor;
     }
 }
\ No newline at end of file
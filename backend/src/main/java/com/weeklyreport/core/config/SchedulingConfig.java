@@ -0,0 +1,17 @@
+package com.weeklyreport.core.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * 夜间汇总、分区维护、提交提醒、通知投递等 @Scheduled 任务统一在此开启；
+ * 多实例部署时可在只跑Web请求的实例上设置 app.scheduling.enabled=false 关闭全部定时任务。
+ * 调度线程池大小见 spring.task.scheduling.pool.size，避免长任务阻塞其他任务。
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.scheduling", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
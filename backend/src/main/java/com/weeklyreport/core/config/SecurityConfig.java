@@ -1,6 +1,7 @@
 package com.weeklyreport.core.config;
 
 import com.weeklyreport.core.security.*;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -126,6 +127,9 @@ public class SecurityConfig {
             
             // Configure authorization rules
             .authorizeHttpRequests(authz -> authz
+                // Async re-dispatch (SSE streams) was already authorized on the initial request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints - no authentication required
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/health/**").permitAll()  // Allow all health check endpoints
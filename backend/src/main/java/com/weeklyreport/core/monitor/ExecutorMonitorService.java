@@ -0,0 +1,138 @@
+package com.weeklyreport.core.monitor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池监控服务
+ * 覆盖容器中全部 ThreadPoolTaskExecutor（默认异步、AI分析、AI任务、邮件投递、附件后处理等），
+ * 每分钟记录繁忙线程池的状态。Micrometer 指标（executor.active / executor.queued ...）
+ * 由 Spring Boot 按Bean名称自动注册，此处不重复绑定。
+ */
+@Service
+public class ExecutorMonitorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorMonitorService.class);
+
+    private final Map<String, ThreadPoolTaskExecutor> pools = new TreeMap<>();
+
+    public ExecutorMonitorService(Map<String, Executor> executors) {
+        executors.forEach((name, executor) -> {
+            if (executor instanceof ThreadPoolTaskExecutor pool) {
+                pools.put(name, pool);
+            }
+        });
+    }
+
+    /**
+     * 每分钟监控一次线程池状态
+     */
+    @Scheduled(fixedRate = 60000) // 60秒
+    public void monitorThreadPoolStatus() {
+        getThreadPoolStatuses().forEach((name, status) -> {
+            // 只在有活动任务或队列不为空时记录
+            if (status.getActiveCount() > 0 || status.getQueueSize() > 0) {
+                logger.info("📊 线程池 {} 状态: {}", name, status);
+            }
+
+            // 检查是否接近容量限制
+            if (status.getQueueCapacity() > 0 && status.getQueueUtilizationRate() >= 75) {
+                logger.warn("⚠️ 线程池 {} 队列接近满载 ({}%), 当前: {} / {}", name,
+                            (int) status.getQueueUtilizationRate(), status.getQueueSize(), status.getQueueCapacity());
+            }
+            if (status.getActiveCount() >= status.getMaxPoolSize()) {
+                logger.warn("⚠️ 线程池 {} 已满载，所有 {} 个线程都在工作", name, status.getMaxPoolSize());
+            }
+        });
+    }
+
+    /**
+     * 获取指定线程池的状态快照，不存在时返回null
+     */
+    public ThreadPoolStatus getThreadPoolStatus(String executorName) {
+        ThreadPoolTaskExecutor pool = pools.get(executorName);
+        return pool == null ? null : snapshot(pool);
+    }
+
+    /**
+     * 获取全部线程池的状态快照（按Bean名称排序）
+     */
+    public Map<String, ThreadPoolStatus> getThreadPoolStatuses() {
+        Map<String, ThreadPoolStatus> statuses = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> statuses.put(name, snapshot(pool)));
+        return statuses;
+    }
+
+    private ThreadPoolStatus snapshot(ThreadPoolTaskExecutor pool) {
+        ThreadPoolExecutor executor = pool.getThreadPoolExecutor();
+        return new ThreadPoolStatus(
+            executor.getActiveCount(),
+            executor.getPoolSize(),
+            executor.getCorePoolSize(),
+            executor.getMaximumPoolSize(),
+            executor.getQueue().size(),
+            pool.getQueueCapacity(),
+            executor.getCompletedTaskCount(),
+            executor.getTaskCount()
+        );
+    }
+
+    /**
+     * 线程池状态数据类
+     */
+    public static class ThreadPoolStatus {
+        private final int activeCount;
+        private final int poolSize;
+        private final int corePoolSize;
+        private final int maxPoolSize;
+        private final int queueSize;
+        private final int queueCapacity;
+        private final long completedTaskCount;
+        private final long taskCount;
+
+        public ThreadPoolStatus(int activeCount, int poolSize, int corePoolSize, int maxPoolSize,
+                               int queueSize, int queueCapacity, long completedTaskCount, long taskCount) {
+            this.activeCount = activeCount;
+            this.poolSize = poolSize;
+            this.corePoolSize = corePoolSize;
+            this.maxPoolSize = maxPoolSize;
+            this.queueSize = queueSize;
+            this.queueCapacity = queueCapacity;
+            this.completedTaskCount = completedTaskCount;
+            this.taskCount = taskCount;
+        }
+
+        // Getters
+        public int getActiveCount() { return activeCount; }
+        public int getPoolSize() { return poolSize; }
+        public int getCorePoolSize() { return corePoolSize; }
+        public int getMaxPoolSize() { return maxPoolSize; }
+        public int getQueueSize() { return queueSize; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public long getCompletedTaskCount() { return completedTaskCount; }
+        public long getTaskCount() { return taskCount; }
+
+        public double getUtilizationRate() {
+            return maxPoolSize > 0 ? (double) activeCount / maxPoolSize * 100 : 0;
+        }
+
+        public double getQueueUtilizationRate() {
+            return queueCapacity > 0 ? (double) queueSize / queueCapacity * 100 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ThreadPoolStatus{active: %d/%d, queue: %d/%d, completed: %d, utilization: %.1f%%}",
+                               activeCount, maxPoolSize, queueSize, queueCapacity, completedTaskCount, getUtilizationRate());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.weeklyreport.filemanagement.config;
 
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -30,6 +31,30 @@ public class MinIOConfig {
                 .build();
     }
 
+    /**
+     * 配置MinIO分片上传客户端（断点续传）
+     */
+    @Bean
+    public MultipartMinioClient multipartMinioClient() {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(minIOProperties.getEndpoint())
+                .credentials(minIOProperties.getAccessKey(), minIOProperties.getSecretKey())
+                .build());
+    }
+
+    /**
+     * 配置MinIO预签名客户端，使用对外地址签名
+     */
+    @Bean
+    public PresignMinioClient presignMinioClient() {
+        String publicEndpoint = minIOProperties.getPublicEndpoint();
+        return new PresignMinioClient(MinioClient.builder()
+                .endpoint(publicEndpoint != null && !publicEndpoint.isBlank() ? publicEndpoint : minIOProperties.getEndpoint())
+                .region(minIOProperties.getRegion())
+                .credentials(minIOProperties.getAccessKey(), minIOProperties.getSecretKey())
+                .build());
+    }
+
     /**
      * MinIO配置属性类
      */
@@ -37,6 +62,8 @@ public class MinIOConfig {
     @ConfigurationProperties(prefix = "minio")
     public static class MinIOProperties {
         private String endpoint = "http://localhost:9000";
+        private String publicEndpoint; // 浏览器访问的对外地址，用于预签名URL；为空时使用endpoint
+        private String region = "us-east-1"; // 预签名使用的region，与MinIO服务端配置一致
         private String accessKey = "minioadmin";
         private String secretKey = "minioadmin";
         private String bucketName = "weekly-reports";
@@ -55,6 +82,9 @@ public class MinIOConfig {
             "application/zip", "application/x-rar-compressed"
         };
         private int urlExpirySeconds = 7 * 24 * 60 * 60; // 7天
+        private long partSize = 10 * 1024 * 1024; // 分片上传单片大小，10MB（MinIO最小5MB）
+        private String downloadMode = "proxy"; // 下载方式：proxy（经后端转发，支持Range）/ redirect（302到预签名URL）
+        private int downloadUrlExpirySeconds = 5 * 60; // 下载重定向预签名URL有效期，5分钟
 
         // Getters and Setters
         public String getEndpoint() {
@@ -65,6 +95,22 @@ public class MinIOConfig {
             this.endpoint = endpoint;
         }
 
+        public String getPublicEndpoint() {
+            return publicEndpoint;
+        }
+
+        public void setPublicEndpoint(String publicEndpoint) {
+            this.publicEndpoint = publicEndpoint;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
         public String getAccessKey() {
             return accessKey;
         }
@@ -120,5 +166,29 @@ public class MinIOConfig {
         public void setUrlExpirySeconds(int urlExpirySeconds) {
             this.urlExpirySeconds = urlExpirySeconds;
         }
+
+        public long getPartSize() {
+            return partSize;
+        }
+
+        public void setPartSize(long partSize) {
+            this.partSize = partSize;
+        }
+
+        public String getDownloadMode() {
+            return downloadMode;
+        }
+
+        public void setDownloadMode(String downloadMode) {
+            this.downloadMode = downloadMode;
+        }
+
+        public int getDownloadUrlExpirySeconds() {
+            return downloadUrlExpirySeconds;
+        }
+
+        public void setDownloadUrlExpirySeconds(int downloadUrlExpirySeconds) {
+            this.downloadUrlExpirySeconds = downloadUrlExpirySeconds;
+        }
     }
 }
\ No newline at end of file
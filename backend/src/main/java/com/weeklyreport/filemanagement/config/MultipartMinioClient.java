@@ -0,0 +1,159 @@
+package com.weeklyreport.filemanagement.config;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioAsyncClient;
+import io.minio.http.Method;
+import io.minio.messages.ListMultipartUploadsResult;
+import io.minio.messages.Part;
+import io.minio.messages.Upload;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MinIO分片上传客户端
+ * MinioClient 未公开原生multipart API，此处在异步客户端基础上暴露
+ * 创建 / 上传分片 / 合并 / 取消 / 列出未完成上传，供断点续传及过期清理使用。
+ * SDK的分片上传只接受字节数组或文件，流式分片改为对 UploadPart 请求预签名后直接以已知长度PUT请求体转发。
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    // 预签名分片请求的有效期，覆盖单个分片的最长传输时间
+    private static final int PART_URL_EXPIRY_SECONDS = 60 * 60;
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final OkHttpClient partHttpClient = new OkHttpClient.Builder()
+            .connectTimeout(10, TimeUnit.SECONDS)
+            .writeTimeout(5, TimeUnit.MINUTES)
+            .readTimeout(5, TimeUnit.MINUTES)
+            .retryOnConnectionFailure(false)
+            .build();
+
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * 创建分片上传，返回uploadId
+     */
+    public String createMultipartUpload(String bucket, String object, String contentType) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        return createMultipartUploadAsync(bucket, null, object, headers, null).get().result().uploadId();
+    }
+
+    /**
+     * 流式上传单个分片，返回ETag
+     * 从输入流中恰好读取 length 字节转发给MinIO，内存占用与分片大小无关；流提前结束时抛出 EOFException。
+     */
+    public String uploadPart(String bucket, String object, String uploadId, int partNumber,
+                             InputStream data, long length) throws Exception {
+        String url = getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.PUT)
+                .bucket(bucket)
+                .object(object)
+                .expiry(PART_URL_EXPIRY_SECONDS)
+                .extraQueryParams(Map.of("uploadId", uploadId, "partNumber", String.valueOf(partNumber)))
+                .build());
+
+        Request request = new Request.Builder()
+                .url(url)
+                .put(new SizedStreamRequestBody(data, length))
+                .build();
+        try (Response response = partHttpClient.newCall(request).execute()) {
+            String etag = response.header("ETag");
+            if (!response.isSuccessful() || etag == null) {
+                throw new IOException("MinIO分片上传失败: HTTP " + response.code());
+            }
+            return etag.replace("\"", "");
+        }
+    }
+
+    /**
+     * 按分片ETag合并为最终对象
+     */
+    public void completeMultipartUpload(String bucket, String object, String uploadId, Part[] parts) throws Exception {
+        completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null).get();
+    }
+
+    /**
+     * 取消分片上传，释放MinIO中已上传的分片
+     */
+    public void abortMultipartUpload(String bucket, String object, String uploadId) throws Exception {
+        abortMultipartUploadAsync(bucket, null, object, uploadId, null, null).get();
+    }
+
+    /**
+     * 列出桶内发起时间早于指定时刻的未完成分片上传（自动翻页）
+     */
+    public List<Upload> listMultipartUploadsInitiatedBefore(String bucket, ZonedDateTime initiatedBefore) throws Exception {
+        List<Upload> stale = new ArrayList<>();
+        String keyMarker = null;
+        String uploadIdMarker = null;
+        while (true) {
+            ListMultipartUploadsResult result = listMultipartUploadsAsync(bucket, null, null, null, keyMarker,
+                    LIST_PAGE_SIZE, null, uploadIdMarker, null, null).get().result();
+            for (Upload upload : result.uploads()) {
+                if (upload.initiated() != null && upload.initiated().isBefore(initiatedBefore)) {
+                    stale.add(upload);
+                }
+            }
+            if (!result.isTruncated()) {
+                return stale;
+            }
+            keyMarker = result.nextKeyMarker();
+            uploadIdMarker = result.nextUploadIdMarker();
+        }
+    }
+
+    /**
+     * 已知长度的流式请求体，只能写出一次
+     */
+    private static class SizedStreamRequestBody extends RequestBody {
+        private final InputStream data;
+        private final long length;
+
+        SizedStreamRequestBody(InputStream data, long length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            // 不关闭源流：请求体由调用方持有
+            sink.write(Okio.source(data), length);
+        }
+    }
+}
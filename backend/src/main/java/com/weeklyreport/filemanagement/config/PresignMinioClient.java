@@ -0,0 +1,39 @@
+package com.weeklyreport.filemanagement.config;
+
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.http.Method;
+
+import java.util.Map;
+
+/**
+ * MinIO预签名客户端
+ * 预签名URL由浏览器直接访问，签名中的Host必须是对外地址（minio.public-endpoint），
+ * 不能使用后端访问MinIO的内网地址。签名在本地计算，固定region避免向对外地址发起region查询。
+ */
+public class PresignMinioClient {
+
+    private final MinioClient client;
+
+    public PresignMinioClient(MinioClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 生成GET预签名URL
+     *
+     * @param extraQueryParams 附加的response-*覆盖参数，可为空
+     */
+    public String presignedGetUrl(String bucket, String object, int expirySeconds,
+                                  Map<String, String> extraQueryParams) throws Exception {
+        GetPresignedObjectUrlArgs.Builder args = GetPresignedObjectUrlArgs.builder()
+                .method(Method.GET)
+                .bucket(bucket)
+                .object(object)
+                .expiry(expirySeconds);
+        if (extraQueryParams != null && !extraQueryParams.isEmpty()) {
+            args.extraQueryParams(extraQueryParams);
+        }
+        return client.getPresignedObjectUrl(args.build());
+    }
+}
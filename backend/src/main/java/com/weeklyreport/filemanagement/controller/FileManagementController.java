@@ -1,7 +1,9 @@
 package com.weeklyreport.filemanagement.controller;
 
+import com.weeklyreport.filemanagement.dto.ChunkedUploadSession;
 import com.weeklyreport.filemanagement.dto.FileUploadRequest;
 import com.weeklyreport.filemanagement.dto.FileUploadResponse;
+import com.weeklyreport.filemanagement.service.ChunkedUploadService;
 import com.weeklyreport.filemanagement.service.FileManagementService;
 import com.weeklyreport.common.dto.ApiResponse;
 import com.weeklyreport.core.security.CustomUserPrincipal;
@@ -36,6 +38,9 @@ public class FileManagementController {
     @Autowired
     private FileManagementService fileManagementService;
 
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
     /**
      * 上传文件并关联到周报（可选）
      */
@@ -183,22 +188,192 @@ public class FileManagementController {
         }
     }
 
+    /**
+     * 初始化分片上传（断点续传）
+     */
+    @PostMapping("/uploads")
+    @Operation(summary = "初始化分片上传", description = "创建分片上传会话，返回分片大小和分片数，客户端可并行上传各分片")
+    public ApiResponse<ChunkedUploadSession> initChunkedUpload(
+            @Parameter(description = "原始文件名", required = true)
+            @RequestParam("filename") String filename,
+
+            @Parameter(description = "文件大小（字节）", required = true)
+            @RequestParam("fileSize") Long fileSize,
+
+            @Parameter(description = "文件MIME类型", required = true)
+            @RequestParam("contentType") String contentType,
+
+            @Parameter(description = "附件类型", example = "ROUTINE_TASK_RESULT")
+            @RequestParam(value = "attachmentType", required = false, defaultValue = "GENERAL")
+            String attachmentType,
+
+            @Parameter(description = "是否公开访问")
+            @RequestParam(value = "isPublic", required = false, defaultValue = "false") Boolean isPublic,
+
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        try {
+            logger.info("用户 {} 初始化分片上传: {}, 大小: {}", userPrincipal.getId(), filename, fileSize);
+
+            ChunkedUploadSession session = chunkedUploadService.initUpload(
+                filename, fileSize, contentType,
+                com.weeklyreport.filemanagement.entity.WeeklyReportAttachment.AttachmentType.fromString(attachmentType),
+                isPublic, userPrincipal.getId()
+            );
+            return ApiResponse.success(session);
+
+        } catch (Exception e) {
+            logger.error("初始化分片上传失败: filename={}, userId={}", filename, userPrincipal.getId(), e);
+            return ApiResponse.error("初始化分片上传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 上传单个分片（请求体为分片原始字节）
+     */
+    @PutMapping("/uploads/{fileId}/parts/{partNumber}")
+    @Operation(summary = "上传分片", description = "上传指定序号的分片，可并行、可重传")
+    public ApiResponse<ChunkedUploadSession> uploadPart(
+            @Parameter(description = "文件ID", required = true)
+            @PathVariable Long fileId,
+
+            @Parameter(description = "分片序号（从1开始）", required = true)
+            @PathVariable Integer partNumber,
+
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal,
+            HttpServletRequest httpRequest) {
+
+        try {
+            ChunkedUploadSession session = chunkedUploadService.uploadPart(
+                fileId, partNumber, httpRequest.getInputStream(), httpRequest.getContentLengthLong(), userPrincipal.getId()
+            );
+            return ApiResponse.success(session);
+
+        } catch (Exception e) {
+            logger.error("分片上传失败: fileId={}, part={}, userId={}", fileId, partNumber, userPrincipal.getId(), e);
+            return ApiResponse.error("分片上传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询分片上传状态（断点续传时获取已上传分片）
+     */
+    @GetMapping("/uploads/{fileId}")
+    @Operation(summary = "查询分片上传状态", description = "返回已上传的分片序号和上传进度")
+    public ApiResponse<ChunkedUploadSession> getChunkedUpload(
+            @Parameter(description = "文件ID", required = true)
+            @PathVariable Long fileId,
+
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        try {
+            return ApiResponse.success(chunkedUploadService.getSession(fileId, userPrincipal.getId()));
+
+        } catch (Exception e) {
+            logger.error("查询分片上传状态失败: fileId={}, userId={}", fileId, userPrincipal.getId(), e);
+            return ApiResponse.error("查询分片上传状态失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 完成分片上传，可选关联到周报
+     */
+    @PostMapping("/uploads/{fileId}/complete")
+    @Operation(summary = "完成分片上传", description = "合并全部分片，可选择关联到周报的特定部分")
+    public ApiResponse<FileUploadResponse> completeChunkedUpload(
+            @Parameter(description = "文件ID", required = true)
+            @PathVariable Long fileId,
+
+            @Parameter(description = "周报ID（可选，不绑定周报时不需要）", required = false)
+            @RequestParam(value = "weeklyReportId", required = false) Long weeklyReportId,
+
+            @Parameter(description = "附件类型", example = "ROUTINE_TASK_RESULT")
+            @RequestParam(value = "attachmentType", required = false, defaultValue = "GENERAL")
+            String attachmentType,
+
+            @Parameter(description = "关联的任务ID（用于任务相关附件）")
+            @RequestParam(value = "relatedTaskId", required = false) Long relatedTaskId,
+
+            @Parameter(description = "关联的项目ID（用于发展任务附件）")
+            @RequestParam(value = "relatedProjectId", required = false) Long relatedProjectId,
+
+            @Parameter(description = "关联的阶段ID（用于发展任务附件）")
+            @RequestParam(value = "relatedPhaseId", required = false) Long relatedPhaseId,
+
+            @Parameter(description = "附件描述")
+            @RequestParam(value = "description", required = false) String description,
+
+            @Parameter(description = "显示顺序")
+            @RequestParam(value = "displayOrder", required = false) Integer displayOrder,
+
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal,
+            HttpServletRequest httpRequest) {
+
+        try {
+            FileUploadRequest request = new FileUploadRequest();
+            request.setWeeklyReportId(weeklyReportId);
+            request.setAttachmentType(
+                com.weeklyreport.filemanagement.entity.WeeklyReportAttachment.AttachmentType.fromString(attachmentType)
+            );
+            request.setRelatedTaskId(relatedTaskId);
+            request.setRelatedProjectId(relatedProjectId);
+            request.setRelatedPhaseId(relatedPhaseId);
+            request.setDescription(description);
+            request.setDisplayOrder(displayOrder);
+
+            FileUploadResponse response = chunkedUploadService.completeUpload(
+                fileId, request, userPrincipal.getId(), httpRequest
+            );
+
+            logger.info("分片上传完成: fileId={}, filename={}", response.getFileId(), response.getOriginalFilename());
+            return ApiResponse.success(response);
+
+        } catch (Exception e) {
+            logger.error("完成分片上传失败: fileId={}, userId={}", fileId, userPrincipal.getId(), e);
+            return ApiResponse.error("完成分片上传失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/uploads/{fileId}")
+    @Operation(summary = "取消分片上传", description = "取消上传并释放已上传的分片")
+    public ApiResponse<String> abortChunkedUpload(
+            @Parameter(description = "文件ID", required = true)
+            @PathVariable Long fileId,
+
+            @AuthenticationPrincipal CustomUserPrincipal userPrincipal) {
+
+        try {
+            chunkedUploadService.abortUpload(fileId, userPrincipal.getId());
+            return ApiResponse.success("分片上传已取消");
+
+        } catch (Exception e) {
+            logger.error("取消分片上传失败: fileId={}, userId={}", fileId, userPrincipal.getId(), e);
+            return ApiResponse.error("取消分片上传失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 下载文件
      */
     @GetMapping("/download/{fileId}")
-    @Operation(summary = "下载文件", description = "根据文件ID下载文件")
+    @Operation(summary = "下载文件", description = "根据文件ID下载文件；proxy方式支持Range与条件请求，redirect方式302到预签名URL")
     public ResponseEntity<Resource> downloadFile(
             @Parameter(description = "文件ID", required = true)
             @PathVariable Long fileId,
 
+            @Parameter(description = "下载方式：proxy / redirect，默认取服务端配置")
+            @RequestParam(value = "mode", required = false) String mode,
+
             @AuthenticationPrincipal CustomUserPrincipal userPrincipal,
             HttpServletRequest httpRequest) {
 
         try {
             logger.info("用户 {} 下载文件: fileId={}", userPrincipal.getId(), fileId);
 
-            return fileManagementService.downloadFile(fileId, userPrincipal.getId(), httpRequest);
+            return fileManagementService.downloadFile(fileId, userPrincipal.getId(), mode, httpRequest);
 
         } catch (Exception e) {
             logger.error("文件下载失败: fileId={}, userId={}", fileId, userPrincipal.getId(), e);
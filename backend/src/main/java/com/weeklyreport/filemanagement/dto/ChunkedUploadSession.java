@@ -0,0 +1,111 @@
+package com.weeklyreport.filemanagement.dto;
+
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.entity.FileUploadPart;
+
+import java.util.List;
+
+/**
+ * 分片上传会话DTO
+ * 客户端据 uploadedParts 判断哪些分片仍需上传，实现断点续传
+ */
+public class ChunkedUploadSession {
+
+    private Long fileId;
+    private String originalFilename;
+    private Long fileSize;
+    private Long partSize;
+    private Integer totalParts;
+    private List<Integer> uploadedParts;
+    private Long uploadedBytes;
+    private Integer uploadProgress;
+    private FileAttachment.UploadStatus uploadStatus;
+
+    // 构造函数
+    public ChunkedUploadSession() {}
+
+    public ChunkedUploadSession(FileAttachment fileAttachment, List<FileUploadPart> parts) {
+        this.fileId = fileAttachment.getId();
+        this.originalFilename = fileAttachment.getOriginalFilename();
+        this.fileSize = fileAttachment.getFileSize();
+        this.partSize = fileAttachment.getPartSize();
+        this.totalParts = fileAttachment.getTotalParts();
+        this.uploadedParts = parts.stream().map(FileUploadPart::getPartNumber).toList();
+        this.uploadedBytes = parts.stream().mapToLong(FileUploadPart::getPartSize).sum();
+        this.uploadProgress = fileAttachment.getUploadProgress();
+        this.uploadStatus = fileAttachment.getUploadStatus();
+    }
+
+    // Getters and Setters
+    public Long getFileId() {
+        return fileId;
+    }
+
+    public void setFileId(Long fileId) {
+        this.fileId = fileId;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public void setOriginalFilename(String originalFilename) {
+        this.originalFilename = originalFilename;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(Long partSize) {
+        this.partSize = partSize;
+    }
+
+    public Integer getTotalParts() {
+        return totalParts;
+    }
+
+    public void setTotalParts(Integer totalParts) {
+        this.totalParts = totalParts;
+    }
+
+    public List<Integer> getUploadedParts() {
+        return uploadedParts;
+    }
+
+    public void setUploadedParts(List<Integer> uploadedParts) {
+        this.uploadedParts = uploadedParts;
+    }
+
+    public Long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    public void setUploadedBytes(Long uploadedBytes) {
+        this.uploadedBytes = uploadedBytes;
+    }
+
+    public Integer getUploadProgress() {
+        return uploadProgress;
+    }
+
+    public void setUploadProgress(Integer uploadProgress) {
+        this.uploadProgress = uploadProgress;
+    }
+
+    public FileAttachment.UploadStatus getUploadStatus() {
+        return uploadStatus;
+    }
+
+    public void setUploadStatus(FileAttachment.UploadStatus uploadStatus) {
+        this.uploadStatus = uploadStatus;
+    }
+}
@@ -21,6 +21,8 @@ public class FileUploadResponse {
     private Integer uploadProgress;
     private String downloadUrl;
     private String previewUrl;
+    private String thumbnailUrl;
+    private String previewImageUrl;
     private Boolean isImage;
     private Boolean isDocument;
     private LocalDateTime createdAt;
@@ -173,6 +175,22 @@ public class FileUploadResponse {
         this.previewUrl = previewUrl;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getPreviewImageUrl() {
+        return previewImageUrl;
+    }
+
+    public void setPreviewImageUrl(String previewImageUrl) {
+        this.previewImageUrl = previewImageUrl;
+    }
+
     public Boolean getIsImage() {
         return isImage;
     }
@@ -1,11 +1,14 @@
 package com.weeklyreport.filemanagement.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
+
 import java.time.LocalDateTime;
 
 /**
  * 文件访问日志实体
  * 记录文件的访问历史，用于审计和统计
+ * 表按 access_time 月分区，查询须带时间范围以便分区裁剪
  */
 @Entity
 @Table(name = "file_access_logs")
@@ -28,7 +31,11 @@ public class FileAccessLog {
     @Column(name = "ip_address")
     private String ipAddress;
 
-    @Column(name = "user_agent", columnDefinition = "TEXT")
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
+
+    // User-Agent原文存于user_agents字典表，写入时由FileAccessRecorder编码为user_agent_id，读取时按ID回查字典
+    @Formula("(SELECT ua.user_agent FROM user_agents ua WHERE ua.id = user_agent_id)")
     private String userAgent;
 
     @Column(name = "access_time", nullable = false)
@@ -139,6 +146,14 @@ public class FileAccessLog {
         this.ipAddress = ipAddress;
     }
 
+    public Integer getUserAgentId() {
+        return userAgentId;
+    }
+
+    public void setUserAgentId(Integer userAgentId) {
+        this.userAgentId = userAgentId;
+    }
+
     public String getUserAgent() {
         return userAgent;
     }
@@ -46,12 +46,27 @@ public class FileAttachment {
     @Column(name = "upload_progress")
     private Integer uploadProgress = 0;
 
+    @Column(name = "multipart_upload_id")
+    private String multipartUploadId;
+
+    @Column(name = "part_size")
+    private Long partSize;
+
+    @Column(name = "total_parts")
+    private Integer totalParts;
+
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
     @Column(name = "file_hash")
     private String fileHash;
 
+    @Column(name = "thumbnail_path")
+    private String thumbnailPath;
+
+    @Column(name = "preview_path")
+    private String previewPath;
+
     @Column(name = "download_count")
     private Integer downloadCount = 0;
 
@@ -75,6 +90,7 @@ public class FileAttachment {
      */
     public enum UploadStatus {
         UPLOADING,   // 上传中
+        COMPLETING,  // 分片合并中
         COMPLETED,   // 上传完成
         FAILED,      // 上传失败
         DELETED      // 已删除
@@ -243,6 +259,30 @@ public class FileAttachment {
         this.uploadProgress = uploadProgress;
     }
 
+    public String getMultipartUploadId() {
+        return multipartUploadId;
+    }
+
+    public void setMultipartUploadId(String multipartUploadId) {
+        this.multipartUploadId = multipartUploadId;
+    }
+
+    public Long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(Long partSize) {
+        this.partSize = partSize;
+    }
+
+    public Integer getTotalParts() {
+        return totalParts;
+    }
+
+    public void setTotalParts(Integer totalParts) {
+        this.totalParts = totalParts;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -259,6 +299,22 @@ public class FileAttachment {
         this.fileHash = fileHash;
     }
 
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public String getPreviewPath() {
+        return previewPath;
+    }
+
+    public void setPreviewPath(String previewPath) {
+        this.previewPath = previewPath;
+    }
+
     public Integer getDownloadCount() {
         return downloadCount;
     }
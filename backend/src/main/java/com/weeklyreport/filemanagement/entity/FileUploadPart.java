@@ -0,0 +1,129 @@
+package com.weeklyreport.filemanagement.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 分片上传记录
+ * 每个已成功写入MinIO的分片一行，中断后客户端据此只续传缺失的分片
+ */
+@Entity
+@Table(name = "file_upload_parts")
+public class FileUploadPart {
+
+    @EmbeddedId
+    private FileUploadPartId id;
+
+    @Column(name = "etag", nullable = false)
+    private String etag;
+
+    @Column(name = "part_size", nullable = false)
+    private Long partSize;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.uploadedAt == null) {
+            this.uploadedAt = LocalDateTime.now();
+        }
+    }
+
+    public FileUploadPart() {}
+
+    public FileUploadPart(Long fileAttachmentId, Integer partNumber, String etag, Long partSize) {
+        this.id = new FileUploadPartId(fileAttachmentId, partNumber);
+        this.etag = etag;
+        this.partSize = partSize;
+    }
+
+    public FileUploadPartId getId() {
+        return id;
+    }
+
+    public void setId(FileUploadPartId id) {
+        this.id = id;
+    }
+
+    public Integer getPartNumber() {
+        return id != null ? id.getPartNumber() : null;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public Long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(Long partSize) {
+        this.partSize = partSize;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
+    /**
+     * 复合主键 - 文件ID + 分片序号
+     */
+    @Embeddable
+    public static class FileUploadPartId implements Serializable {
+
+        @Column(name = "file_attachment_id")
+        private Long fileAttachmentId;
+
+        @Column(name = "part_number")
+        private Integer partNumber;
+
+        public FileUploadPartId() {}
+
+        public FileUploadPartId(Long fileAttachmentId, Integer partNumber) {
+            this.fileAttachmentId = fileAttachmentId;
+            this.partNumber = partNumber;
+        }
+
+        public Long getFileAttachmentId() {
+            return fileAttachmentId;
+        }
+
+        public void setFileAttachmentId(Long fileAttachmentId) {
+            this.fileAttachmentId = fileAttachmentId;
+        }
+
+        public Integer getPartNumber() {
+            return partNumber;
+        }
+
+        public void setPartNumber(Integer partNumber) {
+            this.partNumber = partNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FileUploadPartId)) return false;
+            FileUploadPartId that = (FileUploadPartId) o;
+            return Objects.equals(fileAttachmentId, that.fileAttachmentId) &&
+                   Objects.equals(partNumber, that.partNumber);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileAttachmentId, partNumber);
+        }
+    }
+}
@@ -8,11 +8,14 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * 文件访问日志Repository
+ * file_access_logs 按 access_time 月分区：所有明细查询都带时间下界，只扫描相关分区；
+ * 跨天统计走 file_access_daily_stats 汇总表
  */
 @Repository
 public interface FileAccessLogRepository extends JpaRepository<FileAccessLog, Long> {
@@ -20,45 +23,67 @@ public interface FileAccessLogRepository extends JpaRepository<FileAccessLog, Lo
     /**
      * 根据文件ID查询访问日志
      */
-    Page<FileAccessLog> findByFileAttachmentIdOrderByAccessTimeDesc(Long fileAttachmentId, Pageable pageable);
+    @Query("SELECT fal FROM FileAccessLog fal " +
+           "WHERE fal.fileAttachmentId = :fileId AND fal.accessTime >= :since " +
+           "ORDER BY fal.accessTime DESC")
+    Page<FileAccessLog> findByFileIdSince(@Param("fileId") Long fileId,
+                                          @Param("since") LocalDateTime since,
+                                          Pageable pageable);
 
     /**
      * 根据用户ID查询访问日志
      */
-    Page<FileAccessLog> findByUserIdOrderByAccessTimeDesc(Long userId, Pageable pageable);
+    @Query("SELECT fal FROM FileAccessLog fal " +
+           "WHERE fal.userId = :userId AND fal.accessTime >= :since " +
+           "ORDER BY fal.accessTime DESC")
+    Page<FileAccessLog> findByUserIdSince(@Param("userId") Long userId,
+                                          @Param("since") LocalDateTime since,
+                                          Pageable pageable);
 
     /**
      * 根据操作类型查询日志
      */
-    List<FileAccessLog> findByActionOrderByAccessTimeDesc(FileAccessLog.AccessAction action);
+    @Query("SELECT fal FROM FileAccessLog fal " +
+           "WHERE fal.action = :action AND fal.accessTime BETWEEN :startTime AND :endTime " +
+           "ORDER BY fal.accessTime DESC")
+    List<FileAccessLog> findByActionAndTimeRange(@Param("action") FileAccessLog.AccessAction action,
+                                                 @Param("startTime") LocalDateTime startTime,
+                                                 @Param("endTime") LocalDateTime endTime);
 
     /**
-     * 统计文件的下载次数
+     * 统计文件在指定时间之后的下载次数
      */
-    @Query("SELECT COUNT(fal) FROM FileAccessLog fal WHERE fal.fileAttachmentId = :fileId AND fal.action = 'DOWNLOAD'")
-    Long countDownloadsByFileId(@Param("fileId") Long fileId);
+    @Query("SELECT COUNT(fal) FROM FileAccessLog fal " +
+           "WHERE fal.fileAttachmentId = :fileId AND fal.action = 'DOWNLOAD' AND fal.accessTime >= :since")
+    Long countDownloadsByFileIdSince(@Param("fileId") Long fileId, @Param("since") LocalDateTime since);
 
     /**
-     * 统计用户的文件访问次数
+     * 统计用户在指定时间之后的文件访问次数
      */
-    Long countByUserIdAndAction(Long userId, FileAccessLog.AccessAction action);
+    @Query("SELECT COUNT(fal) FROM FileAccessLog fal " +
+           "WHERE fal.userId = :userId AND fal.action = :action AND fal.accessTime >= :since")
+    Long countByUserIdAndActionSince(@Param("userId") Long userId,
+                                     @Param("action") FileAccessLog.AccessAction action,
+                                     @Param("since") LocalDateTime since);
 
     /**
      * 查询指定时间范围内的访问日志
      */
     @Query("SELECT fal FROM FileAccessLog fal WHERE fal.accessTime BETWEEN :startTime AND :endTime ORDER BY fal.accessTime DESC")
-    List<FileAccessLog> findLogsByTimeRange(@Param("startTime") LocalDateTime startTime, 
+    List<FileAccessLog> findLogsByTimeRange(@Param("startTime") LocalDateTime startTime,
                                           @Param("endTime") LocalDateTime endTime);
 
     /**
-     * 查询热门文件（按下载次数排序）
+     * 查询热门文件（按下载次数排序，基于按天汇总，不含当天）
      */
-    @Query("SELECT fal.fileAttachmentId, COUNT(fal) as downloadCount " +
-           "FROM FileAccessLog fal " +
-           "WHERE fal.action = 'DOWNLOAD' AND fal.accessTime >= :since " +
-           "GROUP BY fal.fileAttachmentId " +
-           "ORDER BY downloadCount DESC")
-    List<Object[]> findMostDownloadedFiles(@Param("since") LocalDateTime since, Pageable pageable);
+    @Query(value = "SELECT s.file_attachment_id, SUM(s.access_count) AS download_count " +
+                   "FROM file_access_daily_stats s " +
+                   "WHERE s.action = 'DOWNLOAD' AND s.stat_date >= :since " +
+                   "GROUP BY s.file_attachment_id " +
+                   "ORDER BY download_count DESC " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findMostDownloadedFiles(@Param("since") LocalDate since, @Param("limit") int limit);
 
     /**
      * 查询活跃用户（按操作次数排序）
@@ -74,12 +99,9 @@ public interface FileAccessLogRepository extends JpaRepository<FileAccessLog, Lo
      * 查询指定文件的最近访问记录
      */
     @Query("SELECT fal FROM FileAccessLog fal " +
-           "WHERE fal.fileAttachmentId = :fileId " +
+           "WHERE fal.fileAttachmentId = :fileId AND fal.accessTime >= :since " +
            "ORDER BY fal.accessTime DESC")
-    List<FileAccessLog> findRecentAccessByFileId(@Param("fileId") Long fileId, Pageable pageable);
-
-    /**
-     * 删除过期的访问日志（数据清理）
-     */
-    void deleteByAccessTimeBefore(LocalDateTime cutoffTime);
-}
\ No newline at end of file
+    List<FileAccessLog> findRecentAccessByFileId(@Param("fileId") Long fileId,
+                                                 @Param("since") LocalDateTime since,
+                                                 Pageable pageable);
+}
@@ -4,9 +4,11 @@ import com.weeklyreport.filemanagement.entity.FileAttachment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -89,6 +91,65 @@ public interface FileAttachmentRepository extends JpaRepository<FileAttachment,
     @Query("SELECT f FROM FileAttachment f WHERE f.uploadStatus = 'FAILED' AND f.createdAt > :since")
     List<FileAttachment> findFailedUploads(@Param("since") LocalDateTime since);
 
+    /**
+     * 按已上传分片重新计算上传进度（完成前最多99%，只增不减，并发分片上传时无需加锁）
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE file_attachments fa SET fa.upload_progress = GREATEST(COALESCE(fa.upload_progress, 0), " +
+                   "LEAST(99, (SELECT FLOOR(COALESCE(SUM(p.part_size), 0) * 100 / fa.file_size) " +
+                   "FROM file_upload_parts p WHERE p.file_attachment_id = fa.id))) WHERE fa.id = :id",
+           nativeQuery = true)
+    int refreshUploadProgress(@Param("id") Long id);
+
+    /**
+     * 领取分片合并：只有仍在上传中的记录能转为合并中，并发的重复合并请求更新0行
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileAttachment fa SET fa.uploadStatus = 'COMPLETING' " +
+           "WHERE fa.id = :id AND fa.uploadStatus = 'UPLOADING' AND fa.multipartUploadId IS NOT NULL")
+    int claimCompletion(@Param("id") Long id);
+
+    /**
+     * 合并失败时退回上传中，客户端可重试
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileAttachment fa SET fa.uploadStatus = 'UPLOADING' WHERE fa.id = :id AND fa.uploadStatus = 'COMPLETING'")
+    int releaseCompletion(@Param("id") Long id);
+
+    /**
+     * 查询截止时间后再无进展的未完成分片上传（每个分片和领取合并都会刷新 updated_at）
+     */
+    @Query("SELECT f FROM FileAttachment f WHERE f.uploadStatus IN ('UPLOADING', 'COMPLETING') " +
+           "AND f.multipartUploadId IS NOT NULL AND f.updatedAt < :cutoff ORDER BY f.id")
+    List<FileAttachment> findStaleMultipartUploads(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * 过期分片上传置为失败：按上传ID条件更新，与同时进行的合并只有一方成功
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileAttachment fa SET fa.uploadStatus = 'FAILED', fa.errorMessage = :reason, fa.multipartUploadId = NULL " +
+           "WHERE fa.id = :id AND fa.multipartUploadId = :uploadId AND fa.uploadStatus IN ('UPLOADING', 'COMPLETING')")
+    int expireMultipartUpload(@Param("id") Long id, @Param("uploadId") String uploadId, @Param("reason") String reason);
+
+    /**
+     * 是否有记录仍在使用该分片上传ID
+     */
+    boolean existsByMultipartUploadId(String multipartUploadId);
+
+    /**
+     * 记录后台生成的缩略图/预览图路径（只更新这两列，不覆盖并发修改）
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FileAttachment fa SET fa.thumbnailPath = :thumbnailPath, fa.previewPath = :previewPath WHERE fa.id = :id")
+    int updateDerivedPaths(@Param("id") Long id,
+                           @Param("thumbnailPath") String thumbnailPath,
+                           @Param("previewPath") String previewPath);
+
     /**
      * 软删除文件
      */
@@ -0,0 +1,43 @@
+package com.weeklyreport.filemanagement.repository;
+
+import com.weeklyreport.filemanagement.entity.FileUploadPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 分片上传记录Repository
+ */
+@Repository
+public interface FileUploadPartRepository extends JpaRepository<FileUploadPart, FileUploadPart.FileUploadPartId> {
+
+    /**
+     * 查询文件已上传的分片（按序号排序）
+     */
+    @Query("SELECT p FROM FileUploadPart p WHERE p.id.fileAttachmentId = :fileId ORDER BY p.id.partNumber")
+    List<FileUploadPart> findByFileAttachmentId(@Param("fileId") Long fileId);
+
+    /**
+     * 记录分片；同一分片重传时覆盖ETag（并发PUT不同分片互不冲突）
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO file_upload_parts (file_attachment_id, part_number, etag, part_size, uploaded_at) " +
+                   "VALUES (:fileId, :partNumber, :etag, :partSize, CURRENT_TIMESTAMP) " +
+                   "ON DUPLICATE KEY UPDATE etag = VALUES(etag), part_size = VALUES(part_size), uploaded_at = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int upsertPart(@Param("fileId") Long fileId, @Param("partNumber") Integer partNumber,
+                   @Param("etag") String etag, @Param("partSize") Long partSize);
+
+    /**
+     * 删除文件的全部分片记录（完成或取消后）
+     */
+    @Modifying
+    @Query("DELETE FROM FileUploadPart p WHERE p.id.fileAttachmentId = :fileId")
+    int deleteByFileAttachmentId(@Param("fileId") Long fileId);
+}
@@ -0,0 +1,285 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 附件缩略图/预览图生成服务
+ * 上传完成后在有界线程池中生成：图片生成缩略图，PDF渲染首页生成预览图和缩略图。
+ * 派生图片以JPEG存入同一桶的 derived/ 路径下，并记录到 FileAttachment，
+ * 附件列表只返回缩略图地址，前端无需下载原文件。
+ * 任务在上传事务提交后才入队；线程池满被拒绝或进程重启丢失的任务，在附件列表首次读取时补交。
+ */
+@Service
+public class AttachmentThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentThumbnailService.class);
+
+    private static final String PDF_MIME_TYPE = "application/pdf";
+    private static final String DERIVED_PREFIX = "derived/";
+    private static final int THUMBNAIL_MAX_SIZE = 320;
+    private static final int PREVIEW_MAX_SIZE = 1280;
+    private static final float PDF_RENDER_DPI = 110f;
+    // 超过该大小的源文件不生成派生图，避免后处理线程长时间占用
+    private static final long MAX_SOURCE_BYTES = 50L * 1024 * 1024;
+    // 记录生成失败的附件数上限，超出后按最近访问淘汰
+    private static final int MAX_FAILED_ENTRIES = 10_000;
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private FileAttachmentRepository fileAttachmentRepository;
+
+    @Autowired
+    @Qualifier("fileProcessingExecutor")
+    private Executor fileProcessingExecutor;
+
+    // 已入队或生成中的附件，读路径补交时去重
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    // 生成失败（无法解码等）的附件，读路径不再反复重试
+    private final Map<Long, Boolean> failed = Collections.synchronizedMap(
+        new LinkedHashMap<Long, Boolean>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > MAX_FAILED_ENTRIES;
+            }
+        });
+
+    /**
+     * 是否支持生成缩略图
+     */
+    public boolean supports(FileAttachment fileAttachment) {
+        return fileAttachment.isImage() || PDF_MIME_TYPE.equals(fileAttachment.getMimeType());
+    }
+
+    /**
+     * 提交后台生成任务（已生成过或不支持的文件直接跳过）
+     * 在事务中调用时推迟到提交后入队，避免生成线程读到未提交或已回滚的附件记录。
+     */
+    public void submit(FileAttachment fileAttachment) {
+        if (!supports(fileAttachment) || fileAttachment.getThumbnailPath() != null
+                || fileAttachment.getFileSize() > MAX_SOURCE_BYTES) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(fileAttachment);
+                }
+            });
+        } else {
+            enqueue(fileAttachment);
+        }
+    }
+
+    /**
+     * 读路径兜底：缩略图缺失且此前未生成失败时补交任务
+     */
+    public void submitIfMissing(FileAttachment fileAttachment) {
+        if (fileAttachment.getId() == null || failed.containsKey(fileAttachment.getId())) {
+            return;
+        }
+        submit(fileAttachment);
+    }
+
+    private void enqueue(FileAttachment fileAttachment) {
+        Long fileId = fileAttachment.getId();
+        if (!inFlight.add(fileId)) {
+            return;
+        }
+        try {
+            fileProcessingExecutor.execute(() -> {
+                try {
+                    generate(fileAttachment);
+                } finally {
+                    inFlight.remove(fileId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(fileId);
+            logger.warn("附件后处理队列已满，缩略图将在首次读取附件列表时补生成: fileId={}, filename={}",
+                       fileId, fileAttachment.getOriginalFilename());
+        }
+    }
+
+    /**
+     * 生成并保存派生图片
+     */
+    void generate(FileAttachment fileAttachment) {
+        long startTime = System.currentTimeMillis();
+        try {
+            String thumbnailPath = derivedPath(fileAttachment, "thumb");
+            String previewPath = null;
+
+            BufferedImage source;
+            if (PDF_MIME_TYPE.equals(fileAttachment.getMimeType())) {
+                source = renderPdfFirstPage(fileAttachment);
+                previewPath = derivedPath(fileAttachment, "preview");
+                putJpeg(fileAttachment.getBucketName(), previewPath, scale(source, PREVIEW_MAX_SIZE));
+            } else {
+                source = readImage(fileAttachment);
+                if (source == null) {
+                    logger.debug("图片格式不支持解码，跳过缩略图: fileId={}, mimeType={}",
+                                fileAttachment.getId(), fileAttachment.getMimeType());
+                    failed.put(fileAttachment.getId(), Boolean.TRUE);
+                    return;
+                }
+            }
+            putJpeg(fileAttachment.getBucketName(), thumbnailPath, scale(source, THUMBNAIL_MAX_SIZE));
+
+            fileAttachmentRepository.updateDerivedPaths(fileAttachment.getId(), thumbnailPath, previewPath);
+            logger.info("附件缩略图生成完成: fileId={}, 耗时 {} ms", fileAttachment.getId(),
+                       System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            failed.put(fileAttachment.getId(), Boolean.TRUE);
+            logger.warn("附件缩略图生成失败: fileId={}, filename={}", fileAttachment.getId(),
+                       fileAttachment.getOriginalFilename(), e);
+        }
+    }
+
+    // ================== 私有辅助方法 ==================
+
+    /**
+     * 按缩略图尺寸降采样解码，内存占用与原图分辨率无关
+     */
+    private BufferedImage readImage(FileAttachment fileAttachment) throws Exception {
+        try (InputStream in = openSource(fileAttachment);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestSide / (THUMBNAIL_MAX_SIZE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 渲染PDF首页。先落到临时文件，PDFBox按需读取，不把整个PDF载入内存
+     */
+    private BufferedImage renderPdfFirstPage(FileAttachment fileAttachment) throws Exception {
+        Path tempFile = Files.createTempFile("attachment-", ".pdf");
+        try {
+            try (InputStream in = openSource(fileAttachment)) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (PDDocument document = Loader.loadPDF(tempFile.toFile())) {
+                if (document.getNumberOfPages() == 0) {
+                    throw new IOException("PDF没有页面");
+                }
+                return new PDFRenderer(document).renderImageWithDPI(0, PDF_RENDER_DPI, ImageType.RGB);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private InputStream openSource(FileAttachment fileAttachment) throws Exception {
+        return minioClient.getObject(
+            GetObjectArgs.builder()
+                .bucket(fileAttachment.getBucketName())
+                .object(fileAttachment.getFilePath())
+                .build()
+        );
+    }
+
+    /**
+     * 等比缩放到最长边不超过maxSize，透明背景填白（JPEG无透明通道）
+     * 缩小超过一倍时逐级减半，避免一次性双线性缩放产生锯齿
+     */
+    static BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void putJpeg(String bucket, String objectName, BufferedImage image) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", buffer);
+        byte[] bytes = buffer.toByteArray();
+
+        minioClient.putObject(
+            PutObjectArgs.builder()
+                .bucket(bucket)
+                .object(objectName)
+                .stream(new ByteArrayInputStream(bytes), bytes.length, -1)
+                .contentType("image/jpeg")
+                .build()
+        );
+    }
+
+    private String derivedPath(FileAttachment fileAttachment, String kind) {
+        return DERIVED_PREFIX + fileAttachment.getFilePath() + "." + kind + ".jpg";
+    }
+}
@@ -0,0 +1,140 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.config.MultipartMinioClient;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import com.weeklyreport.filemanagement.repository.FileUploadPartRepository;
+import io.minio.messages.Upload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 过期分片上传清理任务
+ * 1. 超过有效期仍无进展的上传记录以条件更新置为 FAILED（与同时进行的合并只有一方成功），
+ *    删除分片记录并取消MinIO分片上传，释放已上传的分片；
+ * 2. 桶内发起早于有效期、且没有记录引用的MinIO分片上传（初始化后记录未落库等）直接取消。
+ */
+@Service
+public class ChunkedUploadCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadCleanupService.class);
+
+    private static final int BATCH_SIZE = 100;
+    private static final String EXPIRED_MESSAGE = "分片上传超时未完成";
+
+    private final FileAttachmentRepository fileAttachmentRepository;
+    private final FileUploadPartRepository fileUploadPartRepository;
+    private final MultipartMinioClient multipartMinioClient;
+    private final MinIOConfig.MinIOProperties minIOProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final long expiryHours;
+
+    public ChunkedUploadCleanupService(FileAttachmentRepository fileAttachmentRepository,
+                                       FileUploadPartRepository fileUploadPartRepository,
+                                       MultipartMinioClient multipartMinioClient,
+                                       MinIOConfig.MinIOProperties minIOProperties,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${file.chunked-upload.expiry-hours:24}") long expiryHours) {
+        this.fileAttachmentRepository = fileAttachmentRepository;
+        this.fileUploadPartRepository = fileUploadPartRepository;
+        this.multipartMinioClient = multipartMinioClient;
+        this.minIOProperties = minIOProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiryHours = expiryHours;
+    }
+
+    @Scheduled(cron = "${file.chunked-upload.cleanup-cron:0 20 * * * ?}")
+    public void cleanupExpiredUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(expiryHours);
+        try {
+            int expired = expireTrackedUploads(cutoff);
+            int aborted = abortUntrackedUploads(cutoff);
+            if (expired > 0 || aborted > 0) {
+                logger.info("过期分片上传清理完成: 失效记录 {} 个, 取消无记录上传 {} 个", expired, aborted);
+            }
+        } catch (Exception e) {
+            logger.error("过期分片上传清理失败", e);
+        }
+    }
+
+    /**
+     * 失效过期的上传记录，返回处理的记录数
+     */
+    int expireTrackedUploads(LocalDateTime cutoff) {
+        int expired = 0;
+        while (true) {
+            List<FileAttachment> batch = fileAttachmentRepository.findStaleMultipartUploads(cutoff, PageRequest.of(0, BATCH_SIZE));
+            int claimed = 0;
+            for (FileAttachment fileAttachment : batch) {
+                if (expire(fileAttachment)) {
+                    claimed++;
+                }
+            }
+            expired += claimed;
+            // 本批都被并发合并/取消抢先处理时不再重查，避免空转
+            if (batch.size() < BATCH_SIZE || claimed == 0) {
+                return expired;
+            }
+        }
+    }
+
+    /**
+     * 取消桶内无记录引用的过期MinIO分片上传，返回取消的个数
+     */
+    int abortUntrackedUploads(LocalDateTime cutoff) throws Exception {
+        String bucket = minIOProperties.getBucketName();
+        List<Upload> uploads = multipartMinioClient.listMultipartUploadsInitiatedBefore(
+            bucket, cutoff.atZone(ZoneId.systemDefault()));
+        int aborted = 0;
+        for (Upload upload : uploads) {
+            // 大文件可能上传超过有效期：记录仍有进展的上传不取消
+            if (fileAttachmentRepository.existsByMultipartUploadId(upload.uploadId())) {
+                continue;
+            }
+            if (abort(bucket, upload.objectName(), upload.uploadId())) {
+                aborted++;
+            }
+        }
+        return aborted;
+    }
+
+    private boolean expire(FileAttachment fileAttachment) {
+        Long fileId = fileAttachment.getId();
+        String uploadId = fileAttachment.getMultipartUploadId();
+        Boolean claimed = transactionTemplate.execute(status -> {
+            if (fileAttachmentRepository.expireMultipartUpload(fileId, uploadId, EXPIRED_MESSAGE) == 0) {
+                return false;
+            }
+            fileUploadPartRepository.deleteByFileAttachmentId(fileId);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(claimed)) {
+            return false;
+        }
+        abort(fileAttachment.getBucketName(), fileAttachment.getFilePath(), uploadId);
+        logger.info("分片上传已过期: fileId={}, 文件={}", fileId, fileAttachment.getOriginalFilename());
+        return true;
+    }
+
+    private boolean abort(String bucket, String objectName, String uploadId) {
+        try {
+            multipartMinioClient.abortMultipartUpload(bucket, objectName, uploadId);
+            return true;
+        } catch (Exception e) {
+            // 上传可能已被合并或取消；桶内残留的会在下一轮按发起时间再次尝试
+            logger.warn("取消MinIO分片上传失败: {}/{}, uploadId={}", bucket, objectName, uploadId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.config.MultipartMinioClient;
+import com.weeklyreport.filemanagement.dto.ChunkedUploadSession;
+import com.weeklyreport.filemanagement.dto.FileUploadRequest;
+import com.weeklyreport.filemanagement.dto.FileUploadResponse;
+import com.weeklyreport.filemanagement.entity.FileAccessLog;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.entity.FileUploadPart;
+import com.weeklyreport.filemanagement.entity.WeeklyReportAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import com.weeklyreport.filemanagement.repository.FileUploadPartRepository;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.messages.Part;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 分片上传服务（断点续传）
+ * 协议：初始化 → 并行PUT各分片 → 合并；可随时取消。
+ * 直接映射MinIO原生multipart API，每个成功的分片都记录ETag，
+ * 中断后客户端查询会话状态，只需重传缺失的分片。
+ * 分片按请求体流式转发给MinIO，不在堆内缓冲整个分片。
+ * 分片可能乱序并行到达，无法在上传时计算整体哈希：合并后顺序读回对象计算SHA-256，
+ * 与普通上传一样按内容去重，命中已有文件时删除本次对象并复用已有记录。
+ * 超时未合并的上传由 ChunkedUploadCleanupService 定期置为失败并释放MinIO分片。
+ */
+@Service
+@Transactional
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    // S3协议限制：最多10000个分片，除最后一片外每片至少5MB
+    private static final int MAX_PARTS = 10000;
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    @Autowired
+    private MultipartMinioClient multipartMinioClient;
+
+    @Autowired
+    private MinioClient minioClient;
+
+    @Autowired
+    private MinIOConfig.MinIOProperties minIOProperties;
+
+    @Autowired
+    private FileAttachmentRepository fileAttachmentRepository;
+
+    @Autowired
+    private FileUploadPartRepository fileUploadPartRepository;
+
+    @Autowired
+    private FileManagementService fileManagementService;
+
+    @Autowired
+    private AttachmentThumbnailService attachmentThumbnailService;
+
+    @Autowired
+    private StreamingObjectUploader streamingObjectUploader;
+
+    private TransactionTemplate completionTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.completionTransaction = new TransactionTemplate(transactionManager);
+        this.completionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 初始化分片上传
+     */
+    public ChunkedUploadSession initUpload(String originalFilename, long fileSize, String contentType,
+                                           WeeklyReportAttachment.AttachmentType attachmentType,
+                                           Boolean isPublic, Long userId) {
+        fileManagementService.validateFileMetadata(fileSize, contentType);
+
+        String fileExtension = fileManagementService.getFileExtension(originalFilename);
+        String storedFilename = fileManagementService.generateStoredFilename(fileExtension);
+        String filePath = fileManagementService.generateFilePath(storedFilename, attachmentType);
+        String bucketName = minIOProperties.getBucketName();
+
+        long partSize = Math.max(Math.max(minIOProperties.getPartSize(), MIN_PART_SIZE),
+                                 (fileSize + MAX_PARTS - 1) / MAX_PARTS);
+        int totalParts = (int) Math.max(1, (fileSize + partSize - 1) / partSize);
+
+        String uploadId;
+        try {
+            uploadId = multipartMinioClient.createMultipartUpload(bucketName, filePath, contentType);
+        } catch (Exception e) {
+            logger.error("创建MinIO分片上传失败: {}", originalFilename, e);
+            throw new RuntimeException("创建分片上传失败: " + e.getMessage(), e);
+        }
+
+        FileAttachment fileAttachment = new FileAttachment(
+            originalFilename, storedFilename, filePath,
+            fileSize, contentType, fileExtension, userId
+        );
+        fileAttachment.setBucketName(bucketName);
+        fileAttachment.setUploadStatus(FileAttachment.UploadStatus.UPLOADING);
+        fileAttachment.setUploadProgress(0);
+        fileAttachment.setMultipartUploadId(uploadId);
+        fileAttachment.setPartSize(partSize);
+        fileAttachment.setTotalParts(totalParts);
+        fileAttachment.setIsPublic(isPublic);
+        fileAttachment = fileAttachmentRepository.save(fileAttachment);
+
+        logger.info("分片上传已初始化: fileId={}, 文件={}, 大小={}, 分片数={}",
+                   fileAttachment.getId(), originalFilename, fileSize, totalParts);
+        return new ChunkedUploadSession(fileAttachment, List.of());
+    }
+
+    /**
+     * 上传单个分片
+     * 不在事务内执行：分片上传可能持续数秒，期间不占用数据库连接
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChunkedUploadSession uploadPart(Long fileId, int partNumber, InputStream body,
+                                           long contentLength, Long userId) {
+        FileAttachment fileAttachment = getActiveUpload(fileId, userId);
+
+        if (partNumber < 1 || partNumber > fileAttachment.getTotalParts()) {
+            throw new RuntimeException("分片序号超出范围: " + partNumber + "/" + fileAttachment.getTotalParts());
+        }
+        long expectedSize = expectedPartSize(fileAttachment, partNumber);
+        if (contentLength >= 0 && contentLength != expectedSize) {
+            throw new RuntimeException("分片大小不正确: 期望 " + expectedSize + " 字节，实际 " + contentLength + " 字节");
+        }
+
+        try {
+            String etag;
+            try {
+                etag = multipartMinioClient.uploadPart(fileAttachment.getBucketName(), fileAttachment.getFilePath(),
+                                                       fileAttachment.getMultipartUploadId(), partNumber, body, expectedSize);
+            } catch (EOFException e) {
+                throw new RuntimeException("分片数据长度不正确: 期望 " + expectedSize + " 字节");
+            }
+            // 多余的字节说明分片边界错误：不记录该分片，客户端需重传
+            if (body.read() != -1) {
+                throw new RuntimeException("分片数据长度不正确: 期望 " + expectedSize + " 字节");
+            }
+            fileUploadPartRepository.upsertPart(fileId, partNumber, etag, expectedSize);
+            fileAttachmentRepository.refreshUploadProgress(fileId);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.warn("分片上传失败: fileId={}, part={}", fileId, partNumber, e);
+            throw new RuntimeException("分片上传失败: " + e.getMessage(), e);
+        }
+
+        logger.debug("分片上传成功: fileId={}, part={}/{}", fileId, partNumber, fileAttachment.getTotalParts());
+        return getSession(fileId, userId);
+    }
+
+    /**
+     * 查询上传会话（断点续传时获取已上传分片）
+     */
+    @Transactional(readOnly = true)
+    public ChunkedUploadSession getSession(Long fileId, Long userId) {
+        FileAttachment fileAttachment = getOwnedFile(fileId, userId);
+        return new ChunkedUploadSession(fileAttachment, fileUploadPartRepository.findByFileAttachmentId(fileId));
+    }
+
+    /**
+     * 合并分片，完成上传，并按需关联到周报
+     * 不在外层事务内执行：先以条件更新领取合并（并发的重复请求直接拒绝），
+     * 合并与读回计算哈希期间不占用数据库连接，之后与普通上传走同一套按内容哈希去重
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileUploadResponse completeUpload(Long fileId, FileUploadRequest request, Long userId,
+                                             HttpServletRequest httpRequest) {
+        FileAttachment fileAttachment = getActiveUpload(fileId, userId);
+        List<FileUploadPart> parts = fileUploadPartRepository.findByFileAttachmentId(fileId);
+
+        if (parts.size() != fileAttachment.getTotalParts()) {
+            throw new RuntimeException("分片未全部上传: 已上传 " + parts.size() + "/" + fileAttachment.getTotalParts());
+        }
+        if (fileAttachmentRepository.claimCompletion(fileId) == 0) {
+            throw new RuntimeException("该文件正在合并或已完成上传");
+        }
+
+        Part[] minioParts = parts.stream()
+            .map(part -> new Part(part.getPartNumber(), part.getEtag()))
+            .toArray(Part[]::new);
+        try {
+            multipartMinioClient.completeMultipartUpload(fileAttachment.getBucketName(), fileAttachment.getFilePath(),
+                                                        fileAttachment.getMultipartUploadId(), minioParts);
+        } catch (Exception e) {
+            fileAttachmentRepository.releaseCompletion(fileId);
+            logger.error("合并分片失败: fileId={}", fileId, e);
+            throw new RuntimeException("合并分片失败: " + e.getMessage(), e);
+        }
+
+        // 对象已合并，之后即使哈希失败也不能再退回上传中：不计哈希，该文件不参与去重
+        String fileHash = computeFileHash(fileAttachment);
+        FileAttachment existing = fileHash != null
+            ? fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(fileHash).orElse(null)
+            : null;
+        if (existing == null) {
+            try {
+                fileAttachment = completionTransaction.execute(status -> markCompleted(fileId, fileHash));
+            } catch (DataIntegrityViolationException e) {
+                // 并发上传了相同内容：唯一索引 uk_file_attachments_active_hash 拒绝后到者，改为复用先提交的记录
+                existing = fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(fileHash).orElseThrow(() -> e);
+            }
+        }
+        if (existing != null) {
+            discardDuplicate(fileAttachment, fileHash);
+            logger.info("分片上传文件与已有文件内容相同，复用现有文件: fileId={} -> {}", fileId, existing.getId());
+            return respond(existing, request, userId);
+        }
+
+        fileManagementService.logFileAccess(fileId, userId, FileAccessLog.AccessAction.UPLOAD, httpRequest);
+        attachmentThumbnailService.submit(fileAttachment);
+
+        logger.info("分片上传完成: fileId={}, 文件={}, 分片数={}", fileId, fileAttachment.getOriginalFilename(), parts.size());
+        return respond(fileAttachment, request, userId);
+    }
+
+    /**
+     * 取消分片上传，释放MinIO中已上传的分片
+     */
+    public void abortUpload(Long fileId, Long userId) {
+        FileAttachment fileAttachment = getActiveUpload(fileId, userId);
+        try {
+            multipartMinioClient.abortMultipartUpload(fileAttachment.getBucketName(), fileAttachment.getFilePath(),
+                                                     fileAttachment.getMultipartUploadId());
+        } catch (Exception e) {
+            logger.warn("取消MinIO分片上传失败: fileId={}", fileId, e);
+        }
+
+        fileUploadPartRepository.deleteByFileAttachmentId(fileId);
+        fileAttachment.setUploadStatus(FileAttachment.UploadStatus.FAILED);
+        fileAttachment.setErrorMessage("用户取消上传");
+        fileAttachment.setMultipartUploadId(null);
+        fileAttachmentRepository.save(fileAttachment);
+
+        logger.info("分片上传已取消: fileId={}", fileId);
+    }
+
+    // ================== 私有辅助方法 ==================
+
+    /**
+     * 标记合并完成并记录内容哈希（独立事务，唯一索引冲突在提交前抛出）
+     */
+    private FileAttachment markCompleted(Long fileId, String fileHash) {
+        FileAttachment fileAttachment = fileAttachmentRepository.findById(fileId)
+                .orElseThrow(() -> new RuntimeException("文件不存在: " + fileId));
+        if (fileAttachment.getUploadStatus() != FileAttachment.UploadStatus.COMPLETING) {
+            throw new RuntimeException("分片上传已过期: " + fileId);
+        }
+        fileAttachment.setFileHash(fileHash);
+        fileAttachment.setUploadStatus(FileAttachment.UploadStatus.COMPLETED);
+        fileAttachment.setUploadProgress(100);
+        fileAttachment.setMultipartUploadId(null);
+        fileAttachment = fileAttachmentRepository.saveAndFlush(fileAttachment);
+        fileUploadPartRepository.deleteByFileAttachmentId(fileId);
+        return fileAttachment;
+    }
+
+    /**
+     * 内容重复：本次上传的记录标记删除（保留哈希备查），删除合并出的对象
+     */
+    private void discardDuplicate(FileAttachment fileAttachment, String fileHash) {
+        Long fileId = fileAttachment.getId();
+        completionTransaction.executeWithoutResult(status -> {
+            FileAttachment duplicate = fileAttachmentRepository.findById(fileId)
+                    .orElseThrow(() -> new RuntimeException("文件不存在: " + fileId));
+            duplicate.setFileHash(fileHash);
+            duplicate.setUploadStatus(FileAttachment.UploadStatus.DELETED);
+            duplicate.setDeletedAt(LocalDateTime.now());
+            duplicate.setMultipartUploadId(null);
+            fileAttachmentRepository.save(duplicate);
+            fileUploadPartRepository.deleteByFileAttachmentId(fileId);
+        });
+        streamingObjectUploader.remove(fileAttachment.getBucketName(), fileAttachment.getFilePath());
+    }
+
+    private FileUploadResponse respond(FileAttachment fileAttachment, FileUploadRequest request, Long userId) {
+        if (request != null && request.getWeeklyReportId() != null) {
+            return fileManagementService.createWeeklyReportAttachment(fileAttachment, request, userId);
+        }
+        return FileUploadResponse.fromFileAttachment(fileAttachment);
+    }
+
+    /**
+     * 顺序读取合并后的对象，边读边计算SHA-256；读取失败返回null
+     */
+    String computeFileHash(FileAttachment fileAttachment) {
+        try (InputStream in = minioClient.getObject(GetObjectArgs.builder()
+                .bucket(fileAttachment.getBucketName())
+                .object(fileAttachment.getFilePath())
+                .build())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            logger.warn("计算分片上传文件哈希失败: fileId={}", fileAttachment.getId(), e);
+            return null;
+        }
+    }
+
+    private FileAttachment getOwnedFile(Long fileId, Long userId) {
+        FileAttachment fileAttachment = fileAttachmentRepository.findById(fileId)
+                .orElseThrow(() -> new RuntimeException("文件不存在: " + fileId));
+        if (!fileAttachment.getUploadedBy().equals(userId)) {
+            throw new RuntimeException("没有权限操作该文件");
+        }
+        return fileAttachment;
+    }
+
+    private FileAttachment getActiveUpload(Long fileId, Long userId) {
+        FileAttachment fileAttachment = getOwnedFile(fileId, userId);
+        if (fileAttachment.getUploadStatus() != FileAttachment.UploadStatus.UPLOADING
+                || fileAttachment.getMultipartUploadId() == null) {
+            throw new RuntimeException("该文件没有进行中的分片上传");
+        }
+        return fileAttachment;
+    }
+
+    private long expectedPartSize(FileAttachment fileAttachment, int partNumber) {
+        long partSize = fileAttachment.getPartSize();
+        if (partNumber < fileAttachment.getTotalParts()) {
+            return partSize;
+        }
+        return fileAttachment.getFileSize() - partSize * (fileAttachment.getTotalParts() - 1);
+    }
+}
@@ -0,0 +1,153 @@
+package com.weeklyreport.filemanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文件访问日志维护任务（每晚执行）
+ * 1. 将前几天的明细汇总到 file_access_daily_stats（可重复执行，结果覆盖）；
+ * 2. 预先从 pmax 拆出未来月份的分区；
+ * 3. 超过保留期的月分区直接 DROP PARTITION，不做逐行删除。
+ * 建表脚本只预建了有限的月分区，启动时也补建一次，停机跨月后不会让新日志全部落入 pmax。
+ * 定时任务关闭（app.scheduling.enabled=false）时须手工维护，步骤见 V42__Partition_File_Access_Logs.sql 注释。
+ */
+@Service
+public class FileAccessLogMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAccessLogMaintenanceService.class);
+
+    private static final String TABLE_NAME = "file_access_logs";
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    // 每次补汇总最近几天，覆盖错过的执行和延迟落库的日志
+    private static final int ROLLUP_CATCHUP_DAYS = 3;
+
+    private static final String ROLLUP_SQL =
+        "INSERT INTO file_access_daily_stats (stat_date, file_attachment_id, action, access_count, unique_users) " +
+        "SELECT ?, file_attachment_id, action, COUNT(*), COUNT(DISTINCT user_id) " +
+        "FROM file_access_logs WHERE access_time >= ? AND access_time < ? " +
+        "GROUP BY file_attachment_id, action " +
+        "ON DUPLICATE KEY UPDATE access_count = VALUES(access_count), unique_users = VALUES(unique_users)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionMonths;
+    private final int partitionsAhead;
+
+    public FileAccessLogMaintenanceService(JdbcTemplate jdbcTemplate,
+                                           @Value("${file.access-log.retention-months:12}") int retentionMonths,
+                                           @Value("${file.access-log.partitions-ahead:3}") int partitionsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionMonths = retentionMonths;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    @Scheduled(cron = "${file.access-log.maintenance-cron:0 30 2 * * ?}")
+    public void runNightlyMaintenance() {
+        LocalDate today = LocalDate.now();
+        for (int i = ROLLUP_CATCHUP_DAYS; i >= 1; i--) {
+            LocalDate day = today.minusDays(i);
+            try {
+                rollupDay(day);
+            } catch (Exception e) {
+                logger.error("文件访问日志汇总失败: {}", day, e);
+            }
+        }
+
+        try {
+            ensureFuturePartitions(YearMonth.from(today));
+            dropExpiredPartitions(YearMonth.from(today));
+        } catch (Exception e) {
+            logger.error("文件访问日志分区维护失败", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        try {
+            ensureFuturePartitions(YearMonth.now());
+        } catch (Exception e) {
+            // 多实例同时启动时后到者会遇到分区已存在，留给夜间任务重试
+            logger.warn("启动时补建文件访问日志分区失败", e);
+        }
+    }
+
+    /**
+     * 汇总指定日期的访问明细（只扫描该日所在分区）
+     */
+    public int rollupDay(LocalDate day) {
+        int rows = jdbcTemplate.update(ROLLUP_SQL, Date.valueOf(day),
+                                       Timestamp.valueOf(day.atStartOfDay()),
+                                       Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+        logger.info("文件访问日志汇总完成: {}, 影响 {} 行", day, rows);
+        return rows;
+    }
+
+    /**
+     * 确保当前月之后 partitionsAhead 个月的分区已存在
+     */
+    void ensureFuturePartitions(YearMonth currentMonth) {
+        List<YearMonth> months = monthlyPartitions();
+        if (months.isEmpty()) {
+            logger.debug("{} 未按月分区，跳过分区维护", TABLE_NAME);
+            return;
+        }
+
+        YearMonth latest = months.get(months.size() - 1);
+        YearMonth target = currentMonth.plusMonths(partitionsAhead);
+        for (YearMonth month = latest.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " REORGANIZE PARTITION pmax INTO (" +
+                                 "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" +
+                                 month.plusMonths(1).atDay(1) + "'), " +
+                                 "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+            logger.info("已创建文件访问日志分区: {}", partitionName(month));
+        }
+    }
+
+    /**
+     * 删除超过保留期的月分区
+     */
+    void dropExpiredPartitions(YearMonth currentMonth) {
+        YearMonth cutoff = currentMonth.minusMonths(retentionMonths);
+        for (YearMonth month : monthlyPartitions()) {
+            if (month.isBefore(cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DROP PARTITION " + partitionName(month));
+                logger.info("已删除过期文件访问日志分区: {}", partitionName(month));
+            }
+        }
+    }
+
+    private List<YearMonth> monthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList(
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL",
+            String.class, TABLE_NAME);
+        return names.stream()
+            .map(name -> {
+                Matcher matcher = MONTHLY_PARTITION.matcher(name);
+                return matcher.matches() ? YearMonth.parse(matcher.group(1), PARTITION_FORMAT) : null;
+            })
+            .filter(Objects::nonNull)
+            .sorted()
+            .toList();
+    }
+
+    private String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_FORMAT);
+    }
+}
@@ -0,0 +1,195 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.entity.FileAccessLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件访问记账（写后缓冲）
+ * 下载计数按文件在内存中累加增量，访问日志先入队列，
+ * 每隔 flush-interval-ms 或积压达到 batch-size 时在同一事务内批量落库：
+ * 计数用 download_count = download_count + ? 原子累加，日志用JDBC批量插入（User-Agent字典编码）。
+ * 请求线程只做内存操作，不再占用数据库连接。
+ */
+@Component
+public class FileAccessRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAccessRecorder.class);
+
+    private static final String UPDATE_DOWNLOAD_COUNT_SQL =
+        "UPDATE file_attachments SET download_count = download_count + ? WHERE id = ?";
+
+    private static final String INSERT_ACCESS_LOG_SQL =
+        "INSERT INTO file_access_logs (file_attachment_id, user_id, action, ip_address, user_agent_id, access_time) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserAgentDictionary userAgentDictionary;
+    private final int batchSize;
+    private final int maxPending;
+
+    // 文件ID -> 未落库的下载次数增量
+    private final ConcurrentHashMap<Long, Long> pendingDownloads = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FileAccessLog> pendingLogs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingLogCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong droppedLogs = new AtomicLong();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "file-access-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public FileAccessRecorder(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              UserAgentDictionary userAgentDictionary,
+                              @Value("${file.access-log.flush-interval-ms:1000}") long flushIntervalMs,
+                              @Value("${file.access-log.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userAgentDictionary = userAgentDictionary;
+        this.batchSize = batchSize;
+        // 数据库不可用时积压上限，超出后丢弃新日志，避免内存无限增长
+        this.maxPending = batchSize * 50;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次下载（仅累加内存增量）
+     */
+    public void recordDownload(Long fileId) {
+        pendingDownloads.merge(fileId, 1L, Long::sum);
+    }
+
+    /**
+     * 记录一次访问日志
+     * IP和User-Agent须在请求线程内取出，HttpServletRequest不能跨线程使用
+     */
+    public void recordAccess(Long fileId, Long userId, FileAccessLog.AccessAction action,
+                             String ipAddress, String userAgent) {
+        if (pendingLogCount.get() >= maxPending) {
+            if (droppedLogs.incrementAndGet() % 1000 == 1) {
+                logger.warn("文件访问日志积压已达上限 {}，丢弃新日志，累计丢弃 {} 条", maxPending, droppedLogs.get());
+            }
+            return;
+        }
+
+        pendingLogs.add(new FileAccessLog(fileId, userId, action, ipAddress, userAgent));
+        if (pendingLogCount.incrementAndGet() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // 关闭中，由shutdown完成最后一次落库
+            }
+        }
+    }
+
+    /**
+     * 将缓冲的计数与日志落库
+     * 只由flush线程（及关闭时）调用；失败时整批回滚并放回缓冲，下次重试
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+
+        Map<Long, Long> downloads = drainDownloads();
+        List<FileAccessLog> logs = drainLogs();
+        if (downloads.isEmpty() && logs.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!downloads.isEmpty()) {
+                    List<Object[]> args = new ArrayList<>(downloads.size());
+                    downloads.forEach((fileId, delta) -> args.add(new Object[] {delta, fileId}));
+                    jdbcTemplate.batchUpdate(UPDATE_DOWNLOAD_COUNT_SQL, args);
+                }
+                if (!logs.isEmpty()) {
+                    List<Object[]> args = new ArrayList<>(logs.size());
+                    // 本批内同一UA只解析一次；新UA的ID在本事务提交后才进入字典缓存
+                    Map<String, Integer> userAgentIds = new HashMap<>();
+                    for (FileAccessLog log : logs) {
+                        Integer userAgentId = log.getUserAgent() == null ? null
+                            : userAgentIds.computeIfAbsent(log.getUserAgent(), userAgentDictionary::resolve);
+                        args.add(new Object[] {
+                            log.getFileAttachmentId(), log.getUserId(), log.getAction().name(),
+                            log.getIpAddress(), userAgentId,
+                            Timestamp.valueOf(log.getAccessTime())
+                        });
+                    }
+                    jdbcTemplate.batchUpdate(INSERT_ACCESS_LOG_SQL, args);
+                }
+            });
+            logger.debug("文件访问记账已落库: 计数 {} 个文件, 日志 {} 条", downloads.size(), logs.size());
+        } catch (RuntimeException e) {
+            downloads.forEach((fileId, delta) -> pendingDownloads.merge(fileId, delta, Long::sum));
+            logs.forEach(pendingLogs::add);
+            pendingLogCount.addAndGet(logs.size());
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("文件访问记账落库失败，将在下次重试", e);
+        }
+    }
+
+    private Map<Long, Long> drainDownloads() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Long fileId : pendingDownloads.keySet()) {
+            // remove按键原子取出，与并发的merge不会丢失增量
+            Long delta = pendingDownloads.remove(fileId);
+            if (delta != null) {
+                drained.put(fileId, delta);
+            }
+        }
+        return drained;
+    }
+
+    private List<FileAccessLog> drainLogs() {
+        List<FileAccessLog> drained = new ArrayList<>();
+        FileAccessLog log;
+        while ((log = pendingLogs.poll()) != null) {
+            drained.add(log);
+        }
+        pendingLogCount.addAndGet(-drained.size());
+        return drained;
+    }
+}
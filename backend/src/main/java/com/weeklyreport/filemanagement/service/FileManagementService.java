@@ -1,36 +1,32 @@
 package com.weeklyreport.filemanagement.service;
 
 import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.config.PresignMinioClient;
 import com.weeklyreport.filemanagement.dto.FileUploadRequest;
 import com.weeklyreport.filemanagement.dto.FileUploadResponse;
 import com.weeklyreport.filemanagement.entity.FileAccessLog;
 import com.weeklyreport.filemanagement.entity.FileAttachment;
 import com.weeklyreport.filemanagement.entity.WeeklyReportAttachment;
-import com.weeklyreport.filemanagement.repository.FileAccessLogRepository;
 import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
 import com.weeklyreport.filemanagement.repository.WeeklyReportAttachmentRepository;
-import io.minio.GetPresignedObjectUrlArgs;
+import com.weeklyreport.weeklyreport.service.WeeklyReportCounterService;
 import io.minio.MinioClient;
-import io.minio.PutObjectArgs;
-import io.minio.StatObjectArgs;
-import io.minio.http.Method;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.nio.file.Paths;
-import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -50,6 +46,9 @@ public class FileManagementService {
     @Autowired
     private MinioClient minioClient;
 
+    @Autowired
+    private PresignMinioClient presignMinioClient;
+
     @Autowired
     private MinIOConfig.MinIOProperties minIOProperties;
 
@@ -60,11 +59,34 @@ public class FileManagementService {
     private WeeklyReportAttachmentRepository weeklyReportAttachmentRepository;
 
     @Autowired
-    private FileAccessLogRepository fileAccessLogRepository;
+    private StreamingObjectDownloader streamingObjectDownloader;
+
+    @Autowired
+    private FileAccessRecorder fileAccessRecorder;
+
+    @Autowired
+    private AttachmentThumbnailService attachmentThumbnailService;
+
+    @Autowired
+    private StreamingObjectUploader streamingObjectUploader;
+
+    @Autowired
+    private WeeklyReportCounterService weeklyReportCounterService;
+
+    // 文件记录在独立短事务中插入：唯一索引冲突只回滚这一条插入，不会把请求事务标记为仅回滚
+    private TransactionTemplate insertTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.insertTransaction = new TransactionTemplate(transactionManager);
+        this.insertTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
      * 上传文件并关联到周报
-     * 采用半异步模式：文件上传同步，后处理异步
+     * 采用半异步模式：文件上传同步，后处理异步。
+     * 请求体只读取一次，哈希在上传过程中同步计算，上传完成后再按哈希去重。
+     * 文件记录在独立事务中插入，并发上传相同内容时以唯一索引为准，后到者复用已提交的记录。
      */
     public FileUploadResponse uploadFile(MultipartFile file, FileUploadRequest request, 
                                        Long userId, HttpServletRequest httpRequest) {
@@ -77,44 +99,52 @@ public class FileManagementService {
             String fileExtension = getFileExtension(originalFilename);
             String storedFilename = generateStoredFilename(fileExtension);
             String filePath = generateFilePath(storedFilename, request.getAttachmentType());
-            String fileHash = calculateFileHash(file.getInputStream());
+            String bucketName = minIOProperties.getBucketName();
+
+            // 3. 单遍上传到MinIO（分片上传），同时计算哈希
+            StreamingObjectUploader.UploadResult uploadResult = uploadToMinIO(file, bucketName, filePath);
+            String fileHash = uploadResult.getSha256();
 
-            // 3. 检查文件去重
+            // 4. 检查文件去重：命中则删除刚上传的对象，指向已有文件
             Optional<FileAttachment> existingFile = fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(fileHash);
             if (existingFile.isPresent()) {
-                logger.info("发现重复文件，复用现有文件: {}", existingFile.get().getOriginalFilename());
-                FileAttachment existing = existingFile.get();
-                if (request.getWeeklyReportId() != null) {
-                    return createWeeklyReportAttachment(existing, request, userId);
-                } else {
-                    return FileUploadResponse.fromFileAttachment(existing);
-                }
+                streamingObjectUploader.remove(bucketName, filePath);
+                return reuseExistingFile(existingFile.get(), request, userId);
             }
 
-            // 4. 创建文件记录（先标记为上传中）
+            // 5. 创建文件记录（对象已写入MinIO，直接标记完成）
             FileAttachment fileAttachment = new FileAttachment(
                 originalFilename, storedFilename, filePath, 
-                file.getSize(), file.getContentType(), fileExtension, userId
+                uploadResult.getBytes(), file.getContentType(), fileExtension, userId
             );
-            fileAttachment.setBucketName(minIOProperties.getBucketName());
+            fileAttachment.setBucketName(bucketName);
             fileAttachment.setFileHash(fileHash);
-            fileAttachment.setUploadStatus(FileAttachment.UploadStatus.UPLOADING);
-            fileAttachment.setIsPublic(request.getIsPublic());
-            
-            fileAttachment = fileAttachmentRepository.save(fileAttachment);
-
-            // 5. 上传文件到MinIO（同步）
-            uploadToMinIO(file, filePath, fileAttachment);
-
-            // 6. 更新上传状态为完成
             fileAttachment.setUploadStatus(FileAttachment.UploadStatus.COMPLETED);
             fileAttachment.setUploadProgress(100);
-            fileAttachment = fileAttachmentRepository.save(fileAttachment);
+            fileAttachment.setIsPublic(request.getIsPublic());
+
+            FileAttachment newAttachment = fileAttachment;
+            try {
+                fileAttachment = insertTransaction.execute(status -> fileAttachmentRepository.saveAndFlush(newAttachment));
+            } catch (DataIntegrityViolationException e) {
+                // 并发上传了相同内容：唯一索引 uk_file_attachments_active_hash 拒绝后到者，改为复用先提交的记录
+                streamingObjectUploader.remove(bucketName, filePath);
+                FileAttachment winner = insertTransaction.execute(status ->
+                    fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(fileHash).orElse(null));
+                if (winner == null) {
+                    throw e;
+                }
+                return reuseExistingFile(winner, request, userId);
+            } catch (RuntimeException e) {
+                // 记录未落库时清理已上传的对象，避免孤儿文件
+                streamingObjectUploader.remove(bucketName, filePath);
+                throw e;
+            }
 
-            // 7. 记录访问日志
+            // 6. 记录访问日志
             logFileAccess(fileAttachment.getId(), userId, FileAccessLog.AccessAction.UPLOAD, httpRequest);
 
-            // 8. 创建周报关联（仅当提供weeklyReportId时）
+            // 7. 创建周报关联（仅当提供weeklyReportId时）
             FileUploadResponse response;
             if (request.getWeeklyReportId() != null) {
                 response = createWeeklyReportAttachment(fileAttachment, request, userId);
@@ -123,11 +153,12 @@ public class FileManagementService {
                 response = FileUploadResponse.fromFileAttachment(fileAttachment);
             }
 
-            // 9. 异步后处理（缩略图生成等）
-            asyncPostProcessFile(fileAttachment);
+            // 8. 异步后处理（缩略图/PDF预览生成），事务提交后入队
+            attachmentThumbnailService.submit(fileAttachment);
 
-            logger.info("文件上传成功: {} -> {}, 周报关联: {}", originalFilename, filePath,
-                       request.getWeeklyReportId() != null ? "是" : "否");
+            logger.info("文件上传成功: {} -> {}, 周报关联: {}, 吞吐: {} MB/s", originalFilename, filePath,
+                       request.getWeeklyReportId() != null ? "是" : "否",
+                       String.format("%.1f", uploadResult.getThroughputMbPerSecond()));
             return response;
 
         } catch (Exception e) {
@@ -136,11 +167,23 @@ public class FileManagementService {
         }
     }
 
+    /**
+     * 相同内容的文件已存在时复用该记录
+     */
+    private FileUploadResponse reuseExistingFile(FileAttachment existing, FileUploadRequest request, Long userId) {
+        logger.info("发现重复文件，复用现有文件: {}", existing.getOriginalFilename());
+        if (request.getWeeklyReportId() != null) {
+            return createWeeklyReportAttachment(existing, request, userId);
+        }
+        return FileUploadResponse.fromFileAttachment(existing);
+    }
+
     /**
      * 下载文件
+     * @param mode 下载方式 proxy / redirect，为空时使用 minio.download-mode
      */
     @Transactional(readOnly = true)
-    public ResponseEntity<Resource> downloadFile(Long fileId, Long userId, HttpServletRequest httpRequest) {
+    public ResponseEntity<Resource> downloadFile(Long fileId, Long userId, String mode, HttpServletRequest httpRequest) {
         try {
             // 1. 获取文件信息
             FileAttachment fileAttachment = fileAttachmentRepository.findById(fileId)
@@ -155,29 +198,16 @@ public class FileManagementService {
                 throw new RuntimeException("没有权限访问该文件");
             }
 
-            // 3. 从MinIO获取文件流
-            InputStream fileStream = minioClient.getObject(
-                io.minio.GetObjectArgs.builder()
-                    .bucket(fileAttachment.getBucketName())
-                    .object(fileAttachment.getFilePath())
-                    .build()
-            );
-
-            // 4. 更新下载计数（异步）
-            asyncUpdateDownloadCount(fileId);
+            // 3. 重定向到预签名URL，或经后端按Range转发
+            ResponseEntity<Resource> response = streamingObjectDownloader.download(fileAttachment, mode, httpRequest);
 
-            // 5. 记录访问日志（异步）
-            asyncLogFileAccess(fileId, userId, FileAccessLog.AccessAction.DOWNLOAD, httpRequest);
+            // 4. 更新下载计数、记录访问日志（写后缓冲，批量落库）；304和续传区间不重复计数
+            if (StreamingObjectDownloader.isNewDownload(response)) {
+                fileAccessRecorder.recordDownload(fileId);
+                logFileAccess(fileId, userId, FileAccessLog.AccessAction.DOWNLOAD, httpRequest);
+            }
 
-            // 6. 构建响应
-            InputStreamResource resource = new InputStreamResource(fileStream);
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "attachment; filename=\"" + fileAttachment.getOriginalFilename() + "\"")
-                    .header(HttpHeaders.CONTENT_TYPE, fileAttachment.getMimeType())
-                    .header(HttpHeaders.CONTENT_LENGTH, fileAttachment.getFileSize().toString())
-                    .body(resource);
+            return response;
 
         } catch (Exception e) {
             logger.error("文件下载失败: fileId={}", fileId, e);
@@ -204,16 +234,7 @@ public class FileManagementService {
             }
 
             // 生成预签名URL（临时访问链接）
-            String presignedUrl = minioClient.getPresignedObjectUrl(
-                GetPresignedObjectUrlArgs.builder()
-                    .method(Method.GET)
-                    .bucket(fileAttachment.getBucketName())
-                    .object(fileAttachment.getFilePath())
-                    .expiry(minIOProperties.getUrlExpirySeconds())
-                    .build()
-            );
-
-            return presignedUrl;
+            return presignedGetUrl(fileAttachment.getBucketName(), fileAttachment.getFilePath());
 
         } catch (Exception e) {
             logger.error("获取文件预览URL失败: fileId={}", fileId, e);
@@ -234,9 +255,17 @@ public class FileManagementService {
                 throw new RuntimeException("没有权限删除该文件");
             }
 
-            // 软删除
+            if (fileAttachment.isDeleted()) {
+                logger.info("文件已是删除状态: fileId={}", fileId);
+                return;
+            }
+
+            // 软删除，关联周报的附件数同步减一
             fileAttachment.markAsDeleted();
             fileAttachmentRepository.save(fileAttachment);
+            for (WeeklyReportAttachment link : weeklyReportAttachmentRepository.findByFileAttachmentId(fileId)) {
+                weeklyReportCounterService.adjustAttachmentCount(link.getWeeklyReportId(), -1);
+            }
 
             logger.info("文件已标记删除: fileId={}, filename={}", fileId, fileAttachment.getOriginalFilename());
 
@@ -269,6 +298,9 @@ public class FileManagementService {
                         }
                     }
 
+                    // 设置缩略图/首页预览图URL（已生成时），列表页无需下载原文件
+                    setDerivedImageUrls(response, attachment.getFileAttachment());
+
                     return response;
                 })
                 .toList();
@@ -276,6 +308,27 @@ public class FileManagementService {
 
     // ================== 私有辅助方法 ==================
 
+    private void setDerivedImageUrls(FileUploadResponse response, FileAttachment fileAttachment) {
+        if (fileAttachment.getThumbnailPath() == null) {
+            // 上传时任务被拒绝或丢失，首次读取时补生成，本次先回退为原文件预览
+            attachmentThumbnailService.submitIfMissing(fileAttachment);
+        }
+        try {
+            if (fileAttachment.getThumbnailPath() != null) {
+                response.setThumbnailUrl(presignedGetUrl(fileAttachment.getBucketName(), fileAttachment.getThumbnailPath()));
+            }
+            if (fileAttachment.getPreviewPath() != null) {
+                response.setPreviewImageUrl(presignedGetUrl(fileAttachment.getBucketName(), fileAttachment.getPreviewPath()));
+            }
+        } catch (Exception e) {
+            logger.warn("生成缩略图URL失败: fileId={}", fileAttachment.getId(), e);
+        }
+    }
+
+    private String presignedGetUrl(String bucketName, String objectName) throws Exception {
+        return presignMinioClient.presignedGetUrl(bucketName, objectName, minIOProperties.getUrlExpirySeconds(), null);
+    }
+
     /**
      * 验证文件
      */
@@ -283,12 +336,21 @@ public class FileManagementService {
         if (file.isEmpty()) {
             throw new RuntimeException("文件不能为空");
         }
+        validateFileMetadata(file.getSize(), file.getContentType());
+    }
+
+    /**
+     * 校验文件大小与类型（分片上传在初始化时只有元数据）
+     */
+    void validateFileMetadata(long fileSize, String contentType) {
+        if (fileSize <= 0) {
+            throw new RuntimeException("文件不能为空");
+        }
 
-        if (file.getSize() > minIOProperties.getMaxFileSize()) {
+        if (fileSize > minIOProperties.getMaxFileSize()) {
             throw new RuntimeException("文件大小超过限制: " + (minIOProperties.getMaxFileSize() / 1024 / 1024) + "MB");
         }
 
-        String contentType = file.getContentType();
         if (contentType == null || !Arrays.asList(minIOProperties.getAllowedContentTypes()).contains(contentType)) {
             throw new RuntimeException("不支持的文件类型: " + contentType);
         }
@@ -297,7 +359,7 @@ public class FileManagementService {
     /**
      * 获取文件扩展名
      */
-    private String getFileExtension(String filename) {
+    String getFileExtension(String filename) {
         if (filename == null || filename.isEmpty()) {
             return "";
         }
@@ -308,60 +370,27 @@ public class FileManagementService {
     /**
      * 生成存储文件名
      */
-    private String generateStoredFilename(String fileExtension) {
+    String generateStoredFilename(String fileExtension) {
         return UUID.randomUUID().toString() + (fileExtension.isEmpty() ? "" : "." + fileExtension);
     }
 
     /**
      * 生成文件路径
      */
-    private String generateFilePath(String storedFilename, WeeklyReportAttachment.AttachmentType attachmentType) {
+    String generateFilePath(String storedFilename, WeeklyReportAttachment.AttachmentType attachmentType) {
         String typePath = attachmentType.name().toLowerCase().replace("_", "-");
         String datePath = LocalDateTime.now().toString().substring(0, 10); // YYYY-MM-DD
         return Paths.get("weekly-reports", typePath, datePath, storedFilename).toString();
     }
 
     /**
-     * 计算文件哈希值（用于去重）
+     * 上传文件到MinIO，返回上传过程中计算的哈希
      */
-    private String calculateFileHash(InputStream inputStream) {
+    private StreamingObjectUploader.UploadResult uploadToMinIO(MultipartFile file, String bucketName, String filePath) {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                md.update(buffer, 0, bytesRead);
-            }
-            byte[] hashBytes = md.digest();
-            StringBuilder sb = new StringBuilder();
-            for (byte b : hashBytes) {
-                sb.append(String.format("%02x", b));
-            }
-            return sb.toString();
+            return streamingObjectUploader.upload(file.getInputStream(), file.getSize(),
+                                                  file.getContentType(), bucketName, filePath);
         } catch (Exception e) {
-            logger.warn("计算文件哈希值失败", e);
-            return null;
-        }
-    }
-
-    /**
-     * 上传文件到MinIO
-     */
-    private void uploadToMinIO(MultipartFile file, String filePath, FileAttachment fileAttachment) {
-        try {
-            minioClient.putObject(
-                PutObjectArgs.builder()
-                    .bucket(minIOProperties.getBucketName())
-                    .object(filePath)
-                    .stream(file.getInputStream(), file.getSize(), -1)
-                    .contentType(file.getContentType())
-                    .build()
-            );
-        } catch (Exception e) {
-            // 上传失败，更新状态
-            fileAttachment.setUploadStatus(FileAttachment.UploadStatus.FAILED);
-            fileAttachment.setErrorMessage(e.getMessage());
-            fileAttachmentRepository.save(fileAttachment);
             throw new RuntimeException("上传到MinIO失败", e);
         }
     }
@@ -369,8 +398,8 @@ public class FileManagementService {
     /**
      * 创建周报附件关联
      */
-    private FileUploadResponse createWeeklyReportAttachment(FileAttachment fileAttachment, 
-                                                          FileUploadRequest request, Long userId) {
+    FileUploadResponse createWeeklyReportAttachment(FileAttachment fileAttachment, 
+                                                  FileUploadRequest request, Long userId) {
         // 获取最大显示顺序
         Integer maxOrder = weeklyReportAttachmentRepository
                 .getMaxDisplayOrderByWeeklyReportId(request.getWeeklyReportId());
@@ -389,21 +418,21 @@ public class FileManagementService {
                                        request.getDisplayOrder() : maxOrder + 1);
 
         reportAttachment = weeklyReportAttachmentRepository.save(reportAttachment);
+        weeklyReportCounterService.adjustAttachmentCount(reportAttachment.getWeeklyReportId(), 1);
 
         return FileUploadResponse.fromFileAttachmentWithRelation(fileAttachment, reportAttachment);
     }
 
     /**
-     * 记录文件访问日志
+     * 记录文件访问日志（请求线程内取出客户端信息后交给写后缓冲）
      */
-    private void logFileAccess(Long fileId, Long userId, FileAccessLog.AccessAction action, 
-                             HttpServletRequest httpRequest) {
+    void logFileAccess(Long fileId, Long userId, FileAccessLog.AccessAction action, 
+                       HttpServletRequest httpRequest) {
         try {
             String ipAddress = getClientIpAddress(httpRequest);
             String userAgent = httpRequest.getHeader("User-Agent");
             
-            FileAccessLog log = new FileAccessLog(fileId, userId, action, ipAddress, userAgent);
-            fileAccessLogRepository.save(log);
+            fileAccessRecorder.recordAccess(fileId, userId, action, ipAddress, userAgent);
         } catch (Exception e) {
             logger.warn("记录文件访问日志失败: fileId={}, action={}", fileId, action, e);
         }
@@ -425,52 +454,4 @@ public class FileManagementService {
         
         return request.getRemoteAddr();
     }
-
-    // ================== 异步方法 ==================
-
-    /**
-     * 异步后处理文件（缩略图生成等）
-     */
-    @Async
-    public void asyncPostProcessFile(FileAttachment fileAttachment) {
-        try {
-            // TODO: 实现缩略图生成、图片压缩等功能
-            logger.info("开始异步处理文件: {}", fileAttachment.getOriginalFilename());
-            
-            // 示例：如果是图片，可以生成缩略图
-            if (fileAttachment.isImage()) {
-                // generateThumbnail(fileAttachment);
-            }
-            
-            logger.info("文件异步处理完成: {}", fileAttachment.getOriginalFilename());
-        } catch (Exception e) {
-            logger.error("文件异步处理失败: {}", fileAttachment.getOriginalFilename(), e);
-        }
-    }
-
-    /**
-     * 异步更新下载计数
-     */
-    @Async
-    public void asyncUpdateDownloadCount(Long fileId) {
-        try {
-            Optional<FileAttachment> optionalFile = fileAttachmentRepository.findById(fileId);
-            if (optionalFile.isPresent()) {
-                FileAttachment file = optionalFile.get();
-                file.incrementDownloadCount();
-                fileAttachmentRepository.save(file);
-            }
-        } catch (Exception e) {
-            logger.warn("更新下载计数失败: fileId={}", fileId, e);
-        }
-    }
-
-    /**
-     * 异步记录文件访问日志
-     */
-    @Async
-    public void asyncLogFileAccess(Long fileId, Long userId, FileAccessLog.AccessAction action, 
-                                 HttpServletRequest httpRequest) {
-        logFileAccess(fileId, userId, action, httpRequest);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.config.PresignMinioClient;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对象下载
+ * redirect：302到短时效预签名URL，字节不经过JVM；
+ * proxy：经后端转发，支持Range（206/416，多段合并为单段）与基于文件哈希的ETag/Last-Modified条件请求（304），
+ * Range只向MinIO请求所需区间，不读取整个对象。
+ */
+@Component
+public class StreamingObjectDownloader {
+
+    public static final String MODE_PROXY = "proxy";
+    public static final String MODE_REDIRECT = "redirect";
+
+    private final MinioClient minioClient;
+    private final PresignMinioClient presignMinioClient;
+    private final MinIOConfig.MinIOProperties minIOProperties;
+
+    public StreamingObjectDownloader(MinioClient minioClient, PresignMinioClient presignMinioClient,
+                                     MinIOConfig.MinIOProperties minIOProperties) {
+        this.minioClient = minioClient;
+        this.presignMinioClient = presignMinioClient;
+        this.minIOProperties = minIOProperties;
+    }
+
+    /**
+     * 按指定方式下载，mode为空时使用 minio.download-mode
+     */
+    public ResponseEntity<Resource> download(FileAttachment fileAttachment, String mode,
+                                             HttpServletRequest httpRequest) throws Exception {
+        String effectiveMode = mode != null ? mode : minIOProperties.getDownloadMode();
+        if (MODE_REDIRECT.equalsIgnoreCase(effectiveMode)) {
+            return redirect(fileAttachment);
+        }
+        return proxy(fileAttachment, httpRequest);
+    }
+
+    /**
+     * 重定向到预签名GET URL，URL以对外地址签名
+     */
+    public ResponseEntity<Resource> redirect(FileAttachment fileAttachment) throws Exception {
+        String presignedUrl = presignMinioClient.presignedGetUrl(
+            fileAttachment.getBucketName(),
+            fileAttachment.getFilePath(),
+            minIOProperties.getDownloadUrlExpirySeconds(),
+            Map.of(
+                "response-content-disposition", contentDisposition(fileAttachment),
+                "response-content-type", contentType(fileAttachment)
+            )
+        );
+
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(presignedUrl))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    /**
+     * 经后端转发下载
+     */
+    public ResponseEntity<Resource> proxy(FileAttachment fileAttachment, HttpServletRequest httpRequest) throws Exception {
+        String eTag = eTag(fileAttachment);
+        long lastModified = lastModified(fileAttachment);
+        long fileSize = fileAttachment.getFileSize();
+
+        if (isNotModified(httpRequest, eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(validators(eTag, lastModified))
+                    .build();
+        }
+
+        HttpHeaders headers = validators(eTag, lastModified);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(fileAttachment));
+        headers.set(HttpHeaders.CONTENT_TYPE, contentType(fileAttachment));
+
+        HttpRange range = singleRange(httpRequest, fileSize);
+        if (range != null) {
+            long start = range.getRangeStart(fileSize);
+            if (start >= fileSize) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + fileSize);
+                return new ResponseEntity<>(headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+            long end = range.getRangeEnd(fileSize);
+            long length = end - start + 1;
+
+            InputStream stream = minioClient.getObject(
+                GetObjectArgs.builder()
+                    .bucket(fileAttachment.getBucketName())
+                    .object(fileAttachment.getFilePath())
+                    .offset(start)
+                    .length(length)
+                    .build()
+            );
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileSize);
+            headers.setContentLength(length);
+            return new ResponseEntity<>(new SizedInputStreamResource(stream, length), headers, HttpStatus.PARTIAL_CONTENT);
+        }
+
+        InputStream stream = minioClient.getObject(
+            GetObjectArgs.builder()
+                .bucket(fileAttachment.getBucketName())
+                .object(fileAttachment.getFilePath())
+                .build()
+        );
+        headers.setContentLength(fileSize);
+        return new ResponseEntity<>(new SizedInputStreamResource(stream, fileSize), headers, HttpStatus.OK);
+    }
+
+    /**
+     * 是否为一次新的下载（用于下载计数）：断点续传/拖动产生的后续区间请求不重复计数
+     */
+    public static boolean isNewDownload(ResponseEntity<?> response) {
+        if (response.getStatusCode() == HttpStatus.OK || response.getStatusCode() == HttpStatus.FOUND) {
+            return true;
+        }
+        String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+        return response.getStatusCode() == HttpStatus.PARTIAL_CONTENT
+                && contentRange != null && contentRange.startsWith("bytes 0-");
+    }
+
+    // ================== 私有辅助方法 ==================
+
+    /**
+     * 强ETag取自内容SHA-256；分片上传的文件没有哈希，退化为ID+大小（对象内容上传后不再变化）
+     */
+    private String eTag(FileAttachment fileAttachment) {
+        if (fileAttachment.getFileHash() != null) {
+            return "\"" + fileAttachment.getFileHash() + "\"";
+        }
+        return "\"" + fileAttachment.getId() + "-" + fileAttachment.getFileSize() + "\"";
+    }
+
+    private HttpHeaders validators(String eTag, long lastModified) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag);
+        if (lastModified >= 0) {
+            headers.setLastModified(lastModified);
+        }
+        return headers;
+    }
+
+    private long lastModified(FileAttachment fileAttachment) {
+        if (fileAttachment.getCreatedAt() == null) {
+            return -1;
+        }
+        // HTTP日期精度为秒
+        return fileAttachment.getCreatedAt().atZone(ZoneId.systemDefault()).toEpochSecond() * 1000;
+    }
+
+    private boolean isNotModified(HttpServletRequest httpRequest, String eTag, long lastModified) {
+        String ifNoneMatch = httpRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // If-None-Match优先，使用弱比较
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (lastModified < 0) {
+            return false;
+        }
+        try {
+            long ifModifiedSince = httpRequest.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 解析Range，多段请求合并为覆盖全部区间的单段（RFC 7233允许以单段206响应）。
+     * 对象内容上传后不再变化，If-Range总是匹配，无需校验。
+     */
+    private HttpRange singleRange(HttpServletRequest httpRequest, long fileSize) {
+        String rangeHeader = httpRequest.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            if (ranges.size() == 1) {
+                return ranges.get(0);
+            }
+            long start = Long.MAX_VALUE;
+            long end = -1;
+            for (HttpRange range : ranges) {
+                start = Math.min(start, range.getRangeStart(fileSize));
+                end = Math.max(end, range.getRangeEnd(fileSize));
+            }
+            return start < fileSize ? HttpRange.createByteRange(start, end) : HttpRange.createByteRange(fileSize);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * 历史数据可能没有MIME类型，退化为 application/octet-stream
+     */
+    private String contentType(FileAttachment fileAttachment) {
+        String mimeType = fileAttachment.getMimeType();
+        return mimeType != null && !mimeType.isBlank() ? mimeType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private String contentDisposition(FileAttachment fileAttachment) {
+        return ContentDisposition.attachment()
+                .filename(fileAttachment.getOriginalFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString();
+    }
+
+    /**
+     * 已知长度的流资源：避免Spring为取contentLength而读取整个流
+     */
+    private static class SizedInputStreamResource extends InputStreamResource {
+        private final long length;
+
+        SizedInputStreamResource(InputStream inputStream, long length) {
+            super(inputStream);
+            this.length = length;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+    }
+}
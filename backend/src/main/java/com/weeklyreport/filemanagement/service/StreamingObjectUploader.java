@@ -0,0 +1,150 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 单遍流式上传
+ * 请求体只读取一次：经 DigestInputStream 边读边计算SHA-256，同时以分片上传写入MinIO。
+ * 内存占用上限约为一个分片大小，与文件大小无关。
+ */
+@Component
+public class StreamingObjectUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingObjectUploader.class);
+
+    private final MinioClient minioClient;
+    private final MinIOConfig.MinIOProperties minIOProperties;
+
+    public StreamingObjectUploader(MinioClient minioClient, MinIOConfig.MinIOProperties minIOProperties) {
+        this.minioClient = minioClient;
+        this.minIOProperties = minIOProperties;
+    }
+
+    /**
+     * 上传对象并返回内容哈希
+     * @param inputStream 请求体流（由本方法关闭）
+     * @param size 内容长度，未知时传-1
+     */
+    public UploadResult upload(InputStream inputStream, long size, String contentType,
+                               String bucket, String objectName) throws Exception {
+        long startNanos = System.nanoTime();
+        MessageDigest digest = newDigest();
+        try (CountingInputStream counting = new CountingInputStream(new DigestInputStream(inputStream, digest))) {
+            minioClient.putObject(
+                PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .stream(counting, size, minIOProperties.getPartSize())
+                    .contentType(contentType)
+                    .build()
+            );
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            UploadResult result = new UploadResult(HexFormat.of().formatHex(digest.digest()),
+                                                   counting.getCount(), elapsedNanos);
+            logger.debug("流式上传完成: {} ({} bytes, {} MB/s)", objectName, result.getBytes(),
+                         String.format("%.1f", result.getThroughputMbPerSecond()));
+            return result;
+        }
+    }
+
+    /**
+     * 删除对象（去重命中或事务回滚时清理）
+     */
+    public void remove(String bucket, String objectName) {
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(objectName).build());
+        } catch (Exception e) {
+            logger.warn("清理MinIO对象失败: {}/{}", bucket, objectName, e);
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 上传结果
+     */
+    public static class UploadResult {
+        private final String sha256;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        public UploadResult(String sha256, long bytes, long elapsedNanos) {
+            this.sha256 = sha256;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getThroughputMbPerSecond() {
+            return elapsedNanos > 0 ? (bytes / 1024.0 / 1024.0) / (elapsedNanos / 1_000_000_000.0) : 0.0;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // 跳过的字节不会进入摘要，禁止跳读
+            return 0;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
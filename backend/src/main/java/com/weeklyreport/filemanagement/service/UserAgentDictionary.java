@@ -0,0 +1,77 @@
+package com.weeklyreport.filemanagement.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User-Agent字典编码
+ * 访问日志只存 user_agents 表的整型ID；UA种类有限，本地缓存命中后不再访问数据库。
+ * 缓存按最近使用淘汰，异常UA泛滥时只挤出冷门条目；新ID在事务提交后才进入缓存，回滚不会留下指向不存在行的ID。
+ */
+@Component
+public class UserAgentDictionary {
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Integer> cache = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > MAX_CACHED;
+            }
+        });
+
+    public UserAgentDictionary(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 取得User-Agent对应的字典ID，不存在时插入
+     * 在事务内调用时，插入随事务提交或回滚，ID提交后才写入缓存
+     */
+    public Integer resolve(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return null;
+        }
+        Integer cached = cache.get(userAgent);
+        if (cached != null) {
+            return cached;
+        }
+
+        String hash = sha256(userAgent);
+        jdbcTemplate.update("INSERT IGNORE INTO user_agents (ua_hash, user_agent) VALUES (?, ?)", hash, userAgent);
+        Integer id = jdbcTemplate.queryForObject("SELECT id FROM user_agents WHERE ua_hash = ?", Integer.class, hash);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(userAgent, id);
+                }
+            });
+        } else {
+            cache.put(userAgent, id);
+        }
+        return id;
+    }
+
+    private String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+}
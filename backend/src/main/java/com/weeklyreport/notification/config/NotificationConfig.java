@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 通知服务配置类
@@ -15,16 +16,21 @@ import java.util.concurrent.Executor;
 public class NotificationConfig {
 
     /**
-     * 异步邮件发送线程池
+     * 邮件投递线程池
+     * 发件箱投递轮次在此执行，SMTP变慢只会占满本线程池，不影响定时任务线程和其他异步负载；
+     * 队列满时拒绝入队（由 NotificationDispatcher 释放本轮名额并跳过），消息仍留在发件箱中，
+     * 下一轮继续投递，不回退到调用线程执行
      */
     @Bean(name = "notificationTaskExecutor")
     public Executor notificationTaskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("NotificationEmail-");
-        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("notification-mail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
         executor.initialize();
         return executor;
     }
@@ -23,7 +23,8 @@ public class NotificationRequest {
         WEEKLY_REPORT_PENDING_ADMIN_REVIEW("周报待管理员审核"),
         WEEKLY_REPORT_ADMIN_REJECTED("周报管理员拒绝"),
         WEEKLY_REPORT_ADMIN_APPROVED("周报管理员通过"),
-        WEEKLY_REPORT_SUPERVISOR_FORCE_SUBMITTED("主管强制提交周报");
+        WEEKLY_REPORT_SUPERVISOR_FORCE_SUBMITTED("主管强制提交周报"),
+        WEEKLY_REPORT_SUBMISSION_REMINDER("周报提交提醒");
 
         private final String description;
 
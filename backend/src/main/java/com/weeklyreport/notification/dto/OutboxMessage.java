@@ -0,0 +1,59 @@
+package com.weeklyreport.notification.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 发件箱中的一条待投递通知（一个收件人一行）
+ */
+public class OutboxMessage {
+
+    private final Long id;
+    private final String recipient;
+    private final String notificationType;
+    private final String subject;
+    private final String contentHtml;
+    private final int attempts;
+    private final LocalDateTime createdAt;
+
+    public OutboxMessage(Long id, String recipient, String notificationType, String subject,
+                         String contentHtml, int attempts, LocalDateTime createdAt) {
+        this.id = id;
+        this.recipient = recipient;
+        this.notificationType = notificationType;
+        this.subject = subject;
+        this.contentHtml = contentHtml;
+        this.attempts = attempts;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getNotificationType() {
+        return notificationType;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getContentHtml() {
+        return contentHtml;
+    }
+
+    /**
+     * 包含本次在内的投递次数
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.weeklyreport.notification.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 项目批量审批事件
+ * 触发时机：管理员或超级管理员批量审批/拒绝项目，一次操作只发布一个事件
+ * 通知对象：与单条审批相同，同一收件人的多条通知由发件箱合并为一封摘要邮件
+ */
+public class ProjectsBulkReviewedEvent {
+
+    /**
+     * 审批结论，与单条审批事件一一对应
+     */
+    public enum Decision {
+        ADMIN_APPROVED,
+        ADMIN_REJECTED,
+        SUPER_ADMIN_APPROVED,
+        SUPER_ADMIN_REJECTED
+    }
+
+    private final Decision decision;
+    private final List<ReviewedProject> projects;
+    private final Long triggerUserId;
+    private final String rejectionReason;
+    private final LocalDateTime timestamp;
+
+    public ProjectsBulkReviewedEvent(Decision decision, List<ReviewedProject> projects,
+                                     Long triggerUserId, String rejectionReason) {
+        this.decision = decision;
+        this.projects = projects;
+        this.triggerUserId = triggerUserId;
+        this.rejectionReason = rejectionReason;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public List<ReviewedProject> getProjects() {
+        return projects;
+    }
+
+    public Long getTriggerUserId() {
+        return triggerUserId;
+    }
+
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 被审批的项目
+     */
+    public static class ReviewedProject {
+        private final Long projectId;
+        private final String projectName;
+        private final String projectOwnerName;
+
+        public ReviewedProject(Long projectId, String projectName, String projectOwnerName) {
+            this.projectId = projectId;
+            this.projectName = projectName;
+            this.projectOwnerName = projectOwnerName;
+        }
+
+        public Long getProjectId() {
+            return projectId;
+        }
+
+        public String getProjectName() {
+            return projectName;
+        }
+
+        public String getProjectOwnerName() {
+            return projectOwnerName;
+        }
+    }
+}
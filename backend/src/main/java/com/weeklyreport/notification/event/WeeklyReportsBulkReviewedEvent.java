@@ -0,0 +1,61 @@
+package com.weeklyreport.notification.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * 周报批量审批事件
+ * 一次批量审批/拒绝只发布一个事件，包含本次实际变更的全部周报
+ */
+public class WeeklyReportsBulkReviewedEvent extends ApplicationEvent {
+
+    private final boolean approved;
+    private final List<ReviewedReport> reports;
+    private final String rejectionReason;
+    private final Long reviewerId;
+    private final String reviewerName;
+
+    public WeeklyReportsBulkReviewedEvent(Object source, boolean approved, List<ReviewedReport> reports,
+                                          String rejectionReason, Long reviewerId, String reviewerName) {
+        super(source);
+        this.approved = approved;
+        this.reports = reports;
+        this.rejectionReason = rejectionReason;
+        this.reviewerId = reviewerId;
+        this.reviewerName = reviewerName;
+    }
+
+    // Getters
+    public boolean isApproved() { return approved; }
+    public List<ReviewedReport> getReports() { return reports; }
+    public String getRejectionReason() { return rejectionReason; }
+    public Long getReviewerId() { return reviewerId; }
+    public String getReviewerName() { return reviewerName; }
+
+    /**
+     * 被审批的周报
+     */
+    public static class ReviewedReport {
+        private final Long weeklyReportId;
+        private final String weeklyReportTitle;
+        private final String reportWeek;
+        private final Long reportAuthorId;
+        private final String reportAuthorName;
+
+        public ReviewedReport(Long weeklyReportId, String weeklyReportTitle, String reportWeek,
+                              Long reportAuthorId, String reportAuthorName) {
+            this.weeklyReportId = weeklyReportId;
+            this.weeklyReportTitle = weeklyReportTitle;
+            this.reportWeek = reportWeek;
+            this.reportAuthorId = reportAuthorId;
+            this.reportAuthorName = reportAuthorName;
+        }
+
+        public Long getWeeklyReportId() { return weeklyReportId; }
+        public String getWeeklyReportTitle() { return weeklyReportTitle; }
+        public String getReportWeek() { return reportWeek; }
+        public Long getReportAuthorId() { return reportAuthorId; }
+        public String getReportAuthorName() { return reportAuthorName; }
+    }
+}
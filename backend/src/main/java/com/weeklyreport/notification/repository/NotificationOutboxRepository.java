@@ -0,0 +1,162 @@
+package com.weeklyreport.notification.repository;
+
+import com.weeklyreport.notification.dto.OutboxMessage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知发件箱Repository
+ * 多实例部署时通过 FOR UPDATE SKIP LOCKED 认领消息，认领后置为 SENDING 并以 next_attempt_at 作为租约，
+ * 实例宕机时租约到期的消息会被重新认领。
+ */
+@Repository
+public class NotificationOutboxRepository {
+
+    private static final String COLUMNS =
+        "id, recipient, notification_type, subject, content_html, attempts, created_at";
+
+    private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+        rs.getLong("id"),
+        rs.getString("recipient"),
+        rs.getString("notification_type"),
+        rs.getString("subject"),
+        rs.getString("content_html"),
+        rs.getInt("attempts"),
+        rs.getTimestamp("created_at").toLocalDateTime());
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public NotificationOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * 为每个收件人写入一条待投递消息
+     * 收件人已有未发送过的待投递消息时沿用其到期时间，加入同一合并窗口，到期后一起认领合成摘要
+     * 在业务事务提交后调用，使用独立事务保证写入生效
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void enqueue(Collection<String> recipients, String notificationType, String subject,
+                        String contentHtml, LocalDateTime dueAt) {
+        Timestamp due = Timestamp.valueOf(dueAt);
+        List<Object[]> rows = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            rows.add(new Object[]{recipient, notificationType, subject, contentHtml, recipient, due});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO notification_outbox (recipient, notification_type, subject, content_html, status, next_attempt_at) " +
+            "SELECT ?, ?, ?, ?, 'PENDING', COALESCE(" +
+            "(SELECT MIN(o.next_attempt_at) FROM notification_outbox o " +
+            "WHERE o.recipient = ? AND o.status = 'PENDING' AND o.attempts = 0), ?)", rows);
+    }
+
+    /**
+     * 认领到期消息，并带上同一收件人其他已到期的待发消息（超出本轮上限的部分），便于合并成摘要；
+     * 仍在退避中的重试消息不会被提前带出。
+     * 认领的消息 attempts 加一、状态置为 SENDING，租约到期前不会被再次认领
+     */
+    @Transactional
+    public List<OutboxMessage> claimDue(LocalDateTime now, int limit, LocalDateTime leaseUntil) {
+        List<OutboxMessage> due = jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM notification_outbox " +
+            "WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= ? " +
+            "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED",
+            ROW_MAPPER, Timestamp.valueOf(now), limit);
+        if (due.isEmpty()) {
+            return due;
+        }
+
+        Map<Long, OutboxMessage> claimed = new LinkedHashMap<>();
+        due.forEach(message -> claimed.put(message.getId(), message));
+
+        List<String> recipients = due.stream().map(OutboxMessage::getRecipient).distinct().toList();
+        namedJdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM notification_outbox " +
+            "WHERE status = 'PENDING' AND recipient IN (:recipients) AND next_attempt_at <= :now " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED",
+            new MapSqlParameterSource("recipients", recipients).addValue("now", Timestamp.valueOf(now)), ROW_MAPPER)
+            .forEach(message -> claimed.putIfAbsent(message.getId(), message));
+
+        namedJdbcTemplate.update(
+            "UPDATE notification_outbox SET status = 'SENDING', attempts = attempts + 1, next_attempt_at = :leaseUntil " +
+            "WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", claimed.keySet())
+                .addValue("leaseUntil", Timestamp.valueOf(leaseUntil)));
+
+        List<OutboxMessage> result = new ArrayList<>(claimed.size());
+        for (OutboxMessage message : claimed.values()) {
+            result.add(new OutboxMessage(message.getId(), message.getRecipient(), message.getNotificationType(),
+                                         message.getSubject(), message.getContentHtml(),
+                                         message.getAttempts() + 1, message.getCreatedAt()));
+        }
+        return result;
+    }
+
+    public void markSent(Collection<Long> ids, LocalDateTime sentAt) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(
+            "UPDATE notification_outbox SET status = 'SENT', sent_at = :sentAt, last_error = NULL WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids).addValue("sentAt", Timestamp.valueOf(sentAt)));
+    }
+
+    /**
+     * 投递失败，等待下次重试
+     */
+    public void markRetry(Collection<Long> ids, LocalDateTime nextAttemptAt, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(
+            "UPDATE notification_outbox SET status = 'PENDING', next_attempt_at = :nextAttemptAt, last_error = :error " +
+            "WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids)
+                .addValue("nextAttemptAt", Timestamp.valueOf(nextAttemptAt))
+                .addValue("error", truncate(error)));
+    }
+
+    /**
+     * 超过最大重试次数，转入死信，保留待人工排查
+     */
+    public void markDead(Collection<Long> ids, String error) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(
+            "UPDATE notification_outbox SET status = 'DEAD', last_error = :error WHERE id IN (:ids)",
+            new MapSqlParameterSource("ids", ids).addValue("error", truncate(error)));
+    }
+
+    /**
+     * 删除已发送且早于指定时间的消息
+     */
+    public int deleteSentBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM notification_outbox WHERE status = 'SENT' AND sent_at < ?",
+                                   Timestamp.valueOf(before));
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,121 @@
+package com.weeklyreport.notification.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 预编译邮件模板
+ * 模板文本在类加载时解析一次，拆成静态片段和变量槽位；渲染时只按顺序拼接，
+ * 不再做格式串解析。{{name}} 输出前做HTML转义，{{{name}}} 原样输出（用于已渲染的HTML片段）。
+ */
+public final class EmailTemplate {
+
+    private final String[] literals;
+    private final int[] slotIndexes;
+    private final boolean[] rawSlots;
+    private final int slotCount;
+    private final int literalLength;
+
+    private EmailTemplate(String[] literals, int[] slotIndexes, boolean[] rawSlots, int slotCount) {
+        this.literals = literals;
+        this.slotIndexes = slotIndexes;
+        this.rawSlots = rawSlots;
+        this.slotCount = slotCount;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    /**
+     * 编译模板
+     * @param slotNames 变量名，渲染时按此顺序传值
+     */
+    public static EmailTemplate compile(String source, String... slotNames) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slotIndexes = new ArrayList<>();
+        List<Boolean> rawSlots = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int start = source.indexOf("{{", position);
+            if (start < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", start);
+            String close = raw ? "}}}" : "}}";
+            int nameStart = start + (raw ? 3 : 2);
+            int end = source.indexOf(close, nameStart);
+            if (end < 0) {
+                throw new IllegalArgumentException("模板变量未闭合: " + source.substring(start));
+            }
+
+            String name = source.substring(nameStart, end).trim();
+            int index = Arrays.asList(slotNames).indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("模板变量未声明: " + name);
+            }
+
+            literals.add(source.substring(position, start));
+            slotIndexes.add(index);
+            rawSlots.add(raw);
+            position = end + close.length();
+        }
+        literals.add(source.substring(position));
+
+        boolean[] raws = new boolean[rawSlots.size()];
+        for (int i = 0; i < raws.length; i++) {
+            raws[i] = rawSlots.get(i);
+        }
+        return new EmailTemplate(literals.toArray(String[]::new),
+                                 slotIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                                 raws, slotNames.length);
+    }
+
+    /**
+     * 将模板渲染追加到out，values与编译时声明的变量名一一对应，null输出为空串
+     */
+    public void appendTo(StringBuilder out, String... values) {
+        if (values.length != slotCount) {
+            throw new IllegalArgumentException("模板变量个数不匹配: 需要 " + slotCount + "，实际 " + values.length);
+        }
+        for (int i = 0; i < slotIndexes.length; i++) {
+            out.append(literals[i]);
+            String value = values[slotIndexes[i]];
+            if (value == null) {
+                continue;
+            }
+            if (rawSlots[i]) {
+                out.append(value);
+            } else {
+                appendEscaped(out, value);
+            }
+        }
+        out.append(literals[literals.length - 1]);
+    }
+
+    public String render(String... values) {
+        StringBuilder out = new StringBuilder(literalLength + 64 * slotIndexes.length);
+        appendTo(out, values);
+        return out.toString();
+    }
+
+    /**
+     * 静态片段总长度，用于预估输出缓冲区大小
+     */
+    public int literalLength() {
+        return literalLength;
+    }
+
+    static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -4,75 +4,393 @@ import com.weeklyreport.notification.dto.NotificationRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * 邮件模板服务 - 生成不同类型通知的邮件主题和内容
+ * 文档头部（含内联CSS）、页脚等静态片段为编译期常量，各类正文模板在类加载时预编译，
+ * 每封邮件只填充变量槽位。正文内容片段可单独生成，供发件箱合并多条通知为摘要邮件。
  */
 @Service
 public class EmailTemplateService {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private static final String EMAIL_STYLES = """
+        body { font-family: 'Helvetica Neue', Arial, sans-serif; line-height: 1.6; color: #212529; margin: 0; padding: 24px; background-color: #f5f7fa; }
+        .container { max-width: 640px; margin: 0 auto; background: #ffffff; border-radius: 8px; border: 1px solid #e9ecef; box-shadow: 0 6px 24px rgba(15, 23, 42, 0.08); overflow: hidden; }
+        .header { padding: 24px; border-bottom: 1px solid #e9ecef; text-align: left; background: #ffffff; }
+        .header h1 { margin: 0; font-size: 20px; font-weight: 600; color: #212529; }
+        .header p { margin: 8px 0 0; font-size: 14px; color: #6c757d; }
+        .content { padding: 24px; }
+        .project-info { background: #f8f9fa; border: 1px solid #e9ecef; border-radius: 6px; padding: 16px; margin: 16px 0 20px; }
+        .project-info h3 { margin: 0 0 12px; font-size: 15px; color: #212529; }
+        .project-info p { margin: 6px 0; color: #495057; }
+        .project-info strong { display: inline-block; min-width: 70px; }
+        .status-badge { display: inline-block; padding: 4px 10px; border-radius: 12px; font-size: 12px; font-weight: 600; }
+        .status-success { background: #d1f2d9; color: #1e7e34; }
+        .status-danger { background: #fde2e1; color: #c12d2c; }
+        .status-warning { background: #fff2cd; color: #9a6b16; }
+        .status-info { background: #d8ecff; color: #0a58ca; }
+        .action-button { display: inline-block; margin-top: 12px; padding: 10px 18px; background: #0d6efd; color: #ffffff; text-decoration: none; border-radius: 6px; font-size: 14px; }
+        .action-button:hover { background: #0b5ed7; }
+        .timestamp { color: #6c757d; font-size: 12px; margin-top: 24px; }
+        .digest-title { margin: 24px 24px 0; font-size: 16px; font-weight: 600; color: #212529; }
+        .footer { padding: 16px 24px 24px; border-top: 1px solid #e9ecef; background: #fafafa; text-align: center; font-size: 12px; color: #6c757d; }
+        """;
+
+    // ========== 静态片段 ==========
+
+    private static final String DOCUMENT_HEAD = "<!DOCTYPE html>"
+        + "<html lang='zh-CN'>"
+        + "<head>"
+        + "<meta charset='UTF-8'>"
+        + "<meta name='viewport' content='width=device-width, initial-scale=1.0'>"
+        + "<title>项目审核通知</title>"
+        + "<style>" + EMAIL_STYLES + "</style>"
+        + "</head>"
+        + "<body>"
+        + "<div class='container'>";
+
+    private static final String CONTENT_OPEN = "<div class='content'>";
+
+    private static final String ACTION_BUTTON = """
+        <p>
+            <a href="#" class="action-button">前往周报管理系统</a>
+        </p>
+        """;
+
+    private static final String CONTENT_CLOSE = "</div>";
+
+    private static final String DOCUMENT_TAIL = """
+        <div class="footer">
+            <p>此邮件由周报管理系统自动发送，请勿直接回复。</p>
+            <p>如有问题，请登录系统联系管理员。</p>
+        </div>
+        """ + "</div>" + "</body>" + "</html>";
+
+    private static final EmailTemplate HEADER = EmailTemplate.compile("""
+        <div class="header">
+            <h1>周报管理系统通知</h1>
+            <p>{{description}}</p>
+        </div>
+        """, "description");
+
+    private static final EmailTemplate DIGEST_ITEM_TITLE = EmailTemplate.compile(
+        "<h2 class=\"digest-title\">{{subject}}</h2>", "subject");
+
+    private static final EmailTemplate TIMESTAMP = EmailTemplate.compile("""
+        <div class="timestamp">
+            <p>📅 通知时间：{{time}}</p>
+        </div>
+        """, "time");
+
+    // ========== 项目信息 ==========
+
+    private static final EmailTemplate PROJECT_INFO_HEAD = EmailTemplate.compile(
+        "<div class=\"project-info\">"
+        + "<h3>📁 项目信息</h3>"
+        + "<p><strong>项目名称：</strong>{{projectName}}</p>"
+        + "<p><strong>项目ID：</strong>{{projectId}}</p>"
+        + "<p><strong>状态：</strong>{{{statusBadge}}}</p>",
+        "projectName", "projectId", "statusBadge");
+
+    private static final EmailTemplate PROJECT_OWNER_LINE = EmailTemplate.compile(
+        "<p><strong>项目提交者：</strong>{{owner}}</p>", "owner");
+
+    private static final EmailTemplate PROJECT_REVIEWER_LINE = EmailTemplate.compile(
+        "<p><strong>最近审核人：</strong>{{reviewer}}</p>", "reviewer");
+
+    // ========== 项目通知正文 ==========
+
+    private static final EmailTemplate AI_ANALYSIS_COMPLETED_BODY = EmailTemplate.compile("""
+        <p>AI分析已完成，{{owner}} 的项目最新分析报告已经生成。</p>
+        <p>请登录系统查看分析摘要并根据建议同步调整项目计划。</p>
+        """, "owner");
+
+    private static final EmailTemplate PENDING_ADMIN_REVIEW_BODY = EmailTemplate.compile("""
+        <p>来自 {{submitter}} 的项目已提交管理员审批。</p>
+        <p>请登录系统完成审核并给出处理结果。</p>
+        """, "submitter");
+
+    private static final EmailTemplate ADMIN_REJECTED_BODY = EmailTemplate.compile("""
+        <p>❌ 很抱歉，管理员 {{admin}} 未能通过您的项目申请。</p>
+        <div class="project-info">
+            <h3>拒绝原因</h3>
+            <p>{{reason}}</p>
+        </div>
+        <p>请根据反馈意见修改方案后重新提交。</p>
+        """, "admin", "reason");
+
+    private static final EmailTemplate ADMIN_APPROVED_TO_SUPER_ADMINS_BODY = EmailTemplate.compile("""
+        <p>📝 {{owner}} 的项目已经由管理员 {{admin}} 审核通过。</p>
+        <p>请尽快登录系统完成最终立项审批。</p>
+        """, "owner", "admin");
+
+    private static final EmailTemplate ADMIN_APPROVED_TO_MANAGER_BODY = EmailTemplate.compile("""
+        <p>✅ 管理员 {{admin}} 已审批通过您的项目，现已进入超级管理员终审阶段。</p>
+        <p>如需补充资料，请提前准备并关注后续审核进度。</p>
+        """, "admin");
+
+    private static final EmailTemplate SUPER_ADMIN_REJECTED_BODY = EmailTemplate.compile("""
+        <p>❌ 很抱歉，超级管理员 {{admin}} 未通过您的项目最终审核。</p>
+        <div class="project-info">
+            <h3>拒绝原因</h3>
+            <p>{{reason}}</p>
+        </div>
+        <p>请根据反馈意见重新评估项目方案后再行提交。</p>
+        """, "admin", "reason");
+
+    private static final EmailTemplate SUPER_ADMIN_APPROVED_TO_MANAGER_BODY = EmailTemplate.compile("""
+        <p>🎉 恭喜！超级管理员 {{approver}} 已最终批准您的项目，项目正式立项。</p>
+        <p>请安排项目启动会议，并按照计划提交后续周报。</p>
+        """, "approver");
+
+    private static final EmailTemplate SUPER_ADMIN_APPROVED_TO_ADMINS_BODY = EmailTemplate.compile("""
+        <p>🎉 {{owner}} 的项目已由超级管理员 {{approver}} 审核通过，现已正式立项。</p>
+        <p>请在系统内确认相关配置并关注项目执行进度。</p>
+        """, "owner", "approver");
+
+    private static final EmailTemplate FORCE_SUBMITTED_BODY = EmailTemplate.compile("""
+        <p>⚡ {{owner}} 的项目已由 {{actor}} 发起AI强制提交。</p>
+        <p>请尽快登录系统完成审核并确认后续处理。</p>
+        """, "owner", "actor");
+
+    // ========== 周报通知正文 ==========
+
+    private static final EmailTemplate WEEKLY_REPORT_SUBMITTED_TO_AUTHOR_BODY = EmailTemplate.compile("""
+        <p>✅ 您的周报已成功提交，现已进入审核流程。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交时间：</strong>刚刚</p>
+        </div>
+        <p>系统正在对您的周报进行AI分析，分析完成后将通知您的主管进行审核。</p>
+        <p>您可以在系统中查看周报状态，审核结果将通过邮件通知您。</p>
+        """, "title", "week");
+
+    private static final EmailTemplate WEEKLY_REPORT_SUBMITTED_TO_SUPERVISOR_BODY = EmailTemplate.compile("""
+        <p>📋 {{author}} 提交了新的周报，AI分析正在进行中。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+        </div>
+        <p>系统正在进行AI分析，分析完成后您将收到审核通知。</p>
+        <p>请关注后续邮件通知，及时进行周报审核。</p>
+        """, "author", "title", "week");
+
+    private static final EmailTemplate WEEKLY_REPORT_AI_COMPLETED_BODY = EmailTemplate.compile("""
+        <p>📊 {{author}} 的周报AI分析已完成，请及时进行审核。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+        </div>
+        <p>请登录系统查看AI分析结果并进行下一步审核操作。</p>
+        """, "author", "title", "week");
+
+    private static final EmailTemplate WEEKLY_REPORT_AI_REJECTED_BODY = EmailTemplate.compile("""
+        <p>❌ 您的周报AI分析置信度不足，需要修改后重新提交。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+        </div>
+        <div class="project-info">
+            <h3>AI分析结果</h3>
+            <p>{{reason}}</p>
+        </div>
+        <p>请根据AI分析建议完善周报内容后重新提交。</p>
+        """, "title", "week", "reason");
+
+    private static final EmailTemplate WEEKLY_REPORT_FORCE_SUBMITTED_BODY = EmailTemplate.compile("""
+        <p>⚡ 主管已强制提交 {{author}} 的周报，请及时处理。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+            <p><strong>操作人：</strong>{{actor}}</p>
+        </div>
+        <p>周报已跳过正常流程直接进入审核，请尽快处理。</p>
+        """, "author", "title", "week", "actor");
+
+    private static final EmailTemplate WEEKLY_REPORT_PENDING_ADMIN_REVIEW_BODY = EmailTemplate.compile("""
+        <p>📋 有新的周报需要管理员审核，请及时处理。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+        </div>
+        <p>请登录系统查看周报详情并完成审核。</p>
+        """, "title", "week", "author");
+
+    private static final EmailTemplate WEEKLY_REPORT_ADMIN_REJECTED_BODY = EmailTemplate.compile("""
+        <p>❌ {{author}} 的周报已被管理员拒绝，请及时处理。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+            <p><strong>审核人：</strong>{{reviewer}}</p>
+        </div>
+        <div class="project-info">
+            <h3>拒绝原因</h3>
+            <p>{{reason}}</p>
+        </div>
+        <p>请指导员工根据反馈意见修改周报并重新提交。</p>
+        """, "author", "title", "week", "reviewer", "reason");
+
+    private static final EmailTemplate WEEKLY_REPORT_ADMIN_APPROVED_TO_SUPER_ADMINS_BODY = EmailTemplate.compile("""
+        <p>✅ {{author}} 的周报已通过管理员审核，请查阅。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>提交人：</strong>{{author}}</p>
+            <p><strong>审核人：</strong>{{reviewer}}</p>
+        </div>
+        <p>周报已通过 {{reviewer}} 的管理员审核，请及时查阅周报内容。</p>
+        """, "author", "title", "week", "reviewer");
+
+    private static final EmailTemplate WEEKLY_REPORT_ADMIN_APPROVED_TO_AUTHOR_BODY = EmailTemplate.compile("""
+        <p>🎉 恭喜！您的周报已通过管理员审核。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>周报标题：</strong>{{title}}</p>
+            <p><strong>报告周期：</strong>{{week}}</p>
+            <p><strong>审核人：</strong>{{reviewer}}</p>
+        </div>
+        <p>您的周报已通过 {{reviewer}} 的审核，请继续保持良好的工作记录。</p>
+        """, "title", "week", "reviewer");
+
+    private static final EmailTemplate WEEKLY_REPORT_SUBMISSION_REMINDER_BODY = EmailTemplate.compile("""
+        <p>⏰ {{name}}，您好！系统尚未收到您本周的周报。</p>
+        <div class="project-info">
+            <h3>📋 周报信息</h3>
+            <p><strong>报告周期：</strong>{{week}}</p>
+        </div>
+        <p>请在本周结束前登录系统填写并提交周报；如已提交，请忽略本提醒。</p>
+        """, "name", "week");
+
+    // 静态片段 + 最长正文模板 + 变量的大致长度，避免渲染过程中扩容
+    private static final int INITIAL_CAPACITY = DOCUMENT_HEAD.length() + DOCUMENT_TAIL.length()
+        + HEADER.literalLength() + TIMESTAMP.literalLength() + ACTION_BUTTON.length()
+        + PROJECT_INFO_HEAD.literalLength() + WEEKLY_REPORT_ADMIN_REJECTED_BODY.literalLength() + 1024;
+
+    /**
+     * 渲染完整邮件（主题 + HTML正文），同一结果可发送给多个收件人
+     */
+    public RenderedEmail render(NotificationRequest request) {
+        return new RenderedEmail(generateSubject(request), generateHtmlContent(request));
+    }
+
+    /**
+     * 渲染主题和正文内容片段（不含文档头尾），用于写入发件箱
+     */
+    public RenderedEmail renderContent(NotificationRequest request) {
+        StringBuilder content = new StringBuilder(INITIAL_CAPACITY - DOCUMENT_HEAD.length());
+        appendContent(content, request);
+        return new RenderedEmail(generateSubject(request), content.toString());
+    }
+
+    /**
+     * 用完整文档框架包装单条通知的内容片段
+     */
+    public String wrapDocument(String description, String contentHtml) {
+        StringBuilder html = new StringBuilder(DOCUMENT_HEAD.length() + HEADER.literalLength()
+                                               + contentHtml.length() + DOCUMENT_TAIL.length() + 64);
+        html.append(DOCUMENT_HEAD);
+        HEADER.appendTo(html, description);
+        html.append(contentHtml);
+        html.append(DOCUMENT_TAIL);
+        return html.toString();
+    }
+
+    /**
+     * 将同一收件人的多条通知合并为一封摘要邮件
+     * @param parts 各条通知的主题和内容片段（见 {@link #renderContent}）
+     */
+    public RenderedEmail renderDigest(List<RenderedEmail> parts) {
+        String description = "您有 " + parts.size() + " 条新通知";
+
+        int capacity = DOCUMENT_HEAD.length() + HEADER.literalLength() + DOCUMENT_TAIL.length() + 64;
+        for (RenderedEmail part : parts) {
+            capacity += DIGEST_ITEM_TITLE.literalLength() + part.getSubject().length() + part.getHtmlContent().length();
+        }
+
+        StringBuilder html = new StringBuilder(capacity);
+        html.append(DOCUMENT_HEAD);
+        HEADER.appendTo(html, description);
+        for (RenderedEmail part : parts) {
+            DIGEST_ITEM_TITLE.appendTo(html, part.getSubject());
+            html.append(part.getHtmlContent());
+        }
+        html.append(DOCUMENT_TAIL);
+        return new RenderedEmail("【周报管理系统】" + description, html.toString());
+    }
+
     /**
      * 生成邮件主题
      */
     public String generateSubject(NotificationRequest request) {
         String projectName = request.getProjectName() != null ? request.getProjectName() : "项目#" + request.getProjectId();
-        
+        String authorName = request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工";
+
         switch (request.getNotificationType()) {
             case AI_ANALYSIS_COMPLETED:
-                return String.format("【项目AI分析完成】%s - 请查看分析结果", projectName);
-                
+                return "【项目AI分析完成】" + projectName + " - 请查看分析结果";
+
             case PENDING_ADMIN_REVIEW:
-                return String.format("【待审核】项目 %s 需要管理员审核", projectName);
-                
+                return "【待审核】项目 " + projectName + " 需要管理员审核";
+
             case ADMIN_REJECTED:
-                return String.format("【审核被拒】项目 %s 已被管理员拒绝", projectName);
-                
+                return "【审核被拒】项目 " + projectName + " 已被管理员拒绝";
+
             case ADMIN_APPROVED:
-                return String.format("【管理员通过】项目 %s 已通过管理员审核", projectName);
-                
+                return "【管理员通过】项目 " + projectName + " 已通过管理员审核";
+
             case SUPER_ADMIN_REJECTED:
-                return String.format("【最终审核被拒】项目 %s 已被超级管理员拒绝", projectName);
-                
+                return "【最终审核被拒】项目 " + projectName + " 已被超级管理员拒绝";
+
             case SUPER_ADMIN_APPROVED:
-                return String.format("【项目通过】项目 %s 已通过所有审核", projectName);
-                
+                return "【项目通过】项目 " + projectName + " 已通过所有审核";
+
             case FORCE_SUBMITTED:
-                return String.format("【强制提交】项目 %s 已被强制提交", projectName);
-                
+                return "【强制提交】项目 " + projectName + " 已被强制提交";
+
             // 周报相关邮件主题
             case WEEKLY_REPORT_SUBMITTED:
-                return String.format("【周报提交成功】%s 的周报已提交审核",
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
+                return "【周报提交成功】" + authorName + " 的周报已提交审核";
 
             case WEEKLY_REPORT_AI_COMPLETED:
-                return String.format("【周报AI分析完成】%s - %s 需要审核",
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工",
-                    request.getReportWeek());
+                return "【周报AI分析完成】" + authorName + " - " + request.getReportWeek() + " 需要审核";
 
             case WEEKLY_REPORT_AI_REJECTED:
-                return String.format("【周报需要修改】%s 的周报AI分析置信度不足",
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
+                return "【周报需要修改】" + authorName + " 的周报AI分析置信度不足";
 
             case WEEKLY_REPORT_SUPERVISOR_FORCE_SUBMITTED:
-                return String.format("【主管强制提交周报】%s 的周报已被强制提交",
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
-                
+                return "【主管强制提交周报】" + authorName + " 的周报已被强制提交";
+
             case WEEKLY_REPORT_PENDING_ADMIN_REVIEW:
-                return String.format("【周报待审核】%s 的周报需要管理员审核", 
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
-                
+                return "【周报待审核】" + authorName + " 的周报需要管理员审核";
+
             case WEEKLY_REPORT_ADMIN_REJECTED:
-                return String.format("【周报被拒绝】%s 的周报被管理员拒绝", 
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
-                
+                return "【周报被拒绝】" + authorName + " 的周报被管理员拒绝";
+
             case WEEKLY_REPORT_ADMIN_APPROVED:
-                return String.format("【周报已通过】%s 的周报已通过管理员审核", 
-                    request.getReportAuthorName() != null ? request.getReportAuthorName() : "员工");
-                
+                return "【周报已通过】" + authorName + " 的周报已通过管理员审核";
+
+            case WEEKLY_REPORT_SUBMISSION_REMINDER:
+                return "【周报提交提醒】" + request.getReportWeek() + " 的周报尚未提交";
+
             default:
-                return String.format("【系统通知】项目 %s 状态更新", projectName);
+                return "【系统通知】项目 " + projectName + " 状态更新";
         }
     }
 
@@ -80,370 +398,182 @@ public class EmailTemplateService {
      * 生成HTML邮件内容
      */
     public String generateHtmlContent(NotificationRequest request) {
-        StringBuilder html = new StringBuilder();
-        
-        html.append("<!DOCTYPE html>");
-        html.append("<html lang='zh-CN'>");
-        html.append("<head>");
-        html.append("<meta charset='UTF-8'>");
-        html.append("<meta name='viewport' content='width=device-width, initial-scale=1.0'>");
-        html.append("<title>项目审核通知</title>");
-        html.append("<style>");
-        html.append(getEmailStyles());
-        html.append("</style>");
-        html.append("</head>");
-        html.append("<body>");
-        html.append("<div class='container'>");
+        StringBuilder html = new StringBuilder(INITIAL_CAPACITY);
+
+        html.append(DOCUMENT_HEAD);
 
         // 邮件头部
-        html.append(generateHeader(request));
+        HEADER.appendTo(html, request.getNotificationType().getDescription());
 
         // 邮件内容
-        html.append(generateContent(request));
+        appendContent(html, request);
 
         // 邮件脚部
-        html.append(generateFooter(request));
+        html.append(DOCUMENT_TAIL);
 
-        html.append("</div>");
-        html.append("</body>");
-        html.append("</html>");
-        
         return html.toString();
     }
 
-    private String getEmailStyles() {
-        return """
-            body { font-family: 'Helvetica Neue', Arial, sans-serif; line-height: 1.6; color: #212529; margin: 0; padding: 24px; background-color: #f5f7fa; }
-            .container { max-width: 640px; margin: 0 auto; background: #ffffff; border-radius: 8px; border: 1px solid #e9ecef; box-shadow: 0 6px 24px rgba(15, 23, 42, 0.08); overflow: hidden; }
-            .header { padding: 24px; border-bottom: 1px solid #e9ecef; text-align: left; background: #ffffff; }
-            .header h1 { margin: 0; font-size: 20px; font-weight: 600; color: #212529; }
-            .header p { margin: 8px 0 0; font-size: 14px; color: #6c757d; }
-            .content { padding: 24px; }
-            .project-info { background: #f8f9fa; border: 1px solid #e9ecef; border-radius: 6px; padding: 16px; margin: 16px 0 20px; }
-            .project-info h3 { margin: 0 0 12px; font-size: 15px; color: #212529; }
-            .project-info p { margin: 6px 0; color: #495057; }
-            .project-info strong { display: inline-block; min-width: 70px; }
-            .status-badge { display: inline-block; padding: 4px 10px; border-radius: 12px; font-size: 12px; font-weight: 600; }
-            .status-success { background: #d1f2d9; color: #1e7e34; }
-            .status-danger { background: #fde2e1; color: #c12d2c; }
-            .status-warning { background: #fff2cd; color: #9a6b16; }
-            .status-info { background: #d8ecff; color: #0a58ca; }
-            .action-button { display: inline-block; margin-top: 12px; padding: 10px 18px; background: #0d6efd; color: #ffffff; text-decoration: none; border-radius: 6px; font-size: 14px; }
-            .action-button:hover { background: #0b5ed7; }
-            .timestamp { color: #6c757d; font-size: 12px; margin-top: 24px; }
-            .footer { padding: 16px 24px 24px; border-top: 1px solid #e9ecef; background: #fafafa; text-align: center; font-size: 12px; color: #6c757d; }
-            """;
-    }
-
-    private String generateHeader(NotificationRequest request) {
-        return String.format("""
-            <div class="header">
-                <h1>周报管理系统通知</h1>
-                <p>%s</p>
-            </div>
-            """, request.getNotificationType().getDescription());
-    }
-
-    private String generateContent(NotificationRequest request) {
-        StringBuilder content = new StringBuilder();
-        content.append("<div class='content'>");
-
-        // 根据通知类型决定是否显示项目信息
-        boolean isWeeklyReportNotification = request.getNotificationType() == NotificationRequest.NotificationType.WEEKLY_REPORT_SUBMITTED
-            || request.getNotificationType() == NotificationRequest.NotificationType.WEEKLY_REPORT_AI_COMPLETED
-            || request.getNotificationType() == NotificationRequest.NotificationType.WEEKLY_REPORT_PENDING_ADMIN_REVIEW
-            || request.getNotificationType() == NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_REJECTED
-            || request.getNotificationType() == NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_APPROVED;
+    private void appendContent(StringBuilder html, NotificationRequest request) {
+        html.append(CONTENT_OPEN);
 
         // 仅项目通知显示项目信息，周报通知在具体内容中显示周报信息
-        if (!isWeeklyReportNotification) {
-            content.append(generateProjectInfo(request));
+        if (!isWeeklyReportNotification(request.getNotificationType())) {
+            appendProjectInfo(html, request);
         }
 
         // 根据通知类型生成具体内容
-        content.append(generateTypeSpecificContent(request));
+        appendTypeSpecificContent(html, request);
 
         // 操作按钮
-        content.append(generateActionButtons(request));
+        html.append(ACTION_BUTTON);
 
         // 时间戳
-        content.append(generateTimestamp(request));
+        TIMESTAMP.appendTo(html, request.getTimestamp().format(DATE_TIME_FORMATTER));
+
+        html.append(CONTENT_CLOSE);
+    }
 
-        content.append("</div>");
-        return content.toString();
+    private boolean isWeeklyReportNotification(NotificationRequest.NotificationType type) {
+        return type == NotificationRequest.NotificationType.WEEKLY_REPORT_SUBMITTED
+            || type == NotificationRequest.NotificationType.WEEKLY_REPORT_AI_COMPLETED
+            || type == NotificationRequest.NotificationType.WEEKLY_REPORT_PENDING_ADMIN_REVIEW
+            || type == NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_REJECTED
+            || type == NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_APPROVED
+            || type == NotificationRequest.NotificationType.WEEKLY_REPORT_SUBMISSION_REMINDER;
     }
 
-    private String generateProjectInfo(NotificationRequest request) {
+    private void appendProjectInfo(StringBuilder html, NotificationRequest request) {
         String projectName = request.getProjectName() != null ? request.getProjectName() : "项目#" + request.getProjectId();
         String ownerName = safeName(request.getProjectOwnerName(), null);
         String reviewerName = safeName(request.getReviewerName(), null);
 
-        StringBuilder builder = new StringBuilder();
-        builder.append("<div class=\"project-info\">");
-        builder.append("<h3>📁 项目信息</h3>");
-        builder.append(String.format("<p><strong>项目名称：</strong>%s</p>", projectName));
-        builder.append(String.format("<p><strong>项目ID：</strong>%s</p>", request.getProjectId()));
-        builder.append(String.format("<p><strong>状态：</strong>%s</p>", generateStatusBadge(request.getNotificationType())));
+        PROJECT_INFO_HEAD.appendTo(html, projectName, String.valueOf(request.getProjectId()),
+                                   generateStatusBadge(request.getNotificationType()));
         if (ownerName != null) {
-            builder.append(String.format("<p><strong>项目提交者：</strong>%s</p>", ownerName));
+            PROJECT_OWNER_LINE.appendTo(html, ownerName);
         }
         if (reviewerName != null) {
-            builder.append(String.format("<p><strong>最近审核人：</strong>%s</p>", reviewerName));
+            PROJECT_REVIEWER_LINE.appendTo(html, reviewerName);
         }
-        builder.append("</div>");
-        return builder.toString();
+        html.append("</div>");
     }
 
-    private String generateTypeSpecificContent(NotificationRequest request) {
+    private void appendTypeSpecificContent(StringBuilder html, NotificationRequest request) {
+        NotificationRequest.RecipientType recipientType = request.getRecipientType();
+
         switch (request.getNotificationType()) {
             case AI_ANALYSIS_COMPLETED:
-                String analysisOwner = safeName(request.getProjectOwnerName(), "项目负责人");
-                return String.format("""
-                    <p>AI分析已完成，%s 的项目最新分析报告已经生成。</p>
-                    <p>请登录系统查看分析摘要并根据建议同步调整项目计划。</p>
-                    """, analysisOwner);
-                    
+                AI_ANALYSIS_COMPLETED_BODY.appendTo(html, safeName(request.getProjectOwnerName(), "项目负责人"));
+                return;
+
             case PENDING_ADMIN_REVIEW:
-                String submitterName = safeName(request.getProjectOwnerName(), "项目提交者");
-                return String.format("""
-                    <p>来自 %s 的项目已提交管理员审批。</p>
-                    <p>请登录系统完成审核并给出处理结果。</p>
-                    """, submitterName);
-                    
+                PENDING_ADMIN_REVIEW_BODY.appendTo(html, safeName(request.getProjectOwnerName(), "项目提交者"));
+                return;
+
             case ADMIN_REJECTED:
-                String adminReason = request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因";
-                String adminName = safeName(request.getReviewerName(), "管理员");
-                return String.format("""
-                    <p>❌ 很抱歉，管理员 %s 未能通过您的项目申请。</p>
-                    <div class="project-info">
-                        <h3>拒绝原因</h3>
-                        <p>%s</p>
-                    </div>
-                    <p>请根据反馈意见修改方案后重新提交。</p>
-                    """, adminName, adminReason);
-                    
+                ADMIN_REJECTED_BODY.appendTo(html,
+                    safeName(request.getReviewerName(), "管理员"),
+                    request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因");
+                return;
+
             case ADMIN_APPROVED:
                 String approvedAdmin = safeName(request.getReviewerName(), "管理员");
-                String ownerDisplay = safeName(request.getProjectOwnerName(), "项目提交者");
-                if (request.getRecipientType() == NotificationRequest.RecipientType.ALL_SUPER_ADMINS) {
-                    return String.format("""
-                        <p>📝 %s 的项目已经由管理员 %s 审核通过。</p>
-                        <p>请尽快登录系统完成最终立项审批。</p>
-                        """, ownerDisplay, approvedAdmin);
-                }
-                if (request.getRecipientType() == NotificationRequest.RecipientType.PROJECT_MANAGER) {
-                    return String.format("""
-                        <p>✅ 管理员 %s 已审批通过您的项目，现已进入超级管理员终审阶段。</p>
-                        <p>如需补充资料，请提前准备并关注后续审核进度。</p>
-                        """, approvedAdmin);
+                if (recipientType == NotificationRequest.RecipientType.ALL_SUPER_ADMINS) {
+                    ADMIN_APPROVED_TO_SUPER_ADMINS_BODY.appendTo(html,
+                        safeName(request.getProjectOwnerName(), "项目提交者"), approvedAdmin);
+                } else if (recipientType == NotificationRequest.RecipientType.PROJECT_MANAGER) {
+                    ADMIN_APPROVED_TO_MANAGER_BODY.appendTo(html, approvedAdmin);
+                } else {
+                    html.append("<p>管理员已完成审核，项目进入超级管理员终审流程。</p>");
                 }
-                return "<p>管理员已完成审核，项目进入超级管理员终审流程。</p>";
-                    
+                return;
+
             case SUPER_ADMIN_REJECTED:
-                String superAdminReason = request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因";
-                String superAdminName = safeName(request.getReviewerName(), "超级管理员");
-                return String.format("""
-                    <p>❌ 很抱歉，超级管理员 %s 未通过您的项目最终审核。</p>
-                    <div class="project-info">
-                        <h3>拒绝原因</h3>
-                        <p>%s</p>
-                    </div>
-                    <p>请根据反馈意见重新评估项目方案后再行提交。</p>
-                    """, superAdminName, superAdminReason);
-                    
+                SUPER_ADMIN_REJECTED_BODY.appendTo(html,
+                    safeName(request.getReviewerName(), "超级管理员"),
+                    request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因");
+                return;
+
             case SUPER_ADMIN_APPROVED:
                 String finalApprover = safeName(request.getReviewerName(), "超级管理员");
-                String finalOwner = safeName(request.getProjectOwnerName(), "项目提交者");
-                if (request.getRecipientType() == NotificationRequest.RecipientType.PROJECT_MANAGER) {
-                    return String.format("""
-                        <p>🎉 恭喜！超级管理员 %s 已最终批准您的项目，项目正式立项。</p>
-                        <p>请安排项目启动会议，并按照计划提交后续周报。</p>
-                        """, finalApprover);
-                }
-                if (request.getRecipientType() == NotificationRequest.RecipientType.ADMINS_AND_SUPER_ADMINS) {
-                    return String.format("""
-                        <p>🎉 %s 的项目已由超级管理员 %s 审核通过，现已正式立项。</p>
-                        <p>请在系统内确认相关配置并关注项目执行进度。</p>
-                        """, finalOwner, finalApprover);
+                if (recipientType == NotificationRequest.RecipientType.PROJECT_MANAGER) {
+                    SUPER_ADMIN_APPROVED_TO_MANAGER_BODY.appendTo(html, finalApprover);
+                } else if (recipientType == NotificationRequest.RecipientType.ADMINS_AND_SUPER_ADMINS) {
+                    SUPER_ADMIN_APPROVED_TO_ADMINS_BODY.appendTo(html,
+                        safeName(request.getProjectOwnerName(), "项目提交者"), finalApprover);
+                } else {
+                    html.append("<p>项目已完成全部审批流程，现已进入正式立项阶段。</p>");
                 }
-                return "<p>项目已完成全部审批流程，现已进入正式立项阶段。</p>";
-                    
+                return;
+
             case FORCE_SUBMITTED:
                 String forceOwner = safeName(request.getProjectOwnerName(), "项目提交者");
-                String forceActor = safeName(request.getTriggerUserName(), forceOwner);
-                return String.format("""
-                    <p>⚡ %s 的项目已由 %s 发起AI强制提交。</p>
-                    <p>请尽快登录系统完成审核并确认后续处理。</p>
-                    """, forceOwner, forceActor);
-                    
+                FORCE_SUBMITTED_BODY.appendTo(html, forceOwner, safeName(request.getTriggerUserName(), forceOwner));
+                return;
+
             // 周报相关通知内容
             case WEEKLY_REPORT_SUBMITTED:
-                if (request.getRecipientType() == NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR) {
-                    return String.format("""
-                        <p>✅ 您的周报已成功提交，现已进入审核流程。</p>
-                        <div class="project-info">
-                            <h3>📋 周报信息</h3>
-                            <p><strong>周报标题：</strong>%s</p>
-                            <p><strong>报告周期：</strong>%s</p>
-                            <p><strong>提交时间：</strong>刚刚</p>
-                        </div>
-                        <p>系统正在对您的周报进行AI分析，分析完成后将通知您的主管进行审核。</p>
-                        <p>您可以在系统中查看周报状态，审核结果将通过邮件通知您。</p>
-                        """,
-                        request.getWeeklyReportTitle(),
-                        request.getReportWeek());
+                if (recipientType == NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR) {
+                    WEEKLY_REPORT_SUBMITTED_TO_AUTHOR_BODY.appendTo(html,
+                        request.getWeeklyReportTitle(), request.getReportWeek());
+                } else if (recipientType == NotificationRequest.RecipientType.WEEKLY_REPORT_SUPERVISOR) {
+                    WEEKLY_REPORT_SUBMITTED_TO_SUPERVISOR_BODY.appendTo(html,
+                        request.getReportAuthorName(), request.getWeeklyReportTitle(), request.getReportWeek());
+                } else {
+                    html.append("<p>周报已提交成功，AI分析正在进行中。</p>");
                 }
-                if (request.getRecipientType() == NotificationRequest.RecipientType.WEEKLY_REPORT_SUPERVISOR) {
-                    return String.format("""
-                        <p>📋 %s 提交了新的周报，AI分析正在进行中。</p>
-                        <div class="project-info">
-                            <h3>📋 周报信息</h3>
-                            <p><strong>周报标题：</strong>%s</p>
-                            <p><strong>报告周期：</strong>%s</p>
-                            <p><strong>提交人：</strong>%s</p>
-                        </div>
-                        <p>系统正在进行AI分析，分析完成后您将收到审核通知。</p>
-                        <p>请关注后续邮件通知，及时进行周报审核。</p>
-                        """,
-                        request.getReportAuthorName(),
-                        request.getWeeklyReportTitle(),
-                        request.getReportWeek(),
-                        request.getReportAuthorName());
-                }
-                return "<p>周报已提交成功，AI分析正在进行中。</p>";
+                return;
 
             case WEEKLY_REPORT_AI_COMPLETED:
-                return String.format("""
-                    <p>📊 %s 的周报AI分析已完成，请及时进行审核。</p>
-                    <div class="project-info">
-                        <h3>📋 周报信息</h3>
-                        <p><strong>周报标题：</strong>%s</p>
-                        <p><strong>报告周期：</strong>%s</p>
-                        <p><strong>提交人：</strong>%s</p>
-                    </div>
-                    <p>请登录系统查看AI分析结果并进行下一步审核操作。</p>
-                    """,
-                    request.getReportAuthorName(),
-                    request.getWeeklyReportTitle(),
-                    request.getReportWeek(),
-                    request.getReportAuthorName());
+                WEEKLY_REPORT_AI_COMPLETED_BODY.appendTo(html,
+                    request.getReportAuthorName(), request.getWeeklyReportTitle(), request.getReportWeek());
+                return;
 
             case WEEKLY_REPORT_AI_REJECTED:
-                String aiRejectionReason = request.getRejectionReason() != null ? request.getRejectionReason() : "AI分析置信度未达到要求";
-                return String.format("""
-                    <p>❌ 您的周报AI分析置信度不足，需要修改后重新提交。</p>
-                    <div class="project-info">
-                        <h3>📋 周报信息</h3>
-                        <p><strong>周报标题：</strong>%s</p>
-                        <p><strong>报告周期：</strong>%s</p>
-                    </div>
-                    <div class="project-info">
-                        <h3>AI分析结果</h3>
-                        <p>%s</p>
-                    </div>
-                    <p>请根据AI分析建议完善周报内容后重新提交。</p>
-                    """,
-                    request.getWeeklyReportTitle(),
-                    request.getReportWeek(),
-                    aiRejectionReason);
+                WEEKLY_REPORT_AI_REJECTED_BODY.appendTo(html,
+                    request.getWeeklyReportTitle(), request.getReportWeek(),
+                    request.getRejectionReason() != null ? request.getRejectionReason() : "AI分析置信度未达到要求");
+                return;
 
             case WEEKLY_REPORT_SUPERVISOR_FORCE_SUBMITTED:
-                return String.format("""
-                    <p>⚡ 主管已强制提交 %s 的周报，请及时处理。</p>
-                    <div class="project-info">
-                        <h3>📋 周报信息</h3>
-                        <p><strong>周报标题：</strong>%s</p>
-                        <p><strong>报告周期：</strong>%s</p>
-                        <p><strong>提交人：</strong>%s</p>
-                        <p><strong>操作人：</strong>%s</p>
-                    </div>
-                    <p>周报已跳过正常流程直接进入审核，请尽快处理。</p>
-                    """,
-                    request.getReportAuthorName(),
-                    request.getWeeklyReportTitle(),
-                    request.getReportWeek(),
-                    request.getReportAuthorName(),
+                WEEKLY_REPORT_FORCE_SUBMITTED_BODY.appendTo(html,
+                    request.getReportAuthorName(), request.getWeeklyReportTitle(), request.getReportWeek(),
                     request.getTriggerUserName() != null ? request.getTriggerUserName() : "主管");
-                    
+                return;
+
             case WEEKLY_REPORT_PENDING_ADMIN_REVIEW:
-                return String.format("""
-                    <p>📋 有新的周报需要管理员审核，请及时处理。</p>
-                    <div class="project-info">
-                        <h3>📋 周报信息</h3>
-                        <p><strong>周报标题：</strong>%s</p>
-                        <p><strong>报告周期：</strong>%s</p>
-                        <p><strong>提交人：</strong>%s</p>
-                    </div>
-                    <p>请登录系统查看周报详情并完成审核。</p>
-                    """, 
-                    request.getWeeklyReportTitle(),
-                    request.getReportWeek(),
-                    request.getReportAuthorName());
-                    
+                WEEKLY_REPORT_PENDING_ADMIN_REVIEW_BODY.appendTo(html,
+                    request.getWeeklyReportTitle(), request.getReportWeek(), request.getReportAuthorName());
+                return;
+
             case WEEKLY_REPORT_ADMIN_REJECTED:
-                String weeklyRejectReason = request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因";
-                return String.format("""
-                    <p>❌ %s 的周报已被管理员拒绝，请及时处理。</p>
-                    <div class="project-info">
-                        <h3>📋 周报信息</h3>
-                        <p><strong>周报标题：</strong>%s</p>
-                        <p><strong>报告周期：</strong>%s</p>
-                        <p><strong>提交人：</strong>%s</p>
-                        <p><strong>审核人：</strong>%s</p>
-                    </div>
-                    <div class="project-info">
-                        <h3>拒绝原因</h3>
-                        <p>%s</p>
-                    </div>
-                    <p>请指导员工根据反馈意见修改周报并重新提交。</p>
-                    """, 
-                    request.getReportAuthorName(),
-                    request.getWeeklyReportTitle(),
-                    request.getReportWeek(),
-                    request.getReportAuthorName(),
+                WEEKLY_REPORT_ADMIN_REJECTED_BODY.appendTo(html,
+                    request.getReportAuthorName(), request.getWeeklyReportTitle(), request.getReportWeek(),
                     request.getReviewerName(),
-                    weeklyRejectReason);
-                    
+                    request.getRejectionReason() != null ? request.getRejectionReason() : "未提供具体原因");
+                return;
+
             case WEEKLY_REPORT_ADMIN_APPROVED:
-                if (request.getRecipientType() == NotificationRequest.RecipientType.ALL_SUPER_ADMINS) {
-                    return String.format("""
-                        <p>✅ %s 的周报已通过管理员审核，请查阅。</p>
-                        <div class="project-info">
-                            <h3>📋 周报信息</h3>
-                            <p><strong>周报标题：</strong>%s</p>
-                            <p><strong>报告周期：</strong>%s</p>
-                            <p><strong>提交人：</strong>%s</p>
-                            <p><strong>审核人：</strong>%s</p>
-                        </div>
-                        <p>周报已通过 %s 的管理员审核，请及时查阅周报内容。</p>
-                        """, 
-                        request.getReportAuthorName(),
-                        request.getWeeklyReportTitle(),
-                        request.getReportWeek(),
-                        request.getReportAuthorName(),
-                        request.getReviewerName(),
+                if (recipientType == NotificationRequest.RecipientType.ALL_SUPER_ADMINS) {
+                    WEEKLY_REPORT_ADMIN_APPROVED_TO_SUPER_ADMINS_BODY.appendTo(html,
+                        request.getReportAuthorName(), request.getWeeklyReportTitle(), request.getReportWeek(),
                         request.getReviewerName());
+                } else if (recipientType == NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR) {
+                    WEEKLY_REPORT_ADMIN_APPROVED_TO_AUTHOR_BODY.appendTo(html,
+                        request.getWeeklyReportTitle(), request.getReportWeek(), request.getReviewerName());
+                } else {
+                    html.append("<p>周报已通过管理员审核。</p>");
                 }
-                if (request.getRecipientType() == NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR) {
-                    return String.format("""
-                        <p>🎉 恭喜！您的周报已通过管理员审核。</p>
-                        <div class="project-info">
-                            <h3>📋 周报信息</h3>
-                            <p><strong>周报标题：</strong>%s</p>
-                            <p><strong>报告周期：</strong>%s</p>
-                            <p><strong>审核人：</strong>%s</p>
-                        </div>
-                        <p>您的周报已通过 %s 的审核，请继续保持良好的工作记录。</p>
-                        """, 
-                        request.getWeeklyReportTitle(),
-                        request.getReportWeek(),
-                        request.getReviewerName(),
-                        request.getReviewerName());
-                }
-                return "<p>周报已通过管理员审核。</p>";
-                    
+                return;
+
+            case WEEKLY_REPORT_SUBMISSION_REMINDER:
+                WEEKLY_REPORT_SUBMISSION_REMINDER_BODY.appendTo(html,
+                    safeName(request.getReportAuthorName(), "同事"), request.getReportWeek());
+                return;
+
             default:
-                return "<p>项目状态已更新，请登录系统查看详情。</p>";
+                html.append("<p>项目状态已更新，请登录系统查看详情。</p>");
         }
     }
 
@@ -474,40 +604,25 @@ public class EmailTemplateService {
         }
     }
 
-    private String generateActionButtons(NotificationRequest request) {
-        // 根据不同的通知类型生成不同的操作按钮
-        switch (request.getNotificationType()) {
-            case AI_ANALYSIS_COMPLETED:
-            case PENDING_ADMIN_REVIEW:
-            case ADMIN_APPROVED:
-                return """
-                    <p>
-                        <a href="#" class="action-button">前往周报管理系统</a>
-                    </p>
-                    """;
-            default:
-                return """
-                    <p>
-                        <a href="#" class="action-button">前往周报管理系统</a>
-                    </p>
-                    """;
+    /**
+     * 渲染结果：主题和HTML正文（或内容片段）只生成一次，发送给同一请求的全部收件人
+     */
+    public static final class RenderedEmail {
+
+        private final String subject;
+        private final String htmlContent;
+
+        public RenderedEmail(String subject, String htmlContent) {
+            this.subject = subject;
+            this.htmlContent = htmlContent;
         }
-    }
 
-    private String generateTimestamp(NotificationRequest request) {
-        return String.format("""
-            <div class="timestamp">
-                <p>📅 通知时间：%s</p>
-            </div>
-            """, request.getTimestamp().format(DATE_TIME_FORMATTER));
-    }
+        public String getSubject() {
+            return subject;
+        }
 
-    private String generateFooter(NotificationRequest request) {
-        return """
-            <div class="footer">
-                <p>此邮件由周报管理系统自动发送，请勿直接回复。</p>
-                <p>如有问题，请登录系统联系管理员。</p>
-            </div>
-            """;
+        public String getHtmlContent() {
+            return htmlContent;
+        }
     }
 }
@@ -0,0 +1,221 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.common.util.EmailSenderUtil;
+import com.weeklyreport.notification.dto.NotificationRequest;
+import com.weeklyreport.notification.dto.OutboxMessage;
+import com.weeklyreport.notification.repository.NotificationOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 通知发件箱投递器
+ * 定时认领到期消息，按收件人分组：单条直接发送，多条合并为摘要邮件；
+ * 一轮的全部邮件在同一个SMTP连接上发出。失败按指数退避重试，超过最大次数转入死信。
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final long MAX_RETRY_DELAY_SECONDS = 3600;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final EmailSenderUtil emailSenderUtil;
+    private final EmailTemplateService templateService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseSeconds;
+    private final long leaseSeconds;
+    private final int retentionDays;
+    private final Executor mailExecutor;
+    // 同时进行的投递轮次名额，任务结束或提交被拒绝时归还
+    private final Semaphore roundPermits;
+
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  EmailSenderUtil emailSenderUtil,
+                                  EmailTemplateService templateService,
+                                  @Qualifier("notificationTaskExecutor") Executor mailExecutor,
+                                  @Value("${notification.outbox.max-concurrent-rounds:2}") int maxConcurrentRounds,
+                                  @Value("${notification.outbox.batch-size:100}") int batchSize,
+                                  @Value("${notification.outbox.max-attempts:6}") int maxAttempts,
+                                  @Value("${notification.outbox.retry-base-seconds:30}") long retryBaseSeconds,
+                                  @Value("${notification.outbox.lease-seconds:300}") long leaseSeconds,
+                                  @Value("${notification.outbox.retention-days:14}") int retentionDays) {
+        this.outboxRepository = outboxRepository;
+        this.emailSenderUtil = emailSenderUtil;
+        this.templateService = templateService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseSeconds = retryBaseSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.retentionDays = retentionDays;
+        this.mailExecutor = mailExecutor;
+        this.roundPermits = new Semaphore(maxConcurrentRounds);
+    }
+
+    /**
+     * 定时触发投递；投递本身在邮件线程池中执行，不占用定时任务线程
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        // 同时进行的投递轮次不超过邮件线程数，SMTP变慢时不堆积
+        if (!roundPermits.tryAcquire()) {
+            return;
+        }
+        try {
+            mailExecutor.execute(() -> {
+                try {
+                    dispatch(LocalDateTime.now());
+                } catch (Exception e) {
+                    logger.error("通知发件箱投递失败", e);
+                } finally {
+                    roundPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            roundPermits.release();
+            logger.warn("邮件投递线程池已满，跳过本轮投递");
+        } catch (RuntimeException e) {
+            roundPermits.release();
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "${notification.outbox.cleanup-cron:0 0 3 * * ?}")
+    public void purgeSent() {
+        int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("已清理 {} 条已发送的通知发件箱记录", deleted);
+    }
+
+    /**
+     * 投递一轮到期消息，返回发出的邮件数
+     */
+    int dispatch(LocalDateTime now) {
+        List<OutboxMessage> claimed = outboxRepository.claimDue(now, batchSize, now.plusSeconds(leaseSeconds));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxMessage>> byRecipient = new LinkedHashMap<>();
+        for (OutboxMessage message : claimed) {
+            byRecipient.computeIfAbsent(message.getRecipient(), key -> new ArrayList<>()).add(message);
+        }
+
+        // MimeMessage 未重写 equals/hashCode，按对象身份作为键，同时保持收件人顺序
+        Map<MimeMessage, List<OutboxMessage>> batch = new LinkedHashMap<>();
+        for (List<OutboxMessage> group : byRecipient.values()) {
+            try {
+                batch.put(buildMail(group), group);
+            } catch (Exception e) {
+                logger.error("构建通知邮件失败: recipient={}", group.get(0).getRecipient(), e);
+                handleFailure(group, e, now);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        try {
+            emailSenderUtil.sendBatch(batch.keySet().toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(batch, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(batch, e);
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        for (Map.Entry<MimeMessage, List<OutboxMessage>> entry : batch.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                entry.getValue().forEach(message -> sentIds.add(message.getId()));
+            } else {
+                handleFailure(entry.getValue(), failure, now);
+            }
+        }
+        outboxRepository.markSent(sentIds, now);
+
+        logger.info("通知发件箱投递完成: 消息 {} 条, 邮件 {} 封, 失败 {} 封",
+                    claimed.size(), batch.size(), failures.size());
+        return batch.size() - failures.size();
+    }
+
+    private MimeMessage buildMail(List<OutboxMessage> group) {
+        OutboxMessage first = group.get(0);
+        EmailTemplateService.RenderedEmail email;
+        if (group.size() == 1) {
+            email = new EmailTemplateService.RenderedEmail(
+                first.getSubject(), templateService.wrapDocument(describe(first.getNotificationType()), first.getContentHtml()));
+        } else {
+            List<EmailTemplateService.RenderedEmail> parts = new ArrayList<>(group.size());
+            for (OutboxMessage message : group) {
+                parts.add(new EmailTemplateService.RenderedEmail(message.getSubject(), message.getContentHtml()));
+            }
+            email = templateService.renderDigest(parts);
+        }
+        return emailSenderUtil.createHtmlMessage(first.getRecipient(), email.getSubject(), email.getHtmlContent());
+    }
+
+    private void handleFailure(List<OutboxMessage> group, Exception failure, LocalDateTime now) {
+        List<Long> retryIds = new ArrayList<>();
+        List<Long> deadIds = new ArrayList<>();
+        int attempts = 0;
+        for (OutboxMessage message : group) {
+            if (message.getAttempts() >= maxAttempts) {
+                deadIds.add(message.getId());
+            } else {
+                retryIds.add(message.getId());
+                attempts = Math.max(attempts, message.getAttempts());
+            }
+        }
+
+        String error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        if (!retryIds.isEmpty()) {
+            LocalDateTime nextAttemptAt = now.plusSeconds(retryDelaySeconds(attempts));
+            outboxRepository.markRetry(retryIds, nextAttemptAt, error);
+            logger.warn("通知邮件发送失败，将于 {} 重试: recipient={}, 原因={}",
+                        nextAttemptAt, group.get(0).getRecipient(), error);
+        }
+        if (!deadIds.isEmpty()) {
+            outboxRepository.markDead(deadIds, error);
+            logger.error("通知邮件超过最大重试次数，转入死信: recipient={}, ids={}, 原因={}",
+                         group.get(0).getRecipient(), deadIds, error);
+        }
+    }
+
+    long retryDelaySeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(retryBaseSeconds << exponent, MAX_RETRY_DELAY_SECONDS);
+    }
+
+    private Map<Object, Exception> allFailed(Map<MimeMessage, List<OutboxMessage>> batch, Exception e) {
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        batch.keySet().forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private String describe(String notificationType) {
+        try {
+            return NotificationRequest.NotificationType.valueOf(notificationType).getDescription();
+        } catch (IllegalArgumentException e) {
+            return "系统通知";
+        }
+    }
+}
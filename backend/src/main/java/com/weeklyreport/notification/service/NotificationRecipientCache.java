@@ -0,0 +1,196 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.repository.ProjectRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知收件人缓存
+ * 角色 -> 在职用户邮箱、项目 -> 项目经理邮箱 两张表常驻内存，批量审批时收件人解析不再访问数据库。
+ * 用户角色/状态/邮箱变化和项目负责人变化时在提交后按 {@link EntityChangedEvent} 精确失效；
+ * 绕过实体监听的批量更新依靠TTL兜底。
+ */
+@Component
+public class NotificationRecipientCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRecipientCache.class);
+
+    private static final int MAX_PROJECT_ENTRIES = 10_000;
+
+    private final UserRepository userRepository;
+    private final ProjectRepository projectRepository;
+    private final long ttlMillis;
+
+    private final Map<User.Role, RoleEntry> roleEmails = Collections.synchronizedMap(new EnumMap<>(User.Role.class));
+    private final ConcurrentHashMap<Long, ManagerEntry> projectManagers = new ConcurrentHashMap<>();
+    // 每次失效递增；加载期间发生过失效的结果不写入缓存，避免旧数据覆盖
+    private final AtomicLong generation = new AtomicLong();
+
+    public NotificationRecipientCache(UserRepository userRepository,
+                                      ProjectRepository projectRepository,
+                                      @Value("${notification.recipient-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.projectRepository = projectRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 指定角色的全部在职用户邮箱
+     */
+    public List<String> getRoleEmails(User.Role role) {
+        RoleEntry entry = roleEmails.get(role);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            return entry.emails;
+        }
+
+        long loadGeneration = generation.get();
+        Map<Long, String> emailsByUserId = new LinkedHashMap<>();
+        for (User user : userRepository.findByRoleAndStatus(role, User.UserStatus.ACTIVE)) {
+            emailsByUserId.put(user.getId(), user.getEmail());
+        }
+        RoleEntry loaded = new RoleEntry(emailsByUserId);
+        if (generation.get() == loadGeneration) {
+            roleEmails.put(role, loaded);
+        }
+        return loaded.emails;
+    }
+
+    /**
+     * 项目经理（项目创建者）邮箱，项目不存在或经理非在职时为空
+     */
+    public List<String> getProjectManagerEmails(Long projectId) {
+        ManagerEntry entry = projectManagers.get(projectId);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            return entry.emails();
+        }
+
+        long loadGeneration = generation.get();
+        Long managerId = projectRepository.findById(projectId).map(Project::getCreatedBy).orElse(null);
+        String email = managerId == null ? null : userRepository.findById(managerId)
+            .filter(User::isActive)
+            .map(User::getEmail)
+            .orElse(null);
+        ManagerEntry loaded = new ManagerEntry(managerId, email);
+
+        if (generation.get() == loadGeneration) {
+            if (projectManagers.size() >= MAX_PROJECT_ENTRIES) {
+                projectManagers.clear();
+            }
+            projectManagers.put(projectId, loaded);
+        }
+        return loaded.emails();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(EntityChangedEvent<User> event) {
+        onUserChanged(event.getEntity(), event.isRemoved());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectChanged(EntityChangedEvent<Project> event) {
+        onProjectChanged(event.getEntity(), event.isRemoved());
+    }
+
+    /**
+     * 用户新增/修改/删除后调用：只有缓存内容与用户当前状态不一致时才失效
+     */
+    public void onUserChanged(User user, boolean removed) {
+        Long userId = user.getId();
+        if (userId == null) {
+            return;
+        }
+        boolean eligible = !removed && user.isActive();
+
+        synchronized (roleEmails) {
+            roleEmails.entrySet().removeIf(cached -> {
+                String cachedEmail = cached.getValue().emailsByUserId.get(userId);
+                boolean shouldContain = eligible && cached.getKey() == user.getRole();
+                boolean stale = shouldContain ? !Objects.equals(cachedEmail, user.getEmail()) : cachedEmail != null;
+                if (stale) {
+                    logger.debug("用户 {} 变更，失效角色收件人缓存: {}", userId, cached.getKey());
+                }
+                return stale;
+            });
+        }
+
+        String expectedEmail = eligible ? user.getEmail() : null;
+        projectManagers.values().removeIf(cached ->
+            userId.equals(cached.managerId) && !Objects.equals(cached.email, expectedEmail));
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 项目保存/删除后调用：负责人未变化时保留缓存
+     */
+    public void onProjectChanged(Project project, boolean removed) {
+        Long projectId = project.getId();
+        if (projectId == null) {
+            return;
+        }
+        ManagerEntry cached = projectManagers.get(projectId);
+        if (cached != null && (removed || !Objects.equals(cached.managerId, project.getCreatedBy()))) {
+            projectManagers.remove(projectId);
+            generation.incrementAndGet();
+            logger.debug("项目 {} 负责人变更，失效项目经理缓存", projectId);
+        }
+    }
+
+    public void invalidateAll() {
+        roleEmails.clear();
+        projectManagers.clear();
+        generation.incrementAndGet();
+    }
+
+    private static final class RoleEntry {
+
+        private final Map<Long, String> emailsByUserId;
+        private final List<String> emails;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private RoleEntry(Map<Long, String> emailsByUserId) {
+            this.emailsByUserId = emailsByUserId;
+            this.emails = List.copyOf(emailsByUserId.values());
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+
+    private static final class ManagerEntry {
+
+        private final Long managerId;
+        private final String email;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private ManagerEntry(Long managerId, String email) {
+            this.managerId = managerId;
+            this.email = email;
+        }
+
+        private List<String> emails() {
+            return email == null ? Collections.emptyList() : Collections.singletonList(email);
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
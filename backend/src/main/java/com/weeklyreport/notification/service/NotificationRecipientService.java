@@ -3,7 +3,6 @@ package com.weeklyreport.notification.service;
 import com.weeklyreport.notification.dto.NotificationRequest;
 import com.weeklyreport.user.entity.User;
 import com.weeklyreport.user.repository.UserRepository;
-import com.weeklyreport.project.repository.ProjectRepository;
 import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,11 +10,13 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * 通知接收者服务 - 根据角色和项目获取邮件接收者列表
+ * 角色和项目经理收件人走 {@link NotificationRecipientCache}
  */
 @Service
 public class NotificationRecipientService {
@@ -23,15 +24,15 @@ public class NotificationRecipientService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationRecipientService.class);
 
     private final UserRepository userRepository;
-    private final ProjectRepository projectRepository;
     private final WeeklyReportRepository weeklyReportRepository;
+    private final NotificationRecipientCache recipientCache;
 
     public NotificationRecipientService(UserRepository userRepository, 
-                                      ProjectRepository projectRepository,
-                                      WeeklyReportRepository weeklyReportRepository) {
+                                      WeeklyReportRepository weeklyReportRepository,
+                                      NotificationRecipientCache recipientCache) {
         this.userRepository = userRepository;
-        this.projectRepository = projectRepository;
         this.weeklyReportRepository = weeklyReportRepository;
+        this.recipientCache = recipientCache;
     }
 
     /**
@@ -57,10 +58,7 @@ public class NotificationRecipientService {
                     return getAllSuperAdminEmails();
                     
                 case SUPER_ADMINS_AND_MANAGER:
-                    List<String> emails = new ArrayList<>();
-                    emails.addAll(getAllSuperAdminEmails());
-                    emails.addAll(getProjectManagerEmails(projectId));
-                    return emails.stream().distinct().collect(Collectors.toList());
+                    return merge(getAllSuperAdminEmails(), getProjectManagerEmails(projectId));
 
                 case ADMINS_AND_SUPER_ADMINS:
                     return getAdminsAndSuperAdmins();
@@ -99,19 +97,8 @@ public class NotificationRecipientService {
         }
 
         try {
-            // 查找项目创建者作为项目经理
-            return projectRepository.findById(projectId)
-                .map(project -> {
-                    Long createdBy = project.getCreatedBy();
-                    if (createdBy != null) {
-                        return userRepository.findById(createdBy)
-                            .filter(User::isActive)
-                            .map(user -> Collections.singletonList(user.getEmail()))
-                            .orElse(Collections.emptyList());
-                    }
-                    return Collections.<String>emptyList();
-                })
-                .orElse(Collections.emptyList());
+            // 项目创建者作为项目经理
+            return recipientCache.getProjectManagerEmails(projectId);
         } catch (Exception e) {
             logger.error("查找项目经理失败，项目ID: {}", projectId, e);
             return Collections.emptyList();
@@ -123,10 +110,7 @@ public class NotificationRecipientService {
      */
     private List<String> getAllAdminEmails() {
         try {
-            return userRepository.findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE)
-                .stream()
-                .map(User::getEmail)
-                .collect(Collectors.toList());
+            return recipientCache.getRoleEmails(User.Role.ADMIN);
         } catch (Exception e) {
             logger.error("查找所有管理员失败", e);
             return Collections.emptyList();
@@ -138,10 +122,7 @@ public class NotificationRecipientService {
      */
     private List<String> getAllSuperAdminEmails() {
         try {
-            return userRepository.findByRoleAndStatus(User.Role.SUPER_ADMIN, User.UserStatus.ACTIVE)
-                .stream()
-                .map(User::getEmail)
-                .collect(Collectors.toList());
+            return recipientCache.getRoleEmails(User.Role.SUPER_ADMIN);
         } catch (Exception e) {
             logger.error("查找所有超级管理员失败", e);
             return Collections.emptyList();
@@ -153,19 +134,8 @@ public class NotificationRecipientService {
      */
     private List<String> getAllStakeholderEmails(Long projectId) {
         try {
-            List<String> emails = new ArrayList<>();
-            
-            // 添加项目经理
-            emails.addAll(getProjectManagerEmails(projectId));
-            
-            // 添加所有管理员
-            emails.addAll(getAllAdminEmails());
-            
-            // 添加所有超级管理员
-            emails.addAll(getAllSuperAdminEmails());
-            
-            // 去重并返回
-            return emails.stream().distinct().collect(Collectors.toList());
+            // 项目经理 + 所有管理员 + 所有超级管理员，去重
+            return merge(getProjectManagerEmails(projectId), getAllAdminEmails(), getAllSuperAdminEmails());
         } catch (Exception e) {
             logger.error("获取所有相关人员邮箱失败，项目ID: {}", projectId, e);
             return Collections.emptyList();
@@ -174,16 +144,25 @@ public class NotificationRecipientService {
 
     private List<String> getAdminsAndSuperAdmins() {
         try {
-            List<String> emails = new ArrayList<>();
-            emails.addAll(getAllAdminEmails());
-            emails.addAll(getAllSuperAdminEmails());
-            return emails.stream().distinct().collect(Collectors.toList());
+            return merge(getAllAdminEmails(), getAllSuperAdminEmails());
         } catch (Exception e) {
             logger.error("查找管理员和超级管理员失败", e);
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 按顺序合并多个邮箱列表并去重
+     */
+    @SafeVarargs
+    private List<String> merge(List<String>... lists) {
+        Set<String> merged = new LinkedHashSet<>();
+        for (List<String> list : lists) {
+            merged.addAll(list);
+        }
+        return new ArrayList<>(merged);
+    }
+
     /**
      * 获取周报提交者邮箱
      */
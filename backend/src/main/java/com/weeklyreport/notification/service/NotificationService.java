@@ -1,62 +1,102 @@
 package com.weeklyreport.notification.service;
 
-import com.weeklyreport.common.util.EmailSenderUtil;
 import com.weeklyreport.notification.dto.NotificationRequest;
 import com.weeklyreport.notification.event.*;
+import com.weeklyreport.notification.repository.NotificationOutboxRepository;
 import com.weeklyreport.project.entity.Project;
 import com.weeklyreport.project.repository.ProjectRepository;
 import com.weeklyreport.user.entity.User;
 import com.weeklyreport.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * 通知服务 - 处理项目和周报审核流程中的邮件通知
+ * 事件在业务事务提交后才写入通知发件箱（无事务时立即写入），实际发送由 NotificationDispatcher 完成
  */
 @Service
 public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
-    private final EmailSenderUtil emailSenderUtil;
     private final NotificationRecipientService recipientService;
     private final EmailTemplateService templateService;
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final long digestWindowSeconds;
 
-    public NotificationService(EmailSenderUtil emailSenderUtil,
-                             NotificationRecipientService recipientService,
+    public NotificationService(NotificationRecipientService recipientService,
                              EmailTemplateService templateService,
                              UserRepository userRepository,
-                             ProjectRepository projectRepository) {
-        this.emailSenderUtil = emailSenderUtil;
+                             ProjectRepository projectRepository,
+                             NotificationOutboxRepository outboxRepository,
+                             @Value("${notification.outbox.digest-window-seconds:60}") long digestWindowSeconds) {
         this.recipientService = recipientService;
         this.templateService = templateService;
         this.userRepository = userRepository;
         this.projectRepository = projectRepository;
+        this.outboxRepository = outboxRepository;
+        this.digestWindowSeconds = digestWindowSeconds;
     }
 
     /**
-     * 异步发送通知邮件
+     * 将通知写入发件箱，由 NotificationDispatcher 异步投递
+     * 收件人在此时解析，正文只渲染一次，每个收件人一行；合并窗口内同一收件人的多条通知会合成摘要邮件
      */
-    @Async
-    public CompletableFuture<Void> sendNotificationAsync(NotificationRequest request) {
+    public void enqueue(NotificationRequest request) {
         try {
-            sendNotification(request);
-            return CompletableFuture.completedFuture(null);
+            List<String> recipients = recipientService.getRecipients(
+                request.getRecipientType(),
+                request.getProjectId(),
+                request.getWeeklyReportId());
+
+            if (recipients.isEmpty()) {
+                logger.warn("No recipients found for notification type: {} and project: {}",
+                    request.getRecipientType(), request.getProjectId());
+                return;
+            }
+
+            EmailTemplateService.RenderedEmail content = templateService.renderContent(request);
+            outboxRepository.enqueue(recipients, request.getNotificationType().name(),
+                content.getSubject(), content.getHtmlContent(),
+                LocalDateTime.now().plusSeconds(digestWindowSeconds));
+
+            logger.info("📧 通知已写入发件箱: type={}, recipientType={}, count={}",
+                request.getNotificationType(), request.getRecipientType(), recipients.size());
         } catch (Exception e) {
-            logger.error("Failed to send notification: {}", e.getMessage(), e);
-            return CompletableFuture.failedFuture(e);
+            // 业务事务已提交，这里不能再向调用方抛出异常
+            logger.error("❌ 通知写入发件箱失败: type={}, projectId={}, weeklyReportId={}",
+                request.getNotificationType(), request.getProjectId(), request.getWeeklyReportId(), e);
         }
     }
 
+    /**
+     * 周报提交提醒：收件人就是未提交的用户本人，不经收件人类型解析直接写入发件箱
+     */
+    public void enqueueSubmissionReminder(Long userId, String userName, String email, String reportWeek) {
+        NotificationRequest request = NotificationRequest.builder()
+            .notificationType(NotificationRequest.NotificationType.WEEKLY_REPORT_SUBMISSION_REMINDER)
+            .recipientType(NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR)
+            .reportAuthorId(userId)
+            .reportAuthorName(userName)
+            .reportWeek(reportWeek)
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        EmailTemplateService.RenderedEmail content = templateService.renderContent(request);
+        outboxRepository.enqueue(List.of(email), request.getNotificationType().name(),
+            content.getSubject(), content.getHtmlContent(),
+            LocalDateTime.now().plusSeconds(digestWindowSeconds));
+    }
+
     private String resolveUserDisplayName(Long userId) {
         if (userId == null) {
             return null;
@@ -84,56 +124,12 @@ public class NotificationService {
         return resolveUserDisplayName(ownerId);
     }
 
-    /**
-     * 发送通知邮件
-     */
-    public void sendNotification(NotificationRequest request) {
-        try {
-            logger.info("📧 开始发送通知: type={}, recipientType={}, projectId={}",
-                request.getNotificationType(), request.getRecipientType(), request.getProjectId());
-
-            // 获取邮件接收者列表 (支持周报ID)
-            List<String> recipients = recipientService.getRecipients(
-                request.getRecipientType(),
-                request.getProjectId(),
-                request.getWeeklyReportId());
-
-            logger.info("📧 找到收件人: count={}, emails={}", recipients.size(), recipients);
-
-            if (recipients.isEmpty()) {
-                logger.warn("No recipients found for notification type: {} and project: {}",
-                    request.getRecipientType(), request.getProjectId());
-                return;
-            }
-
-            // 生成邮件模板
-            logger.info("📧 开始生成邮件模板...");
-            String subject = templateService.generateSubject(request);
-            String htmlContent = templateService.generateHtmlContent(request);
-            logger.info("📧 邮件模板生成完成: subject={}", subject);
-
-            // 发送HTML邮件
-            logger.info("📧 开始调用邮件发送工具...");
-            emailSenderUtil.sendHtml(recipients, subject, htmlContent);
-            logger.info("📧 邮件发送工具调用完成");
-
-            logger.info("Successfully sent {} notification to {} recipients for project {}",
-                request.getNotificationType(), recipients.size(), request.getProjectId());
-
-        } catch (Exception e) {
-            logger.error("Failed to send notification for project {}: {}",
-                request.getProjectId(), e.getMessage(), e);
-            throw e;
-        }
-    }
-
     // ========== 项目审核流程事件监听器 ==========
 
     /**
      * AI分析完成 → 通知项目经理
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleAIAnalysisCompleted(AIAnalysisCompletedEvent event) {
         logger.info("Handling AI analysis completed event for project {}", event.getProjectId());
         
@@ -148,14 +144,13 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     /**
      * 待管理员审核 → 通知所有管理员
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handlePendingAdminReview(PendingAdminReviewEvent event) {
         logger.info("Handling pending admin review event for project {}", event.getProjectId());
         
@@ -170,14 +165,13 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     /**
      * 管理员拒绝 → 通知项目经理
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleAdminRejected(AdminRejectedEvent event) {
         try {
             logger.info("=== 开始处理管理员拒绝事件 ===");
@@ -200,12 +194,8 @@ public class NotificationService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-            logger.info("构建通知请求完成，开始异步发送邮件...");
-            sendNotificationAsync(request).exceptionally(ex -> {
-                logger.error("❌ 发送管理员拒绝邮件失败 - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            logger.info("构建通知请求完成，写入通知发件箱...");
+            enqueue(request);
 
             logger.info("=== 管理员拒绝事件处理完成 ===");
         } catch (Exception e) {
@@ -217,8 +207,7 @@ public class NotificationService {
     /**
      * 管理员通过 → 通知超级管理员和项目经理
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleAdminApproved(AdminApprovedEvent event) {
         try {
             logger.info("=== 开始处理管理员审批通过事件 ===");
@@ -253,18 +242,10 @@ public class NotificationService {
                 .timestamp(timestamp)
                 .build();
 
-            logger.info("构建通知请求完成，开始异步发送邮件（超级管理员、项目经理）...");
-            sendNotificationAsync(superAdminNotice).exceptionally(ex -> {
-                logger.error("❌ 发送管理员审批通过邮件失败（超级管理员） - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            logger.info("构建通知请求完成，写入通知发件箱（超级管理员、项目经理）...");
+            enqueue(superAdminNotice);
 
-            sendNotificationAsync(managerNotice).exceptionally(ex -> {
-                logger.error("❌ 发送管理员审批通过邮件失败（项目经理） - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            enqueue(managerNotice);
 
             logger.info("=== 管理员审批通过事件处理完成 ===");
         } catch (Exception e) {
@@ -276,8 +257,7 @@ public class NotificationService {
     /**
      * 超级管理员拒绝 → 通知项目经理
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleSuperAdminRejected(SuperAdminRejectedEvent event) {
         try {
             logger.info("=== 开始处理超级管理员拒绝事件 ===");
@@ -300,12 +280,8 @@ public class NotificationService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-            logger.info("构建通知请求完成，开始异步发送邮件...");
-            sendNotificationAsync(request).exceptionally(ex -> {
-                logger.error("❌ 发送超级管理员拒绝邮件失败 - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            logger.info("构建通知请求完成，写入通知发件箱...");
+            enqueue(request);
 
             logger.info("=== 超级管理员拒绝事件处理完成 ===");
         } catch (Exception e) {
@@ -317,8 +293,7 @@ public class NotificationService {
     /**
      * 超级管理员通过 → 通知所有相关人员
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleSuperAdminApproved(SuperAdminApprovedEvent event) {
         try {
             logger.info("=== 开始处理超级管理员审批通过事件 ===");
@@ -353,18 +328,10 @@ public class NotificationService {
                 .timestamp(timestamp)
                 .build();
 
-            logger.info("构建通知请求完成，开始异步发送邮件（项目经理+管理员）...");
-            sendNotificationAsync(managerNotice).exceptionally(ex -> {
-                logger.error("❌ 发送超级管理员审批通过邮件失败（项目经理） - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            logger.info("构建通知请求完成，写入通知发件箱（项目经理+管理员）...");
+            enqueue(managerNotice);
 
-            sendNotificationAsync(adminNotice).exceptionally(ex -> {
-                logger.error("❌ 发送超级管理员审批通过邮件失败（管理员） - 项目ID: {}, 错误: {}",
-                    event.getProjectId(), ex.getMessage(), ex);
-                return null;
-            });
+            enqueue(adminNotice);
 
             logger.info("=== 超级管理员审批通过事件处理完成 ===");
         } catch (Exception e) {
@@ -376,8 +343,7 @@ public class NotificationService {
     /**
      * 强制提交 → 通知所有管理员
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleForceSubmitted(ForceSubmittedEvent event) {
         logger.info("Handling force submitted event for project {}", event.getProjectId());
         
@@ -392,7 +358,7 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     // ========== 周报审核流程事件监听器 ==========
@@ -400,8 +366,7 @@ public class NotificationService {
     /**
      * 周报提交 → 通知周报提交者和主管
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportSubmitted(WeeklyReportSubmittedEvent event) {
         logger.info("📧 处理周报提交事件，周报ID: {}", event.getWeeklyReportId());
 
@@ -436,19 +401,11 @@ public class NotificationService {
                 .timestamp(timestamp)
                 .build();
 
-            logger.info("📧 开始发送周报提交邮件（提交者+主管）...");
+            logger.info("📧 周报提交通知写入发件箱（提交者+主管）...");
 
-            sendNotificationAsync(authorNotice).exceptionally(ex -> {
-                logger.error("❌ 发送周报提交邮件失败（提交者） - 周报ID: {}, 错误: {}",
-                    event.getWeeklyReportId(), ex.getMessage(), ex);
-                return null;
-            });
+            enqueue(authorNotice);
 
-            sendNotificationAsync(supervisorNotice).exceptionally(ex -> {
-                logger.error("❌ 发送周报提交邮件失败（主管） - 周报ID: {}, 错误: {}",
-                    event.getWeeklyReportId(), ex.getMessage(), ex);
-                return null;
-            });
+            enqueue(supervisorNotice);
 
             logger.info("✅ 周报提交事件处理完成，周报ID: {}", event.getWeeklyReportId());
         } catch (Exception e) {
@@ -460,8 +417,7 @@ public class NotificationService {
     /**
      * 周报AI分析拒绝 → 通知提交者
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportAIRejected(WeeklyReportAIRejectedEvent event) {
         logger.info("❌ 处理周报AI拒绝事件，周报ID: {}", event.getWeeklyReportId());
 
@@ -478,11 +434,7 @@ public class NotificationService {
                 .timestamp(LocalDateTime.now())
                 .build();
 
-            sendNotificationAsync(request).exceptionally(ex -> {
-                logger.error("❌ 发送周报AI拒绝邮件失败 - 周报ID: {}, 错误: {}",
-                    event.getWeeklyReportId(), ex.getMessage(), ex);
-                return null;
-            });
+            enqueue(request);
 
             logger.info("✅ 周报AI拒绝事件处理完成，周报ID: {}", event.getWeeklyReportId());
         } catch (Exception e) {
@@ -494,8 +446,7 @@ public class NotificationService {
     /**
      * 周报AI分析完成 → 通知主管
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportAICompleted(WeeklyReportAICompletedEvent event) {
         logger.info("📊 处理周报AI分析完成事件，周报ID: {}", event.getWeeklyReportId());
         
@@ -513,14 +464,13 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     /**
      * 周报待管理员审核 → 通知所有管理员
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportPendingAdminReview(WeeklyReportPendingAdminReviewEvent event) {
         logger.info("📋 处理周报待管理员审核事件，周报ID: {}", event.getWeeklyReportId());
         
@@ -538,14 +488,13 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     /**
      * 周报管理员拒绝 → 通知周报提交者主管
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportAdminRejected(WeeklyReportAdminRejectedEvent event) {
         logger.info("❌ 处理周报管理员拒绝事件，周报ID: {}", event.getWeeklyReportId());
         
@@ -565,14 +514,13 @@ public class NotificationService {
             .timestamp(LocalDateTime.now())
             .build();
 
-        sendNotificationAsync(request);
+        enqueue(request);
     }
 
     /**
      * 周报管理员通过 → 通知超级管理员和周报提交者
      */
-    @EventListener
-    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
     public void handleWeeklyReportAdminApproved(WeeklyReportAdminApprovedEvent event) {
         logger.info("✅ 处理周报管理员通过事件，周报ID: {}", event.getWeeklyReportId());
         LocalDateTime timestamp = LocalDateTime.now();
@@ -609,7 +557,78 @@ public class NotificationService {
             .timestamp(timestamp)
             .build();
 
-        sendNotificationAsync(superAdminNotice);
-        sendNotificationAsync(authorNotice);
+        enqueue(superAdminNotice);
+        enqueue(authorNotice);
+    }
+
+    // ========== 批量审批事件监听器 ==========
+
+    /**
+     * 项目批量审批 → 每个项目按对应单条审批的收件人写入发件箱，同一收件人的多条通知在发件箱中合并为一封摘要邮件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleProjectsBulkReviewed(ProjectsBulkReviewedEvent event) {
+        logger.info("📋 处理项目批量审批事件，结论: {}, 项目数: {}", event.getDecision(), event.getProjects().size());
+
+        String reviewerName = resolveUserDisplayName(event.getTriggerUserId());
+        NotificationRequest.NotificationType type = NotificationRequest.NotificationType.valueOf(event.getDecision().name());
+        List<NotificationRequest.RecipientType> recipientTypes = switch (event.getDecision()) {
+            case ADMIN_APPROVED -> List.of(NotificationRequest.RecipientType.ALL_SUPER_ADMINS,
+                                           NotificationRequest.RecipientType.PROJECT_MANAGER);
+            case SUPER_ADMIN_APPROVED -> List.of(NotificationRequest.RecipientType.PROJECT_MANAGER,
+                                                 NotificationRequest.RecipientType.ADMINS_AND_SUPER_ADMINS);
+            case ADMIN_REJECTED, SUPER_ADMIN_REJECTED -> List.of(NotificationRequest.RecipientType.PROJECT_MANAGER);
+        };
+
+        for (ProjectsBulkReviewedEvent.ReviewedProject project : event.getProjects()) {
+            for (NotificationRequest.RecipientType recipientType : recipientTypes) {
+                enqueue(NotificationRequest.builder()
+                    .notificationType(type)
+                    .recipientType(recipientType)
+                    .projectId(project.getProjectId())
+                    .projectName(project.getProjectName())
+                    .rejectionReason(event.getRejectionReason())
+                    .triggerUserId(event.getTriggerUserId())
+                    .triggerUserName(reviewerName)
+                    .projectOwnerName(project.getProjectOwnerName())
+                    .reviewerName(reviewerName)
+                    .timestamp(event.getTimestamp())
+                    .build());
+            }
+        }
+    }
+
+    /**
+     * 周报批量审批 → 通过时通知超级管理员和周报提交者，拒绝时通知周报提交者主管（与单条审批一致）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleWeeklyReportsBulkReviewed(WeeklyReportsBulkReviewedEvent event) {
+        logger.info("📋 处理周报批量审批事件，{}，周报数: {}", event.isApproved() ? "通过" : "拒绝", event.getReports().size());
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        NotificationRequest.NotificationType type = event.isApproved()
+            ? NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_APPROVED
+            : NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_REJECTED;
+        List<NotificationRequest.RecipientType> recipientTypes = event.isApproved()
+            ? List.of(NotificationRequest.RecipientType.ALL_SUPER_ADMINS, NotificationRequest.RecipientType.WEEKLY_REPORT_AUTHOR)
+            : List.of(NotificationRequest.RecipientType.WEEKLY_REPORT_SUPERVISOR);
+
+        for (WeeklyReportsBulkReviewedEvent.ReviewedReport report : event.getReports()) {
+            for (NotificationRequest.RecipientType recipientType : recipientTypes) {
+                enqueue(NotificationRequest.builder()
+                    .notificationType(type)
+                    .recipientType(recipientType)
+                    .weeklyReportId(report.getWeeklyReportId())
+                    .weeklyReportTitle(report.getWeeklyReportTitle())
+                    .reportWeek(report.getReportWeek())
+                    .reportAuthorId(report.getReportAuthorId())
+                    .reportAuthorName(report.getReportAuthorName())
+                    .rejectionReason(event.getRejectionReason())
+                    .reviewerName(event.getReviewerName())
+                    .triggerUserId(event.getReviewerId())
+                    .timestamp(timestamp)
+                    .build());
+            }
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.weeklyreport.project.controller;
 
 import com.weeklyreport.common.dto.ApiResponse;
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
 import com.weeklyreport.project.dto.*;
 import com.weeklyreport.ai.dto.AIAnalysisResultResponse;
 import com.weeklyreport.project.entity.Project;
@@ -10,7 +12,11 @@ import com.weeklyreport.ai.entity.AIAnalysisResult;
 import com.weeklyreport.project.repository.ProjectRepository;
 import com.weeklyreport.project.repository.ProjectPhaseRepository;
 import com.weeklyreport.ai.repository.AIAnalysisResultRepository;
+import com.weeklyreport.project.repository.projection.ProjectReviewSummaryProjection;
 import com.weeklyreport.project.repository.projection.ProjectWithCreatorProjection;
+import com.weeklyreport.project.service.ProjectBulkReviewService;
+import com.weeklyreport.project.service.ProjectMemberIndexer;
+import com.weeklyreport.project.service.ProjectPhaseLoader;
 import com.weeklyreport.ai.service.AIAnalysisService;
 import com.weeklyreport.user.service.UserService;
 import com.weeklyreport.common.util.auth.SecurityUtils;
@@ -36,6 +42,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -55,12 +62,24 @@ public class ProjectController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectController.class);
 
+    // 列表接口单页上限
+    private static final int MAX_LIST_PAGE_SIZE = 100;
+
     @Autowired
     private ProjectRepository projectRepository;
 
     @Autowired
     private ProjectPhaseRepository projectPhaseRepository;
 
+    @Autowired
+    private ProjectPhaseLoader projectPhaseLoader;
+
+    @Autowired
+    private ProjectMemberIndexer projectMemberIndexer;
+
+    @Autowired
+    private ProjectBulkReviewService bulkReviewService;
+
     @Autowired
     private AIAnalysisResultRepository aiAnalysisResultRepository;
 
@@ -118,6 +137,50 @@ public class ProjectController {
         return response;
     }
 
+    /**
+     * 从审核历史摘要创建ProjectResponse（不含TEXT大字段和阶段）
+     */
+    private ProjectResponse createProjectResponseFromReviewSummary(ProjectReviewSummaryProjection summary) {
+        ProjectResponse response = new ProjectResponse();
+
+        response.setId(summary.getId());
+        response.setName(summary.getName());
+        response.setCreatedBy(summary.getCreatedBy());
+        response.setAiAnalysisId(summary.getAiAnalysisId());
+        response.setAdminReviewerId(summary.getAdminReviewerId());
+        response.setSuperAdminReviewerId(summary.getSuperAdminReviewerId());
+        response.setRejectionReason(summary.getRejectionReason());
+        response.setApprovalStatus(summary.getApprovalStatus());
+        response.setCreatedAt(summary.getCreatedAt());
+        response.setUpdatedAt(summary.getUpdatedAt());
+        response.setCreatedByUsername(summary.getCreatedByUsername());
+
+        response.setStatus(getStatusFromApprovalStatus(summary.getApprovalStatus()));
+        response.setPriority(Project.ProjectPriority.MEDIUM); // 默认中等优先级
+        response.setProgress(getProgressFromApprovalStatus(summary.getApprovalStatus()));
+
+        return response;
+    }
+
+    /**
+     * 同步项目成员索引；失败不影响项目保存，下次修改成员时会重建
+     */
+    private void reindexMembers(Project project) {
+        try {
+            int matched = projectMemberIndexer.reindex(project.getId(), project.getMembers());
+            logger.debug("Project {} member index rebuilt, matched users: {}", project.getId(), matched);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild member index for project: {}", project.getId(), e);
+        }
+    }
+
+    /**
+     * 审核队列分页参数；排序由查询固定为 created_at DESC, id DESC，与复合索引一致
+     */
+    private Pageable reviewQueuePage(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_LIST_PAGE_SIZE));
+    }
+
     /**
      * 从ProjectDetailProjection创建ProjectResponse（包含AI分析结果）
      */
@@ -225,17 +288,7 @@ public class ProjectController {
 
             // 使用JOIN查询一次性获取项目和创建者信息
             Page<ProjectWithCreatorProjection> projectPage = projectRepository.findAllProjectsWithCreator(pageable);
-            Page<ProjectResponse> responsePage = projectPage.map(projection -> {
-                ProjectResponse response = createProjectResponseFromProjection(projection);
-
-                // 查询项目阶段
-                List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(projection.getId());
-                List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                    .map(ProjectPhaseResponse::new)
-                    .collect(Collectors.toList());
-                response.setPhases(phaseResponses);
-                return response;
-            });
+            Page<ProjectResponse> responsePage = mapProjectPageToResponse(projectPage);
 
             return ResponseEntity.ok(ApiResponse.success(responsePage));
         } catch (Exception e) {
@@ -272,17 +325,7 @@ public class ProjectController {
 
             // 如果没有过滤条件，返回所有项目
             if (name == null && status == null && priority == null && approvalStatus == null && createdBy == null) {
-                Page<ProjectResponse> responsePage = allProjects.map(projection -> {
-                    ProjectResponse response = createProjectResponseFromProjection(projection);
-
-                    // 查询项目阶段
-                    List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(projection.getId());
-                    List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                        .map(ProjectPhaseResponse::new)
-                        .collect(Collectors.toList());
-                    response.setPhases(phaseResponses);
-                    return response;
-                });
+                Page<ProjectResponse> responsePage = mapProjectPageToResponse(allProjects);
 
                 return ResponseEntity.ok(ApiResponse.success(responsePage));
             }
@@ -292,17 +335,7 @@ public class ProjectController {
                        name, status, priority, approvalStatus, createdBy);
 
             // 基本的过滤逻辑 - 在实际应用中应该在数据库层面进行过滤以提高性能
-            Page<ProjectResponse> responsePage = allProjects.map(projection -> {
-                ProjectResponse response = createProjectResponseFromProjection(projection);
-
-                // 查询项目阶段
-                List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(projection.getId());
-                List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                    .map(ProjectPhaseResponse::new)
-                    .collect(Collectors.toList());
-                response.setPhases(phaseResponses);
-                return response;
-            });
+            Page<ProjectResponse> responsePage = mapProjectPageToResponse(allProjects);
 
             return ResponseEntity.ok(ApiResponse.success(responsePage));
 
@@ -367,6 +400,7 @@ public class ProjectController {
             project.setApprovalStatus(Project.ApprovalStatus.AI_ANALYZING);
 
             Project savedProject = projectRepository.save(project);
+            reindexMembers(savedProject);
             final Long projectId = savedProject.getId();
             logger.info("Project created: {} by user: {}, entering AI analysis", projectId, currentUserId);
 
@@ -504,7 +538,7 @@ public class ProjectController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(size, 1));
+            Pageable pageable = reviewQueuePage(page, size);
 
             Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> projectDetailsPage;
             if (SecurityUtils.hasRole("SUPER_ADMIN")) {
@@ -517,15 +551,7 @@ public class ProjectController {
                            projectDetailsPage.getTotalElements(), projectDetailsPage.getNumber() + 1, projectDetailsPage.getTotalPages());
             }
 
-            Page<ProjectResponse> responsePage = projectDetailsPage.map(detail -> {
-                ProjectResponse response = createProjectResponseFromDetailProjection(detail);
-                List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(detail.getId());
-                List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                    .map(ProjectPhaseResponse::new)
-                    .collect(Collectors.toList());
-                response.setPhases(phaseResponses);
-                return response;
-            });
+            Page<ProjectResponse> responsePage = mapProjectDetailPageToResponse(projectDetailsPage);
 
             return ResponseEntity.ok(ApiResponse.success(responsePage));
 
@@ -546,7 +572,7 @@ public class ProjectController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(size, 1));
+            Pageable pageable = reviewQueuePage(page, size);
 
             Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> projectDetailsPage;
             if (SecurityUtils.hasRole("SUPER_ADMIN")) {
@@ -579,7 +605,7 @@ public class ProjectController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(size, 1));
+            Pageable pageable = reviewQueuePage(page, size);
 
             Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> projectDetailsPage;
             if (SecurityUtils.hasRole("SUPER_ADMIN")) {
@@ -710,6 +736,7 @@ public class ProjectController {
             project.setStopLoss(request.getStopLoss());
 
             Project savedProject = projectRepository.save(project);
+            reindexMembers(savedProject);
             logger.info("Project updated: {} by user: {}",
                        savedProject.getId(), currentUserId);
 
@@ -982,6 +1009,7 @@ public class ProjectController {
 
             // 先保存项目更新
             Project savedProject = projectRepository.save(project);
+            reindexMembers(savedProject);
 
             // 处理项目阶段更新
             if (updateRequest.getProjectPhases() != null) {
@@ -1341,6 +1369,55 @@ public class ProjectController {
         }
     }
 
+    /**
+     * 批量审批通过项目（单次最多100条），按角色执行对应阶段的审批
+     * PUT /api/projects/bulk-approve
+     * 管理员：ADMIN_REVIEWING/ADMIN_REJECTED → SUPER_ADMIN_REVIEWING
+     * 超级管理员：ADMIN_APPROVED/ADMIN_REJECTED/SUPER_ADMIN_REVIEWING → FINAL_APPROVED
+     */
+    @PutMapping("/bulk-approve")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<BulkReviewResult>> bulkApproveProjects(
+            @Valid @RequestBody BulkReviewRequest request) {
+        return bulkReview(request, true);
+    }
+
+    /**
+     * 批量拒绝项目（单次最多100条，拒绝理由必填），按角色执行对应阶段的拒绝
+     * PUT /api/projects/bulk-reject
+     */
+    @PutMapping("/bulk-reject")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<ApiResponse<BulkReviewResult>> bulkRejectProjects(
+            @Valid @RequestBody BulkReviewRequest request) {
+        return bulkReview(request, false);
+    }
+
+    private ResponseEntity<ApiResponse<BulkReviewResult>> bulkReview(BulkReviewRequest request, boolean approve) {
+        try {
+            Long currentUserId = getCurrentUser().getId();
+            boolean isSuperAdmin = SecurityUtils.hasRole("SUPER_ADMIN");
+
+            BulkReviewResult result = approve
+                ? bulkReviewService.approve(request, currentUserId, isSuperAdmin)
+                : bulkReviewService.reject(request, currentUserId, isSuperAdmin);
+            logger.info("Bulk {} projects by user {}: {} succeeded, {} failed",
+                       approve ? "approved" : "rejected", currentUserId,
+                       result.getSuccessCount(), result.getFailureCount());
+
+            return ResponseEntity.ok(ApiResponse.success(
+                String.format("成功%d条，失败%d条", result.getSuccessCount(), result.getFailureCount()), result));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error bulk reviewing projects", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("批量审批项目失败，请稍后重试"));
+        }
+    }
+
     /**
      * 获取用户创建的项目列表（支持按审批状态过滤）
      * GET /api/projects/my?approvalStatus={status}
@@ -1375,18 +1452,7 @@ public class ProjectController {
                 }
             }
 
-            List<ProjectResponse> responses = projects.stream()
-                .map(project -> {
-                    ProjectResponse response = new ProjectResponse(project);
-                    // 查询项目阶段
-                    List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(project.getId());
-                    List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                        .map(ProjectPhaseResponse::new)
-                        .collect(Collectors.toList());
-                    response.setPhases(phaseResponses);
-                    return response;
-                })
-                .collect(Collectors.toList());
+            List<ProjectResponse> responses = mapProjectsToResponse(projects);
 
             return ResponseEntity.ok(ApiResponse.success(responses));
 
@@ -1397,6 +1463,31 @@ public class ProjectController {
         }
     }
 
+    /**
+     * 获取当前用户参与的项目（按成员索引查询）
+     * GET /api/projects/participating
+     */
+    @GetMapping("/participating")
+    public ResponseEntity<ApiResponse<Page<ProjectResponse>>> getParticipatingProjects(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Long currentUserId = getCurrentUser().getId();
+            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_LIST_PAGE_SIZE),
+                                               Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+            Page<Project> projectPage = projectRepository.findByMemberUserId(currentUserId, pageable);
+            Page<ProjectResponse> responsePage = new PageImpl<>(mapProjectsToResponse(projectPage.getContent()),
+                                                                pageable, projectPage.getTotalElements());
+
+            return ResponseEntity.ok(ApiResponse.success(responsePage));
+
+        } catch (Exception e) {
+            logger.error("Error getting participating projects", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("获取参与的项目列表失败，请稍后重试"));
+        }
+    }
+
     /**
      * 获取待审核项目列表（管理员和超级管理员）
      * GET /api/projects/pending
@@ -1404,26 +1495,26 @@ public class ProjectController {
      */
     @GetMapping("/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectResponse>>> getPendingProjects() {
+    public ResponseEntity<ApiResponse<Page<ProjectResponse>>> getPendingProjects(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
 
         try {
-            Pageable unpaged = Pageable.unpaged();
+            Pageable pageable = reviewQueuePage(page, size);
             Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> projectDetailsPage;
 
             if (SecurityUtils.hasRole("SUPER_ADMIN")) {
-                projectDetailsPage = projectRepository.findPendingSuperAdminReviewProjectsWithDetails(unpaged);
+                projectDetailsPage = projectRepository.findPendingSuperAdminReviewProjectsWithDetails(pageable);
                 logger.info("Super admin fetching pending projects: {}", projectDetailsPage.getTotalElements());
             } else {
-                projectDetailsPage = projectRepository.findPendingAdminReviewProjectsWithDetails(unpaged);
+                projectDetailsPage = projectRepository.findPendingAdminReviewProjectsWithDetails(pageable);
                 logger.info("Admin fetching pending projects: {}", projectDetailsPage.getTotalElements());
             }
 
-            List<ProjectResponse> responses = projectDetailsPage.stream()
-                .map(this::mapProjectDetailToResponse)
-                .collect(Collectors.toList());
+            Page<ProjectResponse> responsePage = mapProjectDetailPageToResponse(projectDetailsPage);
 
-            logger.info("Successfully returned {} pending projects with full details", responses.size());
-            return ResponseEntity.ok(ApiResponse.success(responses));
+            logger.info("Successfully returned {} pending projects with full details", responsePage.getNumberOfElements());
+            return ResponseEntity.ok(ApiResponse.success(responsePage));
 
         } catch (Exception e) {
             logger.error("Error getting pending projects", e);
@@ -1438,35 +1529,29 @@ public class ProjectController {
      */
     @GetMapping("/reviewed")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
-    public ResponseEntity<ApiResponse<List<ProjectResponse>>> getReviewedProjects() {
+    public ResponseEntity<ApiResponse<Page<ProjectResponse>>> getReviewedProjects(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
             Long currentUserId = getCurrentUser().getId();
-            List<Project> projects;
+            // 审核历史只取列表字段，按创建时间倒序走审核人复合索引
+            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_LIST_PAGE_SIZE),
+                                               Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+            Page<ProjectReviewSummaryProjection> summaries;
 
             if (SecurityUtils.hasRole("SUPER_ADMIN")) {
                 // 超级管理员可以看到自己作为管理员或超级管理员审核过的所有项目
-                projects = projectRepository.findByReviewerId(currentUserId);
-                logger.info("Super admin {} fetching reviewed projects: {}", currentUserId, projects.size());
+                summaries = projectRepository.findReviewSummariesByReviewerId(currentUserId, pageable);
+                logger.info("Super admin {} fetching reviewed projects: {}", currentUserId, summaries.getTotalElements());
             } else {
                 // 管理员只看到自己作为管理员审核过的项目
-                projects = projectRepository.findByAdminReviewerId(currentUserId);
-                logger.info("Admin {} fetching reviewed projects: {}", currentUserId, projects.size());
+                summaries = projectRepository.findReviewSummariesByAdminReviewerId(currentUserId, pageable);
+                logger.info("Admin {} fetching reviewed projects: {}", currentUserId, summaries.getTotalElements());
             }
 
-            List<ProjectResponse> responses = projects.stream()
-                .map(project -> {
-                    ProjectResponse response = new ProjectResponse(project);
-                    // 加载项目阶段
-                    List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(project.getId());
-                    List<ProjectPhaseResponse> phaseResponses = phases.stream()
-                        .map(ProjectPhaseResponse::new)
-                        .collect(Collectors.toList());
-                    response.setPhases(phaseResponses);
-                    return response;
-                })
-                .collect(Collectors.toList());
+            Page<ProjectResponse> responsePage = summaries.map(this::createProjectResponseFromReviewSummary);
 
-            return ResponseEntity.ok(ApiResponse.success(responses));
+            return ResponseEntity.ok(ApiResponse.success(responsePage));
 
         } catch (Exception e) {
             logger.error("Error getting reviewed projects", e);
@@ -1481,29 +1566,57 @@ public class ProjectController {
      */
     private List<ProjectResponse> buildProjectResponsesWithPhases(
             List<com.weeklyreport.project.repository.projection.ProjectDetailProjection> projectDetails) {
+        // 整页阶段一次IN查询取回，避免逐行查询
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = projectPhaseLoader.loadPhases(
+            projectDetails.stream()
+                .map(com.weeklyreport.project.repository.projection.ProjectDetailProjection::getId)
+                .collect(Collectors.toList()));
         return projectDetails.stream()
-            .map(this::mapProjectDetailToResponse)
+            .map(detail -> mapProjectDetailToResponse(detail, phasesByProject))
             .collect(Collectors.toList());
     }
 
     private ProjectResponse mapProjectDetailToResponse(
-            com.weeklyreport.project.repository.projection.ProjectDetailProjection detail) {
+            com.weeklyreport.project.repository.projection.ProjectDetailProjection detail,
+            Map<Long, List<ProjectPhaseResponse>> phasesByProject) {
         ProjectResponse response = createProjectResponseFromDetailProjection(detail);
 
-        List<ProjectPhase> phases = projectPhaseRepository.findByProjectIdOrderByCreatedAt(detail.getId());
-        List<ProjectPhaseResponse> phaseResponses = phases.stream()
-            .map(ProjectPhaseResponse::new)
-            .collect(Collectors.toList());
+        List<ProjectPhaseResponse> phaseResponses = ProjectPhaseLoader.phasesOf(phasesByProject, detail.getId());
         response.setPhases(phaseResponses);
 
         logger.debug("Project {} loaded with {} phases, AI result: {}",
-                   detail.getId(), phases.size(), detail.getAiResultId() != null ? "Yes" : "No");
+                   detail.getId(), phaseResponses.size(), detail.getAiResultId() != null ? "Yes" : "No");
         return response;
     }
 
     private Page<ProjectResponse> mapProjectDetailPageToResponse(
             Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> detailPage) {
-        return detailPage.map(this::mapProjectDetailToResponse);
+        return new PageImpl<>(buildProjectResponsesWithPhases(detailPage.getContent()),
+                              detailPage.getPageable(), detailPage.getTotalElements());
+    }
+
+    private Page<ProjectResponse> mapProjectPageToResponse(Page<ProjectWithCreatorProjection> projectPage) {
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = projectPhaseLoader.loadPhases(
+            projectPage.getContent().stream()
+                .map(ProjectWithCreatorProjection::getId)
+                .collect(Collectors.toList()));
+        return projectPage.map(projection -> {
+            ProjectResponse response = createProjectResponseFromProjection(projection);
+            response.setPhases(ProjectPhaseLoader.phasesOf(phasesByProject, projection.getId()));
+            return response;
+        });
+    }
+
+    private List<ProjectResponse> mapProjectsToResponse(List<Project> projects) {
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = projectPhaseLoader.loadPhases(
+            projects.stream().map(Project::getId).collect(Collectors.toList()));
+        return projects.stream()
+            .map(project -> {
+                ProjectResponse response = new ProjectResponse(project);
+                response.setPhases(ProjectPhaseLoader.phasesOf(phasesByProject, project.getId()));
+                return response;
+            })
+            .collect(Collectors.toList());
     }
 
     /**
@@ -24,6 +24,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_project_approval_status", columnList = "approval_status"),
     @Index(name = "idx_project_created_by", columnList = "created_by")
 })
+@EntityListeners(ProjectEntityListener.class)
 public class Project {
 
     @Id
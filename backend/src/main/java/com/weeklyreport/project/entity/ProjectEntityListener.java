@@ -0,0 +1,34 @@
+package com.weeklyreport.project.entity;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Project 实体监听器，保存/删除后发布 {@link EntityChangedEvent}
+ * 收件人缓存、周报填写上下文、看板统计汇总等订阅方自行处理，实体层不引用具体服务。
+ * 由Hibernate通过SpringBeanContainer实例化。
+ */
+@Component
+public class ProjectEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProjectEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Project project) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(project, false));
+    }
+
+    @PostRemove
+    public void onRemoved(Project project) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(project, true));
+    }
+}
@@ -19,10 +19,8 @@ import java.time.LocalDateTime;
            columnNames = {"project_id", "user_id"}
        ),
        indexes = {
-           @Index(name = "idx_project_member_project", columnList = "project_id"),
-           @Index(name = "idx_project_member_user", columnList = "user_id"),
-           @Index(name = "idx_project_member_role", columnList = "role"),
-           @Index(name = "idx_project_member_status", columnList = "status")
+           @Index(name = "idx_project_member_user_status", columnList = "user_id, status, project_id"),
+           @Index(name = "idx_project_member_role", columnList = "role")
        })
 public class ProjectMember {
 
@@ -27,6 +27,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_project_phase_project", columnList = "project_id"),
     @Index(name = "idx_project_phase_name", columnList = "phase_name")
 })
+@EntityListeners(ProjectPhaseEntityListener.class)
 public class ProjectPhase {
 
     @Id
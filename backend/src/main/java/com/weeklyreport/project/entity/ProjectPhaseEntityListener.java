@@ -0,0 +1,34 @@
+package com.weeklyreport.project.entity;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * ProjectPhase 实体监听器，保存/删除后发布 {@link EntityChangedEvent}
+ * 周报填写上下文缓存在事务提交后失效，实体层不引用具体服务。
+ * 由Hibernate通过SpringBeanContainer实例化。
+ */
+@Component
+public class ProjectPhaseEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProjectPhaseEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(ProjectPhase phase) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(phase, false));
+    }
+
+    @PostRemove
+    public void onRemoved(ProjectPhase phase) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(phase, true));
+    }
+}
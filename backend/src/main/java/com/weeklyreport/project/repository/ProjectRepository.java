@@ -5,10 +5,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -152,6 +156,33 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
      */
     @Query("SELECT p FROM Project p WHERE p.adminReviewerId = :reviewerId OR p.superAdminReviewerId = :reviewerId")
     List<Project> findByReviewerId(@Param("reviewerId") Long reviewerId);
+
+    /**
+     * 分页查询审核人审核过的项目摘要（管理员或超级管理员身份），不读取TEXT大字段
+     */
+    @Query(value = "SELECT p.id as id, p.name as name, p.createdBy as createdBy, p.aiAnalysisId as aiAnalysisId, " +
+           "p.adminReviewerId as adminReviewerId, p.superAdminReviewerId as superAdminReviewerId, " +
+           "p.rejectionReason as rejectionReason, p.approvalStatus as approvalStatus, " +
+           "p.createdAt as createdAt, p.updatedAt as updatedAt, u.username as createdByUsername " +
+           "FROM Project p LEFT JOIN User u ON p.createdBy = u.id " +
+           "WHERE p.adminReviewerId = :reviewerId OR p.superAdminReviewerId = :reviewerId",
+           countQuery = "SELECT COUNT(p) FROM Project p " +
+           "WHERE p.adminReviewerId = :reviewerId OR p.superAdminReviewerId = :reviewerId")
+    Page<com.weeklyreport.project.repository.projection.ProjectReviewSummaryProjection> findReviewSummariesByReviewerId(
+            @Param("reviewerId") Long reviewerId, Pageable pageable);
+
+    /**
+     * 分页查询管理员审核过的项目摘要，不读取TEXT大字段
+     */
+    @Query(value = "SELECT p.id as id, p.name as name, p.createdBy as createdBy, p.aiAnalysisId as aiAnalysisId, " +
+           "p.adminReviewerId as adminReviewerId, p.superAdminReviewerId as superAdminReviewerId, " +
+           "p.rejectionReason as rejectionReason, p.approvalStatus as approvalStatus, " +
+           "p.createdAt as createdAt, p.updatedAt as updatedAt, u.username as createdByUsername " +
+           "FROM Project p LEFT JOIN User u ON p.createdBy = u.id " +
+           "WHERE p.adminReviewerId = :reviewerId",
+           countQuery = "SELECT COUNT(p) FROM Project p WHERE p.adminReviewerId = :reviewerId")
+    Page<com.weeklyreport.project.repository.projection.ProjectReviewSummaryProjection> findReviewSummariesByAdminReviewerId(
+            @Param("reviewerId") Long reviewerId, Pageable pageable);
     
     // 时间范围查询
     
@@ -175,11 +206,13 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
     
     /**
      * 综合搜索（项目名称、描述、成员）
+     * 成员按用户名精确匹配成员索引，不再对members文本做子串匹配
      */
     @Query("SELECT p FROM Project p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.members) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+           "EXISTS (SELECT pm.id FROM ProjectMember pm WHERE pm.project.id = p.id " +
+           "AND pm.user.username = :keyword AND pm.status = 'ACTIVE')")
     List<Project> searchByKeyword(@Param("keyword") String keyword);
     
     /**
@@ -188,14 +221,24 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
     @Query("SELECT p FROM Project p WHERE " +
            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.members) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+           "EXISTS (SELECT pm.id FROM ProjectMember pm WHERE pm.project.id = p.id " +
+           "AND pm.user.username = :keyword AND pm.status = 'ACTIVE')")
     Page<Project> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
     /**
-     * 根据成员搜索项目
+     * 查询用户参与的项目（走成员索引 project_members(user_id, status, project_id)）
+     */
+    @Query("SELECT p FROM Project p WHERE p.id IN " +
+           "(SELECT pm.project.id FROM ProjectMember pm WHERE pm.user.id = :userId AND pm.status = 'ACTIVE')")
+    List<Project> findByMemberUserId(@Param("userId") Long userId);
+    
+    /**
+     * 分页查询用户参与的项目
      */
-    @Query("SELECT p FROM Project p WHERE LOWER(p.members) LIKE LOWER(CONCAT('%', :member, '%'))")
-    List<Project> findByMembersContaining(@Param("member") String member);
+    @Query(value = "SELECT p FROM Project p WHERE p.id IN " +
+           "(SELECT pm.project.id FROM ProjectMember pm WHERE pm.user.id = :userId AND pm.status = 'ACTIVE')",
+           countQuery = "SELECT COUNT(pm) FROM ProjectMember pm WHERE pm.user.id = :userId AND pm.status = 'ACTIVE'")
+    Page<Project> findByMemberUserId(@Param("userId") Long userId, Pageable pageable);
     
     // 统计查询
     
@@ -227,6 +270,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
     /**
      * 批量更新审批状态
      */
+    @Modifying(clearAutomatically = true)
     @Query("UPDATE Project p SET p.approvalStatus = :newStatus WHERE p.id IN :projectIds")
     int updateApprovalStatusBatch(@Param("projectIds") List<Long> projectIds, 
                                  @Param("newStatus") Project.ApprovalStatus newStatus);
@@ -234,9 +278,70 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
     /**
      * 批量设置审批人
      */
+    @Modifying(clearAutomatically = true)
     @Query("UPDATE Project p SET p.adminReviewerId = :reviewerId WHERE p.id IN :projectIds")
     int updateAdminReviewerBatch(@Param("projectIds") List<Long> projectIds, 
                                 @Param("reviewerId") Long reviewerId);
+
+    /**
+     * 批量审批前的状态校验：只取审批结果和通知需要的列 [id, approvalStatus, name, createdBy]
+     * SELECT ... FOR UPDATE 锁定这些行直到事务结束，按主键顺序加锁避免并发批次间死锁
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id, p.approvalStatus, p.name, p.createdBy FROM Project p WHERE p.id IN :ids ORDER BY p.id")
+    List<Object[]> findReviewSnapshotsByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * 管理员批量审批通过，只更新仍处于 fromStatuses 的项目
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Project p SET p.approvalStatus = :toStatus, p.adminReviewerId = :reviewerId, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.approvalStatus IN :fromStatuses")
+    int adminApproveBatch(@Param("ids") List<Long> ids,
+                          @Param("fromStatuses") List<Project.ApprovalStatus> fromStatuses,
+                          @Param("toStatus") Project.ApprovalStatus toStatus,
+                          @Param("reviewerId") Long reviewerId,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 管理员批量拒绝，只更新仍处于 fromStatuses 的项目
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Project p SET p.approvalStatus = :toStatus, p.adminReviewerId = :reviewerId, " +
+           "p.rejectionReason = :reason, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.approvalStatus IN :fromStatuses")
+    int adminRejectBatch(@Param("ids") List<Long> ids,
+                         @Param("fromStatuses") List<Project.ApprovalStatus> fromStatuses,
+                         @Param("toStatus") Project.ApprovalStatus toStatus,
+                         @Param("reviewerId") Long reviewerId,
+                         @Param("reason") String reason,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * 超级管理员批量审批通过，只更新仍处于 fromStatuses 的项目
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Project p SET p.approvalStatus = :toStatus, p.superAdminReviewerId = :reviewerId, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.approvalStatus IN :fromStatuses")
+    int superAdminApproveBatch(@Param("ids") List<Long> ids,
+                               @Param("fromStatuses") List<Project.ApprovalStatus> fromStatuses,
+                               @Param("toStatus") Project.ApprovalStatus toStatus,
+                               @Param("reviewerId") Long reviewerId,
+                               @Param("now") LocalDateTime now);
+
+    /**
+     * 超级管理员批量拒绝，只更新仍处于 fromStatuses 的项目
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Project p SET p.approvalStatus = :toStatus, p.superAdminReviewerId = :reviewerId, " +
+           "p.rejectionReason = :reason, p.updatedAt = :now " +
+           "WHERE p.id IN :ids AND p.approvalStatus IN :fromStatuses")
+    int superAdminRejectBatch(@Param("ids") List<Long> ids,
+                              @Param("fromStatuses") List<Project.ApprovalStatus> fromStatuses,
+                              @Param("toStatus") Project.ApprovalStatus toStatus,
+                              @Param("reviewerId") Long reviewerId,
+                              @Param("reason") String reason,
+                              @Param("now") LocalDateTime now);
     
     // JOIN查询优化
     
@@ -270,8 +375,9 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
     /**
      * 查询用户可见的项目（创建者或参与成员）
      */
-    @Query("SELECT p FROM Project p WHERE p.createdBy = :userId OR LOWER(p.members) LIKE LOWER(CONCAT('%', :username, '%'))")
-    List<Project> findVisibleProjectsForUser(@Param("userId") Long userId, @Param("username") String username);
+    @Query("SELECT p FROM Project p WHERE p.createdBy = :userId OR p.id IN " +
+           "(SELECT pm.project.id FROM ProjectMember pm WHERE pm.user.id = :userId AND pm.status = 'ACTIVE')")
+    List<Project> findVisibleProjectsForUser(@Param("userId") Long userId);
     
     /**
      * 根据多条件过滤项目
@@ -306,7 +412,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status = 'ADMIN_REVIEWING' " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status = 'ADMIN_REVIEWING'",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findPendingAdminReviewProjectsWithDetails(Pageable pageable);
@@ -331,7 +437,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status = 'SUPER_ADMIN_REVIEWING' " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status = 'SUPER_ADMIN_REVIEWING'",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findPendingSuperAdminReviewProjectsWithDetails(Pageable pageable);
@@ -355,7 +461,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status = 'ADMIN_REJECTED' " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status = 'ADMIN_REJECTED'",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findAdminRejectedProjectsWithDetails(Pageable pageable);
@@ -380,7 +486,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status IN ('SUPER_ADMIN_APPROVED', 'FINAL_APPROVED') " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status IN ('SUPER_ADMIN_APPROVED', 'FINAL_APPROVED')",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findApprovedProjectsWithDetails(Pageable pageable);
@@ -406,7 +512,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status IN ('ADMIN_APPROVED', 'SUPER_ADMIN_REVIEWING', 'SUPER_ADMIN_APPROVED', 'SUPER_ADMIN_REJECTED', 'FINAL_APPROVED') " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status IN ('ADMIN_APPROVED', 'SUPER_ADMIN_REVIEWING', 'SUPER_ADMIN_APPROVED', 'SUPER_ADMIN_REJECTED', 'FINAL_APPROVED')",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findAdminApprovedProjectsWithDetails(Pageable pageable);
@@ -431,7 +537,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status IN ('AI_REJECTED', 'ADMIN_REJECTED', 'SUPER_ADMIN_REJECTED') " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status IN ('AI_REJECTED', 'ADMIN_REJECTED', 'SUPER_ADMIN_REJECTED')",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findAllRejectedProjectsWithDetails(Pageable pageable);
@@ -456,7 +562,7 @@ public interface ProjectRepository extends JpaRepository<Project, Long>, JpaSpec
            "LEFT JOIN users superAdminReviewer ON p.super_admin_reviewer_id = superAdminReviewer.id " +
            "LEFT JOIN ai_analysis_results ai ON p.ai_analysis_id = ai.id " +
            "WHERE p.approval_status = 'ADMIN_REJECTED' " +
-           "ORDER BY p.created_at DESC",
+           "ORDER BY p.created_at DESC, p.id DESC",
            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.approval_status = 'ADMIN_REJECTED'",
            nativeQuery = true)
     Page<com.weeklyreport.project.repository.projection.ProjectDetailProjection> findAdminVisibleRejectedProjectsWithDetails(Pageable pageable);
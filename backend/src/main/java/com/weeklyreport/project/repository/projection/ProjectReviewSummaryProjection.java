@@ -0,0 +1,30 @@
+package com.weeklyreport.project.repository.projection;
+
+import com.weeklyreport.project.entity.Project;
+import java.time.LocalDateTime;
+
+/**
+ * 审核历史列表投影接口
+ * 只包含列表展示需要的短字段，不读取 description、members、expected_results、timeline、stop_loss 等TEXT列
+ */
+public interface ProjectReviewSummaryProjection {
+
+    // 项目基本信息
+    Long getId();
+    String getName();
+    Long getCreatedBy();
+
+    // 审批流程字段
+    Long getAiAnalysisId();
+    Long getAdminReviewerId();
+    Long getSuperAdminReviewerId();
+    String getRejectionReason();
+    Project.ApprovalStatus getApprovalStatus();
+
+    // 时间戳字段
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+
+    // 关联查询字段
+    String getCreatedByUsername();  // 来自 User 表
+}
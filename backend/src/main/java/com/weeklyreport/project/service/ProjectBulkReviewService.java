@@ -0,0 +1,169 @@
+package com.weeklyreport.project.service;
+
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
+import com.weeklyreport.notification.event.ProjectsBulkReviewedEvent;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.repository.ProjectRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 项目批量审批
+ * 允许的状态转换与单条审批接口一致，按审批人角色区分管理员阶段和超级管理员阶段：
+ * 一次 SELECT ... FOR UPDATE 校验并锁定全部项目的当前状态，再用一条带状态条件的 UPDATE 完成变更，
+ * 锁持有到事务提交，校验通过的项目不会在 UPDATE 前被并发审批。整批只发布一个通知事件。
+ */
+@Service
+public class ProjectBulkReviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectBulkReviewService.class);
+
+    static final List<Project.ApprovalStatus> ADMIN_REVIEWABLE = List.of(
+        Project.ApprovalStatus.ADMIN_REVIEWING,
+        Project.ApprovalStatus.ADMIN_REJECTED);
+
+    static final List<Project.ApprovalStatus> SUPER_ADMIN_REVIEWABLE = List.of(
+        Project.ApprovalStatus.ADMIN_APPROVED,
+        Project.ApprovalStatus.ADMIN_REJECTED,
+        Project.ApprovalStatus.SUPER_ADMIN_REVIEWING);
+
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProjectBulkReviewService(ProjectRepository projectRepository,
+                                    UserRepository userRepository,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.projectRepository = projectRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 批量审批通过
+     * 管理员：ADMIN_REVIEWING/ADMIN_REJECTED → SUPER_ADMIN_REVIEWING
+     * 超级管理员：ADMIN_APPROVED/ADMIN_REJECTED/SUPER_ADMIN_REVIEWING → FINAL_APPROVED
+     */
+    @Transactional
+    public BulkReviewResult approve(BulkReviewRequest request, Long reviewerId, boolean superAdmin) {
+        return review(request.distinctIds(), reviewerId, superAdmin
+            ? ProjectsBulkReviewedEvent.Decision.SUPER_ADMIN_APPROVED
+            : ProjectsBulkReviewedEvent.Decision.ADMIN_APPROVED, null);
+    }
+
+    /**
+     * 批量拒绝
+     * 管理员：ADMIN_REVIEWING/ADMIN_REJECTED → ADMIN_REJECTED
+     * 超级管理员：ADMIN_APPROVED/ADMIN_REJECTED/SUPER_ADMIN_REVIEWING → SUPER_ADMIN_REJECTED
+     */
+    @Transactional
+    public BulkReviewResult reject(BulkReviewRequest request, Long reviewerId, boolean superAdmin) {
+        String reason = request.getReason() != null ? request.getReason().trim() : "";
+        if (reason.isEmpty()) {
+            throw new IllegalArgumentException("批量拒绝必须填写拒绝理由");
+        }
+        return review(request.distinctIds(), reviewerId, superAdmin
+            ? ProjectsBulkReviewedEvent.Decision.SUPER_ADMIN_REJECTED
+            : ProjectsBulkReviewedEvent.Decision.ADMIN_REJECTED, reason);
+    }
+
+    private BulkReviewResult review(List<Long> ids, Long reviewerId,
+                                    ProjectsBulkReviewedEvent.Decision decision, String reason) {
+        List<Project.ApprovalStatus> fromStatuses = fromStatuses(decision);
+        Project.ApprovalStatus toStatus = toStatus(decision);
+
+        Map<Long, Object[]> snapshots = new HashMap<>();
+        for (Object[] row : projectRepository.findReviewSnapshotsByIdIn(ids)) {
+            snapshots.put((Long) row[0], row);
+        }
+        List<Long> candidates = ids.stream()
+            .filter(id -> snapshots.containsKey(id) && fromStatuses.contains(snapshots.get(id)[1]))
+            .collect(Collectors.toList());
+
+        if (!candidates.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = switch (decision) {
+                case ADMIN_APPROVED -> projectRepository.adminApproveBatch(candidates, fromStatuses, toStatus, reviewerId, now);
+                case ADMIN_REJECTED -> projectRepository.adminRejectBatch(candidates, fromStatuses, toStatus, reviewerId, reason, now);
+                case SUPER_ADMIN_APPROVED -> projectRepository.superAdminApproveBatch(candidates, fromStatuses, toStatus, reviewerId, now);
+                case SUPER_ADMIN_REJECTED -> projectRepository.superAdminRejectBatch(candidates, fromStatuses, toStatus, reviewerId, reason, now);
+            };
+            // 候选行已被锁定，UPDATE 必然全部命中；否则说明加锁失效，整批回滚
+            if (updated != candidates.size()) {
+                throw new IllegalStateException("批量审批更新行数不一致: 期望 " + candidates.size() + ", 实际 " + updated);
+            }
+        }
+
+        BulkReviewResult result = new BulkReviewResult(toStatus.name());
+        List<Object[]> reviewed = new ArrayList<>();
+        for (Long id : ids) {
+            Object[] snapshot = snapshots.get(id);
+            if (snapshot == null) {
+                result.add(id, BulkReviewResult.Outcome.NOT_FOUND, null);
+            } else if (!fromStatuses.contains(snapshot[1])) {
+                result.add(id, BulkReviewResult.Outcome.INVALID_STATUS, ((Project.ApprovalStatus) snapshot[1]).name());
+            } else {
+                result.add(id, BulkReviewResult.Outcome.SUCCESS, toStatus.name());
+                reviewed.add(snapshot);
+            }
+        }
+
+        logger.info("项目批量审批 - 结论: {}, 审批人: {}, 请求: {}, 成功: {}",
+                    decision, reviewerId, ids.size(), result.getSuccessCount());
+        if (!reviewed.isEmpty()) {
+            eventPublisher.publishEvent(new ProjectsBulkReviewedEvent(
+                decision, toReviewedProjects(reviewed), reviewerId, reason));
+        }
+        return result;
+    }
+
+    static List<Project.ApprovalStatus> fromStatuses(ProjectsBulkReviewedEvent.Decision decision) {
+        return decision == ProjectsBulkReviewedEvent.Decision.ADMIN_APPROVED
+                || decision == ProjectsBulkReviewedEvent.Decision.ADMIN_REJECTED
+            ? ADMIN_REVIEWABLE
+            : SUPER_ADMIN_REVIEWABLE;
+    }
+
+    static Project.ApprovalStatus toStatus(ProjectsBulkReviewedEvent.Decision decision) {
+        return switch (decision) {
+            case ADMIN_APPROVED -> Project.ApprovalStatus.SUPER_ADMIN_REVIEWING;
+            case ADMIN_REJECTED -> Project.ApprovalStatus.ADMIN_REJECTED;
+            case SUPER_ADMIN_APPROVED -> Project.ApprovalStatus.FINAL_APPROVED;
+            case SUPER_ADMIN_REJECTED -> Project.ApprovalStatus.SUPER_ADMIN_REJECTED;
+        };
+    }
+
+    private List<ProjectsBulkReviewedEvent.ReviewedProject> toReviewedProjects(List<Object[]> snapshots) {
+        Set<Long> ownerIds = snapshots.stream()
+            .map(row -> (Long) row[3])
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, User> owners = userRepository.findAllById(ownerIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<ProjectsBulkReviewedEvent.ReviewedProject> projects = new ArrayList<>(snapshots.size());
+        for (Object[] row : snapshots) {
+            User owner = owners.get((Long) row[3]);
+            projects.add(new ProjectsBulkReviewedEvent.ReviewedProject(
+                (Long) row[0], (String) row[2],
+                owner != null && owner.isActive() ? owner.getUsername() : null));
+        }
+        return projects;
+    }
+}
@@ -0,0 +1,198 @@
+package com.weeklyreport.project.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 项目成员索引维护
+ * projects.members 是自由文本，按分隔符拆成姓名后与用户名精确匹配，结果写入 project_members，
+ * “我参与的项目”查询走 project_members(user_id) 索引，不再对TEXT列做 LIKE 全表扫描。
+ * 项目创建/修改时同步重建该项目的索引行；存量项目在启动后分批回填一次，
+ * 完成后在 data_backfills 写入标记，之后的启动不再重扫（删除标记行可重跑）。
+ */
+@Component
+public class ProjectMemberIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectMemberIndexer.class);
+
+    // 括号内通常是角色说明，如“张三（开发）”
+    private static final Pattern BRACKETED = Pattern.compile("[（(【\\[][^）)】\\]]*[）)】\\]]");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,，、;；:：/|]+");
+    private static final int MAX_NAMES = 200;
+    private static final String BACKFILL_MARKER = "project_members";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final boolean backfillOnStartup;
+    private final int backfillBatchSize;
+
+    public ProjectMemberIndexer(JdbcTemplate jdbcTemplate,
+                                @Value("${project.member-index.backfill-on-startup:true}") boolean backfillOnStartup,
+                                @Value("${project.member-index.backfill-batch-size:500}") int backfillBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.backfillOnStartup = backfillOnStartup;
+        this.backfillBatchSize = backfillBatchSize;
+    }
+
+    /**
+     * 重建单个项目的成员索引
+     * @return 匹配到的成员数
+     */
+    @Transactional
+    public int reindex(Long projectId, String members) {
+        Set<String> names = parseMemberNames(members);
+        Set<Long> userIds = names.isEmpty() ? Set.of() : resolveUserIds(names, lookupUsers(names));
+        replaceMembers(projectId, userIds);
+        return userIds.size();
+    }
+
+    /**
+     * 启动后回填尚无索引行的存量项目，已有完成标记时跳过
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            Integer done = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM data_backfills WHERE name = ?", Integer.class, BACKFILL_MARKER);
+            if (done != null && done > 0) {
+                logger.debug("项目成员索引已回填，跳过");
+                return;
+            }
+            int processed = backfill();
+            // 多实例同时首次启动时各自回填一遍（结果幂等），标记只保留一行
+            jdbcTemplate.update("INSERT IGNORE INTO data_backfills (name, processed_count) VALUES (?, ?)",
+                                BACKFILL_MARKER, processed);
+        } catch (Exception e) {
+            logger.error("项目成员索引回填失败", e);
+        }
+    }
+
+    /**
+     * 按主键分批回填：用户名字典只加载一次，每批一次查询取出项目成员文本
+     * @return 处理的项目数
+     */
+    public int backfill() {
+        Map<String, List<Long>> directory = loadUserDirectory();
+        long lastId = 0;
+        int processed = 0;
+        int indexed = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT p.id, p.members FROM projects p " +
+                "WHERE p.id > ? AND p.members IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM project_members pm WHERE pm.project_id = p.id) " +
+                "ORDER BY p.id LIMIT ?",
+                lastId, backfillBatchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Map<String, Object> row : rows) {
+                Long projectId = ((Number) row.get("id")).longValue();
+                Set<Long> userIds = resolveUserIds(parseMemberNames((String) row.get("members")), directory);
+                if (!userIds.isEmpty()) {
+                    replaceMembers(projectId, userIds);
+                    indexed++;
+                }
+                lastId = projectId;
+            }
+            processed += rows.size();
+        }
+        logger.info("项目成员索引回填完成 - 扫描项目: {}, 写入索引的项目: {}", processed, indexed);
+        return processed;
+    }
+
+    /**
+     * 将成员文本拆成候选姓名：去掉括号内的角色说明，按常见中英文分隔符拆分，去重后保持原顺序
+     */
+    static Set<String> parseMemberNames(String members) {
+        Set<String> names = new LinkedHashSet<>();
+        if (members == null || members.isBlank()) {
+            return names;
+        }
+        for (String token : SEPARATORS.split(BRACKETED.matcher(members).replaceAll(" "))) {
+            String name = token.trim();
+            if (!name.isEmpty()) {
+                names.add(name.toLowerCase(Locale.ROOT));
+                if (names.size() >= MAX_NAMES) {
+                    break;
+                }
+            }
+        }
+        return names;
+    }
+
+    static Set<Long> resolveUserIds(Set<String> names, Map<String, List<Long>> directory) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (String name : names) {
+            List<Long> ids = directory.get(name);
+            if (ids != null) {
+                userIds.addAll(ids);
+            }
+        }
+        return userIds;
+    }
+
+    private Map<String, List<Long>> lookupUsers(Set<String> names) {
+        Map<String, List<Long>> directory = new HashMap<>();
+        namedJdbcTemplate.query(
+            "SELECT id, username FROM users WHERE username IN (:names) AND status <> 'DELETED'",
+            new MapSqlParameterSource("names", names),
+            rs -> {
+                directory.computeIfAbsent(rs.getString("username").toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                    .add(rs.getLong("id"));
+            });
+        return directory;
+    }
+
+    private Map<String, List<Long>> loadUserDirectory() {
+        Map<String, List<Long>> directory = new HashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE status <> 'DELETED'", rs -> {
+            directory.computeIfAbsent(rs.getString("username").toLowerCase(Locale.ROOT), key -> new ArrayList<>())
+                .add(rs.getLong("id"));
+        });
+        return directory;
+    }
+
+    private void replaceMembers(Long projectId, Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM project_members WHERE project_id = ?", projectId);
+            return;
+        }
+        namedJdbcTemplate.update(
+            "DELETE FROM project_members WHERE project_id = :projectId AND user_id NOT IN (:userIds)",
+            new MapSqlParameterSource("projectId", projectId).addValue("userIds", userIds));
+
+        List<Object[]> batch = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            batch.add(new Object[] {projectId, userId});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO project_members (project_id, user_id, role, status, joined_date, updated_at) " +
+            "VALUES (?, ?, 'MEMBER', 'ACTIVE', NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE status = 'ACTIVE', left_date = NULL, updated_at = NOW()",
+            batch);
+    }
+}
@@ -0,0 +1,56 @@
+package com.weeklyreport.project.service;
+
+import com.weeklyreport.project.dto.ProjectPhaseResponse;
+import com.weeklyreport.project.entity.ProjectPhase;
+import com.weeklyreport.project.repository.ProjectPhaseRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 项目阶段页级加载器
+ * 列表接口先取出当前页的项目，再用一次IN查询取回全部阶段并按项目分组，
+ * 查询次数与页大小无关。
+ */
+@Component
+public class ProjectPhaseLoader {
+
+    private final ProjectPhaseRepository projectPhaseRepository;
+
+    public ProjectPhaseLoader(ProjectPhaseRepository projectPhaseRepository) {
+        this.projectPhaseRepository = projectPhaseRepository;
+    }
+
+    /**
+     * 加载一批项目的阶段，按项目ID分组，组内按创建时间排序；没有阶段的项目不在结果中
+     */
+    public Map<Long, List<ProjectPhaseResponse>> loadPhases(Collection<Long> projectIds) {
+        Set<Long> ids = new LinkedHashSet<>(projectIds);
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = new HashMap<>();
+        for (ProjectPhase phase : projectPhaseRepository.findByProjectIdInOrderByCreatedAt(ids)) {
+            phasesByProject.computeIfAbsent(phase.getProjectId(), id -> new ArrayList<>())
+                .add(new ProjectPhaseResponse(phase));
+        }
+        return phasesByProject;
+    }
+
+    /**
+     * 从分组结果中取出指定项目的阶段，没有阶段时返回空列表
+     */
+    public static List<ProjectPhaseResponse> phasesOf(Map<Long, List<ProjectPhaseResponse>> phasesByProject,
+                                                      Long projectId) {
+        return Objects.requireNonNullElseGet(phasesByProject.get(projectId), ArrayList::new);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +19,10 @@ public interface ProjectPhaseRepository extends JpaRepository<ProjectPhase, Long
     // 按项目ID查找阶段，按创建时间排序
     @Query("SELECT p FROM ProjectPhase p WHERE p.projectId = :projectId ORDER BY p.createdAt ASC")
     List<ProjectPhase> findByProjectIdOrderByCreatedAt(@Param("projectId") Long projectId);
+
+    // 批量查询多个项目的阶段（列表页一次IN查询，避免逐行查询）
+    @Query("SELECT p FROM ProjectPhase p WHERE p.projectId IN :projectIds ORDER BY p.projectId ASC, p.createdAt ASC")
+    List<ProjectPhase> findByProjectIdInOrderByCreatedAt(@Param("projectIds") Collection<Long> projectIds);
     
     @Query("SELECT p FROM ProjectPhase p WHERE p.projectId = :projectId")
     Page<ProjectPhase> findByProjectId(@Param("projectId") Long projectId, Pageable pageable);
@@ -2,6 +2,7 @@ package com.weeklyreport.service.ai.deepseek;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weeklyreport.ai.service.PromptTokenizer;
 import com.weeklyreport.service.ai.AbstractAIServiceProviderWithMetrics;
 import com.weeklyreport.service.ai.AIServiceType;
 import com.weeklyreport.service.ai.dto.AIAnalysisRequest;
@@ -49,10 +50,12 @@ public class DeepSeekAIService extends AbstractAIServiceProviderWithMetrics {
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final PromptTokenizer tokenizer;
     
-    public DeepSeekAIService(RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public DeepSeekAIService(RestTemplate restTemplate, ObjectMapper objectMapper, PromptTokenizer tokenizer) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.tokenizer = tokenizer;
     }
     
     @Override
@@ -477,8 +480,8 @@ public class DeepSeekAIService extends AbstractAIServiceProviderWithMetrics {
     
     @Override
     public double getCostEstimate(String content) {
-        // DeepSeek pricing estimation (approximate)
-        int tokens = content.length() / 4; // Rough token estimation
+        // DeepSeek pricing estimation, token count from the local BPE tokenizer
+        int tokens = tokenizer.countTokens(content);
         return tokens * 0.0001; // Very low cost estimate in USD cents
     }
     
@@ -1,5 +1,6 @@
 package com.weeklyreport.service.ai.monitoring;
 
+import com.weeklyreport.ai.service.AILatencyMetrics;
 import com.weeklyreport.service.ai.AIServiceType;
 import com.weeklyreport.service.ai.dto.AIAnalysisRequest;
 import com.weeklyreport.service.ai.dto.AIAnalysisResponse;
@@ -11,26 +12,40 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Service for collecting and managing AI service metrics
+ * Service for collecting and managing AI service metrics.
+ * Counters are LongAdders and recent events live in a fixed-size lock-free ring buffer,
+ * so recording never blocks on dashboard reads. Windowed percentiles are delegated to
+ * {@link AILatencyMetrics} and published through Micrometer.
  */
 @Service
 public class AIMetricsService {
     
     private static final Logger logger = LoggerFactory.getLogger(AIMetricsService.class);
     
+    // Ring buffer capacity, must be a power of two
+    private static final int EVENT_BUFFER_SIZE = 1024;
+    
+    private final AILatencyMetrics latencyMetrics;
+    
     // Metrics storage
-    private final Map<AIServiceType, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
-    private final Map<AIServiceType, AtomicInteger> successCounts = new ConcurrentHashMap<>();
-    private final Map<AIServiceType, AtomicInteger> errorCounts = new ConcurrentHashMap<>();
-    private final Map<AIServiceType, AtomicLong> totalProcessingTime = new ConcurrentHashMap<>();
-    private final Map<AIAnalysisRequest.AnalysisType, AtomicInteger> analysisTypeCounts = new ConcurrentHashMap<>();
-    private final List<AIAnalysisEvent> recentEvents = new ArrayList<>();
+    private final Map<AIServiceType, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final Map<AIServiceType, LongAdder> successCounts = new ConcurrentHashMap<>();
+    private final Map<AIServiceType, LongAdder> errorCounts = new ConcurrentHashMap<>();
+    private final Map<AIServiceType, LongAdder> totalProcessingTime = new ConcurrentHashMap<>();
+    private final Map<AIAnalysisRequest.AnalysisType, LongAdder> analysisTypeCounts = new ConcurrentHashMap<>();
     
-    private final Object eventsLock = new Object();
+    // Lock-free ring buffer of recent events; writers claim a slot via the cursor
+    private final AtomicReferenceArray<AIAnalysisEvent> recentEvents = new AtomicReferenceArray<>(EVENT_BUFFER_SIZE);
+    private final AtomicLong eventCursor = new AtomicLong(0);
+    
+    public AIMetricsService(AILatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
     
     /**
      * Record a successful AI analysis
@@ -38,15 +53,15 @@ public class AIMetricsService {
     public void recordSuccess(AIServiceType serviceType, AIAnalysisRequest request, 
                              AIAnalysisResponse response) {
         // Increment counters
-        requestCounts.computeIfAbsent(serviceType, k -> new AtomicInteger(0)).incrementAndGet();
-        successCounts.computeIfAbsent(serviceType, k -> new AtomicInteger(0)).incrementAndGet();
-        analysisTypeCounts.computeIfAbsent(request.getAnalysisType(), k -> new AtomicInteger(0))
-                         .incrementAndGet();
+        counter(requestCounts, serviceType).increment();
+        counter(successCounts, serviceType).increment();
+        counter(analysisTypeCounts, request.getAnalysisType()).increment();
         
         // Record processing time
         if (response.getProcessingTimeMs() != null) {
-            totalProcessingTime.computeIfAbsent(serviceType, k -> new AtomicLong(0))
-                              .addAndGet(response.getProcessingTimeMs());
+            counter(totalProcessingTime, serviceType).add(response.getProcessingTimeMs());
+            latencyMetrics.record(serviceType.getCode(), request.getAnalysisType().name(), true,
+                                  response.getProcessingTimeMs(), extractTotalTokens(response));
         }
         
         // Record event
@@ -69,12 +84,13 @@ public class AIMetricsService {
     public void recordError(AIServiceType serviceType, AIAnalysisRequest request, 
                            String errorMessage, Long processingTime) {
         // Increment counters
-        requestCounts.computeIfAbsent(serviceType, k -> new AtomicInteger(0)).incrementAndGet();
-        errorCounts.computeIfAbsent(serviceType, k -> new AtomicInteger(0)).incrementAndGet();
+        counter(requestCounts, serviceType).increment();
+        counter(errorCounts, serviceType).increment();
         
         if (processingTime != null) {
-            totalProcessingTime.computeIfAbsent(serviceType, k -> new AtomicLong(0))
-                              .addAndGet(processingTime);
+            counter(totalProcessingTime, serviceType).add(processingTime);
+            latencyMetrics.record(serviceType.getCode(), request.getAnalysisType().name(), false,
+                                  processingTime, null);
         }
         
         // Record event
@@ -98,9 +114,9 @@ public class AIMetricsService {
         Map<String, Object> summary = new HashMap<>();
         
         // Overall totals
-        int totalRequests = requestCounts.values().stream().mapToInt(AtomicInteger::get).sum();
-        int totalSuccesses = successCounts.values().stream().mapToInt(AtomicInteger::get).sum();
-        int totalErrors = errorCounts.values().stream().mapToInt(AtomicInteger::get).sum();
+        long totalRequests = sum(requestCounts);
+        long totalSuccesses = sum(successCounts);
+        long totalErrors = sum(errorCounts);
         
         summary.put("totalRequests", totalRequests);
         summary.put("totalSuccesses", totalSuccesses);
@@ -110,53 +126,40 @@ public class AIMetricsService {
         // Per-provider metrics
         Map<String, Object> providerMetrics = new HashMap<>();
         for (AIServiceType serviceType : AIServiceType.values()) {
-            Map<String, Object> providerStats = new HashMap<>();
-            
-            int requests = requestCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-            int successes = successCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-            int errors = errorCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-            long totalTime = totalProcessingTime.getOrDefault(serviceType, new AtomicLong(0)).get();
-            
-            providerStats.put("requests", requests);
-            providerStats.put("successes", successes);
-            providerStats.put("errors", errors);
-            providerStats.put("successRate", requests > 0 ? (double) successes / requests : 0.0);
-            providerStats.put("averageProcessingTime", successes > 0 ? (double) totalTime / successes : 0.0);
-            
-            providerMetrics.put(serviceType.getCode(), providerStats);
+            providerMetrics.put(serviceType.getCode(), getProviderMetrics(serviceType));
         }
         summary.put("providerMetrics", providerMetrics);
         
         // Analysis type metrics
         Map<String, Object> analysisTypeMetrics = new HashMap<>();
         for (AIAnalysisRequest.AnalysisType analysisType : AIAnalysisRequest.AnalysisType.values()) {
-            int count = analysisTypeCounts.getOrDefault(analysisType, new AtomicInteger(0)).get();
-            analysisTypeMetrics.put(analysisType.name(), count);
+            analysisTypeMetrics.put(analysisType.name(), value(analysisTypeCounts, analysisType));
         }
         summary.put("analysisTypeMetrics", analysisTypeMetrics);
         
+        // Windowed latency percentiles (provider/analysisType)
+        summary.put("latencyPercentiles", latencyMetrics.snapshot());
+        
         // Recent events summary
-        synchronized (eventsLock) {
-            summary.put("recentEventsCount", recentEvents.size());
-            
-            // Last 10 events
-            List<Map<String, Object>> recentEventsSummary = new ArrayList<>();
-            int start = Math.max(0, recentEvents.size() - 10);
-            for (int i = start; i < recentEvents.size(); i++) {
-                AIAnalysisEvent event = recentEvents.get(i);
-                Map<String, Object> eventSummary = new HashMap<>();
-                eventSummary.put("timestamp", event.getTimestamp());
-                eventSummary.put("serviceType", event.getServiceType().getCode());
-                eventSummary.put("analysisType", event.getAnalysisType().name());
-                eventSummary.put("success", event.isSuccess());
-                eventSummary.put("processingTime", event.getProcessingTime());
-                if (!event.isSuccess()) {
-                    eventSummary.put("errorMessage", event.getErrorMessage());
-                }
-                recentEventsSummary.add(eventSummary);
+        List<AIAnalysisEvent> events = snapshotEvents();
+        summary.put("recentEventsCount", events.size());
+        
+        // Last 10 events
+        List<Map<String, Object>> recentEventsSummary = new ArrayList<>();
+        for (int i = Math.max(0, events.size() - 10); i < events.size(); i++) {
+            AIAnalysisEvent event = events.get(i);
+            Map<String, Object> eventSummary = new HashMap<>();
+            eventSummary.put("timestamp", event.getTimestamp());
+            eventSummary.put("serviceType", event.getServiceType().getCode());
+            eventSummary.put("analysisType", event.getAnalysisType().name());
+            eventSummary.put("success", event.isSuccess());
+            eventSummary.put("processingTime", event.getProcessingTime());
+            if (!event.isSuccess()) {
+                eventSummary.put("errorMessage", event.getErrorMessage());
             }
-            summary.put("recentEvents", recentEventsSummary);
+            recentEventsSummary.add(eventSummary);
         }
+        summary.put("recentEvents", recentEventsSummary);
         
         summary.put("collectedAt", LocalDateTime.now());
         
@@ -169,10 +172,10 @@ public class AIMetricsService {
     public Map<String, Object> getProviderMetrics(AIServiceType serviceType) {
         Map<String, Object> metrics = new HashMap<>();
         
-        int requests = requestCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-        int successes = successCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-        int errors = errorCounts.getOrDefault(serviceType, new AtomicInteger(0)).get();
-        long totalTime = totalProcessingTime.getOrDefault(serviceType, new AtomicLong(0)).get();
+        long requests = value(requestCounts, serviceType);
+        long successes = value(successCounts, serviceType);
+        long errors = value(errorCounts, serviceType);
+        long totalTime = value(totalProcessingTime, serviceType);
         
         metrics.put("requests", requests);
         metrics.put("successes", successes);
@@ -180,6 +183,7 @@ public class AIMetricsService {
         metrics.put("successRate", requests > 0 ? (double) successes / requests : 0.0);
         metrics.put("averageProcessingTime", successes > 0 ? (double) totalTime / successes : 0.0);
         metrics.put("totalProcessingTime", totalTime);
+        metrics.put("latencyPercentiles", latencyMetrics.snapshot(serviceType.getCode()));
         
         return metrics;
     }
@@ -194,8 +198,8 @@ public class AIMetricsService {
         totalProcessingTime.clear();
         analysisTypeCounts.clear();
         
-        synchronized (eventsLock) {
-            recentEvents.clear();
+        for (int i = 0; i < EVENT_BUFFER_SIZE; i++) {
+            recentEvents.set(i, null);
         }
         
         logger.info("AI metrics have been reset");
@@ -205,46 +209,81 @@ public class AIMetricsService {
      * Get health status based on recent performance
      */
     public String getHealthStatus() {
-        synchronized (eventsLock) {
-            if (recentEvents.isEmpty()) {
-                return "NO_DATA";
-            }
-            
-            // Check last 10 events or events from last hour
-            LocalDateTime oneHourAgo = LocalDateTime.now().minus(1, ChronoUnit.HOURS);
-            List<AIAnalysisEvent> recentRelevantEvents = recentEvents.stream()
-                    .filter(event -> event.getTimestamp().isAfter(oneHourAgo))
-                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
-            
-            if (recentRelevantEvents.isEmpty()) {
-                return "NO_RECENT_DATA";
-            }
-            
-            long successCount = recentRelevantEvents.stream().mapToLong(event -> event.isSuccess() ? 1 : 0).sum();
-            double successRate = (double) successCount / recentRelevantEvents.size();
-            
-            if (successRate >= 0.95) {
-                return "HEALTHY";
-            } else if (successRate >= 0.80) {
-                return "DEGRADED";
-            } else {
-                return "UNHEALTHY";
+        List<AIAnalysisEvent> events = snapshotEvents();
+        if (events.isEmpty()) {
+            return "NO_DATA";
+        }
+        
+        // Check events from last hour
+        LocalDateTime oneHourAgo = LocalDateTime.now().minus(1, ChronoUnit.HOURS);
+        long relevant = 0;
+        long successCount = 0;
+        for (AIAnalysisEvent event : events) {
+            if (event.getTimestamp().isAfter(oneHourAgo)) {
+                relevant++;
+                if (event.isSuccess()) {
+                    successCount++;
+                }
             }
         }
+        
+        if (relevant == 0) {
+            return "NO_RECENT_DATA";
+        }
+        
+        double successRate = (double) successCount / relevant;
+        if (successRate >= 0.95) {
+            return "HEALTHY";
+        } else if (successRate >= 0.80) {
+            return "DEGRADED";
+        } else {
+            return "UNHEALTHY";
+        }
     }
     
     /**
-     * Record an analysis event
+     * Record an analysis event into the ring buffer, overwriting the oldest slot
      */
     private void recordEvent(AIAnalysisEvent event) {
-        synchronized (eventsLock) {
-            recentEvents.add(event);
-            
-            // Keep only last 1000 events to prevent memory issues
-            if (recentEvents.size() > 1000) {
-                recentEvents.subList(0, recentEvents.size() - 1000).clear();
+        long sequence = eventCursor.getAndIncrement();
+        recentEvents.set((int) (sequence & (EVENT_BUFFER_SIZE - 1)), event);
+    }
+    
+    /**
+     * Copy the ring buffer without locking, ordered oldest to newest
+     */
+    private List<AIAnalysisEvent> snapshotEvents() {
+        long end = eventCursor.get();
+        long start = Math.max(0, end - EVENT_BUFFER_SIZE);
+        List<AIAnalysisEvent> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            AIAnalysisEvent event = recentEvents.get((int) (sequence & (EVENT_BUFFER_SIZE - 1)));
+            if (event != null) {
+                events.add(event);
             }
         }
+        return events;
+    }
+    
+    private Integer extractTotalTokens(AIAnalysisResponse response) {
+        Map<String, Object> metadata = response.getMetadata();
+        if (metadata != null && metadata.get("totalTokens") instanceof Number tokens) {
+            return tokens.intValue();
+        }
+        return null;
+    }
+    
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+    
+    private static <K> long value(Map<K, LongAdder> counters, K key) {
+        LongAdder adder = counters.get(key);
+        return adder != null ? adder.sum() : 0L;
+    }
+    
+    private static <K> long sum(Map<K, LongAdder> counters) {
+        return counters.values().stream().mapToLong(LongAdder::sum).sum();
     }
     
     /**
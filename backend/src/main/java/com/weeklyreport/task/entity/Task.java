@@ -23,6 +23,7 @@ import java.time.LocalDateTime;
 @Table(name = "tasks", indexes = {
     @Index(name = "idx_task_created_by", columnList = "created_by")
 })
+@EntityListeners(TaskEntityListener.class)
 public class Task {
 
     @Id
@@ -22,6 +22,13 @@ public interface DevTaskReportRepository extends JpaRepository<DevTaskReport, Lo
     @Query("SELECT dtr FROM DevTaskReport dtr WHERE dtr.weeklyReportId = :weeklyReportId")
     List<DevTaskReport> findByWeeklyReportId(@Param("weeklyReportId") Long weeklyReportId);
 
+    /**
+     * 根据周报ID查找开发任务报告，同时加载项目和阶段（用于AI分析提示词组装）
+     */
+    @Query("SELECT dtr FROM DevTaskReport dtr LEFT JOIN FETCH dtr.project LEFT JOIN FETCH dtr.projectPhase " +
+           "WHERE dtr.weeklyReportId = :weeklyReportId")
+    List<DevTaskReport> findByWeeklyReportIdWithProjectAndPhase(@Param("weeklyReportId") Long weeklyReportId);
+
     /**
      * 根据项目ID查找开发任务报告
      */
@@ -24,6 +24,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_user_role", columnList = "role"),
     @Index(name = "idx_user_status", columnList = "status")
 })
+@EntityListeners(UserEntityListener.class)
 public class User {
 
     @Id
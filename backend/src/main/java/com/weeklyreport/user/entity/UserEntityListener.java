@@ -0,0 +1,34 @@
+package com.weeklyreport.user.entity;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * User 实体监听器，保存/删除后发布 {@link EntityChangedEvent}
+ * 收件人缓存、提交合规索引等订阅方在事务提交后处理，实体层不引用具体服务。
+ * 由Hibernate通过SpringBeanContainer实例化。
+ */
+@Component
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(User user) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(user, false));
+    }
+
+    @PostRemove
+    public void onRemoved(User user) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(user, true));
+    }
+}
@@ -80,6 +80,12 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") User.Role role);
+
+    /**
+     * 按角色、状态分组计数，一次查询得到全部用户统计
+     */
+    @Query("SELECT u.role, u.status, COUNT(u) FROM User u GROUP BY u.role, u.status")
+    List<Object[]> countGroupByRoleAndStatus();
     
     // Department count queries removed as User entity no longer has department field
     
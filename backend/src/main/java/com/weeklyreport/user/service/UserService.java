@@ -477,13 +477,26 @@ public class UserService {
      */
     @PreAuthorize("hasRole('ADMIN') or hasRole('HR_MANAGER') or hasRole('SUPER_ADMIN')")
     public UserStatistics getUserStatistics() {
-        return new UserStatistics(
-            userRepository.countByStatus(User.UserStatus.ACTIVE),
-            userRepository.countByStatus(User.UserStatus.INACTIVE),
+        // 一次分组查询代替按状态、角色分别计数的四次查询
+        long active = 0, inactive = 0, admins = 0, managers = 0;
+        for (Object[] row : userRepository.countGroupByRoleAndStatus()) {
+            User.Role role = (User.Role) row[0];
+            User.UserStatus status = (User.UserStatus) row[1];
+            long count = (Long) row[2];
+            if (status == User.UserStatus.ACTIVE) {
+                active += count;
+            } else if (status == User.UserStatus.INACTIVE) {
+                inactive += count;
+            }
+            if (role == User.Role.ADMIN) {
+                admins += count;
+            } else if (role == User.Role.MANAGER) {
+                managers += count;
+            }
+        }
+        return new UserStatistics(active, inactive,
             0L, // 不再有SUSPENDED状态
-            userRepository.countByRole(User.Role.ADMIN),
-            userRepository.countByRole(User.Role.MANAGER)
-        );
+            admins, managers);
     }
 
     /**
@@ -1,6 +1,10 @@
 package com.weeklyreport.weeklyreport.controller;
 
 import com.weeklyreport.common.dto.ApiResponse;
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext;
+import com.weeklyreport.weeklyreport.dto.SubmissionCompliance;
 import com.weeklyreport.weeklyreport.dto.WeeklyReportCreateRequest;
 import com.weeklyreport.weeklyreport.dto.WeeklyReportUpdateRequest;
 import com.weeklyreport.weeklyreport.dto.WeeklyReportDetailResponse;
@@ -12,6 +16,12 @@ import com.weeklyreport.task.repository.*;
 import com.weeklyreport.project.entity.*;
 import com.weeklyreport.project.repository.*;
 import com.weeklyreport.user.entity.User;
+import com.weeklyreport.common.util.WeekFormatHelper;
+import com.weeklyreport.weeklyreport.export.ExportFormat;
+import com.weeklyreport.weeklyreport.service.ReportCompositionContextService;
+import com.weeklyreport.weeklyreport.service.SubmissionComplianceIndex;
+import com.weeklyreport.weeklyreport.service.WeeklyReportBulkReviewService;
+import com.weeklyreport.weeklyreport.service.WeeklyReportExportService;
 import com.weeklyreport.weeklyreport.service.WeeklyReportService;
 import com.weeklyreport.user.service.UserService;
 import com.weeklyreport.ai.entity.AIAnalysisResult;
@@ -24,9 +34,19 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -50,6 +70,9 @@ import org.springframework.data.domain.Sort;
  * PUT    /api/weekly-reports/{id}/admin-approve - 管理员审批通过（ADMIN_REVIEWING → APPROVED）
  * PUT    /api/weekly-reports/{id}/reject       - 拒绝周报（ADMIN_REVIEWING → REJECTED）
  * GET    /api/weekly-reports/{id}              - 获取周报详情
+ * GET    /api/weekly-reports/composition-context - 获取周报填写上下文（任务/项目/阶段选项，支持ETag）
+ * GET    /api/weekly-reports/export        - 流式导出周报及任务行（CSV/XLSX）
+ * GET    /api/weekly-reports/compliance    - 指定ISO周的提交情况及未提交名单
  * GET    /api/weekly-reports/my                - 获取我的周报列表
  * GET    /api/weekly-reports/my-drafts         - 获取我的草稿列表（DRAFT）
  * GET    /api/weekly-reports/my-submitted      - 获取我的已提交列表（非DRAFT）
@@ -93,6 +116,18 @@ public class WeeklyReportController {
     @Autowired
     private ProjectPhaseRepository projectPhaseRepository;
 
+    @Autowired
+    private WeeklyReportBulkReviewService bulkReviewService;
+
+    @Autowired
+    private ReportCompositionContextService compositionContextService;
+
+    @Autowired
+    private WeeklyReportExportService exportService;
+
+    @Autowired
+    private SubmissionComplianceIndex complianceIndex;
+
     /**
      * 获取当前用户
      */
@@ -553,6 +588,50 @@ public class WeeklyReportController {
         }
     }
 
+    /**
+     * 批量管理员审批通过（单次最多100条）
+     * 状态转换：ADMIN_REVIEWING → APPROVED，逐条返回处理结果
+     */
+    @PutMapping("/bulk-approve")
+    public ResponseEntity<ApiResponse<BulkReviewResult>> bulkApproveWeeklyReports(
+            @Valid @RequestBody BulkReviewRequest request) {
+        return bulkReview(request, true);
+    }
+
+    /**
+     * 批量拒绝（单次最多100条，拒绝理由必填）
+     * 状态转换：ADMIN_REVIEWING → REJECTED，逐条返回处理结果
+     */
+    @PutMapping("/bulk-reject")
+    public ResponseEntity<ApiResponse<BulkReviewResult>> bulkRejectWeeklyReports(
+            @Valid @RequestBody BulkReviewRequest request) {
+        return bulkReview(request, false);
+    }
+
+    private ResponseEntity<ApiResponse<BulkReviewResult>> bulkReview(BulkReviewRequest request, boolean approve) {
+        try {
+            User currentUser = getCurrentUser();
+            if (!currentUser.canReviewWeeklyReports()) {
+                return ResponseEntity.status(403)
+                    .body(ApiResponse.error("没有权限审批周报"));
+            }
+
+            BulkReviewResult result = approve
+                ? bulkReviewService.approve(request, currentUser)
+                : bulkReviewService.reject(request, currentUser);
+            return ResponseEntity.ok(ApiResponse.success(
+                String.format("成功%d条，失败%d条", result.getSuccessCount(), result.getFailureCount()), result));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Bulk review of weekly reports failed", e);
+            return ResponseEntity.status(500)
+                .body(ApiResponse.error("批量审批失败，请稍后重试"));
+        }
+    }
+
     /**
      * 获取周报详情 - 包含完整的关联数据
      */
@@ -703,6 +782,102 @@ public class WeeklyReportController {
         }
     }
 
+    /**
+     * 获取周报填写上下文 - 当前用户的日常任务、可填报项目及其阶段一次返回
+     * 响应携带ETag，请求头 If-None-Match 与当前版本一致时返回304
+     */
+    @GetMapping("/composition-context")
+    public ResponseEntity<ApiResponse<ReportCompositionContext>> getCompositionContext() {
+        try {
+            User currentUser = getCurrentUser();
+            ReportCompositionContext context = compositionContextService.getContext(currentUser.getId());
+
+            return ResponseEntity.ok()
+                .eTag(context.getVersion())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success(context));
+
+        } catch (Exception e) {
+            logger.error("获取周报填写上下文失败", e);
+            return ResponseEntity.status(500)
+                .body(ApiResponse.error("获取周报填写上下文失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 导出周报 - 创建时间在 [from, to] 内的周报及其日常任务、发展任务行
+     * 结果集逐行写入响应流，格式为 csv 或 xlsx；开始写出后出错只能中断连接，无法再返回错误JSON
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportWeeklyReports(
+            @RequestParam(required = false, defaultValue = "csv") String format,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) WeeklyReport.ReportStatus status) {
+        if (!getCurrentUser().canReviewWeeklyReports()) {
+            return ResponseEntity.status(403)
+                .body(ApiResponse.error("没有权限导出周报"));
+        }
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("导出开始日期不能晚于结束日期"));
+        }
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        String filename = String.format("weekly-reports-%s-%s.%s",
+            from.format(DateTimeFormatter.BASIC_ISO_DATE), to.format(DateTimeFormatter.BASIC_ISO_DATE),
+            exportFormat.getExtension());
+        StreamingResponseBody body = out -> {
+            try {
+                exportService.export(exportFormat, from, to, status, out);
+            } catch (IOException e) {
+                logger.warn("周报导出中断 - 范围: {} ~ {}, 原因: {}", from, to, e.getMessage());
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString())
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+
+    /**
+     * 获取周报提交情况 - 指定ISO周（如 2026-W42，默认本周）应提交人数、已提交人数及未提交名单
+     */
+    @GetMapping("/compliance")
+    public ResponseEntity<ApiResponse<SubmissionCompliance>> getSubmissionCompliance(
+            @RequestParam(required = false) String week) {
+        try {
+            if (!getCurrentUser().canReviewWeeklyReports()) {
+                return ResponseEntity.status(403)
+                    .body(ApiResponse.error("没有权限查看周报提交情况"));
+            }
+            String isoWeek = week != null && !week.isBlank()
+                ? week.trim()
+                : WeekFormatHelper.formatIsoWeek(LocalDate.now());
+            try {
+                WeekFormatHelper.parseIsoWeek(isoWeek);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("周格式应为 yyyy-Www，如 2026-W42"));
+            }
+            return ResponseEntity.ok(ApiResponse.success(complianceIndex.getCompliance(isoWeek)));
+
+        } catch (Exception e) {
+            logger.error("获取周报提交情况失败", e);
+            return ResponseEntity.status(500)
+                .body(ApiResponse.error("获取周报提交情况失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 获取我的周报列表 - 返回包含深度查询关联数据的完整周报信息
      * 注意：此接口严格只返回当前登录用户的周报，不需要传入userId参数
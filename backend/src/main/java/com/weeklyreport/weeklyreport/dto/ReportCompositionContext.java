@@ -0,0 +1,122 @@
+package com.weeklyreport.weeklyreport.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 周报填写上下文 - 填写表单所需的任务、项目、阶段选项一次返回
+ * version 由选项内容计算，同时作为响应的ETag；内容不变时客户端凭 If-None-Match 得到304。
+ */
+public class ReportCompositionContext {
+
+    private String version;                                 // 内容摘要（ETag）
+    private LocalDateTime generatedAt;                      // 生成时间
+    private List<TaskOption> tasks;                         // 当前用户的日常任务
+    private List<ProjectOption> projects;                   // 当前用户可填报的已批准项目
+    private Map<Long, List<PhaseOption>> phasesByProject;   // 项目ID → 阶段列表
+
+    // Constructors
+    public ReportCompositionContext() {}
+
+    public ReportCompositionContext(String version, LocalDateTime generatedAt, List<TaskOption> tasks,
+                                    List<ProjectOption> projects, Map<Long, List<PhaseOption>> phasesByProject) {
+        this.version = version;
+        this.generatedAt = generatedAt;
+        this.tasks = tasks;
+        this.projects = projects;
+        this.phasesByProject = phasesByProject;
+    }
+
+    // Getters and Setters
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+    public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
+
+    public List<TaskOption> getTasks() { return tasks; }
+    public void setTasks(List<TaskOption> tasks) { this.tasks = tasks; }
+
+    public List<ProjectOption> getProjects() { return projects; }
+    public void setProjects(List<ProjectOption> projects) { this.projects = projects; }
+
+    public Map<Long, List<PhaseOption>> getPhasesByProject() { return phasesByProject; }
+    public void setPhasesByProject(Map<Long, List<PhaseOption>> phasesByProject) { this.phasesByProject = phasesByProject; }
+
+    /**
+     * 日常任务选项
+     */
+    public static class TaskOption {
+
+        private Long id;
+        private String taskName;
+        private String expectedResults;
+
+        public TaskOption() {}
+
+        public TaskOption(Long id, String taskName, String expectedResults) {
+            this.id = id;
+            this.taskName = taskName;
+            this.expectedResults = expectedResults;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getTaskName() { return taskName; }
+        public void setTaskName(String taskName) { this.taskName = taskName; }
+
+        public String getExpectedResults() { return expectedResults; }
+        public void setExpectedResults(String expectedResults) { this.expectedResults = expectedResults; }
+    }
+
+    /**
+     * 项目选项
+     */
+    public static class ProjectOption {
+
+        private Long id;
+        private String projectName;
+
+        public ProjectOption() {}
+
+        public ProjectOption(Long id, String projectName) {
+            this.id = id;
+            this.projectName = projectName;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getProjectName() { return projectName; }
+        public void setProjectName(String projectName) { this.projectName = projectName; }
+    }
+
+    /**
+     * 项目阶段选项
+     */
+    public static class PhaseOption {
+
+        private Long id;
+        private String phaseName;
+        private String expectedResults;
+
+        public PhaseOption() {}
+
+        public PhaseOption(Long id, String phaseName, String expectedResults) {
+            this.id = id;
+            this.phaseName = phaseName;
+            this.expectedResults = expectedResults;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getPhaseName() { return phaseName; }
+        public void setPhaseName(String phaseName) { this.phaseName = phaseName; }
+
+        public String getExpectedResults() { return expectedResults; }
+        public void setExpectedResults(String expectedResults) { this.expectedResults = expectedResults; }
+    }
+}
@@ -0,0 +1,71 @@
+package com.weeklyreport.weeklyreport.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 周报提交合规情况 - 指定ISO周应提交人数、已提交人数及未提交名单
+ */
+public class SubmissionCompliance {
+
+    private String isoWeek;                     // ISO周，如 2026-W42
+    private LocalDate weekStart;                // 周一
+    private LocalDate weekEnd;                  // 周日
+    private int expectedCount;                  // 应提交人数（在职且角色在配置范围内）
+    private int submittedCount;                 // 其中已提交人数
+    private List<MissingUser> missingUsers;     // 未提交用户（按ID排序）
+
+    // Constructors
+    public SubmissionCompliance() {}
+
+    public SubmissionCompliance(String isoWeek, LocalDate weekStart, LocalDate weekEnd,
+                                int expectedCount, int submittedCount, List<MissingUser> missingUsers) {
+        this.isoWeek = isoWeek;
+        this.weekStart = weekStart;
+        this.weekEnd = weekEnd;
+        this.expectedCount = expectedCount;
+        this.submittedCount = submittedCount;
+        this.missingUsers = missingUsers;
+    }
+
+    // Getters and Setters
+    public String getIsoWeek() { return isoWeek; }
+    public void setIsoWeek(String isoWeek) { this.isoWeek = isoWeek; }
+
+    public LocalDate getWeekStart() { return weekStart; }
+    public void setWeekStart(LocalDate weekStart) { this.weekStart = weekStart; }
+
+    public LocalDate getWeekEnd() { return weekEnd; }
+    public void setWeekEnd(LocalDate weekEnd) { this.weekEnd = weekEnd; }
+
+    public int getExpectedCount() { return expectedCount; }
+    public void setExpectedCount(int expectedCount) { this.expectedCount = expectedCount; }
+
+    public int getSubmittedCount() { return submittedCount; }
+    public void setSubmittedCount(int submittedCount) { this.submittedCount = submittedCount; }
+
+    public List<MissingUser> getMissingUsers() { return missingUsers; }
+    public void setMissingUsers(List<MissingUser> missingUsers) { this.missingUsers = missingUsers; }
+
+    /**
+     * 未提交用户
+     */
+    public static class MissingUser {
+
+        private Long userId;
+        private String username;
+
+        public MissingUser() {}
+
+        public MissingUser(Long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+    }
+}
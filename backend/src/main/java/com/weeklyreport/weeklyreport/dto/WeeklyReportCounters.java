@@ -0,0 +1,45 @@
+package com.weeklyreport.weeklyreport.dto;
+
+/**
+ * 周报计数（weekly_report_stats 一行）
+ */
+public class WeeklyReportCounters {
+
+    private int commentCount;           // 有效评论数（含回复）
+    private int attachmentCount;        // 有效附件数
+    private int taskLineCount;          // 日常任务行数
+    private int devTaskLineCount;       // 发展性任务行数
+
+    // Constructors
+    public WeeklyReportCounters() {}
+
+    public WeeklyReportCounters(int commentCount, int attachmentCount, int taskLineCount, int devTaskLineCount) {
+        this.commentCount = commentCount;
+        this.attachmentCount = attachmentCount;
+        this.taskLineCount = taskLineCount;
+        this.devTaskLineCount = devTaskLineCount;
+    }
+
+    // Getters and Setters
+    public int getCommentCount() { return commentCount; }
+    public void setCommentCount(int commentCount) { this.commentCount = commentCount; }
+
+    public int getAttachmentCount() { return attachmentCount; }
+    public void setAttachmentCount(int attachmentCount) { this.attachmentCount = attachmentCount; }
+
+    public int getTaskLineCount() { return taskLineCount; }
+    public void setTaskLineCount(int taskLineCount) { this.taskLineCount = taskLineCount; }
+
+    public int getDevTaskLineCount() { return devTaskLineCount; }
+    public void setDevTaskLineCount(int devTaskLineCount) { this.devTaskLineCount = devTaskLineCount; }
+
+    @Override
+    public String toString() {
+        return "WeeklyReportCounters{" +
+                "commentCount=" + commentCount +
+                ", attachmentCount=" + attachmentCount +
+                ", taskLineCount=" + taskLineCount +
+                ", devTaskLineCount=" + devTaskLineCount +
+                '}';
+    }
+}
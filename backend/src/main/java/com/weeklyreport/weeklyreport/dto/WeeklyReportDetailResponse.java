@@ -49,6 +49,9 @@ public class WeeklyReportDetailResponse {
     private String reviewerName;                    // 审核人真实姓名
     private String reviewerUsername;                // 审核人用户名
 
+    // 计数信息（来自 weekly_report_stats）
+    private WeeklyReportCounters counters;          // 评论数、附件数、任务行数
+
     // Constructors
     public WeeklyReportDetailResponse() {}
 
@@ -125,6 +128,9 @@ public class WeeklyReportDetailResponse {
     public String getReviewerUsername() { return reviewerUsername; }
     public void setReviewerUsername(String reviewerUsername) { this.reviewerUsername = reviewerUsername; }
 
+    public WeeklyReportCounters getCounters() { return counters; }
+    public void setCounters(WeeklyReportCounters counters) { this.counters = counters; }
+
     /**
      * 本周汇报内容详情DTO - 包含完整的关联数据
      */
@@ -1,6 +1,7 @@
 package com.weeklyreport.weeklyreport.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.weeklyreport.common.util.WeekFormatHelper;
 import com.weeklyreport.task.entity.TaskReport;
 import com.weeklyreport.task.entity.DevTaskReport;
 import jakarta.persistence.*;
@@ -8,6 +9,7 @@ import jakarta.validation.constraints.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,6 +28,7 @@ import java.util.List;
     @Index(name = "idx_weekly_report_week", columnList = "report_week"),
     @Index(name = "idx_weekly_report_status", columnList = "status")
 })
+@EntityListeners(WeeklyReportEntityListener.class)
 public class WeeklyReport {
 
     @Id
@@ -45,6 +48,10 @@ public class WeeklyReport {
     @Column(name = "report_week", nullable = false, length = 50)
     private String reportWeek;
 
+    // 周报所属ISO周的周一，由 report_week 解析，保存时维护（提交合规按此归周）
+    @Column(name = "week_start")
+    private LocalDate weekStart;
+
     @Column(name = "additional_notes", columnDefinition = "TEXT")
     private String additionalNotes;
 
@@ -93,6 +100,11 @@ public class WeeklyReport {
     @Column(name = "approved_at")
     private LocalDateTime approvedAt;
 
+    // 乐观锁版本号：状态转换按版本号比较并提交，不再对周报行加悲观锁（见 WeeklyReportStateMachine）
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // ============= 关联关系 =============
 
     @OneToMany(mappedBy = "weeklyReport", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -193,6 +205,14 @@ public class WeeklyReport {
         this.reportWeek = reportWeek;
     }
 
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
     public String getAdditionalNotes() {
         return additionalNotes;
     }
@@ -289,6 +309,14 @@ public class WeeklyReport {
         this.approvedAt = approvedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<TaskReport> getTaskReports() {
         return taskReports;
     }
@@ -307,6 +335,16 @@ public class WeeklyReport {
 
     // ============= 业务方法 =============
 
+    /**
+     * 保存前按 report_week 重算所属周；无法识别的文本归入创建日所在周
+     */
+    @PrePersist
+    @PreUpdate
+    protected void resolveWeekStart() {
+        LocalDate created = createdAt != null ? createdAt.toLocalDate() : LocalDate.now();
+        weekStart = WeekFormatHelper.resolveWeekStart(reportWeek, created);
+    }
+
     /**
      * 获取周报内容摘要
      */
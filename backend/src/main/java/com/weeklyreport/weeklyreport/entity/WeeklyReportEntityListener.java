@@ -0,0 +1,34 @@
+package com.weeklyreport.weeklyreport.entity;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * WeeklyReport 实体监听器，保存/删除后发布 {@link EntityChangedEvent}
+ * 提交合规索引等订阅方在事务提交后处理，实体层不引用具体服务。
+ * 由Hibernate通过SpringBeanContainer实例化。
+ */
+@Component
+public class WeeklyReportEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WeeklyReportEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(WeeklyReport report) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(report, false));
+    }
+
+    @PostRemove
+    public void onRemoved(WeeklyReport report) {
+        eventPublisher.publishEvent(new EntityChangedEvent<>(report, true));
+    }
+}
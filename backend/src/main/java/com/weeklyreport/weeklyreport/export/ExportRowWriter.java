@@ -0,0 +1,23 @@
+package com.weeklyreport.weeklyreport.export;
+
+import java.io.IOException;
+
+/**
+ * 逐行导出写入器
+ * 每写一行即交给输出流（或落到临时文件），内存占用与总行数无关。
+ */
+public interface ExportRowWriter extends AutoCloseable {
+
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * 写出剩余内容并刷新输出流，不关闭调用方传入的输出流
+     */
+    void finish() throws IOException;
+
+    /**
+     * 释放临时资源；未调用 finish 时（导出中途失败）直接丢弃已写内容
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,85 @@
+package com.weeklyreport.weeklyreport.export;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX写入器（POI SXSSF）
+ * 内存中只保留最近 WINDOW_SIZE 行，更早的行压缩写入临时文件，finish 时拼装为xlsx写到输出流。
+ * 单个工作表写满（1048576行）后自动续写到下一个工作表，每个工作表都带表头。
+ */
+public class XlsxExportRowWriter implements ExportRowWriter {
+
+    private static final int WINDOW_SIZE = 100;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final OutputStream out;
+    private final String sheetName;
+    private final List<String> header;
+    private final SXSSFWorkbook workbook;
+
+    private SXSSFSheet sheet;
+    private int sheetCount;
+    private int rowIndex;
+
+    public XlsxExportRowWriter(OutputStream out, String sheetName, List<String> header) {
+        this.out = out;
+        this.sheetName = sheetName;
+        this.header = header;
+        this.workbook = new SXSSFWorkbook(WINDOW_SIZE);
+        this.workbook.setCompressTempFiles(true);
+        nextSheet();
+    }
+
+    @Override
+    public void writeRow(Object[] values) {
+        if (rowIndex >= MAX_ROWS_PER_SHEET) {
+            nextSheet();
+        }
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else {
+                String text = value.toString();
+                // Excel单元格文本上限32767字符，超出部分截断，否则POI直接抛异常中断整个导出
+                cell.setCellValue(text.length() > MAX_CELL_LENGTH ? text.substring(0, MAX_CELL_LENGTH) : text);
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void nextSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " (" + sheetCount + ")");
+        rowIndex = 0;
+        Row headerRow = sheet.createRow(rowIndex++);
+        for (int i = 0; i < header.size(); i++) {
+            headerRow.createCell(i).setCellValue(header.get(i));
+        }
+    }
+}
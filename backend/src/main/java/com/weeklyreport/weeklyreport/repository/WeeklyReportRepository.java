@@ -7,9 +7,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
 import jakarta.persistence.LockModeType;
 
 import java.time.LocalDateTime;
@@ -24,14 +26,6 @@ public interface WeeklyReportRepository extends JpaRepository<WeeklyReport, Long
 
     // Find by user (updated for new entity structure) - authorId renamed to userId
 
-    /**
-     * 悲观锁查询 - 防止并发修改周报状态
-     * 使用 SELECT ... FOR UPDATE 锁定记录，适用于状态转换场景
-     */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT wr FROM WeeklyReport wr WHERE wr.id = :id")
-    Optional<WeeklyReport> findByIdForUpdate(@Param("id") Long id);
-
     // 新增方法以支持V3重构
     List<WeeklyReport> findByUserIdOrderByCreatedAtDesc(Long userId);
 
@@ -214,7 +208,7 @@ public interface WeeklyReportRepository extends JpaRepository<WeeklyReport, Long
     @Query("SELECT r.userId, COUNT(r) FROM WeeklyReport r WHERE r.createdAt >= :startDate GROUP BY r.userId ORDER BY COUNT(r) DESC")
     List<Object[]> getUserProductivityStats(@Param("startDate") LocalDateTime startDate);
 
-    // Missing reports functionality removed - need to check from User service
+    // Missing reports: see SubmissionComplianceIndex (per-ISO-week submission bitsets)
 
     // Complex filtering (simplified for new schema)
     @Query("SELECT r FROM WeeklyReport r WHERE " +
@@ -228,9 +222,47 @@ public interface WeeklyReportRepository extends JpaRepository<WeeklyReport, Long
                                              Pageable pageable);
 
     // Update operations
-    @Query("UPDATE WeeklyReport r SET r.status = :newStatus WHERE r.id IN :reportIds")
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WeeklyReport r SET r.status = :newStatus, r.version = r.version + 1 WHERE r.id IN :reportIds")
     int updateStatusBatch(@Param("reportIds") List<Long> reportIds,
                          @Param("newStatus") WeeklyReport.ReportStatus newStatus);
+
+    /**
+     * 批量审批前的状态校验：只取审批结果和通知需要的列 [id, status, title, reportWeek, userId]
+     * SELECT ... FOR UPDATE 锁定这些行直到事务结束，按主键顺序加锁避免并发批次间死锁
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r.id, r.status, r.title, r.reportWeek, r.userId FROM WeeklyReport r WHERE r.id IN :ids ORDER BY r.id")
+    List<Object[]> findReviewSnapshotsByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * 批量管理员审批通过，只更新仍处于 fromStatus 的周报
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WeeklyReport r SET r.status = :toStatus, r.adminReviewerId = :reviewerId, " +
+           "r.approvedAt = :now, r.updatedAt = :now, r.version = r.version + 1 " +
+           "WHERE r.id IN :ids AND r.status = :fromStatus")
+    int approveBatch(@Param("ids") List<Long> ids,
+                     @Param("fromStatus") WeeklyReport.ReportStatus fromStatus,
+                     @Param("toStatus") WeeklyReport.ReportStatus toStatus,
+                     @Param("reviewerId") Long reviewerId,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * 批量审批拒绝，只更新仍处于 fromStatus 的周报
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE WeeklyReport r SET r.status = :toStatus, r.rejectedBy = :rejectedBy, " +
+           "r.rejectionReason = :reason, r.rejectedAt = :now, r.adminReviewerId = :reviewerId, r.updatedAt = :now, " +
+           "r.version = r.version + 1 " +
+           "WHERE r.id IN :ids AND r.status = :fromStatus")
+    int rejectBatch(@Param("ids") List<Long> ids,
+                    @Param("fromStatus") WeeklyReport.ReportStatus fromStatus,
+                    @Param("toStatus") WeeklyReport.ReportStatus toStatus,
+                    @Param("rejectedBy") WeeklyReport.RejectedBy rejectedBy,
+                    @Param("reason") String reason,
+                    @Param("reviewerId") Long reviewerId,
+                    @Param("now") LocalDateTime now);
     
     // Note: markLateReports removed - isLate field not in database schema
 
@@ -0,0 +1,215 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weeklyreport.common.event.EntityChangedEvent;
+import com.weeklyreport.notification.event.ProjectsBulkReviewedEvent;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.entity.ProjectPhase;
+import com.weeklyreport.task.entity.Task;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext.PhaseOption;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext.ProjectOption;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext.TaskOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 周报填写上下文
+ * 每次打开周报表单需要的任务、项目、阶段选项用三条只取必要列的查询一次组装，按用户缓存。
+ * 任务/阶段/项目变化时按 {@link EntityChangedEvent} 在提交后失效；
+ * 批量审批绕过实体监听，通过 {@link ProjectsBulkReviewedEvent} 失效；其余绕过路径依靠TTL兜底。
+ */
+@Service
+public class ReportCompositionContextService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCompositionContextService.class);
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private static final String TASKS_SQL =
+        "SELECT id, task_name, expected_results FROM tasks WHERE created_by = ? ORDER BY created_at DESC, id DESC";
+
+    // 可填报的项目：超级管理员已批准，且当前用户是创建者或在职成员
+    private static final String PROJECTS_SQL =
+        "SELECT p.id, p.name FROM projects p " +
+        "WHERE p.approval_status IN ('SUPER_ADMIN_APPROVED', 'FINAL_APPROVED') " +
+        "  AND (p.created_by = ? OR EXISTS (SELECT 1 FROM project_members m " +
+        "       WHERE m.project_id = p.id AND m.user_id = ? AND m.status = 'ACTIVE')) " +
+        "ORDER BY p.created_at DESC, p.id DESC";
+
+    private static final String PHASES_SQL =
+        "SELECT id, project_id, phase_name, expected_results FROM project_phases " +
+        "WHERE project_id IN (:projectIds) ORDER BY project_id, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<Long, Entry> contexts = new ConcurrentHashMap<>();
+    // 每次失效递增；加载期间发生过失效的结果不写入缓存，避免旧数据覆盖
+    private final AtomicLong generation = new AtomicLong();
+
+    public ReportCompositionContextService(JdbcTemplate jdbcTemplate,
+                                           ObjectMapper objectMapper,
+                                           @Value("${weekly-report.composition-context.ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 当前用户的周报填写上下文，缓存未命中或过期时重新加载
+     */
+    public ReportCompositionContext getContext(Long userId) {
+        Entry entry = contexts.get(userId);
+        if (entry != null && !entry.isExpired(ttlMillis)) {
+            return entry.context;
+        }
+
+        long loadGeneration = generation.get();
+        Entry loaded = load(userId);
+        if (generation.get() == loadGeneration) {
+            if (contexts.size() >= MAX_ENTRIES) {
+                contexts.clear();
+            }
+            contexts.put(userId, loaded);
+        }
+        return loaded.context;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(EntityChangedEvent<Task> event) {
+        onTaskChanged(event.getEntity());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPhaseChanged(EntityChangedEvent<ProjectPhase> event) {
+        onPhaseChanged(event.getEntity());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectChanged(EntityChangedEvent<Project> event) {
+        onProjectChanged(event.getEntity());
+    }
+
+    /**
+     * 任务新增/修改/删除后调用：只影响任务创建者
+     */
+    public void onTaskChanged(Task task) {
+        if (task.getCreatedBy() != null) {
+            invalidateUser(task.getCreatedBy());
+        }
+    }
+
+    /**
+     * 阶段新增/修改/删除后调用：失效包含该项目的上下文
+     */
+    public void onPhaseChanged(ProjectPhase phase) {
+        Long projectId = phase.getProjectId();
+        if (projectId == null) {
+            return;
+        }
+        contexts.values().removeIf(cached -> cached.projectIds.contains(projectId));
+        generation.incrementAndGet();
+    }
+
+    /**
+     * 项目保存/删除后调用：审批状态、名称或成员变化会影响多个用户，整体失效
+     */
+    public void onProjectChanged(Project project) {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProjectsBulkReviewed(ProjectsBulkReviewedEvent event) {
+        if (event.getDecision() == ProjectsBulkReviewedEvent.Decision.SUPER_ADMIN_APPROVED) {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateUser(Long userId) {
+        contexts.remove(userId);
+        generation.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        contexts.clear();
+        generation.incrementAndGet();
+        logger.debug("周报填写上下文缓存已全部失效");
+    }
+
+    private Entry load(Long userId) {
+        List<TaskOption> tasks = jdbcTemplate.query(TASKS_SQL,
+            (rs, rowNum) -> new TaskOption(rs.getLong("id"), rs.getString("task_name"), rs.getString("expected_results")),
+            userId);
+        List<ProjectOption> projects = jdbcTemplate.query(PROJECTS_SQL,
+            (rs, rowNum) -> new ProjectOption(rs.getLong("id"), rs.getString("name")),
+            userId, userId);
+
+        Set<Long> projectIds = projects.stream().map(ProjectOption::getId).collect(Collectors.toSet());
+        Map<Long, List<PhaseOption>> phasesByProject = new LinkedHashMap<>();
+        for (ProjectOption project : projects) {
+            phasesByProject.put(project.getId(), new ArrayList<>());
+        }
+        if (!projectIds.isEmpty()) {
+            namedJdbcTemplate.query(PHASES_SQL, new MapSqlParameterSource("projectIds", projectIds), rs -> {
+                phasesByProject.get(rs.getLong("project_id")).add(new PhaseOption(
+                    rs.getLong("id"), rs.getString("phase_name"), rs.getString("expected_results")));
+            });
+        }
+
+        ReportCompositionContext context = new ReportCompositionContext(
+            version(tasks, projects, phasesByProject), LocalDateTime.now(), tasks, projects, phasesByProject);
+        logger.debug("加载周报填写上下文 - 用户: {}, 任务: {}, 项目: {}", userId, tasks.size(), projects.size());
+        return new Entry(context, projectIds);
+    }
+
+    /**
+     * 内容摘要：只由选项内容决定，缓存重建后内容不变时版本号不变，客户端的ETag仍然有效
+     */
+    String version(List<TaskOption> tasks, List<ProjectOption> projects, Map<Long, List<PhaseOption>> phasesByProject) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(List.of(tasks, projects, phasesByProject)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("周报填写上下文序列化失败", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final ReportCompositionContext context;
+        private final Set<Long> projectIds;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(ReportCompositionContext context, Set<Long> projectIds) {
+            this.context = context;
+            this.projectIds = Collections.unmodifiableSet(projectIds);
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.common.event.EntityChangedEvent;
+import com.weeklyreport.common.util.WeekFormatHelper;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.weeklyreport.dto.SubmissionCompliance;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 周报提交合规索引
+ * 每个ISO周（{@link WeekFormatHelper#formatIsoWeek}，如 "2026-W42"）一个BitSet，第 userId 位表示该用户当周已提交周报
+ * （周报所属周 week_start 为该周且不是草稿；补交按周报自身的周计，不按 submitted_at），"用户X第W周是否已提交"是一次位读取；
+ * 应提交用户（在职且角色在配置范围内）也是一个BitSet，未提交名单 = 应提交 andNot 已提交，不再对 report_week 文本做连接。
+ * 位图按周懒加载，缓存的位图不可变，周报/用户变化的 {@link EntityChangedEvent} 在事务提交后复制替换；
+ * 其余绕过实体监听的写入（以及修改 report_week 使周报移出原来的周）依靠TTL兜底。
+ */
+@Service
+public class SubmissionComplianceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionComplianceIndex.class);
+
+    private static final int MAX_CACHED_WEEKS = 26;
+
+    private static final String SUBMITTED_USERS_SQL =
+        "SELECT DISTINCT user_id FROM weekly_reports WHERE week_start = ? AND status <> 'DRAFT'";
+
+    private static final String EXPECTED_USERS_SQL =
+        "SELECT id FROM users WHERE status = 'ACTIVE' AND role IN (:roles)";
+
+    private static final String USERS_BY_ID_SQL =
+        "SELECT id, username, email FROM users WHERE id IN (:ids) ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final List<String> expectedRoles;
+    private final long ttlMillis;
+
+    private final ConcurrentHashMap<String, Snapshot> weeks = new ConcurrentHashMap<>();
+    private volatile Snapshot expectedUsers;
+    // 每次失效递增；加载期间发生过变化的结果不写入缓存，避免旧数据覆盖
+    private final AtomicLong generation = new AtomicLong();
+
+    public SubmissionComplianceIndex(JdbcTemplate jdbcTemplate,
+                                     @Value("${weekly-report.compliance.expected-roles:MANAGER}") String[] expectedRoles,
+                                     @Value("${weekly-report.compliance.ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.expectedRoles = List.of(expectedRoles);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 用户在指定ISO周是否已提交周报
+     */
+    public boolean hasSubmitted(Long userId, String isoWeek) {
+        return userId != null && userId <= Integer.MAX_VALUE && submittedUsers(isoWeek).get(userId.intValue());
+    }
+
+    /**
+     * 指定ISO周应提交但尚未提交的用户ID位图（调用方可自由修改）
+     */
+    public BitSet missingUsers(String isoWeek) {
+        BitSet missing = (BitSet) expectedUsers().clone();
+        missing.andNot(submittedUsers(isoWeek));
+        return missing;
+    }
+
+    /**
+     * 指定ISO周的提交情况及未提交名单
+     */
+    public SubmissionCompliance getCompliance(String isoWeek) {
+        LocalDate weekStart = WeekFormatHelper.parseIsoWeek(isoWeek);
+        BitSet expected = expectedUsers();
+        BitSet submitted = (BitSet) expected.clone();
+        submitted.and(submittedUsers(isoWeek));
+        BitSet missing = (BitSet) expected.clone();
+        missing.andNot(submitted);
+
+        List<SubmissionCompliance.MissingUser> missingUsers = new ArrayList<>(missing.cardinality());
+        for (UserContact user : findUsers(missing)) {
+            missingUsers.add(new SubmissionCompliance.MissingUser(user.getId(), user.getUsername()));
+        }
+        return new SubmissionCompliance(isoWeek, weekStart, weekStart.plusDays(6),
+            expected.cardinality(), submitted.cardinality(), missingUsers);
+    }
+
+    /**
+     * 按位图中的用户ID查询用户名和邮箱
+     */
+    public List<UserContact> findUsers(BitSet userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = userIds.stream().mapToObj(Long::valueOf).toList();
+        return namedJdbcTemplate.query(USERS_BY_ID_SQL, new MapSqlParameterSource("ids", ids),
+            (rs, rowNum) -> new UserContact(rs.getLong("id"), rs.getString("username"), rs.getString("email")));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWeeklyReportChanged(EntityChangedEvent<WeeklyReport> event) {
+        onReportChanged(event.getEntity(), event.isRemoved());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(EntityChangedEvent<User> event) {
+        onUserChanged();
+    }
+
+    /**
+     * 周报保存/删除提交后调用：已提交则在已缓存的所属周位图上置位；退回草稿或删除时无法判断同周是否还有其他周报，失效该周
+     */
+    public void onReportChanged(WeeklyReport report, boolean removed) {
+        if (report.getUserId() == null || report.getWeekStart() == null || report.getSubmittedAt() == null) {
+            // 从未提交过的周报不在任何周位图中
+            return;
+        }
+        String isoWeek = WeekFormatHelper.formatIsoWeek(report.getWeekStart());
+        generation.incrementAndGet();
+
+        if (removed || report.getStatus() == WeeklyReport.ReportStatus.DRAFT) {
+            weeks.remove(isoWeek);
+            return;
+        }
+        if (report.getUserId() > Integer.MAX_VALUE) {
+            logger.warn("用户ID超出位图范围，忽略 - 用户: {}", report.getUserId());
+            return;
+        }
+        int bit = report.getUserId().intValue();
+        weeks.computeIfPresent(isoWeek, (key, cached) -> {
+            if (cached.bits.get(bit)) {
+                return cached;
+            }
+            BitSet updated = (BitSet) cached.bits.clone();
+            updated.set(bit);
+            return new Snapshot(updated, cached.loadedAt);
+        });
+    }
+
+    /**
+     * 用户保存/删除提交后调用：状态或角色变化会改变应提交用户集合
+     */
+    public void onUserChanged() {
+        expectedUsers = null;
+        generation.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        weeks.clear();
+        expectedUsers = null;
+        generation.incrementAndGet();
+    }
+
+    private BitSet submittedUsers(String isoWeek) {
+        Snapshot cached = weeks.get(isoWeek);
+        if (cached != null && !cached.isExpired(ttlMillis)) {
+            return cached.bits;
+        }
+
+        LocalDate weekStart = WeekFormatHelper.parseIsoWeek(isoWeek);
+        long loadGeneration = generation.get();
+        BitSet bits = loadBits(SUBMITTED_USERS_SQL, weekStart);
+        Snapshot loaded = new Snapshot(bits, System.currentTimeMillis());
+        if (generation.get() == loadGeneration) {
+            if (weeks.size() >= MAX_CACHED_WEEKS) {
+                // 键按周有序，淘汰最早的一周
+                weeks.keySet().stream().min(String::compareTo).ifPresent(weeks::remove);
+            }
+            // 在键锁内再次比较代数：onReportChanged 先递增代数再改写该键，
+            // 检查与写入之间插入的变更不会被这次加载的旧结果覆盖
+            weeks.compute(isoWeek, (key, current) -> generation.get() == loadGeneration ? loaded : current);
+        }
+        logger.debug("加载周报提交位图 - 周: {}, 已提交: {}", isoWeek, bits.cardinality());
+        return bits;
+    }
+
+    private BitSet expectedUsers() {
+        Snapshot cached = expectedUsers;
+        if (cached != null && !cached.isExpired(ttlMillis)) {
+            return cached.bits;
+        }
+
+        long loadGeneration = generation.get();
+        BitSet bits = new BitSet();
+        namedJdbcTemplate.query(EXPECTED_USERS_SQL, new MapSqlParameterSource("roles", expectedRoles),
+            rs -> {
+                setBit(bits, rs.getLong(1));
+            });
+        if (generation.get() == loadGeneration) {
+            expectedUsers = new Snapshot(bits, System.currentTimeMillis());
+        }
+        return bits;
+    }
+
+    private BitSet loadBits(String sql, Object... args) {
+        BitSet bits = new BitSet();
+        jdbcTemplate.query(sql, rs -> {
+            setBit(bits, rs.getLong(1));
+        }, args);
+        return bits;
+    }
+
+    private static void setBit(BitSet bits, long userId) {
+        if (userId > 0 && userId <= Integer.MAX_VALUE) {
+            bits.set((int) userId);
+        }
+    }
+
+    /**
+     * 用户联系信息（提醒发送和未提交名单使用）
+     */
+    public static class UserContact {
+
+        private final Long id;
+        private final String username;
+        private final String email;
+
+        public UserContact(Long id, String username, String email) {
+            this.id = id;
+            this.username = username;
+            this.email = email;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+    }
+
+    /**
+     * 不可变位图快照，更新时复制后整体替换
+     */
+    private static final class Snapshot {
+
+        private final BitSet bits;
+        private final long loadedAt;
+
+        private Snapshot(BitSet bits, long loadedAt) {
+            this.bits = bits;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.common.util.WeekFormatHelper;
+import com.weeklyreport.notification.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+
+/**
+ * 周报提交提醒
+ * 定时从 {@link SubmissionComplianceIndex} 取出本周应提交但尚未提交的用户，写入通知发件箱。
+ * 同一ISO周每人只提醒一次：weekly_submission_reminders 插入成功的用户才发送，多实例同时运行或任务重跑不会重复提醒。
+ */
+@Service
+public class SubmissionReminderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionReminderService.class);
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("M月d日");
+
+    private static final String CLAIM_SQL =
+        "INSERT IGNORE INTO weekly_submission_reminders (iso_week, user_id) VALUES (?, ?)";
+
+    private final SubmissionComplianceIndex complianceIndex;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubmissionReminderService(SubmissionComplianceIndex complianceIndex,
+                                     NotificationService notificationService,
+                                     JdbcTemplate jdbcTemplate) {
+        this.complianceIndex = complianceIndex;
+        this.notificationService = notificationService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(cron = "${weekly-report.compliance.reminder-cron:0 0 16 * * FRI}")
+    public void runWeeklyReminder() {
+        try {
+            remind(WeekFormatHelper.formatIsoWeek(LocalDate.now()));
+        } catch (Exception e) {
+            logger.error("周报提交提醒任务失败", e);
+        }
+    }
+
+    /**
+     * 提醒指定ISO周尚未提交周报的用户
+     *
+     * @return 本次新写入发件箱的提醒数
+     */
+    public int remind(String isoWeek) {
+        BitSet missing = complianceIndex.missingUsers(isoWeek);
+        if (missing.isEmpty()) {
+            logger.info("周报提交提醒 - 周: {}, 全部已提交", isoWeek);
+            return 0;
+        }
+
+        LocalDate weekStart = WeekFormatHelper.parseIsoWeek(isoWeek);
+        String weekLabel = String.format("%s（%s - %s）", isoWeek,
+            weekStart.format(DAY), weekStart.plusDays(6).format(DAY));
+
+        int sent = 0;
+        for (SubmissionComplianceIndex.UserContact user : complianceIndex.findUsers(missing)) {
+            if (user.getEmail() == null || user.getEmail().isBlank()) {
+                continue;
+            }
+            if (jdbcTemplate.update(CLAIM_SQL, isoWeek, user.getId()) == 0) {
+                continue;
+            }
+            try {
+                notificationService.enqueueSubmissionReminder(user.getId(), user.getUsername(), user.getEmail(), weekLabel);
+                sent++;
+            } catch (Exception e) {
+                // 释放认领，下次运行时重试
+                jdbcTemplate.update("DELETE FROM weekly_submission_reminders WHERE iso_week = ? AND user_id = ?",
+                    isoWeek, user.getId());
+                logger.warn("周报提交提醒写入失败 - 周: {}, 用户: {}", isoWeek, user.getId(), e);
+            }
+        }
+        logger.info("周报提交提醒 - 周: {}, 未提交: {}, 本次提醒: {}", isoWeek, missing.cardinality(), sent);
+        return sent;
+    }
+}
@@ -6,7 +6,6 @@ import com.weeklyreport.ai.service.AIAnalysisService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,8 +26,8 @@ public class WeeklyReportAIService {
     @Autowired
     private AIAnalysisService aiAnalysisService;
 
-    @Value("${weekly-report.ai.confidence-threshold:0.7}")
-    private double weeklyReportConfidenceThreshold;
+    @Autowired
+    private WeeklyReportStatusManager statusManager;
 
     /**
      * 启动AI分析流程
@@ -44,61 +43,17 @@ public class WeeklyReportAIService {
         }
 
         try {
-            // 调用AI分析服务
-            com.weeklyreport.ai.entity.AIAnalysisResult analysisResult = 
-                aiAnalysisService.analyzeWeeklyReportSync(report);
-            
-            // 解析AI分析结果并更新周报
-            processAIResult(report, analysisResult);
-            
-            // 保存更新后的周报
-            weeklyReportRepository.save(report);
-            
+            // 调用AI分析服务；状态转换由WeeklyReportStatusManager在分析结果提交后经状态机完成
+            aiAnalysisService.analyzeWeeklyReportSync(report);
             logger.info("AI分析完成，周报ID: {}", reportId);
             
         } catch (Exception e) {
             logger.error("AI分析失败，周报ID: {}", reportId, e);
-            report.aiReject("AI分析失败: " + e.getMessage());
-            weeklyReportRepository.save(report);
+            statusManager.processAIAnalysisFailure(reportId, "AI分析失败: " + e.getMessage());
             throw new RuntimeException("AI分析失败", e);
         }
     }
 
-    /**
-     * 处理AI分析结果
-     */
-    private void processAIResult(WeeklyReport report, com.weeklyreport.ai.entity.AIAnalysisResult analysisResult) {
-        // 设置AI分析结果ID - AI分析时间等信息存储在AIAnalysisResult实体中
-        report.setAiAnalysisId(analysisResult.getId());
-
-        // 统一格式的调试日志
-        Double confidence = analysisResult.getConfidence() != null ? analysisResult.getConfidence() : 0.0;
-        boolean completed = analysisResult.getStatus() == com.weeklyreport.ai.entity.AIAnalysisResult.AnalysisStatus.COMPLETED;
-        boolean shouldApprove = completed && analysisResult.getConfidence() != null &&
-            analysisResult.getConfidence() >= weeklyReportConfidenceThreshold;
-
-        String logPattern = "🔍[状态检查] 周报ID={}, 状态={}, 置信度={}, 阈值={}, 决策={}, 触发点={}";
-        String decision = shouldApprove ? "APPROVE" : "REJECT";
-        logger.info(logPattern, report.getId(),
-            report.getStatus(),
-            confidence, weeklyReportConfidenceThreshold, decision,
-            "WeeklyReportAIService.processAIResult");
-
-        // 根据AI分析结果决定审批状态 (统一使用0.7阈值)
-        if (shouldApprove) {
-            report.aiApprove();
-            logger.info("✅ AI分析通过，置信度: {}，已转入待审核", analysisResult.getConfidence());
-        } else {
-            String rejectionReason = String.format(
-                "AI分析置信度过低: %.0f%%，需要改进内容质量 (阈值: %.0f%%)",
-                confidence * 100,
-                weeklyReportConfidenceThreshold * 100
-            );
-            report.aiReject(rejectionReason);
-            logger.info("🚫 AI分析置信度不足: {}，已拒绝", confidence);
-        }
-    }
-
     /**
      * 计算内容质量评分 - 备用方法，通常由AI服务提供评分
      */
@@ -0,0 +1,130 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
+import com.weeklyreport.notification.event.WeeklyReportsBulkReviewedEvent;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 周报批量审批
+ * 一次 SELECT ... FOR UPDATE 取出并锁定全部周报的当前状态做逐条校验，再用一条带状态条件的 UPDATE 完成状态变更；
+ * 锁持有到事务提交，校验通过的周报不会在 UPDATE 前被并发审批。整批只发布一个通知事件。
+ */
+@Service
+public class WeeklyReportBulkReviewService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeeklyReportBulkReviewService.class);
+
+    private final WeeklyReportRepository weeklyReportRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WeeklyReportBulkReviewService(WeeklyReportRepository weeklyReportRepository,
+                                         UserRepository userRepository,
+                                         ApplicationEventPublisher eventPublisher) {
+        this.weeklyReportRepository = weeklyReportRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 批量管理员审批通过：ADMIN_REVIEWING → APPROVED
+     */
+    @Transactional
+    public BulkReviewResult approve(BulkReviewRequest request, User reviewer) {
+        return review(request.distinctIds(), reviewer, true, null);
+    }
+
+    /**
+     * 批量拒绝：ADMIN_REVIEWING → REJECTED
+     */
+    @Transactional
+    public BulkReviewResult reject(BulkReviewRequest request, User reviewer) {
+        String reason = request.getReason() != null ? request.getReason().trim() : "";
+        if (reason.isEmpty()) {
+            throw new IllegalArgumentException("批量拒绝必须填写拒绝理由");
+        }
+        return review(request.distinctIds(), reviewer, false, reason);
+    }
+
+    private BulkReviewResult review(List<Long> ids, User reviewer, boolean approve, String reason) {
+        WeeklyReport.ReportStatus fromStatus = WeeklyReport.ReportStatus.ADMIN_REVIEWING;
+        WeeklyReport.ReportStatus toStatus = approve ? WeeklyReport.ReportStatus.APPROVED : WeeklyReport.ReportStatus.REJECTED;
+
+        Map<Long, Object[]> snapshots = new HashMap<>();
+        for (Object[] row : weeklyReportRepository.findReviewSnapshotsByIdIn(ids)) {
+            snapshots.put((Long) row[0], row);
+        }
+        List<Long> candidates = ids.stream()
+            .filter(id -> snapshots.containsKey(id) && snapshots.get(id)[1] == fromStatus)
+            .collect(Collectors.toList());
+
+        if (!candidates.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = approve
+                ? weeklyReportRepository.approveBatch(candidates, fromStatus, toStatus, reviewer.getId(), now)
+                : weeklyReportRepository.rejectBatch(candidates, fromStatus, toStatus,
+                    reviewer.isSuperAdmin() ? WeeklyReport.RejectedBy.SUPER_ADMIN : WeeklyReport.RejectedBy.ADMIN,
+                    reason, reviewer.getId(), now);
+            // 候选行已被锁定，UPDATE 必然全部命中；否则说明加锁失效，整批回滚
+            if (updated != candidates.size()) {
+                throw new IllegalStateException("批量审批更新行数不一致: 期望 " + candidates.size() + ", 实际 " + updated);
+            }
+        }
+
+        BulkReviewResult result = new BulkReviewResult(toStatus.name());
+        List<Object[]> reviewed = new ArrayList<>();
+        for (Long id : ids) {
+            Object[] snapshot = snapshots.get(id);
+            if (snapshot == null) {
+                result.add(id, BulkReviewResult.Outcome.NOT_FOUND, null);
+            } else if (snapshot[1] != fromStatus) {
+                result.add(id, BulkReviewResult.Outcome.INVALID_STATUS, ((WeeklyReport.ReportStatus) snapshot[1]).name());
+            } else {
+                result.add(id, BulkReviewResult.Outcome.SUCCESS, toStatus.name());
+                reviewed.add(snapshot);
+            }
+        }
+
+        logger.info("周报批量{} - 审批人: {}, 请求: {}, 成功: {}", approve ? "审批通过" : "拒绝",
+                    reviewer.getId(), ids.size(), result.getSuccessCount());
+        if (!reviewed.isEmpty()) {
+            eventPublisher.publishEvent(new WeeklyReportsBulkReviewedEvent(
+                this, approve, toReviewedReports(reviewed), reason, reviewer.getId(), reviewer.getUsername()));
+        }
+        return result;
+    }
+
+    private List<WeeklyReportsBulkReviewedEvent.ReviewedReport> toReviewedReports(List<Object[]> snapshots) {
+        Set<Long> authorIds = snapshots.stream().map(row -> (Long) row[4]).collect(Collectors.toSet());
+        Map<Long, User> authors = userRepository.findAllById(authorIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<WeeklyReportsBulkReviewedEvent.ReviewedReport> reports = new ArrayList<>(snapshots.size());
+        for (Object[] row : snapshots) {
+            Long authorId = (Long) row[4];
+            User author = authors.get(authorId);
+            reports.add(new WeeklyReportsBulkReviewedEvent.ReviewedReport(
+                (Long) row[0], (String) row[2], (String) row[3], authorId,
+                author != null ? author.getUsername() : "用户" + authorId));
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,140 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.weeklyreport.dto.WeeklyReportCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 周报计数维护
+ * 评论数、附件数、任务行数保存在 weekly_report_stats，由写操作在各自事务内增减或重算，
+ * 列表接口按本页周报ID一次读出全部计数。计数行不存在时按需插入（upsert），
+ * 夜间对账任务按主键分批重算，修正绕过服务层的写入造成的偏差。
+ */
+@Service
+public class WeeklyReportCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeeklyReportCounterService.class);
+
+    private static final String ADJUST_COMMENT_SQL =
+        "INSERT INTO weekly_report_stats (weekly_report_id, comment_count) VALUES (?, GREATEST(?, 0)) " +
+        "ON DUPLICATE KEY UPDATE comment_count = GREATEST(comment_count + ?, 0)";
+
+    private static final String ADJUST_ATTACHMENT_SQL =
+        "INSERT INTO weekly_report_stats (weekly_report_id, attachment_count) VALUES (?, GREATEST(?, 0)) " +
+        "ON DUPLICATE KEY UPDATE attachment_count = GREATEST(attachment_count + ?, 0)";
+
+    private static final String REFRESH_TASK_LINES_SQL =
+        "INSERT INTO weekly_report_stats (weekly_report_id, task_line_count, dev_task_line_count) " +
+        "SELECT ?, (SELECT COUNT(*) FROM task_reports t WHERE t.weekly_report_id = ?), " +
+        "          (SELECT COUNT(*) FROM dev_task_reports d WHERE d.weekly_report_id = ?) " +
+        "ON DUPLICATE KEY UPDATE task_line_count = VALUES(task_line_count), " +
+        "                        dev_task_line_count = VALUES(dev_task_line_count)";
+
+    // 值未变化的行不会被改写
+    private static final String RECONCILE_SQL =
+        "INSERT INTO weekly_report_stats (weekly_report_id, comment_count, attachment_count, task_line_count, dev_task_line_count) " +
+        "SELECT w.id, " +
+        "       (SELECT COUNT(*) FROM weekly_report_comments c WHERE c.weekly_report_id = w.id AND c.status = 'ACTIVE'), " +
+        "       (SELECT COUNT(*) FROM weekly_report_attachments a JOIN file_attachments f ON f.id = a.file_attachment_id " +
+        "         WHERE a.weekly_report_id = w.id AND f.deleted_at IS NULL), " +
+        "       (SELECT COUNT(*) FROM task_reports t WHERE t.weekly_report_id = w.id), " +
+        "       (SELECT COUNT(*) FROM dev_task_reports d WHERE d.weekly_report_id = w.id) " +
+        "FROM weekly_reports w WHERE w.id > ? AND w.id <= ? " +
+        "ON DUPLICATE KEY UPDATE comment_count = VALUES(comment_count), " +
+        "                        attachment_count = VALUES(attachment_count), " +
+        "                        task_line_count = VALUES(task_line_count), " +
+        "                        dev_task_line_count = VALUES(dev_task_line_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int reconcileBatchSize;
+
+    public WeeklyReportCounterService(JdbcTemplate jdbcTemplate,
+                                      @Value("${weekly-report.counters.reconcile-batch-size:500}") int reconcileBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+
+    /**
+     * 评论新增（+1）或软删除（-1），在调用方事务内执行
+     */
+    public void adjustCommentCount(Long weeklyReportId, int delta) {
+        jdbcTemplate.update(ADJUST_COMMENT_SQL, weeklyReportId, delta, delta);
+    }
+
+    /**
+     * 附件关联新增（+1）或文件软删除（-1），在调用方事务内执行
+     */
+    public void adjustAttachmentCount(Long weeklyReportId, int delta) {
+        jdbcTemplate.update(ADJUST_ATTACHMENT_SQL, weeklyReportId, delta, delta);
+    }
+
+    /**
+     * 重算任务行数。周报创建/修改时任务行整体重写，按周报ID重新计数比逐行增减更不易出错；
+     * 两张表都以 weekly_report_id 开头建索引，计数只扫描本周报的索引范围。
+     * 调用前需先 flush，让本事务内新写入的任务行对计数可见
+     */
+    public void refreshTaskLineCounts(Long weeklyReportId) {
+        jdbcTemplate.update(REFRESH_TASK_LINES_SQL, weeklyReportId, weeklyReportId, weeklyReportId);
+    }
+
+    /**
+     * 按周报ID批量读取计数，没有计数行的周报不在结果中
+     */
+    public Map<Long, WeeklyReportCounters> loadCounters(Collection<Long> weeklyReportIds) {
+        Map<Long, WeeklyReportCounters> counters = new HashMap<>();
+        if (weeklyReportIds.isEmpty()) {
+            return counters;
+        }
+        namedJdbcTemplate.query(
+            "SELECT weekly_report_id, comment_count, attachment_count, task_line_count, dev_task_line_count " +
+            "FROM weekly_report_stats WHERE weekly_report_id IN (:ids)",
+            new MapSqlParameterSource("ids", weeklyReportIds),
+            rs -> {
+                counters.put(rs.getLong("weekly_report_id"), new WeeklyReportCounters(
+                    rs.getInt("comment_count"), rs.getInt("attachment_count"),
+                    rs.getInt("task_line_count"), rs.getInt("dev_task_line_count")));
+            });
+        return counters;
+    }
+
+    @Scheduled(cron = "${weekly-report.counters.reconcile-cron:0 15 3 * * ?}")
+    public void runNightlyReconciliation() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            logger.error("周报计数对账失败", e);
+        }
+    }
+
+    /**
+     * 按主键区间分批重算全部周报的计数，每批一条语句、单独提交，不长时间持有锁
+     * @return 受影响行数（MySQL 对补建计1、修正计2、未变化计0）
+     */
+    public int reconcile() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM weekly_reports", Long.class);
+        int affected = 0;
+        for (long lowerId = 0; lowerId < maxId; lowerId += reconcileBatchSize) {
+            affected += jdbcTemplate.update(RECONCILE_SQL, lowerId, lowerId + reconcileBatchSize);
+        }
+        logger.info("周报计数对账完成 - 最大周报ID: {}, 受影响行数: {}", maxId, affected);
+        return affected;
+    }
+
+    static WeeklyReportCounters countersOf(Map<Long, WeeklyReportCounters> counters, Long weeklyReportId) {
+        WeeklyReportCounters value = counters.get(weeklyReportId);
+        return value != null ? value : new WeeklyReportCounters();
+    }
+}
@@ -0,0 +1,156 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.export.ExportFormat;
+import com.weeklyreport.weeklyreport.export.ExportRowWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 周报导出
+ * 一条SQL按周报ID顺序输出周报行及其日常任务行、发展任务行，MySQL驱动以流式结果集逐行读取（只进游标），
+ * 每读一行直接写入CSV/XLSX输出流，不构建实体或DTO对象图，内存占用与导出行数无关。
+ */
+@Service
+public class WeeklyReportExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeeklyReportExportService.class);
+
+    public static final List<String> HEADER = List.of(
+        "周报ID", "周期", "提交人", "标题", "状态", "提交时间", "通过时间",
+        "类型", "任务/项目", "项目阶段", "周次", "实际结果/其他备注", "结果差异分析/可发展性清单");
+
+    private static final String SHEET_NAME = "周报";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String REPORT_COLUMNS =
+        "w.id AS report_id, w.report_week, u.username, w.title, w.status, w.submitted_at, w.approved_at, ";
+
+    // 周报行（line_order=0）后依次是日常任务行（1）和发展任务行（2）；%s 为三段共用的过滤条件
+    private static final String EXPORT_SQL =
+        "SELECT " + REPORT_COLUMNS +
+        "       '周报' AS line_type, NULL AS item_name, NULL AS phase_name, NULL AS week_label, " +
+        "       w.additional_notes AS content, w.development_opportunities AS remark, 0 AS line_order " +
+        "FROM weekly_reports w JOIN users u ON u.id = w.user_id " +
+        "WHERE %1$s " +
+        "UNION ALL " +
+        "SELECT " + REPORT_COLUMNS +
+        "       '日常任务', t.task_name, NULL, CASE WHEN tr.is_week THEN '本周' ELSE '下周' END, " +
+        "       tr.actual_results, tr.result_difference_analysis, 1 " +
+        "FROM weekly_reports w JOIN users u ON u.id = w.user_id " +
+        "JOIN task_reports tr ON tr.weekly_report_id = w.id " +
+        "JOIN tasks t ON t.id = tr.task_id " +
+        "WHERE %1$s " +
+        "UNION ALL " +
+        "SELECT " + REPORT_COLUMNS +
+        "       '发展任务', p.name, ph.phase_name, CASE WHEN d.is_week THEN '本周' ELSE '下周' END, " +
+        "       d.actual_results, d.result_difference_analysis, 2 " +
+        "FROM weekly_reports w JOIN users u ON u.id = w.user_id " +
+        "JOIN dev_task_reports d ON d.weekly_report_id = w.id " +
+        "JOIN projects p ON p.id = d.project_id " +
+        "LEFT JOIN project_phases ph ON ph.id = d.phases_id " +
+        "WHERE %1$s " +
+        "ORDER BY report_id, line_order";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public WeeklyReportExportService(DataSource dataSource) {
+        this(streamingTemplate(dataSource));
+    }
+
+    WeeklyReportExportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 导出创建时间在 [from, to] 内的周报，逐行写入 out
+     *
+     * @param status 为空时导出全部状态
+     * @return 写出的数据行数（不含表头）
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, LocalDate from, LocalDate to, WeeklyReport.ReportStatus status,
+                       OutputStream out) throws IOException {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("导出时间范围无效");
+        }
+
+        String where = "w.created_at >= ? AND w.created_at < ?" + (status != null ? " AND w.status = ?" : "");
+        List<Object> segmentArgs = new ArrayList<>();
+        segmentArgs.add(from.atStartOfDay());
+        segmentArgs.add(to.plusDays(1).atStartOfDay());
+        if (status != null) {
+            segmentArgs.add(status.name());
+        }
+        List<Object> args = new ArrayList<>();
+        for (int segment = 0; segment < 3; segment++) {
+            args.addAll(segmentArgs);
+        }
+
+        long started = System.currentTimeMillis();
+        long[] rows = {0};
+        try (ExportRowWriter writer = format.open(out, SHEET_NAME, HEADER)) {
+            RowCallbackHandler handler = rs -> {
+                try {
+                    writer.writeRow(readRow(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            };
+            try {
+                jdbcTemplate.query(String.format(EXPORT_SQL, where), handler, args.toArray());
+            } catch (UncheckedIOException e) {
+                // 客户端断开等输出错误，原样抛出以便调用方区分
+                throw e.getCause();
+            }
+            writer.finish();
+        }
+
+        logger.info("周报导出完成 - 格式: {}, 范围: {} ~ {}, 状态: {}, 行数: {}, 耗时: {}ms",
+                    format, from, to, status, rows[0], System.currentTimeMillis() - started);
+        return rows[0];
+    }
+
+    private static Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] values = new Object[HEADER.size()];
+        for (int i = 0; i < values.length; i++) {
+            Object value = rs.getObject(i + 1);
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            }
+            values[i] = value instanceof LocalDateTime dateTime ? DATE_TIME.format(dateTime) : value;
+        }
+        return values;
+    }
+
+    /**
+     * fetchSize = Integer.MIN_VALUE 时 MySQL Connector/J 对只进、只读语句逐行流式读取结果集，
+     * 不会把整个结果集缓存到客户端内存
+     */
+    private static JdbcTemplate streamingTemplate(DataSource dataSource) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(Integer.MIN_VALUE);
+        return template;
+    }
+}
@@ -1,15 +1,12 @@
 package com.weeklyreport.weeklyreport.service;
 
 import com.weeklyreport.notification.event.*;
-import com.weeklyreport.ai.entity.AIAnalysisResult;
-import com.weeklyreport.ai.repository.AIAnalysisResultRepository;
 import com.weeklyreport.weeklyreport.entity.WeeklyReport;
 import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
 import com.weeklyreport.user.entity.User;
 import com.weeklyreport.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,23 +24,18 @@ public class WeeklyReportNotificationService {
     private final WeeklyReportRepository weeklyReportRepository;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
-    private final AIAnalysisResultRepository aiAnalysisResultRepository;
-
-    @Value("${weekly-report.ai.confidence-threshold:0.7}")
-    private double weeklyReportConfidenceThreshold;
 
     public WeeklyReportNotificationService(WeeklyReportRepository weeklyReportRepository,
                                           UserRepository userRepository,
-                                          ApplicationEventPublisher eventPublisher,
-                                          AIAnalysisResultRepository aiAnalysisResultRepository) {
+                                          ApplicationEventPublisher eventPublisher) {
         this.weeklyReportRepository = weeklyReportRepository;
         this.userRepository = userRepository;
         this.eventPublisher = eventPublisher;
-        this.aiAnalysisResultRepository = aiAnalysisResultRepository;
     }
 
     /**
-     * 处理AI分析完成，更新状态并发送通知
+     * 处理AI分析完成，按已提交的状态发送通知
+     * 状态转换由 WeeklyReportStatusManager 经状态机完成，此处只读取结果，不修改周报。
      */
     public void handleAIAnalysisCompleted(Long weeklyReportId) {
         logger.info("📧 处理周报AI分析完成通知，周报ID: {}", weeklyReportId);
@@ -55,36 +47,17 @@ public class WeeklyReportNotificationService {
                 return;
             }
 
-            AIAnalysisResult analysisResult = fetchLatestAnalysisResult(report);
-            if (analysisResult == null) {
-                logger.warn("⚠️ 未找到周报{}的AI分析结果，保持当前状态: {}", weeklyReportId, report.getStatus());
-                return;
-            }
-
-            double confidence = analysisResult.getConfidence() != null ? analysisResult.getConfidence() : 0.0;
-            boolean completed = analysisResult.getStatus() == AIAnalysisResult.AnalysisStatus.COMPLETED;
-
-            // 统一格式的调试日志
-            String logPattern = "🔍[状态检查] 周报ID={}, 当前状态={}, 置信度={}, 阈值={}, 决策={}, 触发点={}";
-            String decision = (completed && confidence >= weeklyReportConfidenceThreshold) ? "APPROVE" : "REJECT";
-            logger.info(logPattern, weeklyReportId, report.getStatus(),
-                confidence, weeklyReportConfidenceThreshold, decision,
-                "WeeklyReportNotificationService.handleAIAnalysisCompleted");
-
-            if (!completed || confidence < weeklyReportConfidenceThreshold) {
-                ensureRejectedStatus(report, analysisResult, confidence);
+            if (report.isRejected() && report.getRejectedBy() == WeeklyReport.RejectedBy.AI) {
+                publishAIRejected(report);
                 return;
             }
-
             if (!report.isPendingReview()) {
-                report.aiApprove();
-                weeklyReportRepository.save(report);
-                logger.info("✅ 周报状态已更新为PENDING_REVIEW，ID: {}, 置信度: {}", weeklyReportId, confidence);
+                logger.warn("⚠️ 周报{}当前状态为{}，不发送AI分析完成通知", weeklyReportId, report.getStatus());
+                return;
             }
 
             // 获取用户信息
-            User author = userRepository.findById(report.getUserId()).orElse(null);
-            String authorName = author != null ? author.getUsername() : "用户" + report.getUserId();
+            String authorName = getUserDisplayName(report.getUserId());
 
             // 发送AI分析完成事件（通知主管）
             WeeklyReportAICompletedEvent aiCompletedEvent = new WeeklyReportAICompletedEvent(
@@ -119,57 +92,18 @@ public class WeeklyReportNotificationService {
         }
     }
 
-    private AIAnalysisResult fetchLatestAnalysisResult(WeeklyReport report) {
-        Long analysisId = report.getAiAnalysisId();
-        if (analysisId == null) {
-            return null;
-        }
-        return aiAnalysisResultRepository.findById(analysisId).orElse(null);
-    }
-
-    private void ensureRejectedStatus(WeeklyReport report, AIAnalysisResult analysisResult, double confidence) {
-        // 设置详细的拒绝原因
-        String suggestion = analysisResult.getResult() != null ? analysisResult.getResult() : "请完善汇报内容后重新提交";
-        String rejectionReason = String.format(
-            "AI分析置信度过低(%.0f%%)，低于阈值(%.0f%%)。建议: %s",
-            confidence * 100,
-            weeklyReportConfidenceThreshold * 100,
-            suggestion
+    private void publishAIRejected(WeeklyReport report) {
+        WeeklyReportAIRejectedEvent rejectedEvent = new WeeklyReportAIRejectedEvent(
+            this,
+            report.getId(),
+            report.getTitle(),
+            report.getReportWeek(),
+            report.getUserId(),
+            getUserDisplayName(report.getUserId()),
+            report.getRejectionReason()
         );
-
-        // 检查是否需要更新状态（避免重复更新）
-        boolean needsStatusUpdate = !report.isRejected() ||
-            report.getRejectionReason() == null ||
-            report.getRejectionReason().isBlank();
-
-        if (needsStatusUpdate) {
-            // 使用实体的aiReject方法
-            report.aiReject(rejectionReason);
-            weeklyReportRepository.save(report);
-            logger.info("🚫 周报ID {} AI分析置信度不足({})，已拒绝", report.getId(), confidence);
-        } else {
-            logger.info("ℹ️ 周报ID {} 已处于拒绝状态，置信度: {}", report.getId(), confidence);
-        }
-
-        // 总是发送AI拒绝通知给提交者（即使已拒绝过）
-        try {
-            User author = userRepository.findById(report.getUserId()).orElse(null);
-            String authorName = author != null ? author.getUsername() : "用户" + report.getUserId();
-
-            WeeklyReportAIRejectedEvent rejectedEvent = new WeeklyReportAIRejectedEvent(
-                this,
-                report.getId(),
-                report.getTitle(),
-                report.getReportWeek(),
-                report.getUserId(),
-                authorName,
-                rejectionReason
-            );
-            eventPublisher.publishEvent(rejectedEvent);
-            logger.info("📧 AI拒绝通知事件已发送，周报ID: {}", report.getId());
-        } catch (Exception e) {
-            logger.error("❌ 发送AI拒绝通知失败，周报ID: {}", report.getId(), e);
-        }
+        eventPublisher.publishEvent(rejectedEvent);
+        logger.info("📧 AI拒绝通知事件已发送，周报ID: {}", report.getId());
     }
 
     /**
@@ -18,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -74,6 +76,12 @@ public class WeeklyReportService {
     @Autowired
     private WeeklyReportNotificationService notificationService;
 
+    @Autowired
+    private WeeklyReportCounterService counterService;
+
+    @Autowired
+    private WeeklyReportStateMachine stateMachine;
+
     /**
      * 创建周报 - 严格按照error3.md第31-67行数据格式处理
      */
@@ -155,6 +163,8 @@ public class WeeklyReportService {
             logger.warn("⚠️ No next week plan found in request for weekly report ID: {}", weeklyReport.getId());
         }
 
+        refreshTaskLineCounts(weeklyReport.getId());
+
         // 6. 草稿创建完成（不触发AI分析）
         logger.info("✅ 周报草稿已创建，周报ID: {}, 用户ID: {}, 状态: {}",
             weeklyReport.getId(), userId, weeklyReport.getStatus());
@@ -211,6 +221,8 @@ public class WeeklyReportService {
             logger.warn("⚠️ 下周规划为空，周报ID: {}", weeklyReport.getId());
         }
 
+        refreshTaskLineCounts(weeklyReport.getId());
+
         // 7. 内容完整性校验（同 submitForReview 方法）
         try {
             validateReportCompleteness(weeklyReport);
@@ -227,9 +239,11 @@ public class WeeklyReportService {
             triggerAIAnalysis(weeklyReport);
         } catch (Exception e) {
             logger.error("🤖 AI分析触发失败，周报ID: {}", weeklyReport.getId(), e);
-            // AI分析失败时拒绝
-            weeklyReport.aiReject("AI分析启动失败: " + e.getMessage());
-            weeklyReportRepository.save(weeklyReport);
+            // AI分析失败时拒绝（同一事务内，经状态机按版本号提交）
+            if (weeklyReport.isAIProcessing()) {
+                stateMachine.apply(weeklyReport, WeeklyReport.ReportStatus.REJECTED,
+                    r -> r.aiReject("AI分析启动失败: " + e.getMessage()));
+            }
             throw new RuntimeException("AI分析启动失败: " + e.getMessage(), e);
         }
 
@@ -544,6 +558,8 @@ public class WeeklyReportService {
             logger.warn("🔧 ⚠️ 更新时没有下周规划内容 - 这会导致下周规划数据丢失");
         }
         
+        refreshTaskLineCounts(reportId);
+
         // 7. 更新完成（草稿状态不变，允许继续编辑）
         // 注意：只有草稿或已拒绝状态的周报才允许更新
         WeeklyReport finalReport = weeklyReportRepository.save(savedReport);
@@ -592,10 +608,11 @@ public class WeeklyReportService {
             ));
         }
 
-        report.setAiAnalysisId(aiAnalysisId);
-        // 调用实体的aiApprove方法
-        report.aiApprove();
-        weeklyReportRepository.save(report);
+        // 调用实体的aiApprove方法，按版本号提交
+        stateMachine.apply(report, WeeklyReport.ReportStatus.ADMIN_REVIEWING, r -> {
+            r.setAiAnalysisId(aiAnalysisId);
+            r.aiApprove();
+        });
     }
 
     /**
@@ -613,17 +630,18 @@ public class WeeklyReportService {
             );
         }
 
-        // 调用实体的approve方法
-        report.approve(adminId);
-        weeklyReportRepository.save(report);
+        // 调用实体的adminApprove方法，按版本号提交
+        stateMachine.apply(report, WeeklyReport.ReportStatus.APPROVED, r -> r.adminApprove(adminId));
 
-        // 触发管理员通过通知
-        try {
-            notificationService.handleAdminApproved(reportId, adminId);
-            logger.info("📧 管理员通过通知已触发，周报ID: {}, 管理员ID: {}", reportId, adminId);
-        } catch (Exception e) {
-            logger.error("📧 ❌ 触发管理员通过通知失败，周报ID: {}", reportId, e);
-        }
+        // 事务提交后触发管理员通过通知，回滚的审核不会通知
+        runAfterCommit(() -> {
+            try {
+                notificationService.handleAdminApproved(reportId, adminId);
+                logger.info("📧 管理员通过通知已触发，周报ID: {}, 管理员ID: {}", reportId, adminId);
+            } catch (Exception e) {
+                logger.error("📧 ❌ 触发管理员通过通知失败，周报ID: {}", reportId, e);
+            }
+        });
     }
 
 
@@ -642,16 +660,33 @@ public class WeeklyReportService {
             );
         }
 
-        // 调用实体的reject方法
-        report.reject(reviewerId, reason, isSuperAdmin);
-        weeklyReportRepository.save(report);
+        // 调用实体的reject方法，按版本号提交
+        stateMachine.apply(report, WeeklyReport.ReportStatus.REJECTED, r -> r.reject(reviewerId, reason, isSuperAdmin));
 
-        // 触发管理员拒绝通知
-        try {
-            notificationService.handleAdminRejected(reportId, reason, reviewerId);
-            logger.info("📧 管理员拒绝通知已触发，周报ID: {}, 管理员ID: {}", reportId, reviewerId);
-        } catch (Exception e) {
-            logger.error("📧 ❌ 触发管理员拒绝通知失败，周报ID: {}", reportId, e);
+        // 事务提交后触发管理员拒绝通知，回滚的审核不会通知
+        runAfterCommit(() -> {
+            try {
+                notificationService.handleAdminRejected(reportId, reason, reviewerId);
+                logger.info("📧 管理员拒绝通知已触发，周报ID: {}, 管理员ID: {}", reportId, reviewerId);
+            } catch (Exception e) {
+                logger.error("📧 ❌ 触发管理员拒绝通知失败，周报ID: {}", reportId, e);
+            }
+        });
+    }
+
+    /**
+     * 有事务时在提交后执行，否则立即执行
+     */
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 
@@ -719,10 +754,31 @@ public class WeeklyReportService {
         // 构建包含详细关联数据的内容结构 - 这是关键的修复！
         logger.info("🔧 修复问题 - 为周报ID {} 构建详细内容", reportId);
         buildContentWithDetails(response, reportId);
+        applyCounters(List.of(response));
 
         return response;
     }
 
+    /**
+     * 一次IN查询为本页周报填充计数
+     */
+    private void applyCounters(List<WeeklyReportDetailResponse> responses) {
+        Map<Long, WeeklyReportCounters> counters = counterService.loadCounters(
+            responses.stream().map(WeeklyReportDetailResponse::getId).toList());
+        for (WeeklyReportDetailResponse response : responses) {
+            response.setCounters(WeeklyReportCounterService.countersOf(counters, response.getId()));
+        }
+    }
+
+    /**
+     * 任务行写入后重算计数，先 flush 让本事务内的任务行对计数语句可见
+     */
+    private void refreshTaskLineCounts(Long weeklyReportId) {
+        taskReportRepository.flush();
+        devTaskReportRepository.flush();
+        counterService.refreshTaskLineCounts(weeklyReportId);
+    }
+
     /**
      * 根据用户查询周报列表
      */
@@ -868,6 +924,7 @@ public class WeeklyReportService {
             }
             
             List<WeeklyReportDetailResponse> result = new ArrayList<>(reportMap.values());
+            applyCounters(result);
             
             // 返回分页结果
             return new PageImpl<>(result, pageable, reportWithAIPage.getTotalElements());
@@ -1141,6 +1198,7 @@ public class WeeklyReportService {
             }
             
             List<WeeklyReportDetailResponse> result = new ArrayList<>(reportMap.values());
+            applyCounters(result);
             
             return new PageImpl<>(result, pageable, reportWithAIPage.getTotalElements());
             
@@ -1246,6 +1304,7 @@ public class WeeklyReportService {
             }
             
             List<WeeklyReportDetailResponse> result = new ArrayList<>(reportMap.values());
+            applyCounters(result);
             
             return new PageImpl<>(result, pageable, reportWithAIPage.getTotalElements());
 
@@ -1324,6 +1383,7 @@ public class WeeklyReportService {
             }
 
             List<WeeklyReportDetailResponse> result = new ArrayList<>(reportMap.values());
+            applyCounters(result);
 
             return new PageImpl<>(result, pageable, reportWithAIPage.getTotalElements());
 
@@ -1386,8 +1446,8 @@ public class WeeklyReportService {
     public WeeklyReport submitForReview(Long reportId) {
         logger.info("📤 开始提交周报审核流程，周报ID: {}", reportId);
 
-        // 1. 使用悲观锁加载周报
-        WeeklyReport report = weeklyReportRepository.findByIdForUpdate(reportId)
+        // 1. 加载周报（不加锁，提交时按版本号检测并发修改）
+        WeeklyReport report = weeklyReportRepository.findById(reportId)
             .orElseThrow(() -> new RuntimeException("周报不存在: " + reportId));
 
         // 2. 状态检查：只能提交草稿或已拒绝
@@ -1402,8 +1462,8 @@ public class WeeklyReportService {
 
         // 4. 提交周报（状态转换）
         logger.info("📤 周报状态转换: {} → AI_PROCESSING, 周报ID: {}", report.getStatus(), reportId);
-        report.submit(); // 调用实体的submit()方法
-        WeeklyReport savedReport = weeklyReportRepository.save(report);
+        WeeklyReport savedReport = stateMachine.apply(report, WeeklyReport.ReportStatus.AI_PROCESSING,
+            WeeklyReport::submit); // 调用实体的submit()方法
 
         logger.info("✅ 周报已提交审核，周报ID: {}, 状态: {}",
             reportId, savedReport.getStatus());
@@ -1414,9 +1474,11 @@ public class WeeklyReportService {
             triggerAIAnalysis(savedReport);
         } catch (Exception e) {
             logger.error("🤖 AI分析触发失败，周报ID: {}", reportId, e);
-            // AI分析失败时拒绝
-            savedReport.aiReject("AI分析启动失败: " + e.getMessage());
-            weeklyReportRepository.save(savedReport);
+            // AI分析失败时拒绝（同一事务内，经状态机按版本号提交）
+            if (savedReport.isAIProcessing()) {
+                stateMachine.apply(savedReport, WeeklyReport.ReportStatus.REJECTED,
+                    r -> r.aiReject("AI分析启动失败: " + e.getMessage()));
+            }
             throw new RuntimeException("AI分析启动失败: " + e.getMessage(), e);
         }
 
@@ -1482,17 +1544,7 @@ public class WeeklyReportService {
                     logger.error("🤖 ❌ 异步AI分析失败，周报ID: {}, 错误: {}",
                                 report.getId(), throwable.getMessage());
 
-                    // 尝试更新周报状态为AI拒绝
-                    try {
-                        WeeklyReport failedReport = weeklyReportRepository.findById(report.getId()).orElse(null);
-                        if (failedReport != null && failedReport.isAIProcessing()) {
-                            failedReport.aiReject("异步AI分析失败: " + throwable.getMessage());
-                            weeklyReportRepository.save(failedReport);
-                            logger.info("🤖 周报状态已更新为REJECTED (异步分析失败)");
-                        }
-                    } catch (Exception e) {
-                        logger.error("🤖 ❌ 更新失败状态时出错", e);
-                    }
+                    // 周报状态已由AIAnalysisService经WeeklyReportStatusManager转为REJECTED并通知提交者
                 } else {
                     logger.info("🤖 ✅ 异步AI分析成功完成，周报ID: {}, 分析结果ID: {}",
                                report.getId(), result != null ? result.getId() : "null");
@@ -1519,8 +1571,8 @@ public class WeeklyReportService {
             // 同步启动失败时，标记为AI拒绝
             try {
                 if (report.isAIProcessing()) {
-                    report.aiReject("异步任务启动失败: " + e.getMessage());
-                    weeklyReportRepository.save(report);
+                    stateMachine.apply(report, WeeklyReport.ReportStatus.REJECTED,
+                        r -> r.aiReject("异步任务启动失败: " + e.getMessage()));
                     logger.info("🤖 周报状态已更新为REJECTED (异步任务启动失败)");
                 }
             } catch (Exception statusException) {
@@ -0,0 +1,123 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport.ReportStatus;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 周报状态机 - 乐观锁比较并设置
+ * 允许的状态转换集中定义在转换表中；转换时不加行锁，提交时由 weekly_reports.version 校验期间没有并发修改，
+ * 冲突时重新加载后再判断，不会出现后提交的一方覆盖先提交的状态。
+ * 通知等后续处理由调用方在事务提交后执行，事务内不做任何外部I/O。
+ */
+@Component
+public class WeeklyReportStateMachine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeeklyReportStateMachine.class);
+
+    private static final Map<ReportStatus, Set<ReportStatus>> TRANSITIONS = new EnumMap<>(ReportStatus.class);
+
+    static {
+        TRANSITIONS.put(ReportStatus.DRAFT, EnumSet.of(ReportStatus.AI_PROCESSING));
+        TRANSITIONS.put(ReportStatus.AI_PROCESSING, EnumSet.of(ReportStatus.ADMIN_REVIEWING, ReportStatus.REJECTED));
+        TRANSITIONS.put(ReportStatus.ADMIN_REVIEWING, EnumSet.of(ReportStatus.APPROVED, ReportStatus.REJECTED));
+        // 被拒绝后重新提交走AI分析；被AI拒绝的周报可强行提交直接进入管理员审核
+        TRANSITIONS.put(ReportStatus.REJECTED, EnumSet.of(ReportStatus.AI_PROCESSING, ReportStatus.ADMIN_REVIEWING));
+        TRANSITIONS.put(ReportStatus.APPROVED, EnumSet.noneOf(ReportStatus.class));
+    }
+
+    private final WeeklyReportRepository weeklyReportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public WeeklyReportStateMachine(WeeklyReportRepository weeklyReportRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${weekly-report.state-machine.max-attempts:3}") int maxAttempts) {
+        this.weeklyReportRepository = weeklyReportRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public static boolean canTransition(ReportStatus from, ReportStatus to) {
+        return from != null && TRANSITIONS.getOrDefault(from, Collections.emptySet()).contains(to);
+    }
+
+    /**
+     * 在调用方事务内转换已加载的周报，立即刷新以便版本冲突在此处暴露
+     * @throws IllegalStateException 转换表不允许，或加载后周报已被其他操作修改
+     */
+    public WeeklyReport apply(WeeklyReport report, ReportStatus target, Consumer<WeeklyReport> mutation) {
+        ReportStatus from = report.getStatus();
+        checkAllowed(report.getId(), from, target);
+        mutation.accept(report);
+        checkReached(report, target);
+        try {
+            WeeklyReport saved = weeklyReportRepository.saveAndFlush(report);
+            logger.info("周报状态转换 - ID: {}, {} → {}", report.getId(), from, target);
+            return saved;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new IllegalStateException("周报状态已被其他操作修改，请刷新后重试", e);
+        }
+    }
+
+    /**
+     * 在独立事务中按ID转换：加载 → 校验来源状态 → 修改 → 按版本号提交，版本冲突时重新加载重试。
+     * 供AI回调、异步任务等不在业务事务中的调用方使用；返回后事务已提交，可直接发送通知。
+     *
+     * @param expected 期望的来源状态，重新加载后已不是该状态时视为已被其他路径处理
+     * @return 转换后的周报；周报不存在或已不处于 expected 状态时返回空
+     */
+    public Optional<WeeklyReport> transition(Long reportId, ReportStatus expected, ReportStatus target,
+                                             Consumer<WeeklyReport> mutation) {
+        checkAllowed(reportId, expected, target);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Optional<WeeklyReport> loaded = weeklyReportRepository.findById(reportId);
+                    if (loaded.isEmpty() || loaded.get().getStatus() != expected) {
+                        logger.info("周报状态转换跳过 - ID: {}, 期望状态: {}, 当前状态: {}", reportId, expected,
+                                    loaded.map(WeeklyReport::getStatus).orElse(null));
+                        return Optional.<WeeklyReport>empty();
+                    }
+                    return Optional.of(apply(loaded.get(), target, mutation));
+                });
+            } catch (IllegalStateException e) {
+                if (!(e.getCause() instanceof ObjectOptimisticLockingFailureException) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.info("周报状态转换版本冲突，重新加载重试 - ID: {}, 第{}次", reportId, attempt);
+            }
+        }
+    }
+
+    private static void checkAllowed(Long reportId, ReportStatus from, ReportStatus target) {
+        if (!canTransition(from, target)) {
+            throw new IllegalStateException(
+                String.format("周报 %d 不允许从 %s 转换为 %s", reportId, from, target));
+        }
+    }
+
+    private static void checkReached(WeeklyReport report, ReportStatus target) {
+        if (report.getStatus() != target) {
+            throw new IllegalStateException(
+                String.format("周报 %d 状态转换结果不符：期望 %s，实际 %s", report.getId(), target, report.getStatus()));
+        }
+    }
+}
@@ -1,88 +1,94 @@
 package com.weeklyreport.weeklyreport.service;
 
 import com.weeklyreport.ai.entity.AIAnalysisResult;
-import com.weeklyreport.ai.repository.AIAnalysisResultRepository;
 import com.weeklyreport.weeklyreport.entity.WeeklyReport;
-import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 /**
- * 周报状态管理器 - 统一状态转换入口
+ * 周报状态管理器 - AI分析结果的唯一状态转换入口
  *
  * 目标：
- * 1. 消除多路径并发更新状态的竞态条件
- * 2. 使用悲观锁保证状态更新的原子性
- * 3. 集中化状态转换逻辑和置信度验证
+ * 1. 消除多路径并发更新状态的竞态条件，AI回调、异步超时/失败都经由此处
+ * 2. 通过 WeeklyReportStateMachine 按版本号比较并设置，不持有行锁，冲突时重新加载重试
+ * 3. 集中化置信度判定，通知在状态提交后发送
  */
 @Service
 public class WeeklyReportStatusManager {
 
     private static final Logger logger = LoggerFactory.getLogger(WeeklyReportStatusManager.class);
 
-    @Value("${weekly-report.ai.confidence-threshold:0.7}")
-    private double confidenceThreshold;
-
-    @Autowired
-    private WeeklyReportRepository weeklyReportRepository;
-
-    @Autowired
-    private AIAnalysisResultRepository aiAnalysisResultRepository;
+    private final WeeklyReportStateMachine stateMachine;
+    private final WeeklyReportNotificationService notificationService;
+    private final double confidenceThreshold;
 
-    @Autowired
-    private WeeklyReportNotificationService notificationService;
+    public WeeklyReportStatusManager(WeeklyReportStateMachine stateMachine,
+                                     WeeklyReportNotificationService notificationService,
+                                     @Value("${weekly-report.ai.confidence-threshold:0.7}") double confidenceThreshold) {
+        this.stateMachine = stateMachine;
+        this.notificationService = notificationService;
+        this.confidenceThreshold = confidenceThreshold;
+    }
 
     /**
-     * 处理AI分析结果 - 统一入口（使用悲观锁）
+     * 处理AI分析结果
+     * 状态转换在独立的短事务中完成，与管理员操作并发时由版本号判定先后；
+     * 周报已不在 AI_PROCESSING（例如已被其他回调处理）时直接跳过，不重复通知。
+     * 分析结果必须已提交：weekly_reports.ai_analysis_id 外键引用该结果。
      *
      * @param reportId 周报ID
-     * @param analysisResultId AI分析结果ID
+     * @param result 已保存的AI分析结果
+     * @return 转换后的周报；已被其他路径处理时返回空
      */
-    @Transactional
-    public void processAIAnalysisResult(Long reportId, Long analysisResultId) {
-        logger.info("🔒 [状态管理器] 开始处理AI分析结果，周报ID: {}, 分析结果ID: {}", reportId, analysisResultId);
-
-        // 1. 使用悲观锁加载周报（防止并发修改）
-        WeeklyReport report = weeklyReportRepository.findByIdForUpdate(reportId)
-            .orElseThrow(() -> new RuntimeException("周报不存在: " + reportId));
-
-        // 2. 加载AI分析结果
-        AIAnalysisResult result = aiAnalysisResultRepository.findById(analysisResultId)
-            .orElseThrow(() -> new RuntimeException("AI分析结果不存在: " + analysisResultId));
-
-        // 3. 记录状态转换前的状态
-        WeeklyReport.ReportStatus currentStatus = report.getStatus();
-        logger.info("📝 [状态管理器] 当前状态: {}, 分析状态: {}, 置信度: {}",
-            currentStatus, result.getStatus(), result.getConfidence());
-
-        // 4. 验证只能从AI_PROCESSING状态转换
-        if (currentStatus != WeeklyReport.ReportStatus.AI_PROCESSING) {
-            logger.warn("⚠️ [状态管理器] 周报ID {} 不在AI_PROCESSING状态，当前状态: {}, 跳过处理",
-                reportId, currentStatus);
-            return;
-        }
+    public Optional<WeeklyReport> processAIAnalysisResult(Long reportId, AIAnalysisResult result) {
+        logger.info("[状态管理器] 开始处理AI分析结果，周报ID: {}, 分析结果ID: {}, 分析状态: {}, 置信度: {}",
+            reportId, result.getId(), result.getStatus(), result.getConfidence());
+
+        // 统一判断逻辑，按版本号比较并设置 AI_PROCESSING → ADMIN_REVIEWING / REJECTED
+        Optional<WeeklyReport> updated = shouldApprove(result)
+            ? stateMachine.transition(reportId, WeeklyReport.ReportStatus.AI_PROCESSING,
+                WeeklyReport.ReportStatus.ADMIN_REVIEWING, report -> approveByAI(report, result))
+            : stateMachine.transition(reportId, WeeklyReport.ReportStatus.AI_PROCESSING,
+                WeeklyReport.ReportStatus.REJECTED, report -> rejectByAI(report, result));
+
+        return notifyTransitioned(reportId, updated);
+    }
+
+    /**
+     * AI分析失败或超时，拒绝仍处于 AI_PROCESSING 的周报
+     *
+     * @param reason 拒绝原因，展示给提交者
+     * @return 转换后的周报；已被其他路径处理时返回空
+     */
+    public Optional<WeeklyReport> processAIAnalysisFailure(Long reportId, String reason) {
+        logger.info("[状态管理器] AI分析失败，周报ID: {}, 原因: {}", reportId, reason);
 
-        // 5. 设置AI分析结果ID
-        report.setAiAnalysisId(analysisResultId);
+        Optional<WeeklyReport> updated = stateMachine.transition(reportId, WeeklyReport.ReportStatus.AI_PROCESSING,
+            WeeklyReport.ReportStatus.REJECTED, report -> report.aiReject(reason));
 
-        // 6. 统一判断逻辑
-        if (shouldApprove(result)) {
-            // AI分析通过 → PENDING_REVIEW
-            approveByAI(report, result);
-        } else {
-            // AI分析未通过 → REJECTED
-            rejectByAI(report, result);
-        }
+        return notifyTransitioned(reportId, updated);
+    }
 
-        // 7. 保存更新（悲观锁会在事务提交时释放）
-        weeklyReportRepository.save(report);
+    private Optional<WeeklyReport> notifyTransitioned(Long reportId, Optional<WeeklyReport> updated) {
+        if (updated.isEmpty()) {
+            logger.warn("⚠️ [状态管理器] 周报ID {} 不存在或已不在AI_PROCESSING状态，跳过处理", reportId);
+            return updated;
+        }
+        logger.info("✅ [状态管理器] 状态更新完成，周报ID: {}, 状态: AI_PROCESSING → {}",
+            reportId, updated.get().getStatus());
 
-        logger.info("✅ [状态管理器] 状态更新完成，周报ID: {}, 状态: {} → {}",
-            reportId, currentStatus, report.getStatus());
+        // 状态已提交，再发送通知
+        try {
+            notificationService.handleAIAnalysisCompleted(reportId);
+        } catch (Exception e) {
+            logger.error("❌ [状态管理器] 发送AI分析通知失败，周报ID: {}", reportId, e);
+            // 不抛出异常，状态已经提交
+        }
+        return updated;
     }
 
     /**
@@ -111,49 +117,38 @@ public class WeeklyReportStatusManager {
      * AI批准流程
      */
     private void approveByAI(WeeklyReport report, AIAnalysisResult result) {
-        Double confidence = result.getConfidence();
-        logger.info("✅ [AI批准] 周报ID: {}, 置信度: {}", report.getId(), confidence);
+        logger.info("✅ [AI批准] 周报ID: {}, 置信度: {}", report.getId(), result.getConfidence());
 
+        report.setAiAnalysisId(result.getId());
         // 清除拒绝原因
         report.setRejectionReason(null);
-
         // 调用实体的状态转换方法
-        try {
-            report.aiApprove();
-        } catch (IllegalStateException e) {
-            // 理论上不应该发生，因为已经预先检查过了
-            logger.error("❌ [AI批准] 状态转换失败: {}", e.getMessage());
-            throw e;
-        }
-
-        // 发送通知
-        try {
-            notificationService.handleAIAnalysisCompleted(report.getId());
-        } catch (Exception e) {
-            logger.error("❌ [AI批准] 发送通知失败: {}", e.getMessage(), e);
-            // 不抛出异常，避免影响状态更新
-        }
+        report.aiApprove();
     }
 
     /**
      * AI拒绝流程
      */
     private void rejectByAI(WeeklyReport report, AIAnalysisResult result) {
-        Double confidence = result.getConfidence() != null ? result.getConfidence() : 0.0;
-        String summary = result.getResult() != null ? result.getResult() : "AI分析建议请参考详情";
-
-        logger.info("🚫 [AI拒绝] 周报ID: {}, 置信度: {}, 原因: {}",
-            report.getId(), confidence, summary);
+        String reason;
+        if (result.getStatus() != AIAnalysisResult.AnalysisStatus.COMPLETED) {
+            reason = "AI分析失败: " + (result.getErrorMessage() != null ? result.getErrorMessage() : "AI分析失败");
+        } else {
+            Double confidence = result.getConfidence() != null ? result.getConfidence() : 0.0;
+            String summary = result.getResult() != null ? result.getResult() : "AI分析建议请参考详情";
+            // 设置详细的拒绝原因
+            reason = String.format(
+                "AI分析置信度过低: %.0f%% (阈值: %.0f%%)。建议: %s",
+                confidence * 100,
+                confidenceThreshold * 100,
+                summary
+            );
+        }
 
-        // 设置详细的拒绝原因
-        String reason = String.format(
-            "AI分析置信度过低: %.0f%% (阈值: %.0f%%)。建议: %s",
-            confidence * 100,
-            confidenceThreshold * 100,
-            summary
-        );
+        logger.info("🚫 [AI拒绝] 周报ID: {}, 原因: {}", report.getId(), reason);
 
         // 使用实体的状态转换方法
+        report.setAiAnalysisId(result.getId());
         report.aiReject(reason);
     }
 
@@ -163,15 +158,4 @@ public class WeeklyReportStatusManager {
     public double getConfidenceThreshold() {
         return confidenceThreshold;
     }
-
-    /**
-     * 检查周报状态是否可以接受AI分析结果
-     */
-    public boolean canProcessAIResult(Long reportId) {
-        WeeklyReport report = weeklyReportRepository.findById(reportId).orElse(null);
-        if (report == null) {
-            return false;
-        }
-        return report.getStatus() == WeeklyReport.ReportStatus.AI_PROCESSING;
-    }
 }
@@ -17,6 +17,8 @@ CREATE TABLE ai_analysis_results (
     confidence DECIMAL(3,2) COMMENT '置信度',
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态',
     processing_time_ms BIGINT COMMENT '处理时间(毫秒)',
+    prompt_tokens INT NULL COMMENT '提示词token数',
+    completion_tokens INT NULL COMMENT '生成token数',
     model_version VARCHAR(100) COMMENT '模型版本',
     parameters TEXT COMMENT '分析参数',
     error_message TEXT COMMENT '错误信息',
@@ -82,7 +84,11 @@ CREATE TABLE projects (
     INDEX idx_projects_created_by (created_by),
     INDEX idx_projects_approval_status (approval_status),
     INDEX idx_projects_name (name(100)),  -- TEXT字段索引需要指定长度
-    INDEX idx_projects_ai_analysis (ai_analysis_id)
+    INDEX idx_projects_ai_analysis (ai_analysis_id),
+    INDEX idx_projects_status_created (approval_status, created_at, id),  -- 审核队列分页
+    INDEX idx_projects_created (created_at),  -- 按创建日期重算审批汇总
+    INDEX idx_projects_admin_reviewer_created (admin_reviewer_id, created_at, id),
+    INDEX idx_projects_super_admin_reviewer_created (super_admin_reviewer_id, created_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目表';
 
 -- 4. 项目阶段表
@@ -126,6 +132,7 @@ CREATE TABLE weekly_reports (
     user_id BIGINT NOT NULL COMMENT '提交周报的用户ID',
     title TEXT NOT NULL COMMENT '周报标题 - 无长度限制',
     report_week VARCHAR(50) NOT NULL COMMENT '周报周期',
+    week_start DATE NULL COMMENT '周报所属ISO周的周一，由report_week解析',
     additional_notes TEXT COMMENT '其他备注',
     development_opportunities TEXT COMMENT '可发展性清单',
     ai_analysis_id BIGINT NULL COMMENT 'AI分析结果ID',
@@ -138,6 +145,7 @@ CREATE TABLE weekly_reports (
     rejected_at DATETIME NULL COMMENT '拒绝时间',
     submitted_at DATETIME NULL COMMENT '提交时间',
     approved_at DATETIME NULL COMMENT '通过时间',
+    version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号，状态转换按版本号比较并提交',
 
     -- 三层状态字段（保留用于兼容，未来可删除）
     edit_status ENUM('DRAFT', 'SUBMITTED') NOT NULL DEFAULT 'DRAFT' COMMENT '编辑状态 - 用户视角（已废弃）',
@@ -164,7 +172,9 @@ CREATE TABLE weekly_reports (
     INDEX idx_weekly_reports_edit_status (edit_status),
     INDEX idx_weekly_reports_processing_status (processing_status),
     INDEX idx_weekly_reports_approval_status (approval_status),
-    INDEX idx_weekly_reports_ai_analysis (ai_analysis_id)
+    INDEX idx_weekly_reports_ai_analysis (ai_analysis_id),
+    INDEX idx_weekly_reports_created (created_at, id),  -- 导出按时间范围扫描
+    INDEX idx_weekly_reports_week_start (week_start, status, user_id)  -- 提交合规按周报所属周加载已提交用户
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报表';
 
 -- 7. 日常任务与周报关联表
@@ -219,7 +229,7 @@ CREATE TABLE weekly_report_comments (
     comment_type ENUM('COMMENT', 'REPLY') NOT NULL DEFAULT 'COMMENT' COMMENT '评论类型（评论/回复）',
     status ENUM('ACTIVE', 'DELETED', 'HIDDEN') NOT NULL DEFAULT 'ACTIVE' COMMENT '评论状态',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间',
 
     FOREIGN KEY (weekly_report_id) REFERENCES weekly_reports(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
@@ -229,7 +239,8 @@ CREATE TABLE weekly_report_comments (
     INDEX idx_weekly_report_comments_user_id (user_id),
     INDEX idx_weekly_report_comments_parent_id (parent_comment_id),
     INDEX idx_weekly_report_comments_status (status),
-    INDEX idx_weekly_report_comments_created_at (created_at)
+    INDEX idx_weekly_report_comments_created_at (created_at),
+    INDEX idx_weekly_report_comments_report_updated (weekly_report_id, updated_at, id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报评论表';
 
 -- ========================================
@@ -247,10 +258,16 @@ CREATE TABLE file_attachments (
     file_extension VARCHAR(10) NOT NULL COMMENT '文件扩展名',
     bucket_name VARCHAR(100) NOT NULL DEFAULT 'weekly-reports' COMMENT 'MinIO桶名',
     uploaded_by BIGINT NOT NULL COMMENT '上传用户ID',
-    upload_status ENUM('UPLOADING', 'COMPLETED', 'FAILED', 'DELETED') NOT NULL DEFAULT 'UPLOADING' COMMENT '上传状态',
+    upload_status ENUM('UPLOADING', 'COMPLETING', 'COMPLETED', 'FAILED', 'DELETED') NOT NULL DEFAULT 'UPLOADING' COMMENT '上传状态',
     upload_progress INT DEFAULT 0 COMMENT '上传进度（0-100）',
+    multipart_upload_id VARCHAR(255) NULL COMMENT 'MinIO分片上传ID（分片上传进行中时非空）',
+    part_size BIGINT NULL COMMENT '分片大小（字节）',
+    total_parts INT NULL COMMENT '分片总数',
     error_message TEXT COMMENT '错误信息',
     file_hash VARCHAR(64) COMMENT '文件哈希值（用于去重）',
+    active_file_hash VARCHAR(64) AS (IF(deleted_at IS NULL, file_hash, NULL)) STORED COMMENT '未删除文件的哈希（去重唯一约束）',
+    thumbnail_path VARCHAR(500) NULL COMMENT '缩略图在MinIO中的路径（图片/PDF首页）',
+    preview_path VARCHAR(500) NULL COMMENT 'PDF首页预览图在MinIO中的路径',
     download_count INT DEFAULT 0 COMMENT '下载次数',
     is_public BOOLEAN DEFAULT FALSE COMMENT '是否公开访问',
     expires_at TIMESTAMP NULL COMMENT '过期时间',
@@ -263,6 +280,7 @@ CREATE TABLE file_attachments (
     INDEX idx_file_attachments_uploaded_by (uploaded_by),
     INDEX idx_file_attachments_upload_status (upload_status),
     INDEX idx_file_attachments_file_hash (file_hash),
+    UNIQUE INDEX uk_file_attachments_active_hash (active_file_hash),
     INDEX idx_file_attachments_created_at (created_at),
     INDEX idx_file_attachments_bucket_path (bucket_name, file_path),
     UNIQUE INDEX uk_file_path (bucket_name, file_path)
@@ -304,24 +322,153 @@ CREATE TABLE weekly_report_attachments (
     UNIQUE INDEX uk_report_file_unique (weekly_report_id, file_attachment_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报文件关联表';
 
+-- 分片上传进度表（断点续传）
+CREATE TABLE file_upload_parts (
+    file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
+    part_number INT NOT NULL COMMENT '分片序号（从1开始）',
+    etag VARCHAR(255) NOT NULL COMMENT 'MinIO返回的分片ETag',
+    part_size BIGINT NOT NULL COMMENT '分片大小（字节）',
+    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '上传时间',
+
+    PRIMARY KEY (file_attachment_id, part_number),
+    FOREIGN KEY (file_attachment_id) REFERENCES file_attachments(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='分片上传进度表';
+
 -- 文件访问日志表（用于审计）
 CREATE TABLE file_access_logs (
-    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '日志ID',
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '日志ID',
     file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
     user_id BIGINT NULL COMMENT '访问用户ID',
     action ENUM('UPLOAD', 'DOWNLOAD', 'PREVIEW', 'DELETE') NOT NULL COMMENT '操作类型',
     ip_address VARCHAR(45) COMMENT 'IP地址',
-    user_agent TEXT COMMENT '用户代理',
-    access_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '访问时间',
+    user_agent_id INT NULL COMMENT 'User-Agent字典ID',
+    access_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '访问时间',
+
+    -- 分区表不支持外键，且主键必须包含分区列；文件/用户外键已移除，日志作为审计记录可比文件和用户保留更久
+    -- 未来月份分区由 FileAccessLogMaintenanceService 启动时和每晚从 pmax 拆出，手工维护步骤见 V42 迁移脚本
+    PRIMARY KEY (id, access_time),
+    INDEX idx_file_access_logs_file_time (file_attachment_id, access_time),
+    INDEX idx_file_access_logs_user_time (user_id, access_time),
+    INDEX idx_file_access_logs_action_time (action, access_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件访问日志表（按月分区）'
+PARTITION BY RANGE COLUMNS (access_time) (
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- User-Agent字典表
+CREATE TABLE user_agents (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'User-Agent ID',
+    ua_hash CHAR(64) NOT NULL COMMENT 'User-Agent的SHA-256',
+    user_agent TEXT NOT NULL COMMENT 'User-Agent原文',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '首次出现时间',
+
+    UNIQUE INDEX uk_user_agents_hash (ua_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='User-Agent字典表';
+
+-- 文件访问按天汇总表
+CREATE TABLE file_access_daily_stats (
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
+    action ENUM('UPLOAD', 'DOWNLOAD', 'PREVIEW', 'DELETE') NOT NULL COMMENT '操作类型',
+    access_count INT NOT NULL DEFAULT 0 COMMENT '访问次数',
+    unique_users INT NOT NULL DEFAULT 0 COMMENT '访问用户数',
+
+    PRIMARY KEY (stat_date, file_attachment_id, action),
+    INDEX idx_file_access_daily_stats_file (file_attachment_id, stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件访问按天汇总表';
+
+-- 通知发件箱表
+CREATE TABLE notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '消息ID',
+    recipient VARCHAR(255) NOT NULL COMMENT '收件人邮箱',
+    notification_type VARCHAR(64) NOT NULL COMMENT '通知类型',
+    subject VARCHAR(500) NOT NULL COMMENT '邮件主题',
+    content_html MEDIUMTEXT NOT NULL COMMENT '正文内容片段（不含文档头尾）',
+    status ENUM('PENDING', 'SENDING', 'SENT', 'DEAD') NOT NULL DEFAULT 'PENDING' COMMENT '投递状态',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已尝试次数',
+    next_attempt_at DATETIME NOT NULL COMMENT '下次投递时间（SENDING状态下为租约到期时间）',
+    last_error VARCHAR(1000) NULL COMMENT '最近一次失败原因',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '入队时间',
+    sent_at DATETIME NULL COMMENT '发送成功时间',
+
+    INDEX idx_notification_outbox_due (status, next_attempt_at),
+    INDEX idx_notification_outbox_recipient (recipient, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='通知发件箱表';
+
+-- 项目成员索引表（由 projects.members 解析维护）
+CREATE TABLE project_members (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '记录ID',
+    project_id BIGINT NOT NULL COMMENT '项目ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    role VARCHAR(30) NOT NULL DEFAULT 'MEMBER' COMMENT '项目角色',
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' COMMENT '成员状态',
+    joined_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '加入时间',
+    left_date DATETIME NULL COMMENT '离开时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    invited_by BIGINT NULL COMMENT '邀请人ID',
+    notes VARCHAR(500) NULL COMMENT '备注',
 
-    FOREIGN KEY (file_attachment_id) REFERENCES file_attachments(id) ON DELETE CASCADE,
-    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
+    UNIQUE KEY uk_project_member (project_id, user_id),
+    INDEX idx_project_member_user_status (user_id, status, project_id),
+    INDEX idx_project_member_role (role),
+    FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目成员索引表';
+
+-- 一次性数据回填完成标记表（删除对应行可在下次启动时重跑）
+CREATE TABLE data_backfills (
+    name VARCHAR(100) NOT NULL PRIMARY KEY COMMENT '回填任务名',
+    processed_count INT NOT NULL DEFAULT 0 COMMENT '处理的记录数',
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '完成时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='一次性数据回填完成标记表';
+
+-- 周报计数表（评论/附件/任务行数随写操作维护，列表按ID批量读取）
+CREATE TABLE weekly_report_stats (
+    weekly_report_id BIGINT NOT NULL PRIMARY KEY COMMENT '周报ID',
+    comment_count INT NOT NULL DEFAULT 0 COMMENT '有效评论数（含回复）',
+    attachment_count INT NOT NULL DEFAULT 0 COMMENT '有效附件数',
+    task_line_count INT NOT NULL DEFAULT 0 COMMENT '日常任务行数（本周+下周）',
+    dev_task_line_count INT NOT NULL DEFAULT 0 COMMENT '发展性任务行数（本周+下周）',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
 
-    INDEX idx_file_access_logs_file (file_attachment_id),
-    INDEX idx_file_access_logs_user (user_id),
-    INDEX idx_file_access_logs_action (action),
-    INDEX idx_file_access_logs_time (access_time)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件访问日志表';
+    FOREIGN KEY (weekly_report_id) REFERENCES weekly_reports(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报计数表';
+
+-- 周报统计汇总表（创建周 × 用户 × 状态）
+CREATE TABLE weekly_report_rollup (
+    week_start DATE NOT NULL COMMENT '创建周（周一）',
+    user_id BIGINT NOT NULL COMMENT '提交周报的用户ID',
+    status VARCHAR(20) NOT NULL COMMENT '周报状态',
+    report_count INT NOT NULL DEFAULT 0 COMMENT '周报数',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (week_start, user_id, status),
+    INDEX idx_weekly_report_rollup_user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报统计汇总表';
+
+-- 项目审批统计汇总表（创建日 × 审批状态）
+CREATE TABLE project_approval_rollup (
+    stat_date DATE NOT NULL COMMENT '项目创建日期',
+    approval_status VARCHAR(30) NOT NULL COMMENT '审批状态',
+    project_count INT NOT NULL DEFAULT 0 COMMENT '项目数',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (stat_date, approval_status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目审批统计汇总表';
+
+-- 周报提交提醒记录表（同一ISO周每人只提醒一次）
+CREATE TABLE weekly_submission_reminders (
+    iso_week CHAR(8) NOT NULL COMMENT 'ISO周，如 2026-W42',
+    user_id BIGINT NOT NULL COMMENT '被提醒的用户ID',
+    reminded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '提醒时间',
+
+    PRIMARY KEY (iso_week, user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报提交提醒记录表';
 
 -- 插入默认数据
 
@@ -332,6 +479,56 @@ INSERT INTO users (username, email, password, role, status) VALUES
 ('manager1', 'manager1@company.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'MANAGER', 'ACTIVE'),
 ('manager2', 'manager2@company.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'MANAGER', 'ACTIVE');
 
+-- 与V52一致：合并内容哈希重复的未删除文件（新建库为空操作）
+-- 历史上并发产生的重复记录合并到最早一条：周报附件关联改指向保留的记录，其余记录软删除。
+-- 哈希保留不清空，软删除后生成列为NULL，不占用唯一索引；保留记录继续参与去重和基于哈希的ETag
+CREATE TABLE file_attachment_merge (
+    duplicate_id BIGINT NOT NULL PRIMARY KEY,
+    keep_id BIGINT NOT NULL,
+    INDEX idx_file_attachment_merge_keep (keep_id)
+) ENGINE=InnoDB;
+
+INSERT INTO file_attachment_merge (duplicate_id, keep_id)
+SELECT f.id, d.keep_id
+FROM file_attachments f
+JOIN (
+    SELECT file_hash, MIN(id) AS keep_id
+    FROM file_attachments
+    WHERE file_hash IS NOT NULL AND deleted_at IS NULL
+    GROUP BY file_hash
+    HAVING COUNT(*) > 1
+) d ON f.file_hash = d.file_hash AND f.id <> d.keep_id
+WHERE f.deleted_at IS NULL;
+
+-- 同一周报合并后会指向同一文件的关联只留一条（uk_report_file_unique）：
+-- 已关联保留记录的，删掉重复记录的关联；只关联了重复记录的，保留ID最小的一条
+DELETE a FROM weekly_report_attachments a
+JOIN file_attachment_merge m ON m.duplicate_id = a.file_attachment_id
+JOIN weekly_report_attachments k ON k.weekly_report_id = a.weekly_report_id AND k.id <> a.id
+LEFT JOIN file_attachment_merge km ON km.duplicate_id = k.file_attachment_id
+WHERE COALESCE(km.keep_id, k.file_attachment_id) = m.keep_id
+  AND (km.duplicate_id IS NULL OR k.id < a.id);
+
+UPDATE weekly_report_attachments a
+JOIN file_attachment_merge m ON m.duplicate_id = a.file_attachment_id
+SET a.file_attachment_id = m.keep_id;
+
+UPDATE file_attachments f
+JOIN file_attachment_merge m ON m.duplicate_id = f.id
+SET f.deleted_at = NOW(), f.upload_status = 'DELETED';
+
+-- 被合并掉关联的周报重算附件数
+UPDATE weekly_report_stats s
+SET s.attachment_count = (
+    SELECT COUNT(*) FROM weekly_report_attachments a
+        JOIN file_attachments f ON f.id = a.file_attachment_id
+    WHERE a.weekly_report_id = s.weekly_report_id AND f.deleted_at IS NULL)
+WHERE s.weekly_report_id IN (
+    SELECT a.weekly_report_id FROM weekly_report_attachments a
+        JOIN file_attachment_merge m ON m.keep_id = a.file_attachment_id);
+
+DROP TABLE file_attachment_merge;
+
 -- 提交事务
 COMMIT;
 
@@ -0,0 +1,8 @@
+-- V39__Add_AI_Token_Usage_Columns.sql
+-- 记录每次AI分析的实际token用量（来自模型返回的usage），用于成本与延迟统计
+
+ALTER TABLE ai_analysis_results
+ADD COLUMN prompt_tokens INT NULL COMMENT '提示词token数' AFTER processing_time_ms;
+
+ALTER TABLE ai_analysis_results
+ADD COLUMN completion_tokens INT NULL COMMENT '生成token数' AFTER prompt_tokens;
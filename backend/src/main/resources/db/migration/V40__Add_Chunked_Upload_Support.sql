@@ -0,0 +1,22 @@
+-- V40__Add_Chunked_Upload_Support.sql
+-- 分片断点续传：文件记录保存MinIO multipart uploadId，已上传分片单独记录以便中断后续传
+
+ALTER TABLE file_attachments
+ADD COLUMN multipart_upload_id VARCHAR(255) NULL COMMENT 'MinIO分片上传ID（分片上传进行中时非空）' AFTER upload_progress;
+
+ALTER TABLE file_attachments
+ADD COLUMN part_size BIGINT NULL COMMENT '分片大小（字节）' AFTER multipart_upload_id;
+
+ALTER TABLE file_attachments
+ADD COLUMN total_parts INT NULL COMMENT '分片总数' AFTER part_size;
+
+CREATE TABLE file_upload_parts (
+    file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
+    part_number INT NOT NULL COMMENT '分片序号（从1开始）',
+    etag VARCHAR(255) NOT NULL COMMENT 'MinIO返回的分片ETag',
+    part_size BIGINT NOT NULL COMMENT '分片大小（字节）',
+    uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '上传时间',
+
+    PRIMARY KEY (file_attachment_id, part_number),
+    FOREIGN KEY (file_attachment_id) REFERENCES file_attachments(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='分片上传进度表';
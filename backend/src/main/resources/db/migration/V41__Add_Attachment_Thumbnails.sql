@@ -0,0 +1,8 @@
+-- V41__Add_Attachment_Thumbnails.sql
+-- 附件缩略图/预览图：后台生成后存入MinIO派生路径，列表页直接使用小图，不再下载原文件
+
+ALTER TABLE file_attachments
+ADD COLUMN thumbnail_path VARCHAR(500) NULL COMMENT '缩略图在MinIO中的路径（图片/PDF首页）' AFTER file_hash;
+
+ALTER TABLE file_attachments
+ADD COLUMN preview_path VARCHAR(500) NULL COMMENT 'PDF首页预览图在MinIO中的路径' AFTER thumbnail_path;
@@ -0,0 +1,75 @@
+-- V42__Partition_File_Access_Logs.sql
+-- 文件访问日志按月分区：审计查询按 access_time 裁剪分区，过期数据整分区删除
+-- user_agent 改为字典编码；新增按文件/按天的汇总表，供统计查询使用
+-- 注意：MySQL分区表不支持外键，且主键必须包含分区列
+-- 外键说明：原表的 file_attachment_id → file_attachments.id、user_id → users.id 外键随分区一并移除。
+--   访问日志是审计记录，文件或用户删除后仍需保留，原外键本就会阻止物理删除；
+--   写入只经 FileAccessRecorder，ID来自已校验的请求上下文；user_agent_id 同样不设外键，字典行只增不删。
+-- 分区维护：下面只预建到 p202612，之后由 FileAccessLogMaintenanceService 在启动时和每晚从 pmax 拆出未来月份、
+--   删除超过 file.access-log.retention-months 的分区。定时任务关闭时手工执行（按月份替换）：
+--   ALTER TABLE file_access_logs REORGANIZE PARTITION pmax INTO (
+--       PARTITION p202701 VALUES LESS THAN ('2027-02-01'), PARTITION pmax VALUES LESS THAN (MAXVALUE));
+--   ALTER TABLE file_access_logs DROP PARTITION p202509;
+
+CREATE TABLE user_agents (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'User-Agent ID',
+    ua_hash CHAR(64) NOT NULL COMMENT 'User-Agent的SHA-256',
+    user_agent TEXT NOT NULL COMMENT 'User-Agent原文',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '首次出现时间',
+
+    UNIQUE INDEX uk_user_agents_hash (ua_hash)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='User-Agent字典表';
+
+INSERT IGNORE INTO user_agents (ua_hash, user_agent)
+SELECT SHA2(user_agent, 256), user_agent
+FROM file_access_logs
+WHERE user_agent IS NOT NULL
+GROUP BY user_agent;
+
+RENAME TABLE file_access_logs TO file_access_logs_legacy;
+
+CREATE TABLE file_access_logs (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '日志ID',
+    file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
+    user_id BIGINT NULL COMMENT '访问用户ID',
+    action ENUM('UPLOAD', 'DOWNLOAD', 'PREVIEW', 'DELETE') NOT NULL COMMENT '操作类型',
+    ip_address VARCHAR(45) COMMENT 'IP地址',
+    user_agent_id INT NULL COMMENT 'User-Agent字典ID',
+    access_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '访问时间',
+
+    PRIMARY KEY (id, access_time),
+    INDEX idx_file_access_logs_file_time (file_attachment_id, access_time),
+    INDEX idx_file_access_logs_user_time (user_id, access_time),
+    INDEX idx_file_access_logs_action_time (action, access_time)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件访问日志表（按月分区）'
+PARTITION BY RANGE COLUMNS (access_time) (
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+INSERT INTO file_access_logs (id, file_attachment_id, user_id, action, ip_address, user_agent_id, access_time)
+SELECT l.id, l.file_attachment_id, l.user_id, l.action, l.ip_address, ua.id, l.access_time
+FROM file_access_logs_legacy l
+LEFT JOIN user_agents ua ON ua.ua_hash = SHA2(l.user_agent, 256);
+
+DROP TABLE file_access_logs_legacy;
+
+CREATE TABLE file_access_daily_stats (
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    file_attachment_id BIGINT NOT NULL COMMENT '文件ID',
+    action ENUM('UPLOAD', 'DOWNLOAD', 'PREVIEW', 'DELETE') NOT NULL COMMENT '操作类型',
+    access_count INT NOT NULL DEFAULT 0 COMMENT '访问次数',
+    unique_users INT NOT NULL DEFAULT 0 COMMENT '访问用户数',
+
+    PRIMARY KEY (stat_date, file_attachment_id, action),
+    INDEX idx_file_access_daily_stats_file (file_attachment_id, stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件访问按天汇总表';
+
+INSERT INTO file_access_daily_stats (stat_date, file_attachment_id, action, access_count, unique_users)
+SELECT DATE(access_time), file_attachment_id, action, COUNT(*), COUNT(DISTINCT user_id)
+FROM file_access_logs
+WHERE access_time < CURRENT_DATE
+GROUP BY DATE(access_time), file_attachment_id, action;
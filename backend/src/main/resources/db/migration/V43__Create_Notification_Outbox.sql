@@ -0,0 +1,20 @@
+-- V43__Create_Notification_Outbox.sql
+-- 通知发件箱：业务事务提交后按收件人写入一行，由调度器批量投递；
+-- 同一收件人在合并窗口内的多条通知合成一封摘要邮件，失败按退避重试，超过次数进入死信
+
+CREATE TABLE notification_outbox (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '消息ID',
+    recipient VARCHAR(255) NOT NULL COMMENT '收件人邮箱',
+    notification_type VARCHAR(64) NOT NULL COMMENT '通知类型',
+    subject VARCHAR(500) NOT NULL COMMENT '邮件主题',
+    content_html MEDIUMTEXT NOT NULL COMMENT '正文内容片段（不含文档头尾）',
+    status ENUM('PENDING', 'SENDING', 'SENT', 'DEAD') NOT NULL DEFAULT 'PENDING' COMMENT '投递状态',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已尝试次数',
+    next_attempt_at DATETIME NOT NULL COMMENT '下次投递时间（SENDING状态下为租约到期时间）',
+    last_error VARCHAR(1000) NULL COMMENT '最近一次失败原因',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '入队时间',
+    sent_at DATETIME NULL COMMENT '发送成功时间',
+
+    INDEX idx_notification_outbox_due (status, next_attempt_at),
+    INDEX idx_notification_outbox_recipient (recipient, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='通知发件箱表';
@@ -0,0 +1,10 @@
+-- V44__Add_Project_Review_Queue_Indexes.sql
+-- 审核队列分页索引：待审核/已通过/已拒绝列表按 approval_status 过滤、按 created_at DESC, id DESC 排序，
+-- 复合索引让分页查询直接按索引顺序取一页，不再对全部匹配行排序；
+-- 审核历史按审核人过滤，同样按创建时间排序
+
+CREATE INDEX idx_projects_status_created ON projects (approval_status, created_at, id);
+CREATE INDEX idx_projects_admin_reviewer_created ON projects (admin_reviewer_id, created_at, id);
+CREATE INDEX idx_projects_super_admin_reviewer_created ON projects (super_admin_reviewer_id, created_at, id);
+
+ANALYZE TABLE projects;
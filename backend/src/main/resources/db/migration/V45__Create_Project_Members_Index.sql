@@ -0,0 +1,23 @@
+-- V45__Create_Project_Members_Index.sql
+-- 项目成员索引表：由 projects.members 文本解析出的成员与用户名精确匹配后写入，
+-- 项目创建/修改时同步维护，存量数据由应用启动后的回填任务分批写入（ProjectMemberIndexer）。
+-- “我参与的项目”查询走 (user_id, status, project_id) 索引，不再对 members TEXT 列做 LIKE 扫描
+
+CREATE TABLE IF NOT EXISTS project_members (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT '记录ID',
+    project_id BIGINT NOT NULL COMMENT '项目ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    role VARCHAR(30) NOT NULL DEFAULT 'MEMBER' COMMENT '项目角色',
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE' COMMENT '成员状态',
+    joined_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '加入时间',
+    left_date DATETIME NULL COMMENT '离开时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    invited_by BIGINT NULL COMMENT '邀请人ID',
+    notes VARCHAR(500) NULL COMMENT '备注',
+
+    UNIQUE KEY uk_project_member (project_id, user_id),
+    INDEX idx_project_member_user_status (user_id, status, project_id),
+    INDEX idx_project_member_role (role),
+    FOREIGN KEY (project_id) REFERENCES projects(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目成员索引表';
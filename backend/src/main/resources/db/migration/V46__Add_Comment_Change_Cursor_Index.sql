@@ -0,0 +1,11 @@
+-- V46__Add_Comment_Change_Cursor_Index.sql
+-- 评论增量同步：客户端按 (updated_at, id) 游标拉取某周报下新增、修改、软删除的评论。
+-- updated_at 改为毫秒精度，避免同一秒内的多次变更只能靠 id 区分；
+-- (weekly_report_id, updated_at, id) 复合索引让游标查询按索引顺序直接取一页
+
+ALTER TABLE weekly_report_comments
+    MODIFY updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间';
+
+CREATE INDEX idx_weekly_report_comments_report_updated ON weekly_report_comments (weekly_report_id, updated_at, id);
+
+ANALYZE TABLE weekly_report_comments;
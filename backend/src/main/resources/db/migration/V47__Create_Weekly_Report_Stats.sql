@@ -0,0 +1,30 @@
+-- V47__Create_Weekly_Report_Stats.sql
+-- 周报计数表：评论数、附件数、任务行数随写操作在同一事务内维护（WeeklyReportCounterService），
+-- 列表接口按本页周报ID一次读取计数，不再逐条 COUNT 或加载任务明细；夜间对账任务修正偏差。
+-- 单独建表而不是加到 weekly_reports，避免评论/附件写入与周报审批更新争用同一行锁
+
+CREATE TABLE IF NOT EXISTS weekly_report_stats (
+    weekly_report_id BIGINT NOT NULL PRIMARY KEY COMMENT '周报ID',
+    comment_count INT NOT NULL DEFAULT 0 COMMENT '有效评论数（含回复）',
+    attachment_count INT NOT NULL DEFAULT 0 COMMENT '有效附件数',
+    task_line_count INT NOT NULL DEFAULT 0 COMMENT '日常任务行数（本周+下周）',
+    dev_task_line_count INT NOT NULL DEFAULT 0 COMMENT '发展性任务行数（本周+下周）',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    FOREIGN KEY (weekly_report_id) REFERENCES weekly_reports(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报计数表';
+
+-- 存量周报一次性回填
+INSERT INTO weekly_report_stats (weekly_report_id, comment_count, attachment_count, task_line_count, dev_task_line_count)
+SELECT w.id,
+       (SELECT COUNT(*) FROM weekly_report_comments c WHERE c.weekly_report_id = w.id AND c.status = 'ACTIVE'),
+       (SELECT COUNT(*) FROM weekly_report_attachments a
+            JOIN file_attachments f ON f.id = a.file_attachment_id
+        WHERE a.weekly_report_id = w.id AND f.deleted_at IS NULL),
+       (SELECT COUNT(*) FROM task_reports t WHERE t.weekly_report_id = w.id),
+       (SELECT COUNT(*) FROM dev_task_reports d WHERE d.weekly_report_id = w.id)
+FROM weekly_reports w
+ON DUPLICATE KEY UPDATE comment_count = VALUES(comment_count),
+                        attachment_count = VALUES(attachment_count),
+                        task_line_count = VALUES(task_line_count),
+                        dev_task_line_count = VALUES(dev_task_line_count);
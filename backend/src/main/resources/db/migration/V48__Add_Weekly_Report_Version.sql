@@ -0,0 +1,6 @@
+-- V48__Add_Weekly_Report_Version.sql
+-- 周报乐观锁版本号：状态转换（AI回调、提交、管理员审批）改为按版本号比较并设置（WeeklyReportStateMachine），
+-- 不再用 SELECT ... FOR UPDATE 持有行锁，管理员操作不必排在AI回调之后等待锁
+
+ALTER TABLE weekly_reports
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0 COMMENT '乐观锁版本号，状态转换按版本号比较并提交' AFTER approved_at;
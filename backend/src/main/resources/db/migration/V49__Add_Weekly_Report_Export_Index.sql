@@ -0,0 +1,7 @@
+-- V49__Add_Weekly_Report_Export_Index.sql
+-- 周报导出按创建时间范围（通常为一个季度）过滤、按ID顺序输出，
+-- 复合索引让导出游标只扫描范围内的周报，不再全表扫描
+
+CREATE INDEX idx_weekly_reports_created ON weekly_reports (created_at, id);
+
+ANALYZE TABLE weekly_reports;
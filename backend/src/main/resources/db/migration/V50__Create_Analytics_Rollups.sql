@@ -0,0 +1,40 @@
+-- V50__Create_Analytics_Rollups.sql
+-- 看板统计汇总表：周报按 创建周 × 用户 × 状态、项目按 创建日 × 审批状态 预先计数，
+-- 看板接口读取汇总行，不再对 weekly_reports / projects 全表 GROUP BY。
+-- 由 AnalyticsRollupService 在写事务提交后按受影响的用户/日期重算，夜间对账任务修正偏差
+
+CREATE TABLE IF NOT EXISTS weekly_report_rollup (
+    week_start DATE NOT NULL COMMENT '创建周（周一）',
+    user_id BIGINT NOT NULL COMMENT '提交周报的用户ID',
+    status VARCHAR(20) NOT NULL COMMENT '周报状态',
+    report_count INT NOT NULL DEFAULT 0 COMMENT '周报数',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (week_start, user_id, status),
+    INDEX idx_weekly_report_rollup_user (user_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报统计汇总表';
+
+CREATE TABLE IF NOT EXISTS project_approval_rollup (
+    stat_date DATE NOT NULL COMMENT '项目创建日期',
+    approval_status VARCHAR(30) NOT NULL COMMENT '审批状态',
+    project_count INT NOT NULL DEFAULT 0 COMMENT '项目数',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    PRIMARY KEY (stat_date, approval_status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目审批统计汇总表';
+
+-- 按创建日期重算项目汇总时的范围扫描
+CREATE INDEX idx_projects_created ON projects (created_at);
+
+-- 存量数据一次性回填
+INSERT INTO weekly_report_rollup (week_start, user_id, status, report_count)
+SELECT DATE_SUB(DATE(w.created_at), INTERVAL WEEKDAY(w.created_at) DAY) AS week_start, w.user_id, w.status, COUNT(*)
+FROM weekly_reports w
+GROUP BY week_start, w.user_id, w.status
+ON DUPLICATE KEY UPDATE report_count = VALUES(report_count);
+
+INSERT INTO project_approval_rollup (stat_date, approval_status, project_count)
+SELECT DATE(p.created_at) AS stat_date, p.approval_status, COUNT(*)
+FROM projects p
+GROUP BY stat_date, p.approval_status
+ON DUPLICATE KEY UPDATE project_count = VALUES(project_count);
@@ -0,0 +1,12 @@
+-- V51__Create_Weekly_Submission_Reminders.sql
+-- 周报提交提醒记录：SubmissionReminderService 发送提醒前先插入 (ISO周, 用户)，
+-- 插入成功才写入通知发件箱，保证同一周每人只提醒一次（多实例同时运行或任务重跑时不重复）
+
+CREATE TABLE IF NOT EXISTS weekly_submission_reminders (
+    iso_week CHAR(8) NOT NULL COMMENT 'ISO周，如 2026-W42',
+    user_id BIGINT NOT NULL COMMENT '被提醒的用户ID',
+    reminded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '提醒时间',
+
+    PRIMARY KEY (iso_week, user_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='周报提交提醒记录表';
@@ -0,0 +1,57 @@
+-- V52__Unique_Active_File_Hash.sql
+-- 文件内容去重：同一哈希只允许一条未删除的记录，并发上传相同内容时由唯一索引兜底（先查后插存在竞态）
+-- MySQL不支持部分索引，用存储生成列在软删除后置空，已删除的记录不占用哈希
+
+-- 历史上并发产生的重复记录合并到最早一条：周报附件关联改指向保留的记录，其余记录软删除。
+-- 哈希保留不清空，软删除后生成列为NULL，不占用唯一索引；保留记录继续参与去重和基于哈希的ETag
+CREATE TABLE file_attachment_merge (
+    duplicate_id BIGINT NOT NULL PRIMARY KEY,
+    keep_id BIGINT NOT NULL,
+    INDEX idx_file_attachment_merge_keep (keep_id)
+) ENGINE=InnoDB;
+
+INSERT INTO file_attachment_merge (duplicate_id, keep_id)
+SELECT f.id, d.keep_id
+FROM file_attachments f
+JOIN (
+    SELECT file_hash, MIN(id) AS keep_id
+    FROM file_attachments
+    WHERE file_hash IS NOT NULL AND deleted_at IS NULL
+    GROUP BY file_hash
+    HAVING COUNT(*) > 1
+) d ON f.file_hash = d.file_hash AND f.id <> d.keep_id
+WHERE f.deleted_at IS NULL;
+
+-- 同一周报合并后会指向同一文件的关联只留一条（uk_report_file_unique）：
+-- 已关联保留记录的，删掉重复记录的关联；只关联了重复记录的，保留ID最小的一条
+DELETE a FROM weekly_report_attachments a
+JOIN file_attachment_merge m ON m.duplicate_id = a.file_attachment_id
+JOIN weekly_report_attachments k ON k.weekly_report_id = a.weekly_report_id AND k.id <> a.id
+LEFT JOIN file_attachment_merge km ON km.duplicate_id = k.file_attachment_id
+WHERE COALESCE(km.keep_id, k.file_attachment_id) = m.keep_id
+  AND (km.duplicate_id IS NULL OR k.id < a.id);
+
+UPDATE weekly_report_attachments a
+JOIN file_attachment_merge m ON m.duplicate_id = a.file_attachment_id
+SET a.file_attachment_id = m.keep_id;
+
+UPDATE file_attachments f
+JOIN file_attachment_merge m ON m.duplicate_id = f.id
+SET f.deleted_at = NOW(), f.upload_status = 'DELETED';
+
+-- 被合并掉关联的周报重算附件数
+UPDATE weekly_report_stats s
+SET s.attachment_count = (
+    SELECT COUNT(*) FROM weekly_report_attachments a
+        JOIN file_attachments f ON f.id = a.file_attachment_id
+    WHERE a.weekly_report_id = s.weekly_report_id AND f.deleted_at IS NULL)
+WHERE s.weekly_report_id IN (
+    SELECT a.weekly_report_id FROM weekly_report_attachments a
+        JOIN file_attachment_merge m ON m.keep_id = a.file_attachment_id);
+
+DROP TABLE file_attachment_merge;
+
+ALTER TABLE file_attachments
+    ADD COLUMN active_file_hash VARCHAR(64) AS (IF(deleted_at IS NULL, file_hash, NULL)) STORED
+        COMMENT '未删除文件的哈希（去重唯一约束）' AFTER file_hash,
+    ADD UNIQUE INDEX uk_file_attachments_active_hash (active_file_hash);
@@ -0,0 +1,7 @@
+-- V53__Add_Weekly_Report_Submitted_Index.sql
+-- 周报提交合规索引按 submitted_at 所在ISO周加载已提交用户，
+-- 覆盖索引让按周加载只扫描该周提交的周报，无需回表
+
+CREATE INDEX idx_weekly_reports_submitted ON weekly_reports (submitted_at, user_id, status);
+
+ANALYZE TABLE weekly_reports;
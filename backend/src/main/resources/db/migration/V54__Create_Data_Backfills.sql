@@ -0,0 +1,9 @@
+-- V54__Create_Data_Backfills.sql
+-- 一次性数据回填的完成标记：应用启动时的回填任务（如 ProjectMemberIndexer 的项目成员索引）
+-- 完成后写入一行，之后启动直接跳过，不再每次重扫存量数据。需要重跑时删除对应行即可
+
+CREATE TABLE IF NOT EXISTS data_backfills (
+    name VARCHAR(100) NOT NULL PRIMARY KEY COMMENT '回填任务名',
+    processed_count INT NOT NULL DEFAULT 0 COMMENT '处理的记录数',
+    completed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '完成时间'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='一次性数据回填完成标记表';
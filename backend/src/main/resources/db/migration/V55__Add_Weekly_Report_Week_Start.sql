@@ -0,0 +1,38 @@
+-- V55__Add_Weekly_Report_Week_Start.sql
+-- 提交合规按周报自身所属周归周，而不是 submitted_at 所在周：第W周的周报在W+1周一补交仍算第W周。
+-- report_week 是展示文本（表单生成 "10月第3周（周三）"，无年份），新增 week_start 保存解析后的ISO周周一，
+-- 由 WeeklyReport 保存时按 WeekFormatHelper.resolveWeekStart 维护。
+
+ALTER TABLE weekly_reports
+    ADD COLUMN week_start DATE NULL COMMENT '周报所属ISO周的周一，由report_week解析' AFTER report_week;
+
+-- 存量回填：先按创建日所在周（表单按创建当天生成 report_week，二者一致）
+UPDATE weekly_reports
+SET week_start = DATE_SUB(DATE(created_at), INTERVAL WEEKDAY(created_at) DAY);
+
+-- ISO周键 "2026-W42"：当年1月4日所在周为第1周
+UPDATE weekly_reports
+SET week_start = DATE_ADD(
+        DATE_SUB(MAKEDATE(CAST(LEFT(report_week, 4) AS UNSIGNED), 4),
+                 INTERVAL WEEKDAY(MAKEDATE(CAST(LEFT(report_week, 4) AS UNSIGNED), 4)) DAY),
+        INTERVAL CAST(RIGHT(report_week, 2) AS UNSIGNED) - 1 WEEK)
+WHERE report_week REGEXP '^[0-9]{4}-W(0[1-9]|[1-4][0-9]|5[0-3])$';
+
+-- 日期文本 "2026-10-14" / "2026/10/14周"：先取出日期，再归到所在周周一
+-- （用日期运算拼日期，避免严格模式下 STR_TO_DATE 遇到非法日期报错）
+UPDATE weekly_reports
+SET week_start = DATE_ADD(DATE_ADD(
+        MAKEDATE(CAST(LEFT(report_week, 4) AS UNSIGNED), 1),
+        INTERVAL CAST(SUBSTRING_INDEX(SUBSTRING_INDEX(REPLACE(REGEXP_SUBSTR(report_week, '^[0-9]{4}[-/][0-9]{1,2}[-/][0-9]{1,2}'), '/', '-'), '-', 2), '-', -1) AS UNSIGNED) - 1 MONTH),
+        INTERVAL CAST(SUBSTRING_INDEX(REPLACE(REGEXP_SUBSTR(report_week, '^[0-9]{4}[-/][0-9]{1,2}[-/][0-9]{1,2}'), '/', '-'), '-', -1) AS UNSIGNED) - 1 DAY)
+WHERE report_week REGEXP '^[0-9]{4}[-/](0?[1-9]|1[0-2])[-/](0?[1-9]|[12][0-9]|3[01])';
+
+UPDATE weekly_reports
+SET week_start = DATE_SUB(week_start, INTERVAL WEEKDAY(week_start) DAY)
+WHERE report_week REGEXP '^[0-9]{4}[-/](0?[1-9]|1[0-2])[-/](0?[1-9]|[12][0-9]|3[01])';
+
+-- 按周加载已提交用户走 (week_start, status, user_id) 覆盖索引；submitted_at 索引不再有查询使用
+CREATE INDEX idx_weekly_reports_week_start ON weekly_reports (week_start, status, user_id);
+DROP INDEX idx_weekly_reports_submitted ON weekly_reports;
+
+ANALYZE TABLE weekly_reports;
@@ -0,0 +1,6 @@
+-- V56__Add_Upload_Status_Completing.sql
+-- 分片上传合并加入"合并中"状态：completeUpload 以 UPLOADING → COMPLETING 的条件更新领取合并，
+-- 并发的重复合并请求更新0行直接拒绝；超时未完成的上传由 ChunkedUploadCleanupService 置为 FAILED 并释放MinIO分片。
+
+ALTER TABLE file_attachments
+    MODIFY COLUMN upload_status ENUM('UPLOADING', 'COMPLETING', 'COMPLETED', 'FAILED', 'DELETED') NOT NULL DEFAULT 'UPLOADING' COMMENT '上传状态';
@@ -0,0 +1,148 @@
+package com.weeklyreport.ai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AIAnalysisSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AIAnalysisScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AIAnalysisScheduler(meterRegistry);
+        scheduler.setCorePoolSize(1);
+        scheduler.setMaxPoolSize(1);
+        scheduler.setQueueCapacity(100);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void projectApprovalShouldOvertakeQueuedBulkReports() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch release = blockWorker();
+
+        for (long user = 1; user <= 5; user++) {
+            String label = "bulk-" + user;
+            scheduler.schedule(AIAnalysisScheduler.WorkClass.BULK, user, () -> order.add(label));
+        }
+        CompletableFuture<Boolean> approval = scheduler.schedule(
+            AIAnalysisScheduler.WorkClass.PROJECT_APPROVAL, 99L, () -> order.add("approval"));
+
+        release.countDown();
+        approval.get(5, TimeUnit.SECONDS);
+
+        assertEquals("approval", order.get(0));
+    }
+
+    @Test
+    void approvalArrivingAfterBulkDispatchStartedShouldRunNext() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch release = blockWorker();
+        CountDownLatch firstBulkStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBulk = new CountDownLatch(1);
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.BULK, 1L, () -> {
+            order.add("bulk-1");
+            firstBulkStarted.countDown();
+            try {
+                return releaseFirstBulk.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        for (long user = 2; user <= 20; user++) {
+            String label = "bulk-" + user;
+            futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.BULK, user, () -> order.add(label)));
+        }
+
+        // 批量任务已开始出队，虚拟时间已推进后审批才到达
+        release.countDown();
+        assertTrue(firstBulkStarted.await(5, TimeUnit.SECONDS));
+        futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.PROJECT_APPROVAL, 99L, () -> order.add("approval")));
+        releaseFirstBulk.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("bulk-1", "approval"), order.subList(0, 2));
+    }
+
+    @Test
+    void submittedTasksShouldQueueAsBulkAndNotBeStarved() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch release = blockWorker();
+
+        Future<String> submitted = scheduler.submit(() -> {
+            order.add("submitted");
+            return "done";
+        });
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (long user = 1; user <= 5; user++) {
+            String label = "bulk-" + user;
+            futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.BULK, user, () -> order.add(label)));
+        }
+        assertEquals(6, scheduler.getQueuedByClass().get(AIAnalysisScheduler.WorkClass.BULK));
+
+        release.countDown();
+        assertEquals("done", submitted.get(5, TimeUnit.SECONDS));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // 系统流与各用户流同在批量类别内公平排队，先到先服务
+        assertEquals("submitted", order.get(0));
+    }
+
+    @Test
+    void repeatedResubmitsFromOneUserShouldNotStarveOthers() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        CountDownLatch release = blockWorker();
+
+        for (int i = 0; i < 20; i++) {
+            futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.INTERACTIVE_RESUBMIT, 1L, () -> order.add("noisy")));
+        }
+        futures.add(scheduler.schedule(AIAnalysisScheduler.WorkClass.INTERACTIVE_RESUBMIT, 2L, () -> order.add("other")));
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(21, order.size());
+        assertTrue(order.indexOf("other") <= 1, "其他用户应在第二个出队: " + order.indexOf("other"));
+        assertTrue(meterRegistry.get(AIAnalysisScheduler.QUEUE_WAIT_METRIC)
+            .tag("class", "INTERACTIVE_RESUBMIT").timer().count() >= 21);
+    }
+
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.schedule(AIAnalysisScheduler.WorkClass.BULK, 0L, () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+}
@@ -0,0 +1,166 @@
+package com.weeklyreport.ai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AI延迟指标测试：Micrometer计时器的名称与标签、窗口内分位数、窗口滑出后的淘汰、并发记录
+ */
+class AILatencyMetricsTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(5);
+
+    private MockClock clock;
+    private SimpleMeterRegistry registry;
+    private AILatencyMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MockClock();
+        registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        metrics = new AILatencyMetrics(registry, WINDOW);
+    }
+
+    @Test
+    void shouldRegisterTimersAndSummariesWithTags() {
+        metrics.record("deepseek", "SUMMARY", true, 2_000, 400);
+        metrics.record("deepseek", "SUMMARY", false, 500, null);
+
+        Timer success = registry.find(AILatencyMetrics.LATENCY_METRIC)
+            .tags("provider", "deepseek", "analysis_type", "SUMMARY", "outcome", "success").timer();
+        Timer error = registry.find(AILatencyMetrics.LATENCY_METRIC)
+            .tags("provider", "deepseek", "analysis_type", "SUMMARY", "outcome", "error").timer();
+        assertNotNull(success);
+        assertNotNull(error);
+        assertEquals(1, success.count());
+        assertEquals(2_000, success.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, error.count());
+
+        DistributionSummary tokens = registry.find(AILatencyMetrics.TOKENS_METRIC)
+            .tags("provider", "deepseek", "analysis_type", "SUMMARY").summary();
+        DistributionSummary throughput = registry.find(AILatencyMetrics.THROUGHPUT_METRIC)
+            .tags("provider", "deepseek", "analysis_type", "SUMMARY").summary();
+        assertNotNull(tokens);
+        assertNotNull(throughput);
+        // 失败调用不计token
+        assertEquals(400, tokens.totalAmount(), 0.001);
+        assertEquals(200, throughput.totalAmount(), 0.001);
+
+        // 同一序列重复记录复用已注册的计时器
+        metrics.record("deepseek", "SUMMARY", true, 1_000, 100);
+        assertEquals(2, registry.find(AILatencyMetrics.LATENCY_METRIC).timers().size());
+        assertEquals(2, success.count());
+    }
+
+    @Test
+    void percentilesShouldReflectPartlyFilledWindow() {
+        for (int i = 1; i <= 100; i++) {
+            metrics.record("deepseek", "SUMMARY", true, i * 10L, null);
+        }
+
+        Map<String, Object> stats = series("deepseek/SUMMARY");
+        assertEquals(100L, stats.get("count"));
+        assertApprox(500, stats.get("p50Ms"));
+        assertApprox(950, stats.get("p95Ms"));
+        assertApprox(990, stats.get("p99Ms"));
+        // 未记录token时不输出吞吐
+        assertFalse(stats.containsKey("tokensPerSecondP50"));
+    }
+
+    @Test
+    void percentilesShouldOnlyCoverCurrentWindowOnceRingIsFull() {
+        // 第一批慢调用，之后推进时钟转满整个环，慢调用应被淘汰
+        for (int i = 0; i < 50; i++) {
+            metrics.record("deepseek", "SUMMARY", true, 10_000, null);
+        }
+        assertApprox(10_000, series("deepseek/SUMMARY").get("p99Ms"));
+
+        clock.add(WINDOW.plusSeconds(1));
+        for (int i = 1; i <= 100; i++) {
+            metrics.record("deepseek", "SUMMARY", true, i, null);
+        }
+
+        Map<String, Object> stats = series("deepseek/SUMMARY");
+        assertApprox(50, stats.get("p50Ms"));
+        assertApprox(99, stats.get("p99Ms"));
+        // 计数器是累计值，不随窗口淘汰
+        assertEquals(150L, stats.get("count"));
+    }
+
+    @Test
+    void snapshotShouldGroupByProviderAndExcludeErrors() {
+        metrics.record("deepseek", "SUMMARY", true, 1_000, 500);
+        metrics.record("openai", "SENTIMENT", true, 2_000, null);
+        metrics.record("openai", "RISK", false, 3_000, null);
+
+        Map<String, Object> all = metrics.snapshot();
+        assertEquals(2, all.size());
+        assertTrue(all.containsKey("deepseek/SUMMARY"));
+        assertTrue(all.containsKey("openai/SENTIMENT"));
+
+        Map<String, Object> openai = metrics.snapshot("openai");
+        assertEquals(1, openai.size());
+        assertNull(openai.get("RISK"));
+        assertEquals(500L, series("deepseek/SUMMARY").get("totalTokens"));
+    }
+
+    @Test
+    void concurrentRecordingShouldNotLoseSamples() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                String type = t % 2 == 0 ? "SUMMARY" : "SENTIMENT";
+                executor.execute(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        metrics.record("deepseek", type, true, 100, 10);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        long total = registry.find(AILatencyMetrics.LATENCY_METRIC).timers().stream().mapToLong(Timer::count).sum();
+        assertEquals((long) threads * perThread, total);
+        // 并发首次注册也只产生一个计时器/序列
+        assertEquals(2, registry.find(AILatencyMetrics.LATENCY_METRIC).timers().size());
+        assertEquals(threads * perThread * 10.0,
+                     registry.find(AILatencyMetrics.TOKENS_METRIC).summaries().stream()
+                         .mapToDouble(DistributionSummary::totalAmount).sum(), 0.001);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> series(String key) {
+        Map<String, Object> stats = (Map<String, Object>) metrics.snapshot().get(key);
+        assertNotNull(stats, key);
+        return stats;
+    }
+
+    /**
+     * 分位数来自HdrHistogram近似，允许10%相对误差
+     */
+    private static void assertApprox(double expected, Object actual) {
+        double value = ((Number) actual).doubleValue();
+        assertEquals(expected, value, expected * 0.1, "percentile " + value);
+    }
+}
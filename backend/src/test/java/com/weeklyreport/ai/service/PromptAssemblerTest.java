@@ -0,0 +1,114 @@
+package com.weeklyreport.ai.service;
+
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.task.entity.DevTaskReport;
+import com.weeklyreport.task.entity.Task;
+import com.weeklyreport.task.entity.TaskReport;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PromptAssemblerTest {
+
+    private final PromptTokenizer tokenizer = new PromptTokenizer(Collections.emptyMap());
+
+    @Test
+    void chineseTextShouldNotBeUnderCountedAsCharsDividedByFour() {
+        String content = "本周完成了用户管理模块的接口联调与测试";
+        assertTrue(tokenizer.countTokens(content) > content.length() / 4);
+        assertTrue(tokenizer.countTokens(tokenizer.truncate(content, 5)) <= 5);
+    }
+
+    @Test
+    void weeklyReportPromptShouldIncludeStructuredTaskLines() {
+        WeeklyReport report = buildWeeklyReport();
+        List<TaskReport> taskReports = List.of(taskReport(report, 1L, "接口联调", "已完成全部接口联调", true));
+        DevTaskReport devTaskReport = new DevTaskReport(report.getId(), 5L, 6L, "完成原型评审", "无差异", false);
+
+        PromptAssembler.AssembledPrompt prompt = new PromptAssembler(tokenizer)
+            .buildWeeklyReportPrompt(report, taskReports, List.of(devTaskReport));
+
+        assertTrue(prompt.getText().contains("接口联调"));
+        assertTrue(prompt.getText().contains("已完成全部接口联调"));
+        assertTrue(prompt.getText().contains("项目#5/阶段#6"));
+        assertTrue(prompt.getText().contains("工作概览: " + report.getContent()));
+        assertTrue(prompt.getTruncatedSections().isEmpty());
+        assertEquals(tokenizer.countTokens(prompt.getText()), prompt.getTokenCount());
+    }
+
+    @Test
+    void oversizedReportShouldStayWithinBudgetAndKeepEveryTask() {
+        WeeklyReport report = buildWeeklyReport();
+        report.setAdditionalNotes("备注内容".repeat(500));
+
+        List<TaskReport> taskReports = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            taskReports.add(taskReport(report, i, "任务" + i, "实际结果描述".repeat(100), true));
+        }
+
+        PromptAssembler.AssembledPrompt prompt = new PromptAssembler(tokenizer)
+            .buildWeeklyReportPrompt(report, taskReports, List.of());
+
+        assertTrue(prompt.getTokenCount() <= 1800, "token数应在预算内: " + prompt.getTokenCount());
+        for (int i = 1; i <= 20; i++) {
+            assertTrue(prompt.getText().contains("任务" + i + " "), "每个任务都应保留: 任务" + i);
+        }
+        assertTrue(prompt.getTruncatedSections().contains("本周工作"));
+        assertFalse(prompt.getTruncatedSections().contains("标题"));
+    }
+
+    @Test
+    void bpeTokenizerShouldKeepPromptWithinBudget() {
+        PromptTokenizer cl100k = new PromptTokenizer("classpath:ai/tokenizer/cl100k_base.tiktoken");
+        WeeklyReport report = buildWeeklyReport();
+        report.setAdditionalNotes("Refactored the export pipeline; 备注内容".repeat(300));
+        List<TaskReport> taskReports = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            taskReports.add(taskReport(report, i, "任务" + i, "completed integration 实际结果描述".repeat(80), true));
+        }
+
+        PromptAssembler.AssembledPrompt prompt = new PromptAssembler(cl100k)
+            .buildWeeklyReportPrompt(report, taskReports, List.of());
+
+        assertTrue(prompt.getTokenCount() <= 1800, "token数应在预算内: " + prompt.getTokenCount());
+        assertEquals(cl100k.countTokens(prompt.getText()), prompt.getTokenCount());
+        assertTrue(prompt.getText().startsWith("请在100到150字内总结以下周报的核心亮点与风险提示。"));
+        assertTrue(prompt.getTruncatedSections().contains("备注"));
+    }
+
+    @Test
+    void projectPromptShouldPreferHigherPrioritySections() {
+        Project project = new Project();
+        project.setName("周报系统二期");
+        project.setDescription("项目描述".repeat(1000));
+        project.setMembers("成员".repeat(400));
+
+        PromptAssembler.AssembledPrompt prompt = new PromptAssembler(tokenizer).buildProjectPrompt(project);
+
+        assertTrue(prompt.getTokenCount() <= 1200, "token数应在预算内: " + prompt.getTokenCount());
+        assertTrue(prompt.getText().contains("项目名称: 周报系统二期"));
+        assertTrue(prompt.getText().contains("预期结果: 无"));
+        assertTrue(prompt.getTruncatedSections().contains("项目描述"));
+        assertFalse(prompt.getTruncatedSections().contains("项目名称"));
+    }
+
+    private WeeklyReport buildWeeklyReport() {
+        WeeklyReport report = new WeeklyReport(1L, "第42周工作周报", "2026-W42");
+        report.setId(100L);
+        report.setDevelopmentOpportunities("推进自动化测试");
+        return report;
+    }
+
+    private TaskReport taskReport(WeeklyReport report, Long taskId, String taskName, String actualResults, boolean isWeek) {
+        Task task = new Task(taskName, 1L);
+        task.setId(taskId);
+        return new TaskReport(report, task, actualResults, "无", isWeek);
+    }
+}
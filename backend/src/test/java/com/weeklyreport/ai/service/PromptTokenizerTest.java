@@ -0,0 +1,73 @@
+package com.weeklyreport.ai.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prompt分词器测试 - BPE合并与随代码提供的 cl100k_base 词表
+ */
+class PromptTokenizerTest {
+
+    private static PromptTokenizer cl100k;
+
+    @BeforeAll
+    static void loadVocabulary() {
+        cl100k = new PromptTokenizer("classpath:ai/tokenizer/cl100k_base.tiktoken");
+    }
+
+    @Test
+    void bundledVocabularyShouldMatchReferenceCounts() {
+        assertTrue(cl100k.isVocabularyLoaded());
+        // 与 tiktoken cl100k_base 的编码结果一致
+        assertEquals(2, cl100k.countTokens("hello world"));
+        assertEquals(6, cl100k.countTokens("tiktoken is great!"));
+        assertEquals(2, cl100k.countTokens("你好"));
+        assertEquals(0, cl100k.countTokens(""));
+    }
+
+    @Test
+    void mergeShouldApplyLowestRankFirst() {
+        // "ab" 先于 "bc" 合并，"abc" 不在词表中：a b c → ab c
+        PromptTokenizer tokenizer = new PromptTokenizer(Map.of(
+            "a", 0, "b", 1, "c", 2, "ab", 3, "bc", 4, "abcd", 5, "cd", 6, "d", 7));
+        assertEquals(2, tokenizer.bytePairMerge(bytes("abc")));
+        // a b c d → ab c d → ab cd → abcd（"bc" 因 "ab" 先合并而不再出现）
+        assertEquals(1, tokenizer.bytePairMerge(bytes("abcd")));
+        // 词表外的字节保持为单字节片段
+        assertEquals(3, tokenizer.bytePairMerge(bytes("xyz")));
+    }
+
+    @Test
+    void mergeShouldRecomputeNeighbourRanks() {
+        // a a a a → aa a a → aa aa → aaaa
+        PromptTokenizer tokenizer = new PromptTokenizer(Map.of("a", 0, "aa", 1, "aaaa", 2));
+        assertEquals(1, tokenizer.bytePairMerge(bytes("aaaa")));
+        assertEquals(2, tokenizer.bytePairMerge(bytes("aaaaa")));
+    }
+
+    @Test
+    void truncateShouldReturnPrefixWithinBudget() {
+        String text = "本周完成了用户管理模块的接口联调与测试，修复登录超时问题 and reviewed 12 pull requests.";
+        for (int max = 1; max <= cl100k.countTokens(text); max++) {
+            String prefix = cl100k.truncate(text, max);
+            assertTrue(text.startsWith(prefix));
+            assertTrue(cl100k.countTokens(prefix) <= max, "截断结果超出预算: " + max);
+        }
+        assertEquals(text, cl100k.truncate(text, 10_000));
+
+        // 不在代理对中间截断
+        String emoji = cl100k.truncate("😀😀😀", 2);
+        assertFalse(!emoji.isEmpty() && Character.isHighSurrogate(emoji.charAt(emoji.length() - 1)));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.weeklyreport.analytics.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 看板统计汇总维护测试
+ */
+class AnalyticsRollupServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AnalyticsRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new AnalyticsRollupService(jdbcTemplate, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refreshesInSameTransactionShouldMergeAndRunOnceAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.scheduleRefresh(List.of(7L), List.of());
+        service.scheduleRefresh(List.of(7L, 8L), List.of(LocalDate.of(2026, 10, 19)));
+
+        // 提交前不访问汇总表
+        verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // 两个用户一起重算（清理+写入），一个项目日期（清理+写入）
+        verify(jdbcTemplate, times(4)).update(any(PreparedStatementCreator.class));
+        assertNull(TransactionSynchronizationManager.getResource(service));
+    }
+
+    @Test
+    void refreshFailureShouldBeLeftToReconciliation() {
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertDoesNotThrow(() -> service.scheduleRefresh(List.of(7L), List.of()));
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class));
+    }
+}
@@ -0,0 +1,88 @@
+package com.weeklyreport.analytics.service;
+
+import com.weeklyreport.analytics.dto.DashboardSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 看板统计查询测试：状态分布与审批分布限定在统计周期内
+ */
+class DashboardServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DashboardService service;
+    private LocalDate thisWeek;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new DashboardService(jdbcTemplate);
+        thisWeek = DashboardService.weekStart(LocalDate.now());
+    }
+
+    @Test
+    void summaryShouldOnlyAggregateRowsWithinPeriod() throws Exception {
+        LocalDate lastWeek = thisWeek.minusWeeks(1);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(reportRow(thisWeek, "ADMIN_REVIEWING", 3));
+            handler.processRow(reportRow(thisWeek, "APPROVED", 2));
+            handler.processRow(reportRow(lastWeek, "APPROVED", 4));
+            return null;
+        }).when(jdbcTemplate).query(contains("weekly_report_rollup"), any(RowCallbackHandler.class), eq(lastWeek));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(approvalRow("FINAL_APPROVED", 5));
+            return null;
+        }).when(jdbcTemplate).query(contains("project_approval_rollup"), any(RowCallbackHandler.class), eq(lastWeek));
+
+        DashboardSummary summary = service.getSummary(2);
+
+        assertEquals(lastWeek, summary.getPeriodStart());
+        Map<String, Long> byStatus = summary.getReportsByStatus();
+        assertEquals(3L, byStatus.get("ADMIN_REVIEWING"));
+        assertEquals(6L, byStatus.get("APPROVED"));
+        assertEquals(0L, byStatus.get("DRAFT"));
+        assertEquals(List.of(thisWeek, lastWeek),
+                     summary.getReportsByWeek().stream().map(DashboardSummary.WeekCount::getWeekStart).toList());
+        assertEquals(List.of(5L, 4L),
+                     summary.getReportsByWeek().stream().map(DashboardSummary.WeekCount::getReportCount).toList());
+        assertEquals(5L, summary.getProjectsByApprovalStatus().get("FINAL_APPROVED"));
+
+        // 两张汇总表都按周期下界做范围过滤，不再对全表 GROUP BY
+        verify(jdbcTemplate).query(contains("WHERE week_start >= ?"), any(RowCallbackHandler.class), eq(lastWeek));
+        verify(jdbcTemplate).query(contains("WHERE stat_date >= ?"), any(RowCallbackHandler.class), eq(lastWeek));
+    }
+
+    private static ResultSet reportRow(LocalDate weekStart, String status, long total) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("week_start", LocalDate.class)).thenReturn(weekStart);
+        when(rs.getString("status")).thenReturn(status);
+        when(rs.getLong("total")).thenReturn(total);
+        return rs;
+    }
+
+    private static ResultSet approvalRow(String approvalStatus, long total) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(anyString())).thenReturn(approvalStatus);
+        when(rs.getLong("total")).thenReturn(total);
+        return rs;
+    }
+}
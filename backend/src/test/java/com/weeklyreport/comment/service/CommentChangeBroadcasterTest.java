@@ -0,0 +1,135 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentResponse;
+import com.weeklyreport.comment.event.CommentChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 评论变更推送测试
+ */
+class CommentChangeBroadcasterTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 19, 9, 0);
+    private static final CommentCursor START = new CommentCursor(T0, 0L);
+
+    @Test
+    void committedChangeShouldReachOnlyThatReportsSubscribers() {
+        CommentChangeBroadcaster broadcaster = spy(new CommentChangeBroadcaster(Runnable::run, 60_000L, 10));
+        SseEmitter first = broadcaster.subscribe(1L, START);
+        SseEmitter second = broadcaster.subscribe(1L, START);
+        SseEmitter other = broadcaster.subscribe(2L, START);
+
+        CommentResponse comment = comment(7L);
+        broadcaster.handleCommentChanged(event(1L, comment, new CommentCursor(T0.plusSeconds(1), 7L)));
+
+        verify(broadcaster).send(first, comment, START.encode());
+        verify(broadcaster).send(second, comment, START.encode());
+        verify(broadcaster, never()).send(eq(other), any(), anyString());
+    }
+
+    @Test
+    void outOfOrderLiveChangesShouldNotAdvanceLastEventIdPastAnEarlierChange() {
+        CommentChangeBroadcaster broadcaster = spy(new CommentChangeBroadcaster(Runnable::run, 60_000L, 10));
+        SseEmitter emitter = broadcaster.subscribe(1L, START);
+        CommentCursor earlier = new CommentCursor(T0.plusSeconds(1), 5L);
+        CommentCursor later = new CommentCursor(T0.plusSeconds(2), 9L);
+        CommentResponse earlierComment = comment(5L);
+        CommentResponse laterComment = comment(9L);
+
+        // 较新的变更先到达，较早的变更后到达
+        broadcaster.handleCommentChanged(event(1L, laterComment, later));
+        broadcaster.handleCommentChanged(event(1L, earlierComment, earlier));
+
+        // 实时推送不推进事件ID：此时断线，Last-Event-ID 仍在两条变更之前，重连补发不会跳过较早的一条
+        verify(broadcaster).send(emitter, laterComment, START.encode());
+        verify(broadcaster).send(emitter, earlierComment, START.encode());
+
+        // 追赶按游标顺序确认，已推送过的变更只推进事件ID，不重复下发
+        broadcaster.catchUp(1L, List.of(new CommentChangeBroadcaster.Change(earlier, earlierComment),
+                                        new CommentChangeBroadcaster.Change(later, laterComment)), T0.plusSeconds(3));
+        verify(broadcaster, times(1)).send(eq(emitter), eq(laterComment), anyString());
+        verify(broadcaster, times(1)).send(eq(emitter), eq(earlierComment), anyString());
+        verify(broadcaster).sendCheckpoint(emitter, later.encode());
+    }
+
+    @Test
+    void catchUpShouldSendMissedChangesInCursorOrder() {
+        CommentChangeBroadcaster broadcaster = spy(new CommentChangeBroadcaster(Runnable::run, 60_000L, 10));
+        SseEmitter emitter = broadcaster.subscribe(1L, START);
+        CommentCursor earlier = new CommentCursor(T0.plusSeconds(1), 5L);
+        CommentCursor later = new CommentCursor(T0.plusSeconds(2), 9L);
+        CommentResponse earlierComment = comment(5L);
+        CommentResponse laterComment = comment(9L);
+
+        // 只有较新的变更在本实例实时推送过
+        broadcaster.handleCommentChanged(event(1L, laterComment, later));
+        broadcaster.catchUp(1L, List.of(new CommentChangeBroadcaster.Change(earlier, earlierComment),
+                                        new CommentChangeBroadcaster.Change(later, laterComment)), T0.plusSeconds(3));
+
+        var sent = inOrder(broadcaster);
+        sent.verify(broadcaster).send(emitter, laterComment, START.encode());
+        sent.verify(broadcaster).send(emitter, earlierComment, earlier.encode());
+        sent.verify(broadcaster).sendCheckpoint(emitter, later.encode());
+        assertEquals(later, broadcaster.getCatchUpPositions().get(1L));
+    }
+
+    @Test
+    void liveChangesOfOneReportShouldBeSentInCommitOrder() {
+        // 执行器按后进先出运行任务：没有按周报串行时，后提交的变更会先送出
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        CommentChangeBroadcaster broadcaster = spy(new CommentChangeBroadcaster(tasks::push, 60_000L, 10));
+        SseEmitter emitter = broadcaster.subscribe(1L, START);
+        CommentResponse first = comment(1L);
+        CommentResponse second = comment(2L);
+        CommentResponse third = comment(3L);
+
+        broadcaster.handleCommentChanged(event(1L, first, new CommentCursor(T0.plusSeconds(1), 1L)));
+        broadcaster.handleCommentChanged(event(1L, second, new CommentCursor(T0.plusSeconds(2), 2L)));
+        broadcaster.handleCommentChanged(event(1L, third, new CommentCursor(T0.plusSeconds(3), 3L)));
+        while (!tasks.isEmpty()) {
+            tasks.pop().run();
+        }
+
+        var sent = inOrder(broadcaster);
+        sent.verify(broadcaster).send(emitter, first, START.encode());
+        sent.verify(broadcaster).send(emitter, second, START.encode());
+        sent.verify(broadcaster).send(emitter, third, START.encode());
+    }
+
+    @Test
+    void subscribeShouldRejectBeyondInstanceLimit() {
+        CommentChangeBroadcaster broadcaster = new CommentChangeBroadcaster(Runnable::run, 60_000L, 2);
+        broadcaster.subscribe(1L, START);
+        broadcaster.subscribe(2L, START);
+
+        assertThrows(CommentChangeBroadcaster.SubscriberLimitException.class, () -> broadcaster.subscribe(3L, START));
+        assertEquals(2, broadcaster.getSubscriberCount());
+    }
+
+    private CommentChangedEvent event(Long weeklyReportId, CommentResponse comment, CommentCursor cursor) {
+        return new CommentChangedEvent(this, weeklyReportId, comment, cursor.encode());
+    }
+
+    private static CommentResponse comment(Long id) {
+        CommentResponse comment = new CommentResponse();
+        comment.setId(id);
+        return comment;
+    }
+}
@@ -0,0 +1,242 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentChangesResponse;
+import com.weeklyreport.comment.dto.CommentResponse;
+import com.weeklyreport.comment.entity.WeeklyReportComment;
+import com.weeklyreport.comment.entity.WeeklyReportComment.CommentStatus;
+import com.weeklyreport.comment.repository.WeeklyReportCommentRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import com.weeklyreport.weeklyreport.service.WeeklyReportCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 评论增量变更与订阅补发测试
+ * 仓储替身按 findChangesSince 的 (updatedAt, id) 键集条件过滤排序，验证服务层分页与游标推进
+ */
+class CommentChangeFeedTest {
+
+    private static final long REPORT_ID = 1L;
+    private static final long USER_ID = 42L;
+    private static final long SETTLE_MS = 1000L;
+
+    private final List<WeeklyReportComment> rows = new ArrayList<>();
+    private final List<LocalDateTime> upperBounds = new ArrayList<>();
+
+    private CommentChangeBroadcaster broadcaster;
+    private WeeklyReportCommentService service;
+
+    @BeforeEach
+    void setUp() {
+        WeeklyReportCommentRepository commentRepository = mock(WeeklyReportCommentRepository.class);
+        WeeklyReportRepository weeklyReportRepository = mock(WeeklyReportRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        broadcaster = spy(new CommentChangeBroadcaster(Runnable::run, 60_000L, 10));
+
+        User author = new User();
+        author.setId(USER_ID);
+        author.setUsername("author");
+        author.setRole(User.Role.EMPLOYEE);
+        WeeklyReport report = new WeeklyReport();
+        report.setId(REPORT_ID);
+        report.setUserId(USER_ID);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(author));
+        when(userRepository.findAllById(any())).thenReturn(List.of(author));
+        when(weeklyReportRepository.findById(REPORT_ID)).thenReturn(Optional.of(report));
+
+        when(commentRepository.findChangesSince(eq(REPORT_ID), any(), anyLong(), any(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                LocalDateTime updatedAt = invocation.getArgument(1);
+                long id = invocation.getArgument(2);
+                LocalDateTime upperBound = invocation.getArgument(3);
+                Pageable pageable = invocation.getArgument(4);
+                upperBounds.add(upperBound);
+                return rows.stream()
+                    .filter(c -> c.getUpdatedAt().isAfter(updatedAt)
+                        || (c.getUpdatedAt().isEqual(updatedAt) && c.getId() > id))
+                    .filter(c -> upperBound == null || !c.getUpdatedAt().isAfter(upperBound))
+                    .sorted(Comparator.comparing(WeeklyReportComment::getUpdatedAt).thenComparing(WeeklyReportComment::getId))
+                    .limit(pageable.getPageSize())
+                    .collect(Collectors.toList());
+            });
+
+        service = new WeeklyReportCommentService(commentRepository, weeklyReportRepository, userRepository,
+            mock(CommentThreadLoader.class), broadcaster, mock(WeeklyReportCounterService.class),
+            mock(ApplicationEventPublisher.class), SETTLE_MS);
+    }
+
+    @Test
+    void pagingShouldNotSkipOrRepeatChangesSharingATimestamp() {
+        LocalDateTime t = LocalDateTime.now().minusMinutes(5).withNano(0);
+        // 5 条变更中 3 条时间戳相同，并且ID不按时间顺序
+        rows.add(comment(9L, t.plusSeconds(1), CommentStatus.ACTIVE));
+        rows.add(comment(3L, t, CommentStatus.ACTIVE));
+        rows.add(comment(7L, t, CommentStatus.ACTIVE));
+        rows.add(comment(5L, t, CommentStatus.DELETED));
+        rows.add(comment(2L, t.minusSeconds(1), CommentStatus.ACTIVE));
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        boolean hasMore = true;
+        int pages = 0;
+        while (hasMore) {
+            CommentChangesResponse page = service.getCommentChangesSince(REPORT_ID, cursor, 2, USER_ID);
+            page.getChanges().forEach(change -> seen.add(change.getId()));
+            cursor = page.getNextCursor();
+            hasMore = page.isHasMore();
+            pages++;
+        }
+
+        assertEquals(List.of(2L, 3L, 5L, 7L, 9L), seen);
+        assertEquals(3, pages);
+
+        // 游标停在最后一条，之后没有新变更
+        CommentChangesResponse tail = service.getCommentChangesSince(REPORT_ID, cursor, 2, USER_ID);
+        assertTrue(tail.getChanges().isEmpty());
+        assertEquals(cursor, tail.getNextCursor());
+    }
+
+    @Test
+    void deletedChangesShouldNotLeakContent() {
+        rows.add(comment(5L, LocalDateTime.now().minusMinutes(1), CommentStatus.DELETED));
+
+        CommentResponse change = service.getCommentChangesSince(REPORT_ID, null, 10, USER_ID).getChanges().get(0);
+
+        assertEquals(CommentStatus.DELETED, change.getStatus());
+        assertEquals("", change.getContent());
+    }
+
+    @Test
+    void feedShouldHoldBackChangesInsideSettleWindow() {
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(10);
+        rows.add(comment(1L, settled, CommentStatus.ACTIVE));
+        // 时间戳落在 settle 窗口内的变更：可能还有更早时间戳的事务未提交，暂不下发
+        rows.add(comment(2L, LocalDateTime.now().plusSeconds(1), CommentStatus.ACTIVE));
+
+        LocalDateTime before = LocalDateTime.now();
+        CommentChangesResponse first = service.getCommentChangesSince(REPORT_ID, null, 10, USER_ID);
+        LocalDateTime after = LocalDateTime.now();
+
+        assertEquals(List.of(1L), first.getChanges().stream().map(CommentResponse::getId).toList());
+        assertFalse(first.isHasMore());
+        // 上界 = 当前时间 - settle
+        LocalDateTime upperBound = upperBounds.get(0);
+        assertFalse(upperBound.isBefore(before.minus(Duration.ofMillis(SETTLE_MS))));
+        assertFalse(upperBound.isAfter(after.minus(Duration.ofMillis(SETTLE_MS))));
+
+        // 游标停在已下发的变更上，窗口过去后从这里继续
+        assertEquals(new CommentCursor(settled, 1L).encode(), first.getNextCursor());
+    }
+
+    @Test
+    void subscribeShouldReplayChangesAfterLastEventIdInOrder() {
+        LocalDateTime t = LocalDateTime.now().minusMinutes(5).withNano(0);
+        rows.add(comment(1L, t, CommentStatus.ACTIVE));
+        rows.add(comment(4L, t.plusSeconds(1), CommentStatus.ACTIVE));
+        rows.add(comment(2L, t.plusSeconds(1), CommentStatus.ACTIVE));
+        // 刚提交的变更也要补发，之后到达的实时推送由客户端按ID去重
+        rows.add(comment(6L, LocalDateTime.now(), CommentStatus.ACTIVE));
+
+        SseEmitter emitter = service.subscribeCommentChanges(REPORT_ID, new CommentCursor(t, 1L).encode(), 10, USER_ID);
+
+        var replay = inOrder(broadcaster);
+        replay.verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 2L),
+            eq(new CommentCursor(t.plusSeconds(1), 2L).encode()));
+        replay.verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 4L),
+            eq(new CommentCursor(t.plusSeconds(1), 4L).encode()));
+        // settle 窗口内的变更照常补发，但事件ID停在已确认游标，重连时从这里补发窗口内晚提交的变更
+        replay.verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 6L),
+            eq(new CommentCursor(t.plusSeconds(1), 4L).encode()));
+        verify(broadcaster, never()).sendResync(any(), any());
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertNull(upperBounds.get(0));
+    }
+
+    @Test
+    void subscribeShouldAskForResyncWhenBacklogExceedsReplayLimit() {
+        LocalDateTime t = LocalDateTime.now().minusMinutes(5).withNano(0);
+        for (long id = 1; id <= 5; id++) {
+            rows.add(comment(id, t.plusSeconds(id), CommentStatus.ACTIVE));
+        }
+
+        SseEmitter emitter = service.subscribeCommentChanges(REPORT_ID, new CommentCursor(t, 0L).encode(), 3, USER_ID);
+
+        verify(broadcaster).sendResync(eq(emitter), any());
+        verify(broadcaster, never()).send(any(), any(), anyString());
+        // 仍保持订阅，客户端重新加载列表后继续接收实时推送
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void subscribeWithoutCursorShouldOnlyReceiveLiveChanges() {
+        rows.add(comment(1L, LocalDateTime.now().minusMinutes(1), CommentStatus.ACTIVE));
+
+        service.subscribeCommentChanges(REPORT_ID, null, 10, USER_ID);
+
+        verify(broadcaster, never()).send(any(), any(), anyString());
+        assertTrue(upperBounds.isEmpty());
+    }
+
+    @Test
+    void catchUpShouldDeliverChangesThatNeverReachedThisInstanceLive() {
+        LocalDateTime t = LocalDateTime.now().minusSeconds(5).withNano(0);
+        SseEmitter emitter = service.subscribeCommentChanges(REPORT_ID, new CommentCursor(t.minusMinutes(1), 0L).encode(), 10, USER_ID);
+        // 订阅之后其他实例上提交的变更：本实例没有收到事件，只能从库里追赶
+        rows.add(comment(8L, t, CommentStatus.ACTIVE));
+        rows.add(comment(3L, t.plusSeconds(1), CommentStatus.ACTIVE));
+        rows.add(comment(4L, LocalDateTime.now().plusSeconds(1), CommentStatus.ACTIVE));
+
+        service.catchUpSubscribers();
+
+        var delivered = inOrder(broadcaster);
+        delivered.verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 8L),
+            eq(new CommentCursor(t, 8L).encode()));
+        delivered.verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 3L),
+            eq(new CommentCursor(t.plusSeconds(1), 3L).encode()));
+        // settle 窗口内的变更留到下一轮
+        verify(broadcaster, never()).send(eq(emitter), argThat(change -> change.getId() == 4L), anyString());
+
+        // 已追赶到的变更不重复下发
+        service.catchUpSubscribers();
+        verify(broadcaster).send(eq(emitter), argThat(change -> change.getId() == 8L), anyString());
+    }
+
+    private static WeeklyReportComment comment(Long id, LocalDateTime updatedAt, CommentStatus status) {
+        WeeklyReportComment comment = new WeeklyReportComment(REPORT_ID, USER_ID, "评论" + id);
+        comment.setId(id);
+        comment.setStatus(status);
+        comment.setCreatedAt(updatedAt);
+        comment.setUpdatedAt(updatedAt);
+        return comment;
+    }
+}
@@ -0,0 +1,107 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentCreateRequest;
+import com.weeklyreport.comment.entity.WeeklyReportComment;
+import com.weeklyreport.comment.entity.WeeklyReportComment.CommentStatus;
+import com.weeklyreport.comment.repository.WeeklyReportCommentRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import com.weeklyreport.weeklyreport.service.WeeklyReportCounterService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 评论新增/删除时的周报评论数维护测试
+ */
+class CommentCounterTest {
+
+    private static final long REPORT_ID = 1L;
+    private static final long USER_ID = 42L;
+
+    private WeeklyReportCommentRepository commentRepository;
+    private WeeklyReportCounterService counterService;
+    private WeeklyReportCommentService service;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(WeeklyReportCommentRepository.class);
+        WeeklyReportRepository weeklyReportRepository = mock(WeeklyReportRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        counterService = mock(WeeklyReportCounterService.class);
+
+        User author = new User();
+        author.setId(USER_ID);
+        author.setUsername("author");
+        author.setRole(User.Role.SUPER_ADMIN);
+        WeeklyReport report = new WeeklyReport();
+        report.setId(REPORT_ID);
+        report.setUserId(USER_ID);
+        report.setStatus(WeeklyReport.ReportStatus.APPROVED);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(author));
+        when(weeklyReportRepository.findById(REPORT_ID)).thenReturn(Optional.of(report));
+        when(commentRepository.save(any(WeeklyReportComment.class))).thenAnswer(invocation -> {
+            WeeklyReportComment comment = invocation.getArgument(0);
+            comment.setId(10L);
+            comment.setCreatedAt(LocalDateTime.now());
+            comment.setUpdatedAt(comment.getCreatedAt());
+            return comment;
+        });
+
+        service = new WeeklyReportCommentService(commentRepository, weeklyReportRepository, userRepository,
+            mock(CommentThreadLoader.class), mock(CommentChangeBroadcaster.class), counterService,
+            mock(ApplicationEventPublisher.class), 1000L);
+    }
+
+    @Test
+    void createShouldIncrementCommentCount() {
+        service.createComment(new CommentCreateRequest(REPORT_ID, "写得不错"), USER_ID);
+
+        verify(counterService).adjustCommentCount(REPORT_ID, 1);
+    }
+
+    @Test
+    void deleteShouldDecrementCommentCountOnce() {
+        WeeklyReportComment comment = comment(CommentStatus.ACTIVE);
+        when(commentRepository.findById(10L)).thenReturn(Optional.of(comment));
+        when(commentRepository.softDeleteComment(eq(10L), any())).thenReturn(1);
+
+        service.deleteComment(10L, USER_ID);
+
+        verify(counterService).adjustCommentCount(REPORT_ID, -1);
+    }
+
+    @Test
+    void deletingAlreadyDeletedCommentShouldNotMoveCount() {
+        WeeklyReportComment comment = comment(CommentStatus.DELETED);
+        when(commentRepository.findById(10L)).thenReturn(Optional.of(comment));
+        when(commentRepository.softDeleteComment(eq(10L), any())).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> service.deleteComment(10L, USER_ID));
+
+        verify(counterService, never()).adjustCommentCount(anyLong(), anyInt());
+    }
+
+    private static WeeklyReportComment comment(CommentStatus status) {
+        WeeklyReportComment comment = new WeeklyReportComment(REPORT_ID, USER_ID, "评论");
+        comment.setId(10L);
+        comment.setStatus(status);
+        return comment;
+    }
+}
@@ -0,0 +1,30 @@
+package com.weeklyreport.comment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 评论变更游标编解码测试
+ */
+class CommentCursorTest {
+
+    @Test
+    void shouldRoundTripAndTruncateToMillis() {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 10, 19, 9, 30, 15, 123_456_789);
+
+        CommentCursor decoded = CommentCursor.decode(new CommentCursor(updatedAt, 42L).encode());
+
+        assertEquals(LocalDateTime.of(2026, 10, 19, 9, 30, 15, 123_000_000), decoded.getUpdatedAt());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode("%%%"));
+    }
+}
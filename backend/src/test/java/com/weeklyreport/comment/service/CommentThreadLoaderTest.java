@@ -0,0 +1,98 @@
+package com.weeklyreport.comment.service;
+
+import com.weeklyreport.comment.dto.CommentResponse;
+import com.weeklyreport.comment.entity.WeeklyReportComment;
+import com.weeklyreport.comment.repository.WeeklyReportCommentRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 评论楼层加载测试：50个楼层的查询次数保持常数
+ */
+class CommentThreadLoaderTest {
+
+    private WeeklyReportCommentRepository commentRepository;
+    private UserRepository userRepository;
+    private CommentThreadLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(WeeklyReportCommentRepository.class);
+        userRepository = mock(UserRepository.class);
+        loader = new CommentThreadLoader(commentRepository, userRepository, 2);
+    }
+
+    @Test
+    void shouldAssembleThreadsWithConstantQueries() {
+        List<WeeklyReportComment> threads = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            threads.add(comment(id, null, 100L));
+        }
+        when(commentRepository.findRepliesByParentCommentIds(anyCollection(), anyInt()))
+            .thenReturn(List.of(comment(1001L, 1L, 200L), comment(1002L, 1L, 100L), comment(1003L, 7L, 200L)));
+        when(commentRepository.countRepliesByParentCommentIds(anyCollection()))
+            .thenReturn(List.<Object[]>of(new Object[] {1L, 5L}, new Object[] {7L, 1L}));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user(100L, "manager"), user(200L, "admin")));
+
+        List<CommentResponse> responses = loader.loadThreads(threads);
+
+        verify(commentRepository, times(1)).findRepliesByParentCommentIds(anyCollection(), anyInt());
+        verify(commentRepository, times(1)).countRepliesByParentCommentIds(anyCollection());
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(commentRepository, never()).findRepliesWithUser(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+
+        assertEquals(50, responses.size());
+        CommentResponse first = responses.get(0);
+        assertEquals("manager", first.getUsername());
+        assertEquals(2, first.getReplies().size());
+        // 回复数来自GROUP BY，包含未内联的回复
+        assertEquals(5, first.getReplyCount());
+        assertEquals("admin", first.getReplies().get(0).getUsername());
+        assertEquals(1, responses.get(6).getReplyCount());
+        assertTrue(responses.get(1).getReplies().isEmpty());
+        assertEquals(0, responses.get(1).getReplyCount());
+    }
+
+    @Test
+    void shouldSkipQueriesForEmptyPage() {
+        assertTrue(loader.loadThreads(List.of()).isEmpty());
+        verifyNoInteractions(commentRepository, userRepository);
+    }
+
+    private static WeeklyReportComment comment(Long id, Long parentId, Long userId) {
+        WeeklyReportComment comment = new WeeklyReportComment();
+        comment.setId(id);
+        comment.setWeeklyReportId(9L);
+        comment.setParentCommentId(parentId);
+        comment.setUserId(userId);
+        comment.setContent("评论" + id);
+        return comment;
+    }
+
+    private static User user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setRole(User.Role.MANAGER);
+        return user;
+    }
+}
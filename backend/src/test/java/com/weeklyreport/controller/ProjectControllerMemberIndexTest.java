@@ -0,0 +1,72 @@
+package com.weeklyreport.controller;
+
+import com.weeklyreport.dto.project.ProjectCreateRequest;
+import com.weeklyreport.entity.Project;
+import com.weeklyreport.entity.User;
+import com.weeklyreport.project.service.ProjectMemberIndexer;
+import com.weeklyreport.repository.ProjectRepository;
+import com.weeklyreport.service.UserService;
+import com.weeklyreport.service.ai.AIAnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 旧版项目控制器创建路径测试 - 新建项目的成员必须写入成员索引
+ */
+class ProjectControllerMemberIndexTest {
+
+    private ProjectRepository projectRepository;
+    private ProjectMemberIndexer projectMemberIndexer;
+    private ProjectController controller;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        projectMemberIndexer = mock(ProjectMemberIndexer.class);
+        UserService userService = mock(UserService.class);
+
+        User manager = new User();
+        manager.setId(7L);
+        when(userService.getUserProfile("manager")).thenReturn(manager);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("manager", null, List.of()));
+
+        controller = new ProjectController();
+        ReflectionTestUtils.setField(controller, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(controller, "aiAnalysisService", mock(AIAnalysisService.class));
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        ReflectionTestUtils.setField(controller, "projectMemberIndexer", projectMemberIndexer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createShouldIndexMembersOfSavedProject() {
+        when(projectRepository.save(any(Project.class))).thenAnswer(invocation -> {
+            Project project = invocation.getArgument(0);
+            project.setId(42L);
+            return project;
+        });
+
+        ProjectCreateRequest request = new ProjectCreateRequest("索引项目", "旧接口创建");
+        request.setMembers("张三, 李四");
+
+        assertEquals(201, controller.createProject(request).getStatusCode().value());
+        verify(projectMemberIndexer).reindex(42L, "张三, 李四");
+    }
+}
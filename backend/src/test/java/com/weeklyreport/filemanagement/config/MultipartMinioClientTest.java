@@ -0,0 +1,129 @@
+package com.weeklyreport.filemanagement.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Upload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式分片上传测试：以本地HTTP替身代替MinIO
+ */
+class MultipartMinioClientTest {
+
+    private HttpServer server;
+    private MultipartMinioClient client;
+    private final AtomicReference<String> requestLine = new AtomicReference<>();
+    private final AtomicReference<byte[]> requestBody = new AtomicReference<>();
+    private final Queue<String> listPages = new ConcurrentLinkedQueue<>();
+    private final List<String> listQueries = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestLine.set(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            requestBody.set(exchange.getRequestBody().readAllBytes());
+            String listPage = exchange.getRequestURI().getRawQuery() != null
+                && exchange.getRequestURI().getRawQuery().contains("uploads") ? listPages.poll() : null;
+            if (listPage != null) {
+                listQueries.add(exchange.getRequestURI().getRawQuery());
+                byte[] xml = listPage.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/xml");
+                exchange.sendResponseHeaders(200, xml.length);
+                exchange.getResponseBody().write(xml);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"etag-1\"");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        client = new MultipartMinioClient(MinioAsyncClient.builder()
+            .endpoint("http://localhost:" + server.getAddress().getPort())
+            .region("us-east-1")
+            .credentials("minioadmin", "minioadmin")
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void uploadPartShouldForwardExactlyLengthBytes() throws Exception {
+        InputStream body = new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.US_ASCII));
+
+        String etag = client.uploadPart("weekly-reports", "chunked/a.bin", "upload-1", 3, body, 8);
+
+        assertEquals("etag-1", etag);
+        assertTrue(requestLine.get().startsWith("PUT /weekly-reports/chunked/a.bin?"));
+        assertTrue(requestLine.get().contains("uploadId=upload-1"));
+        assertTrue(requestLine.get().contains("partNumber=3"));
+        assertArrayEquals("01234567".getBytes(StandardCharsets.US_ASCII), requestBody.get());
+        // 多余字节留在流中，由调用方判定分片长度错误
+        assertArrayEquals("89".getBytes(StandardCharsets.US_ASCII), body.readAllBytes());
+    }
+
+    @Test
+    void uploadPartShouldFailOnShortBody() {
+        InputStream body = new ByteArrayInputStream(new byte[4]);
+
+        assertThrows(EOFException.class,
+            () -> client.uploadPart("weekly-reports", "chunked/a.bin", "upload-1", 1, body, 8));
+    }
+
+    @Test
+    void listShouldPageAndKeepOnlyUploadsInitiatedBeforeCutoff() throws Exception {
+        listPages.add(uploadsPage(true, "b.bin", "u2",
+            upload("a.bin", "u1", "2026-10-01T00:00:00.000Z"), upload("b.bin", "u2", "2026-10-19T00:00:00.000Z")));
+        listPages.add(uploadsPage(false, null, null, upload("c.bin", "u3", "2026-10-02T00:00:00.000Z")));
+
+        List<Upload> stale = client.listMultipartUploadsInitiatedBefore("weekly-reports",
+                                                                        ZonedDateTime.parse("2026-10-18T00:00:00Z"));
+
+        assertEquals(List.of("u1", "u3"), stale.stream().map(Upload::uploadId).toList());
+        assertEquals(2, listQueries.size());
+        // 第二页从上一页返回的标记继续
+        assertTrue(listQueries.get(1).contains("key-marker=b.bin"));
+        assertTrue(listQueries.get(1).contains("upload-id-marker=u2"));
+    }
+
+    private static String uploadsPage(boolean truncated, String nextKeyMarker, String nextUploadIdMarker, String... uploads) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<ListMultipartUploadsResult xmlns=\"http://s3.amazonaws.com/doc/2006-03-01/\">"
+            + "<Bucket>weekly-reports</Bucket><KeyMarker></KeyMarker><UploadIdMarker></UploadIdMarker>"
+            + (nextKeyMarker != null ? "<NextKeyMarker>" + nextKeyMarker + "</NextKeyMarker>" : "")
+            + (nextUploadIdMarker != null ? "<NextUploadIdMarker>" + nextUploadIdMarker + "</NextUploadIdMarker>" : "")
+            + "<MaxUploads>1000</MaxUploads><IsTruncated>" + truncated + "</IsTruncated>"
+            + String.join("", uploads)
+            + "</ListMultipartUploadsResult>";
+    }
+
+    private static String upload(String key, String uploadId, String initiated) {
+        return "<Upload><Key>" + key + "</Key><UploadId>" + uploadId + "</UploadId>"
+            + "<Initiator><ID>minio</ID><DisplayName>minio</DisplayName></Initiator>"
+            + "<Owner><ID>minio</ID><DisplayName>minio</DisplayName></Owner>"
+            + "<StorageClass>STANDARD</StorageClass><Initiated>" + initiated + "</Initiated></Upload>";
+    }
+}
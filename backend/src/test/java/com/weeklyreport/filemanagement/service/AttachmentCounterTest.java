@@ -0,0 +1,88 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.dto.FileUploadRequest;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.entity.WeeklyReportAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import com.weeklyreport.filemanagement.repository.WeeklyReportAttachmentRepository;
+import com.weeklyreport.weeklyreport.service.WeeklyReportCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 附件关联/文件删除时的周报附件数维护测试
+ */
+class AttachmentCounterTest {
+
+    private static final long USER_ID = 42L;
+
+    private FileAttachmentRepository fileAttachmentRepository;
+    private WeeklyReportAttachmentRepository weeklyReportAttachmentRepository;
+    private WeeklyReportCounterService counterService;
+    private FileManagementService service;
+    private FileAttachment fileAttachment;
+
+    @BeforeEach
+    void setUp() {
+        fileAttachmentRepository = mock(FileAttachmentRepository.class);
+        weeklyReportAttachmentRepository = mock(WeeklyReportAttachmentRepository.class);
+        counterService = mock(WeeklyReportCounterService.class);
+        service = new FileManagementService();
+        ReflectionTestUtils.setField(service, "fileAttachmentRepository", fileAttachmentRepository);
+        ReflectionTestUtils.setField(service, "weeklyReportAttachmentRepository", weeklyReportAttachmentRepository);
+        ReflectionTestUtils.setField(service, "weeklyReportCounterService", counterService);
+
+        fileAttachment = new FileAttachment("a.pdf", "stored.pdf", "general/stored.pdf",
+                                            5L, "application/pdf", "pdf", USER_ID);
+        fileAttachment.setId(7L);
+        when(fileAttachmentRepository.findById(7L)).thenReturn(Optional.of(fileAttachment));
+    }
+
+    @Test
+    void linkShouldIncrementAttachmentCount() {
+        when(weeklyReportAttachmentRepository.getMaxDisplayOrderByWeeklyReportId(1L)).thenReturn(0);
+        when(weeklyReportAttachmentRepository.save(any(WeeklyReportAttachment.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.createWeeklyReportAttachment(fileAttachment,
+            new FileUploadRequest(1L, WeeklyReportAttachment.AttachmentType.GENERAL), USER_ID);
+
+        verify(counterService).adjustAttachmentCount(1L, 1);
+    }
+
+    @Test
+    void deleteShouldDecrementEveryLinkedReport() {
+        when(weeklyReportAttachmentRepository.findByFileAttachmentId(7L)).thenReturn(List.of(
+            new WeeklyReportAttachment(1L, 7L, WeeklyReportAttachment.AttachmentType.GENERAL),
+            new WeeklyReportAttachment(2L, 7L, WeeklyReportAttachment.AttachmentType.GENERAL)));
+
+        service.deleteFile(7L, USER_ID);
+
+        verify(counterService).adjustAttachmentCount(1L, -1);
+        verify(counterService).adjustAttachmentCount(2L, -1);
+    }
+
+    @Test
+    void deletingAlreadyDeletedFileShouldNotMoveCount() {
+        fileAttachment.markAsDeleted();
+        when(weeklyReportAttachmentRepository.findByFileAttachmentId(7L)).thenReturn(List.of(
+            new WeeklyReportAttachment(1L, 7L, WeeklyReportAttachment.AttachmentType.GENERAL)));
+
+        service.deleteFile(7L, USER_ID);
+
+        verify(counterService, never()).adjustAttachmentCount(anyLong(), anyInt());
+        verify(fileAttachmentRepository, never()).save(any());
+    }
+}
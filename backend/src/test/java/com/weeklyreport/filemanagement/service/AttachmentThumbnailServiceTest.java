@@ -0,0 +1,113 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import okhttp3.Headers;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 附件缩略图生成测试
+ */
+class AttachmentThumbnailServiceTest {
+
+    private MinioClient minioClient;
+    private FileAttachmentRepository fileAttachmentRepository;
+    private AttachmentThumbnailService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioClient = mock(MinioClient.class);
+        fileAttachmentRepository = mock(FileAttachmentRepository.class);
+        service = new AttachmentThumbnailService();
+        setField("minioClient", minioClient);
+        setField("fileAttachmentRepository", fileAttachmentRepository);
+        setField("fileProcessingExecutor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void imageShouldProduceBoundedJpegThumbnail() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_ARGB), "png", png);
+        FileAttachment image = attachment("image/png", png.toByteArray());
+
+        service.submit(image);
+
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient).putObject(captor.capture());
+        PutObjectArgs put = captor.getValue();
+        assertEquals("derived/reports/photo.png.thumb.jpg", put.object());
+        assertEquals("image/jpeg", put.contentType());
+
+        BufferedImage thumbnail = ImageIO.read(put.stream());
+        assertEquals(320, thumbnail.getWidth());
+        assertEquals(240, thumbnail.getHeight());
+        assertTrue(put.objectSize() < png.size());
+        verify(fileAttachmentRepository).updateDerivedPaths(eq(1L), eq("derived/reports/photo.png.thumb.jpg"), isNull());
+    }
+
+    @Test
+    void pdfShouldProduceFirstPagePreviewAndThumbnail() throws Exception {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf);
+        }
+        FileAttachment attachment = attachment("application/pdf", pdf.toByteArray());
+
+        service.submit(attachment);
+
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient, times(2)).putObject(captor.capture());
+        List<PutObjectArgs> puts = captor.getAllValues();
+        assertEquals("derived/reports/photo.png.preview.jpg", puts.get(0).object());
+        assertEquals("derived/reports/photo.png.thumb.jpg", puts.get(1).object());
+        assertEquals(320, ImageIO.read(puts.get(1).stream()).getHeight());
+        verify(fileAttachmentRepository).updateDerivedPaths(1L, "derived/reports/photo.png.thumb.jpg",
+                                                            "derived/reports/photo.png.preview.jpg");
+    }
+
+    private FileAttachment attachment(String mimeType, byte[] content) throws Exception {
+        FileAttachment attachment = new FileAttachment("photo", "photo.png", "reports/photo.png",
+                                                       (long) content.length, mimeType, "png", 1L);
+        attachment.setId(1L);
+        attachment.setBucketName("weekly-reports");
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation ->
+            new GetObjectResponse(Headers.of(), "weekly-reports", null, "reports/photo.png",
+                                  new ByteArrayInputStream(content)));
+        return attachment;
+    }
+
+    private void setField(String name, Object value) throws Exception {
+        Field field = AttachmentThumbnailService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
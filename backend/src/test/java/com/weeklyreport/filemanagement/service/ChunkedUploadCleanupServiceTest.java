@@ -0,0 +1,95 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.config.MultipartMinioClient;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import com.weeklyreport.filemanagement.repository.FileUploadPartRepository;
+import io.minio.messages.Upload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 过期分片上传清理测试
+ */
+class ChunkedUploadCleanupServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private FileAttachmentRepository fileAttachmentRepository;
+    private FileUploadPartRepository fileUploadPartRepository;
+    private MultipartMinioClient multipartMinioClient;
+    private ChunkedUploadCleanupService service;
+
+    @BeforeEach
+    void setUp() {
+        fileAttachmentRepository = mock(FileAttachmentRepository.class);
+        fileUploadPartRepository = mock(FileUploadPartRepository.class);
+        multipartMinioClient = mock(MultipartMinioClient.class);
+        MinIOConfig.MinIOProperties properties = new MinIOConfig.MinIOProperties();
+        properties.setBucketName("weekly-reports");
+        service = new ChunkedUploadCleanupService(fileAttachmentRepository, fileUploadPartRepository, multipartMinioClient,
+                                                  properties, mock(PlatformTransactionManager.class), 24);
+    }
+
+    @Test
+    void staleUploadShouldBeFailedAndAborted() throws Exception {
+        when(fileAttachmentRepository.findStaleMultipartUploads(eq(CUTOFF), any(Pageable.class)))
+            .thenReturn(List.of(upload(7L, "upload-7"), upload(8L, "upload-8")));
+        when(fileAttachmentRepository.expireMultipartUpload(eq(7L), eq("upload-7"), anyString())).thenReturn(1);
+        // 8号已被并发合并抢先领取
+        when(fileAttachmentRepository.expireMultipartUpload(eq(8L), eq("upload-8"), anyString())).thenReturn(0);
+
+        assertEquals(1, service.expireTrackedUploads(CUTOFF));
+
+        verify(fileUploadPartRepository).deleteByFileAttachmentId(7L);
+        verify(multipartMinioClient).abortMultipartUpload("weekly-reports", "chunked/7.bin", "upload-7");
+        verify(fileUploadPartRepository, never()).deleteByFileAttachmentId(8L);
+        verify(multipartMinioClient, never()).abortMultipartUpload(anyString(), eq("chunked/8.bin"), anyString());
+    }
+
+    @Test
+    void untrackedMinioUploadShouldBeAborted() throws Exception {
+        Upload orphan = mock(Upload.class);
+        when(orphan.objectName()).thenReturn("chunked/orphan.bin");
+        when(orphan.uploadId()).thenReturn("orphan-1");
+        Upload active = mock(Upload.class);
+        when(active.objectName()).thenReturn("chunked/large.bin");
+        when(active.uploadId()).thenReturn("large-1");
+        when(multipartMinioClient.listMultipartUploadsInitiatedBefore(eq("weekly-reports"), any(ZonedDateTime.class)))
+            .thenReturn(List.of(orphan, active));
+        when(fileAttachmentRepository.existsByMultipartUploadId("large-1")).thenReturn(true);
+
+        assertEquals(1, service.abortUntrackedUploads(CUTOFF));
+
+        verify(multipartMinioClient).abortMultipartUpload("weekly-reports", "chunked/orphan.bin", "orphan-1");
+        verify(multipartMinioClient, never()).abortMultipartUpload(anyString(), eq("chunked/large.bin"), anyString());
+        verify(fileUploadPartRepository, never()).deleteByFileAttachmentId(anyLong());
+    }
+
+    private static FileAttachment upload(Long id, String uploadId) {
+        FileAttachment fileAttachment = new FileAttachment(id + ".bin", id + ".bin", "chunked/" + id + ".bin",
+                                                           10L, "application/octet-stream", "bin", 1L);
+        fileAttachment.setId(id);
+        fileAttachment.setBucketName("weekly-reports");
+        fileAttachment.setUploadStatus(FileAttachment.UploadStatus.UPLOADING);
+        fileAttachment.setMultipartUploadId(uploadId);
+        return fileAttachment;
+    }
+}
@@ -0,0 +1,176 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MultipartMinioClient;
+import com.weeklyreport.filemanagement.dto.FileUploadResponse;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import com.weeklyreport.filemanagement.entity.FileUploadPart;
+import com.weeklyreport.filemanagement.repository.FileAttachmentRepository;
+import com.weeklyreport.filemanagement.repository.FileUploadPartRepository;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.messages.Part;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分片上传合并测试：领取合并、内容哈希与去重
+ */
+class ChunkedUploadServiceTest {
+
+    // SHA-256("hello")
+    private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private MinioClient minioClient;
+    private MultipartMinioClient multipartMinioClient;
+    private FileAttachmentRepository fileAttachmentRepository;
+    private FileUploadPartRepository fileUploadPartRepository;
+    private StreamingObjectUploader streamingObjectUploader;
+    private AttachmentThumbnailService attachmentThumbnailService;
+    private ChunkedUploadService service;
+    private FileAttachment fileAttachment;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioClient = mock(MinioClient.class);
+        multipartMinioClient = mock(MultipartMinioClient.class);
+        fileAttachmentRepository = mock(FileAttachmentRepository.class);
+        fileUploadPartRepository = mock(FileUploadPartRepository.class);
+        streamingObjectUploader = mock(StreamingObjectUploader.class);
+        attachmentThumbnailService = mock(AttachmentThumbnailService.class);
+        service = new ChunkedUploadService();
+        ReflectionTestUtils.setField(service, "minioClient", minioClient);
+        ReflectionTestUtils.setField(service, "multipartMinioClient", multipartMinioClient);
+        ReflectionTestUtils.setField(service, "fileAttachmentRepository", fileAttachmentRepository);
+        ReflectionTestUtils.setField(service, "fileUploadPartRepository", fileUploadPartRepository);
+        ReflectionTestUtils.setField(service, "streamingObjectUploader", streamingObjectUploader);
+        ReflectionTestUtils.setField(service, "attachmentThumbnailService", attachmentThumbnailService);
+        ReflectionTestUtils.setField(service, "fileManagementService", mock(FileManagementService.class));
+        service.setTransactionManager(mock(PlatformTransactionManager.class));
+
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            return new GetObjectResponse(Headers.of(), args.bucket(), null, args.object(),
+                new ByteArrayInputStream("hello".getBytes(StandardCharsets.US_ASCII)));
+        });
+
+        fileAttachment = new FileAttachment("a.bin", "stored.bin", "chunked/stored.bin",
+                                            5L, "application/octet-stream", "bin", 1L);
+        fileAttachment.setId(7L);
+        fileAttachment.setBucketName("weekly-reports");
+        fileAttachment.setUploadStatus(FileAttachment.UploadStatus.UPLOADING);
+        fileAttachment.setMultipartUploadId("upload-1");
+        fileAttachment.setPartSize(5L);
+        fileAttachment.setTotalParts(1);
+
+        when(fileAttachmentRepository.findById(7L)).thenReturn(Optional.of(fileAttachment));
+        when(fileUploadPartRepository.findByFileAttachmentId(7L))
+            .thenReturn(List.of(new FileUploadPart(7L, 1, "etag-1", 5L)));
+        when(fileAttachmentRepository.claimCompletion(7L)).thenAnswer(invocation -> {
+            fileAttachment.setUploadStatus(FileAttachment.UploadStatus.COMPLETING);
+            return 1;
+        });
+        when(fileAttachmentRepository.saveAndFlush(any(FileAttachment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void completedUploadShouldRecordContentHash() throws Exception {
+        when(fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(HELLO_SHA256)).thenReturn(Optional.empty());
+
+        FileUploadResponse response = service.completeUpload(7L, null, 1L, null);
+
+        assertEquals(7L, response.getFileId());
+        assertEquals(HELLO_SHA256, fileAttachment.getFileHash());
+        assertEquals(FileAttachment.UploadStatus.COMPLETED, fileAttachment.getUploadStatus());
+        assertNull(fileAttachment.getMultipartUploadId());
+        verify(multipartMinioClient).completeMultipartUpload(anyString(), anyString(), anyString(), any(Part[].class));
+        verify(fileUploadPartRepository).deleteByFileAttachmentId(7L);
+        verify(attachmentThumbnailService).submit(fileAttachment);
+        verify(streamingObjectUploader, never()).remove(anyString(), anyString());
+    }
+
+    @Test
+    void duplicateContentShouldReuseExistingFile() {
+        FileAttachment existing = existingFile();
+        when(fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(HELLO_SHA256)).thenReturn(Optional.of(existing));
+
+        FileUploadResponse response = service.completeUpload(7L, null, 1L, null);
+
+        assertEquals(3L, response.getFileId());
+        assertEquals(FileAttachment.UploadStatus.DELETED, fileAttachment.getUploadStatus());
+        assertNotNull(fileAttachment.getDeletedAt());
+        verify(streamingObjectUploader).remove("weekly-reports", "chunked/stored.bin");
+        verify(attachmentThumbnailService, never()).submit(any());
+    }
+
+    @Test
+    void concurrentDuplicateShouldReuseCommittedWinner() {
+        FileAttachment existing = existingFile();
+        when(fileAttachmentRepository.findByFileHashAndDeletedAtIsNull(HELLO_SHA256))
+            .thenReturn(Optional.empty(), Optional.of(existing));
+        when(fileAttachmentRepository.saveAndFlush(any(FileAttachment.class)))
+            .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'uk_file_attachments_active_hash'"));
+
+        FileUploadResponse response = service.completeUpload(7L, null, 1L, null);
+
+        assertEquals(3L, response.getFileId());
+        assertEquals(FileAttachment.UploadStatus.DELETED, fileAttachment.getUploadStatus());
+        verify(streamingObjectUploader).remove("weekly-reports", "chunked/stored.bin");
+    }
+
+    @Test
+    void concurrentCompleteShouldBeRejectedWhenClaimLost() throws Exception {
+        when(fileAttachmentRepository.claimCompletion(7L)).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> service.completeUpload(7L, null, 1L, null));
+
+        verify(multipartMinioClient, never()).completeMultipartUpload(anyString(), anyString(), anyString(), any(Part[].class));
+    }
+
+    @Test
+    void failedMergeShouldReleaseClaim() throws Exception {
+        doThrow(new IllegalStateException("InvalidPart")).when(multipartMinioClient)
+            .completeMultipartUpload(anyString(), anyString(), anyString(), any(Part[].class));
+
+        assertThrows(RuntimeException.class, () -> service.completeUpload(7L, null, 1L, null));
+
+        verify(fileAttachmentRepository).releaseCompletion(7L);
+    }
+
+    @Test
+    void unreadableObjectShouldSkipHash() throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenThrow(new RuntimeException("connection refused"));
+
+        assertNull(service.computeFileHash(fileAttachment));
+    }
+
+    private static FileAttachment existingFile() {
+        FileAttachment existing = new FileAttachment("b.bin", "old.bin", "chunked/old.bin",
+                                                     5L, "application/octet-stream", "bin", 2L);
+        existing.setId(3L);
+        existing.setFileHash(HELLO_SHA256);
+        existing.setUploadStatus(FileAttachment.UploadStatus.COMPLETED);
+        return existing;
+    }
+}
@@ -0,0 +1,53 @@
+package com.weeklyreport.filemanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文件访问日志分区维护测试
+ */
+class FileAccessLogMaintenanceServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FileAccessLogMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new FileAccessLogMaintenanceService(jdbcTemplate, 12, 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("file_access_logs")))
+            .thenReturn(List.of("p202510", "p202511", "p202610", "p202611", "pmax"));
+    }
+
+    @Test
+    void shouldSplitPmaxForMissingFutureMonths() {
+        service.ensureFuturePartitions(YearMonth.of(2026, 11));
+
+        verify(jdbcTemplate).execute("ALTER TABLE file_access_logs REORGANIZE PARTITION pmax INTO (" +
+                                     "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), " +
+                                     "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        verify(jdbcTemplate).execute("ALTER TABLE file_access_logs REORGANIZE PARTITION pmax INTO (" +
+                                     "PARTITION p202701 VALUES LESS THAN ('2027-02-01'), " +
+                                     "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void shouldDropOnlyPartitionsOlderThanRetention() {
+        service.dropExpiredPartitions(YearMonth.of(2026, 11));
+
+        verify(jdbcTemplate).execute("ALTER TABLE file_access_logs DROP PARTITION p202510");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE file_access_logs DROP PARTITION p202511");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE file_access_logs DROP PARTITION pmax");
+    }
+}
@@ -0,0 +1,98 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.entity.FileAccessLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文件访问写后缓冲测试
+ */
+class FileAccessRecorderTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private FileAccessRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        // 定时落库间隔设得足够长，由测试手动触发flush
+        recorder = new FileAccessRecorder(jdbcTemplate, mock(PlatformTransactionManager.class),
+                                          mock(UserAgentDictionary.class), 3_600_000L, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentDownloadsShouldBeAggregatedIntoOneIncrement() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    recorder.recordDownload(42L);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        recorder.flush();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE file_attachments SET download_count = download_count + ? WHERE id = ?"),
+                                         captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertArrayEquals(new Object[] {4000L, 42L}, captor.getValue().get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushShouldKeepBufferedEntriesForRetry() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"))
+                                                              .thenReturn(new int[0]);
+        recorder.recordDownload(7L);
+        recorder.recordAccess(7L, 1L, FileAccessLog.AccessAction.DOWNLOAD, "127.0.0.1", "junit");
+
+        try {
+            recorder.flush();
+        } catch (RuntimeException expected) {
+            // 第一次落库失败
+        }
+        recorder.flush();
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), captor.capture());
+        assertArrayEquals(new Object[] {1L, 7L}, captor.getAllValues().get(1).get(0));
+        assertEquals(1, captor.getAllValues().get(2).size());
+
+        // 缓冲已清空，再次flush不应访问数据库
+        recorder.flush();
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,179 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import com.weeklyreport.filemanagement.entity.FileAttachment;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 下载路径基准测试
+ * 用模拟MinIO替身按请求的offset/length返回内容，统计代理下载吞吐（MB/s），并校验Range与条件请求语义
+ */
+class StreamingObjectDownloaderBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingObjectDownloaderBenchmarkTest.class);
+
+    private static final long FILE_SIZE = 100L * 1024 * 1024;
+    private static final String FILE_HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private StreamingObjectDownloader downloader;
+    private FileAttachment fileAttachment;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MinioClient minioClient = mock(MinioClient.class);
+        // MinIO替身：只生成请求区间的字节
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenAnswer(invocation -> {
+            GetObjectArgs args = invocation.getArgument(0);
+            long offset = args.offset() != null ? args.offset() : 0;
+            long length = args.length() != null ? args.length() : FILE_SIZE - offset;
+            return new GetObjectResponse(Headers.of(), args.bucket(), null, args.object(),
+                                         new PatternInputStream(offset, length));
+        });
+        MinIOConfig.MinIOProperties properties = new MinIOConfig.MinIOProperties();
+        properties.setEndpoint("http://minio:9000");
+        properties.setPublicEndpoint("https://files.example.com");
+        downloader = new StreamingObjectDownloader(minioClient, new MinIOConfig(properties).presignMinioClient(), properties);
+
+        fileAttachment = new FileAttachment("bench.bin", "stored.bin", "bench/stored.bin",
+                                            FILE_SIZE, "application/octet-stream", "bin", 1L);
+        fileAttachment.setId(1L);
+        fileAttachment.setBucketName("weekly-reports");
+        fileAttachment.setFileHash(FILE_HASH);
+        fileAttachment.setCreatedAt(LocalDateTime.now().minusDays(1));
+    }
+
+    @Test
+    void proxyDownloadThroughput() throws Exception {
+        long startNanos = System.nanoTime();
+        ResponseEntity<Resource> response = downloader.proxy(fileAttachment, new MockHttpServletRequest());
+        long bytes = drain(response.getBody());
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        logger.info("代理下载基准: {} MB, {} MB/s", FILE_SIZE / 1024 / 1024,
+                    String.format("%.1f", FILE_SIZE / 1024.0 / 1024.0 / seconds));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(FILE_SIZE, bytes);
+        assertEquals("\"" + FILE_HASH + "\"", response.getHeaders().getETag());
+        assertTrue(StreamingObjectDownloader.isNewDownload(response));
+    }
+
+    @Test
+    void rangeRequestShouldFetchOnlyRequestedBytes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=1048576-2097151");
+
+        ResponseEntity<Resource> response = downloader.proxy(fileAttachment, request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 1048576-2097151/" + FILE_SIZE, response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(1024 * 1024, drain(response.getBody()));
+        assertFalse(StreamingObjectDownloader.isNewDownload(response));
+    }
+
+    @Test
+    void unsatisfiableRangeShouldReturn416() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + FILE_SIZE + "-");
+
+        ResponseEntity<Resource> response = downloader.proxy(fileAttachment, request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */" + FILE_SIZE, response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void matchingETagShouldReturn304() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"" + FILE_HASH + "\"");
+
+        ResponseEntity<Resource> response = downloader.proxy(fileAttachment, request);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertFalse(StreamingObjectDownloader.isNewDownload(response));
+    }
+
+    @Test
+    void redirectShouldSignPublicEndpointAndDefaultContentType() throws Exception {
+        fileAttachment.setMimeType(null);
+
+        ResponseEntity<Resource> response = downloader.redirect(fileAttachment);
+
+        assertEquals(HttpStatus.FOUND, response.getStatusCode());
+        URI location = response.getHeaders().getLocation();
+        assertEquals("files.example.com", location.getHost());
+        assertTrue(location.getPath().endsWith("/weekly-reports/bench/stored.bin"));
+        assertTrue(location.getQuery().contains("response-content-type=application/octet-stream"));
+        assertTrue(location.getQuery().contains("X-Amz-Signature="));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        assertEquals("application/octet-stream",
+            downloader.proxy(fileAttachment, request).getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    private long drain(Resource resource) throws Exception {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (InputStream in = resource.getInputStream()) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 按固定模式生成内容的输入流，不占用与长度成比例的内存
+     */
+    private static class PatternInputStream extends InputStream {
+        private final long end;
+        private long position;
+
+        PatternInputStream(long offset, long length) {
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() {
+            return position < end ? (int) (position++ * 31 & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (position >= end) {
+                return -1;
+            }
+            int n = (int) Math.min(count, end - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) (position++ * 31);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.weeklyreport.filemanagement.service;
+
+import com.weeklyreport.filemanagement.config.MinIOConfig;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 单遍流式上传吞吐量与内存基准
+ * 每次操作上传 100 MB，MinIO替身与SDK分片上传一样每次只缓冲一个分片；
+ * 分叉JVM堆上限 64 MB，小于文件大小，整文件缓冲会直接OOM。
+ * 运行: 执行 main 方法（附带GC profiler，gc.alloc.rate.norm 为每次上传分配字节数；结束时打印峰值堆占用）
+ * 吞吐 MB/s = 100 / (平均耗时ms / 1000)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms64m", "-Xmx64m"})
+public class StreamingObjectUploaderBenchmark {
+
+    private static final long FILE_SIZE = 100L * 1024 * 1024;
+
+    private StreamingObjectUploader uploader;
+
+    @Setup
+    public void setUp() throws Exception {
+        MinIOConfig.MinIOProperties properties = new MinIOConfig.MinIOProperties();
+        // stubOnly：不记录调用，避免替身本身随迭代次数占用内存
+        MinioClient minioClient = mock(MinioClient.class, withSettings().stubOnly());
+        byte[] part = new byte[(int) properties.getPartSize()];
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            PutObjectArgs args = invocation.getArgument(0);
+            InputStream in = args.stream();
+            while (in.readNBytes(part, 0, part.length) > 0) {
+                // 丢弃分片内容
+            }
+            return null;
+        });
+        uploader = new StreamingObjectUploader(minioClient, properties);
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @Benchmark
+    public StreamingObjectUploader.UploadResult upload100Mb() throws Exception {
+        return uploader.upload(new PatternInputStream(FILE_SIZE), FILE_SIZE,
+                               "application/pdf", "weekly-reports", "bench/object.bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void reportPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("峰值堆占用: %.1f MB (上限 %d MB)%n", peak / 1024.0 / 1024.0,
+                          Runtime.getRuntime().maxMemory() / 1024 / 1024);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(StreamingObjectUploaderBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+
+    /**
+     * 按固定模式生成内容的输入流，不占用与长度成比例的内存
+     */
+    private static class PatternInputStream extends InputStream {
+        private final long length;
+        private long position;
+
+        PatternInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ * 31 & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(count, length - position);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = (byte) (position++ * 31);
+            }
+            return n;
+        }
+    }
+}
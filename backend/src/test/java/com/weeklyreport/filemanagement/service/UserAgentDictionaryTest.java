@@ -0,0 +1,69 @@
+package com.weeklyreport.filemanagement.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * User-Agent字典缓存测试
+ */
+class UserAgentDictionaryTest {
+
+    private static final String SELECT_SQL = "SELECT id FROM user_agents WHERE ua_hash = ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private UserAgentDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(eq(SELECT_SQL), eq(Integer.class), anyString())).thenReturn(7);
+        dictionary = new UserAgentDictionary(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackLookupShouldNotBeCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(7, dictionary.resolve("Mozilla/5.0"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        dictionary.resolve("Mozilla/5.0");
+
+        verify(jdbcTemplate, times(2)).queryForObject(eq(SELECT_SQL), eq(Integer.class), anyString());
+    }
+
+    @Test
+    void committedLookupShouldBeServedFromCache() {
+        TransactionSynchronizationManager.initSynchronization();
+        dictionary.resolve("Mozilla/5.0");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(7, dictionary.resolve("Mozilla/5.0"));
+
+        verify(jdbcTemplate, times(1)).queryForObject(eq(SELECT_SQL), eq(Integer.class), anyString());
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
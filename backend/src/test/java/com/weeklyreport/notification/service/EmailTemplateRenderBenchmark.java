@@ -0,0 +1,80 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.notification.dto.NotificationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 邮件渲染吞吐量与单封分配量基准
+ * 运行: 执行 main 方法（附带GC profiler，输出 gc.alloc.rate.norm 即每封邮件分配字节数）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateRenderBenchmark {
+
+    private EmailTemplateService templateService;
+    private NotificationRequest projectRequest;
+    private NotificationRequest weeklyReportRequest;
+
+    @Setup
+    public void setUp() {
+        templateService = new EmailTemplateService();
+        projectRequest = NotificationRequest.builder()
+            .notificationType(NotificationRequest.NotificationType.ADMIN_REJECTED)
+            .recipientType(NotificationRequest.RecipientType.PROJECT_MANAGER)
+            .projectId(1024L)
+            .projectName("周报系统二期")
+            .projectOwnerName("zhangsan")
+            .reviewerName("lisi")
+            .rejectionReason("预算说明不完整，请补充人力成本明细")
+            .timestamp(LocalDateTime.of(2026, 10, 19, 9, 30))
+            .build();
+        weeklyReportRequest = NotificationRequest.builder()
+            .notificationType(NotificationRequest.NotificationType.WEEKLY_REPORT_ADMIN_REJECTED)
+            .recipientType(NotificationRequest.RecipientType.WEEKLY_REPORT_SUPERVISOR)
+            .weeklyReportId(2048L)
+            .weeklyReportTitle("第42周工作周报")
+            .reportWeek("2026-W42")
+            .reportAuthorName("wangwu")
+            .reviewerName("lisi")
+            .rejectionReason("本周任务进度描述过于简略")
+            .timestamp(LocalDateTime.of(2026, 10, 19, 9, 30))
+            .build();
+    }
+
+    @Benchmark
+    public EmailTemplateService.RenderedEmail renderProjectNotification() {
+        return templateService.render(projectRequest);
+    }
+
+    @Benchmark
+    public EmailTemplateService.RenderedEmail renderWeeklyReportNotification() {
+        return templateService.render(weeklyReportRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(EmailTemplateRenderBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,55 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.notification.dto.NotificationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预编译邮件模板测试
+ */
+class EmailTemplateServiceTest {
+
+    private final EmailTemplateService templateService = new EmailTemplateService();
+
+    @Test
+    void shouldFillSlotsAndEscapeValues() {
+        EmailTemplate template = EmailTemplate.compile("<p>{{name}}：{{{badge}}} {{name}}</p>", "name", "badge");
+
+        assertEquals("<p>a&lt;b&gt;：<b>ok</b> a&lt;b&gt;</p>", template.render("a<b>", "<b>ok</b>"));
+        assertEquals("<p>：</p>", EmailTemplate.compile("<p>{{x}}：</p>", "x").render((String) null));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{missing}}", "name"));
+    }
+
+    @Test
+    void shouldRenderCompleteDocumentOnce() {
+        NotificationRequest request = NotificationRequest.builder()
+            .notificationType(NotificationRequest.NotificationType.ADMIN_REJECTED)
+            .recipientType(NotificationRequest.RecipientType.PROJECT_MANAGER)
+            .projectId(7L)
+            .projectName("周报系统")
+            .reviewerName("lisi")
+            .rejectionReason("<script>alert(1)</script>")
+            .timestamp(LocalDateTime.of(2026, 10, 19, 9, 30))
+            .build();
+
+        EmailTemplateService.RenderedEmail email = templateService.render(request);
+
+        assertEquals("【审核被拒】项目 周报系统 已被管理员拒绝", email.getSubject());
+        String html = email.getHtmlContent();
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.endsWith("</html>"));
+        assertTrue(html.contains(".action-button"));
+        assertTrue(html.contains("<p><strong>项目名称：</strong>周报系统</p>"));
+        assertTrue(html.contains("<span class='status-badge status-danger'>已拒绝</span>"));
+        assertTrue(html.contains("管理员 lisi 未能通过"));
+        assertTrue(html.contains("&lt;script&gt;"));
+        assertFalse(html.contains("<script>"));
+        assertTrue(html.contains("2026-10-19 09:30:00"));
+    }
+}
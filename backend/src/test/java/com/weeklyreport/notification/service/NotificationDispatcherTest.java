@@ -0,0 +1,145 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.common.util.EmailSenderUtil;
+import com.weeklyreport.notification.dto.OutboxMessage;
+import com.weeklyreport.notification.repository.NotificationOutboxRepository;
+import jakarta.mail.Address;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通知发件箱投递测试（使用本地内存SMTP替身）
+ */
+class NotificationDispatcherTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 10, 0);
+
+    private NotificationOutboxRepository outboxRepository;
+    private RecordingMailSender mailSender;
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(NotificationOutboxRepository.class);
+        mailSender = new RecordingMailSender();
+        dispatcher = new NotificationDispatcher(outboxRepository, new EmailSenderUtil(mailSender),
+                                                new EmailTemplateService(), Runnable::run, 1,
+                                                100, 3, 30, 300, 14);
+    }
+
+    @Test
+    void shouldMergeMessagesForSameRecipientIntoOneDigest() throws Exception {
+        when(outboxRepository.claimDue(eq(NOW), anyInt(), any())).thenReturn(List.of(
+            message(1L, "a@company.com", "【周报待审核】张三 的周报需要管理员审核", 1),
+            message(2L, "a@company.com", "【周报待审核】李四 的周报需要管理员审核", 1),
+            message(3L, "b@company.com", "【周报已通过】王五 的周报已通过管理员审核", 1)));
+
+        assertEquals(2, dispatcher.dispatch(NOW));
+
+        assertEquals(1, mailSender.connections);
+        assertEquals(2, mailSender.sent.size());
+        MimeMessage digest = mailSender.sent.get(0);
+        assertEquals("【周报管理系统】您有 2 条新通知", digest.getSubject());
+        String body = (String) digest.getContent();
+        assertTrue(body.contains("张三") && body.contains("李四"));
+        assertEquals("【周报已通过】王五 的周报已通过管理员审核", mailSender.sent.get(1).getSubject());
+        verify(outboxRepository).markSent(List.of(1L, 2L, 3L), NOW);
+    }
+
+    @Test
+    void shouldRetryFailedRecipientAndDeadLetterExhaustedOnes() {
+        mailSender.failingRecipient = "b@company.com";
+        when(outboxRepository.claimDue(eq(NOW), anyInt(), any())).thenReturn(List.of(
+            message(1L, "a@company.com", "通知一", 1),
+            message(2L, "b@company.com", "通知二", 2),
+            message(3L, "b@company.com", "通知三", 3)));
+
+        assertEquals(1, dispatcher.dispatch(NOW));
+
+        verify(outboxRepository).markSent(List.of(1L), NOW);
+        // 第2次失败，退避 30s * 2
+        verify(outboxRepository).markRetry(eq(List.of(2L)), eq(NOW.plusSeconds(60)), anyString());
+        verify(outboxRepository).markDead(eq(List.of(3L)), anyString());
+    }
+
+    @Test
+    void rejectedRoundShouldReleaseItsSlot() {
+        AtomicInteger submissions = new AtomicInteger();
+        Executor rejectingOnce = task -> {
+            if (submissions.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("queue full");
+            }
+            task.run();
+        };
+        NotificationDispatcher single = new NotificationDispatcher(outboxRepository, new EmailSenderUtil(mailSender),
+                                                                   new EmailTemplateService(), rejectingOnce, 1,
+                                                                   100, 3, 30, 300, 14);
+
+        single.dispatchDue();
+        single.dispatchDue();
+
+        // 第一轮被拒绝后名额已归还，第二轮仍能认领
+        assertEquals(2, submissions.get());
+        verify(outboxRepository).claimDue(any(), anyInt(), any());
+    }
+
+    private OutboxMessage message(Long id, String recipient, String subject, int attempts) {
+        return new OutboxMessage(id, recipient, "WEEKLY_REPORT_PENDING_ADMIN_REVIEW", subject,
+                                 "<div class='content'><p>" + subject + "</p></div>", attempts, NOW.minusMinutes(1));
+    }
+
+    /**
+     * SMTP替身：记录每次连接投递的邮件，可让指定收件人失败
+     */
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<MimeMessage> sent = new ArrayList<>();
+        private int connections;
+        private String failingRecipient;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            connections++;
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    Address[] to = message.getAllRecipients();
+                    if (failingRecipient != null && failingRecipient.equals(to[0].toString())) {
+                        failed.put(message, new IllegalStateException("550 mailbox unavailable"));
+                    } else {
+                        message.saveChanges();
+                        sent.add(message);
+                    }
+                } catch (Exception e) {
+                    failed.put(message, e);
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.weeklyreport.notification.service;
+
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.repository.ProjectRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通知收件人缓存测试
+ */
+class NotificationRecipientCacheTest {
+
+    private UserRepository userRepository;
+    private ProjectRepository projectRepository;
+    private NotificationRecipientCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        cache = new NotificationRecipientCache(userRepository, projectRepository, 600);
+    }
+
+    @Test
+    void shouldServeRoleEmailsFromMemoryUntilRoleChanges() {
+        User admin = user(1L, "admin@company.com", User.Role.ADMIN);
+        when(userRepository.findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE)).thenReturn(List.of(admin));
+
+        assertEquals(List.of("admin@company.com"), cache.getRoleEmails(User.Role.ADMIN));
+        assertEquals(List.of("admin@company.com"), cache.getRoleEmails(User.Role.ADMIN));
+        verify(userRepository, times(1)).findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE);
+
+        // 与缓存一致的更新不失效
+        cache.onUserChanged(admin, false);
+        cache.getRoleEmails(User.Role.ADMIN);
+        verify(userRepository, times(1)).findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE);
+
+        admin.setRole(User.Role.MANAGER);
+        when(userRepository.findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE)).thenReturn(List.of());
+        cache.onUserChanged(admin, false);
+
+        assertEquals(List.of(), cache.getRoleEmails(User.Role.ADMIN));
+        verify(userRepository, times(2)).findByRoleAndStatus(User.Role.ADMIN, User.UserStatus.ACTIVE);
+    }
+
+    @Test
+    void shouldKeepProjectManagerUntilOwnerChanges() {
+        Project project = new Project();
+        project.setId(10L);
+        project.setCreatedBy(3L);
+        when(projectRepository.findById(10L)).thenReturn(Optional.of(project));
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user(3L, "pm@company.com", User.Role.MANAGER)));
+        when(userRepository.findById(4L)).thenReturn(Optional.of(user(4L, "pm2@company.com", User.Role.MANAGER)));
+
+        assertEquals(List.of("pm@company.com"), cache.getProjectManagerEmails(10L));
+
+        // 审批状态等其他字段变化不影响缓存
+        cache.onProjectChanged(project, false);
+        assertEquals(List.of("pm@company.com"), cache.getProjectManagerEmails(10L));
+        verify(projectRepository, times(1)).findById(10L);
+
+        project.setCreatedBy(4L);
+        cache.onProjectChanged(project, false);
+        assertEquals(List.of("pm2@company.com"), cache.getProjectManagerEmails(10L));
+    }
+
+    private User user(Long id, String email, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setRole(role);
+        user.setStatus(User.UserStatus.ACTIVE);
+        return user;
+    }
+}
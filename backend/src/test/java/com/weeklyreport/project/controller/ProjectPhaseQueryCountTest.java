@@ -0,0 +1,183 @@
+package com.weeklyreport.project.controller;
+
+import com.weeklyreport.ai.entity.AIAnalysisResult;
+import com.weeklyreport.ai.repository.AIAnalysisResultRepository;
+import com.weeklyreport.project.dto.ProjectResponse;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.entity.ProjectEntityListener;
+import com.weeklyreport.project.entity.ProjectMember;
+import com.weeklyreport.project.entity.ProjectPhase;
+import com.weeklyreport.project.entity.ProjectPhaseEntityListener;
+import com.weeklyreport.project.repository.ProjectPhaseRepository;
+import com.weeklyreport.project.repository.ProjectRepository;
+import com.weeklyreport.project.service.ProjectPhaseLoader;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.entity.UserEntityListener;
+import com.weeklyreport.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 项目列表/详情接口语句数回归测试（需要Docker）
+ * 以 Hibernate Statistics 统计真实发出的语句数，项目数、阶段数增加时语句数必须保持不变
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProjectPhaseQueryCountTest {
+
+    private static final int PROJECT_COUNT = 12;
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static AnnotationConfigApplicationContext context;
+    private static Statistics statistics;
+    private static ProjectController controller;
+    private static Long fewPhasesProjectId;
+    private static Long manyPhasesProjectId;
+
+    @BeforeAll
+    static void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> new DriverManagerDataSource(
+            MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword()));
+        context.register(PersistenceConfig.class);
+        context.refresh();
+
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        ProjectRepository projectRepository = context.getBean(ProjectRepository.class);
+        ProjectPhaseRepository projectPhaseRepository = context.getBean(ProjectPhaseRepository.class);
+        User creator = context.getBean(UserRepository.class)
+            .save(new User("creator", "creator@example.com", "secret", User.Role.MANAGER));
+
+        // 每个项目的阶段数不同：第一个项目1个阶段，最后一个项目12个阶段
+        for (int i = 1; i <= PROJECT_COUNT; i++) {
+            Project project = projectRepository.save(new Project("项目" + i, "语句数统计", creator.getId()));
+            for (int j = 1; j <= i; j++) {
+                projectPhaseRepository.save(new ProjectPhase(project.getId(), "阶段" + j));
+            }
+            if (i == 1) {
+                fewPhasesProjectId = project.getId();
+            }
+            manyPhasesProjectId = project.getId();
+        }
+
+        controller = new ProjectController();
+        ReflectionTestUtils.setField(controller, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(controller, "projectPhaseRepository", projectPhaseRepository);
+        ReflectionTestUtils.setField(controller, "projectPhaseLoader", context.getBean(ProjectPhaseLoader.class));
+        ReflectionTestUtils.setField(controller, "aiAnalysisResultRepository", context.getBean(AIAnalysisResultRepository.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void listStatementCountShouldNotGrowWithPageSize() {
+        long smallPage = countStatements(() -> assertEquals(2, listProjects(2).size()));
+        long fullPage = countStatements(() -> {
+            List<ProjectResponse> projects = listProjects(PROJECT_COUNT);
+            assertEquals(PROJECT_COUNT, projects.size());
+            // 阶段按项目正确分组
+            Map<String, Integer> phaseCounts = projects.stream()
+                .collect(Collectors.toMap(ProjectResponse::getName, project -> project.getPhases().size()));
+            for (int i = 1; i <= PROJECT_COUNT; i++) {
+                assertEquals(i, phaseCounts.get("项目" + i));
+            }
+        });
+
+        assertEquals(smallPage, fullPage, "列表语句数不应随项目数和阶段数增长");
+    }
+
+    @Test
+    void detailStatementCountShouldNotGrowWithPhaseCount() {
+        long fewPhases = countStatements(() ->
+            assertEquals(1, controller.getProject(fewPhasesProjectId).getBody().getData().getPhases().size()));
+        long manyPhases = countStatements(() ->
+            assertEquals(PROJECT_COUNT, controller.getProject(manyPhasesProjectId).getBody().getData().getPhases().size()));
+
+        assertEquals(fewPhases, manyPhases, "详情语句数不应随阶段数增长");
+    }
+
+    private static List<ProjectResponse> listProjects(int size) {
+        return controller.getAllProjects(0, size, "createdAt", "desc").getBody().getData().getContent();
+    }
+
+    private static long countStatements(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * 只装配项目列表/详情涉及的实体与仓库，实体监听器经 SpringBeanContainer 取得
+     */
+    @Configuration
+    @EnableJpaRepositories(
+        basePackageClasses = {ProjectRepository.class, AIAnalysisResultRepository.class,
+                              UserRepository.class},
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+            classes = {ProjectRepository.class, ProjectPhaseRepository.class, AIAnalysisResultRepository.class,
+                       UserRepository.class}))
+    @Import({ProjectPhaseLoader.class, ProjectEntityListener.class, ProjectPhaseEntityListener.class,
+             UserEntityListener.class})
+    static class PersistenceConfig {
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource,
+                                                                   ConfigurableListableBeanFactory beanFactory) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setManagedTypes(PersistenceManagedTypes.of(
+                Stream.of(Project.class, ProjectPhase.class, ProjectMember.class, User.class, AIAnalysisResult.class)
+                    .map(Class::getName)
+                    .collect(Collectors.toList()),
+                List.of()));
+            factory.getJpaPropertyMap().put(AvailableSettings.HBM2DDL_AUTO, "create");
+            factory.getJpaPropertyMap().put(AvailableSettings.GENERATE_STATISTICS, true);
+            factory.getJpaPropertyMap().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
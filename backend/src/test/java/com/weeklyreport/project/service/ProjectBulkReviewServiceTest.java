@@ -0,0 +1,119 @@
+package com.weeklyreport.project.service;
+
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
+import com.weeklyreport.notification.event.ProjectsBulkReviewedEvent;
+import com.weeklyreport.project.entity.Project;
+import com.weeklyreport.project.repository.ProjectRepository;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目批量审批测试
+ */
+class ProjectBulkReviewServiceTest {
+
+    private ProjectRepository projectRepository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ProjectBulkReviewService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new ProjectBulkReviewService(projectRepository, userRepository, eventPublisher);
+    }
+
+    @Test
+    void adminApproveShouldOnlyMoveAdminStageProjects() {
+        when(projectRepository.findReviewSnapshotsByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+            snapshot(1L, Project.ApprovalStatus.ADMIN_REVIEWING, 101L),
+            snapshot(2L, Project.ApprovalStatus.SUPER_ADMIN_REVIEWING, 102L),
+            snapshot(3L, Project.ApprovalStatus.ADMIN_REJECTED, 103L)));
+        when(projectRepository.adminApproveBatch(eq(List.of(1L, 3L)), eq(ProjectBulkReviewService.ADMIN_REVIEWABLE),
+            eq(Project.ApprovalStatus.SUPER_ADMIN_REVIEWING), eq(9L), any())).thenReturn(2);
+        User owner = new User();
+        owner.setId(101L);
+        owner.setUsername("zhangsan");
+        owner.setStatus(User.UserStatus.ACTIVE);
+        when(userRepository.findAllById(Set.of(101L, 103L))).thenReturn(List.of(owner));
+
+        BulkReviewResult result = service.approve(new BulkReviewRequest(List.of(1L, 2L, 3L, 4L), null), 9L, false);
+
+        assertEquals("SUPER_ADMIN_REVIEWING", result.getTargetStatus());
+        assertEquals(List.of(BulkReviewResult.Outcome.SUCCESS, BulkReviewResult.Outcome.INVALID_STATUS,
+                             BulkReviewResult.Outcome.SUCCESS, BulkReviewResult.Outcome.NOT_FOUND),
+                     result.getItems().stream().map(BulkReviewResult.Item::getOutcome).toList());
+        assertEquals("SUPER_ADMIN_REVIEWING", result.getItems().get(1).getCurrentStatus());
+
+        ArgumentCaptor<ProjectsBulkReviewedEvent> event = ArgumentCaptor.forClass(ProjectsBulkReviewedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(ProjectsBulkReviewedEvent.Decision.ADMIN_APPROVED, event.getValue().getDecision());
+        assertEquals(List.of(1L, 3L),
+            event.getValue().getProjects().stream().map(ProjectsBulkReviewedEvent.ReviewedProject::getProjectId).toList());
+        assertEquals("zhangsan", event.getValue().getProjects().get(0).getProjectOwnerName());
+        assertNull(event.getValue().getProjects().get(1).getProjectOwnerName());
+    }
+
+    @Test
+    void superAdminRejectShouldUseSuperAdminStage() {
+        when(projectRepository.findReviewSnapshotsByIdIn(List.of(5L, 6L))).thenReturn(List.of(
+            snapshot(5L, Project.ApprovalStatus.ADMIN_APPROVED, 101L),
+            snapshot(6L, Project.ApprovalStatus.ADMIN_REVIEWING, 101L)));
+        when(projectRepository.superAdminRejectBatch(eq(List.of(5L)), eq(ProjectBulkReviewService.SUPER_ADMIN_REVIEWABLE),
+            eq(Project.ApprovalStatus.SUPER_ADMIN_REJECTED), eq(1L), eq("预算不足"), any())).thenReturn(1);
+
+        BulkReviewResult result = service.reject(new BulkReviewRequest(List.of(5L, 6L), " 预算不足 "), 1L, true);
+
+        assertEquals(1, result.getSuccessCount());
+        assertEquals("ADMIN_REVIEWING", result.getItems().get(1).getCurrentStatus());
+        verify(projectRepository, never()).adminRejectBatch(anyList(), anyList(), any(), any(), any(), any());
+        ArgumentCaptor<ProjectsBulkReviewedEvent> event = ArgumentCaptor.forClass(ProjectsBulkReviewedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("预算不足", event.getValue().getRejectionReason());
+    }
+
+    @Test
+    void partialUpdateShouldFailWholeBatch() {
+        when(projectRepository.findReviewSnapshotsByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+            snapshot(1L, Project.ApprovalStatus.ADMIN_REVIEWING, 101L),
+            snapshot(2L, Project.ApprovalStatus.ADMIN_REVIEWING, 101L)));
+        when(projectRepository.adminRejectBatch(anyList(), anyList(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class,
+            () -> service.reject(new BulkReviewRequest(List.of(1L, 2L), "信息不全"), 9L, false));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void rejectShouldRequireReason() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.reject(new BulkReviewRequest(List.of(1L), null), 9L, false));
+        verifyNoInteractions(projectRepository);
+    }
+
+    private static Object[] snapshot(Long id, Project.ApprovalStatus status, Long ownerId) {
+        return new Object[] {id, status, "项目" + id, ownerId};
+    }
+}
@@ -0,0 +1,136 @@
+package com.weeklyreport.project.service;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 项目成员索引基准测试（需要Docker）
+ * 5万个项目，记录 members LIKE 全表扫描与 project_members 索引查询的耗时，校验执行计划走索引且不再误匹配相似姓名
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ProjectMemberIndexBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectMemberIndexBenchmarkTest.class);
+
+    private static final int PROJECT_COUNT = 50_000;
+    private static final int USER_COUNT = 2_000;
+    private static final int ROUNDS = 20;
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static long targetUserId;
+    private static int targetProjectCount;
+
+    @BeforeAll
+    static void seed() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            MYSQL.getJdbcUrl() + "?rewriteBatchedStatements=true", MYSQL.getUsername(), MYSQL.getPassword()));
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                             "username VARCHAR(50) NOT NULL UNIQUE, status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE') " +
+                             "DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+        jdbcTemplate.execute("CREATE TABLE projects (id BIGINT AUTO_INCREMENT PRIMARY KEY, members TEXT) " +
+                             "DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+        jdbcTemplate.execute("CREATE TABLE project_members (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                             "project_id BIGINT NOT NULL, user_id BIGINT NOT NULL, " +
+                             "role VARCHAR(30) NOT NULL DEFAULT 'MEMBER', status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE', " +
+                             "joined_date DATETIME NOT NULL, left_date DATETIME NULL, updated_at DATETIME NOT NULL, " +
+                             "UNIQUE KEY uk_project_member (project_id, user_id), " +
+                             "INDEX idx_project_member_user_status (user_id, status, project_id))");
+
+        // wangwei 与 wangweidong 互为子串，LIKE 查询会把后者的项目也算进来
+        List<Object[]> users = new ArrayList<>();
+        users.add(new Object[] {"wangwei"});
+        users.add(new Object[] {"wangweidong"});
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(new Object[] {String.format("user%04d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username) VALUES (?)", users);
+        targetUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'wangwei'", Long.class);
+
+        Random random = new Random(42);
+        List<Object[]> projects = new ArrayList<>(PROJECT_COUNT);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            StringBuilder members = new StringBuilder("项目经理：user").append(String.format("%04d", random.nextInt(USER_COUNT)));
+            for (int j = 0; j < 3 + random.nextInt(4); j++) {
+                members.append("、user").append(String.format("%04d", random.nextInt(USER_COUNT))).append("（开发）");
+            }
+            if (i % 100 == 0) {
+                members.append("、wangwei（测试）");
+                targetProjectCount++;
+            } else if (i % 100 == 1) {
+                members.append("，wangweidong");
+            }
+            projects.add(new Object[] {members.toString()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO projects (members) VALUES (?)", projects);
+
+        long start = System.nanoTime();
+        new ProjectMemberIndexer(jdbcTemplate, false, 1_000).backfill();
+        logger.info("回填 {} 个项目耗时 {} ms", PROJECT_COUNT, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void indexedLookupShouldBeExactAndUseIndex() {
+        String likeSql = "SELECT id FROM projects WHERE LOWER(members) LIKE LOWER(CONCAT('%', ?, '%'))";
+        String indexedSql = "SELECT project_id FROM project_members WHERE user_id = ? AND status = 'ACTIVE'";
+
+        List<Long> likeResult = jdbcTemplate.queryForList(likeSql, Long.class, "wangwei");
+        List<Long> indexedResult = jdbcTemplate.queryForList(indexedSql, Long.class, targetUserId);
+
+        assertEquals(targetProjectCount * 2, likeResult.size(), "LIKE 会误匹配 wangweidong 的项目");
+        assertEquals(targetProjectCount, indexedResult.size());
+
+        double likeMillis = averageMillis(() -> jdbcTemplate.queryForList(likeSql, Long.class, "wangwei"));
+        double indexedMillis = averageMillis(() -> jdbcTemplate.queryForList(indexedSql, Long.class, targetUserId));
+        logger.info("{} 个项目 - LIKE扫描: {} ms/次, 成员索引: {} ms/次",
+                    PROJECT_COUNT, String.format("%.2f", likeMillis), String.format("%.2f", indexedMillis));
+
+        // 耗时只记录不断言，以执行计划确认走成员索引
+        Map<String, Object> plan = jdbcTemplate.queryForMap("EXPLAIN " + indexedSql.replace("?", String.valueOf(targetUserId)));
+        assertEquals("idx_project_member_user_status", plan.get("key"));
+    }
+
+    @Test
+    void reindexShouldReplaceRemovedMembers() {
+        ProjectMemberIndexer indexer = new ProjectMemberIndexer(jdbcTemplate, false, 1_000);
+        // 成员不含 wangwei，新项目不会改变另一个用例的 LIKE / 索引查询结果，与执行顺序无关
+        jdbcTemplate.update("INSERT INTO projects (members) VALUES ('user0001、user0002（开发）')");
+        Long projectId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM projects", Long.class);
+        Long removedUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'user0002'", Long.class);
+
+        assertEquals(2, indexer.reindex(projectId, "user0001、user0002（开发）"));
+        assertEquals(1, indexer.reindex(projectId, "user0001"));
+
+        List<Long> members = jdbcTemplate.queryForList(
+            "SELECT user_id FROM project_members WHERE project_id = ?", Long.class, projectId);
+        assertEquals(1, members.size());
+        assertFalse(members.contains(removedUserId));
+    }
+
+    private static double averageMillis(Supplier<?> query) {
+        query.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+    }
+}
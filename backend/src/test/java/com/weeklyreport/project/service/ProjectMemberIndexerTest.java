@@ -0,0 +1,53 @@
+package com.weeklyreport.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目成员索引启动回填测试 - 完成标记存在时不再重扫存量项目
+ */
+class ProjectMemberIndexerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ProjectMemberIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        indexer = new ProjectMemberIndexer(jdbcTemplate, true, 500);
+    }
+
+    @Test
+    void completedBackfillShouldBeSkipped() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM data_backfills"), eq(Integer.class), any()))
+            .thenReturn(1);
+
+        indexer.backfillOnStartup();
+
+        verify(jdbcTemplate, never()).queryForList(startsWith("SELECT p.id, p.members"), any(Object[].class));
+        verify(jdbcTemplate, never()).update(startsWith("INSERT IGNORE INTO data_backfills"), any(Object[].class));
+    }
+
+    @Test
+    void firstBackfillShouldRecordMarker() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*) FROM data_backfills"), eq(Integer.class), any()))
+            .thenReturn(0);
+        // 未打桩的 queryForList 返回空列表：没有待回填的项目
+
+        indexer.backfillOnStartup();
+
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        verify(jdbcTemplate).update(startsWith("INSERT IGNORE INTO data_backfills"), eq("project_members"), eq(0));
+    }
+}
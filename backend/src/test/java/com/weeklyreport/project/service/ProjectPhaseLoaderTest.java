@@ -0,0 +1,70 @@
+package com.weeklyreport.project.service;
+
+import com.weeklyreport.project.dto.ProjectPhaseResponse;
+import com.weeklyreport.project.entity.ProjectPhase;
+import com.weeklyreport.project.repository.ProjectPhaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 项目阶段页级加载测试：一页项目只发一次阶段查询
+ */
+class ProjectPhaseLoaderTest {
+
+    private ProjectPhaseRepository projectPhaseRepository;
+    private ProjectPhaseLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        projectPhaseRepository = mock(ProjectPhaseRepository.class);
+        loader = new ProjectPhaseLoader(projectPhaseRepository);
+    }
+
+    @Test
+    void shouldIssueSingleQueryPerPage() {
+        List<Long> projectIds = LongStream.rangeClosed(1, 50).boxed().collect(Collectors.toList());
+        when(projectPhaseRepository.findByProjectIdInOrderByCreatedAt(anyCollection()))
+            .thenReturn(List.of(phase(1L, 1L, "需求"), phase(2L, 1L, "开发"), phase(3L, 7L, "测试")));
+
+        Map<Long, List<ProjectPhaseResponse>> phasesByProject = loader.loadPhases(projectIds);
+
+        verify(projectPhaseRepository, times(1)).findByProjectIdInOrderByCreatedAt(any());
+        verify(projectPhaseRepository, never()).findByProjectIdOrderByCreatedAt(anyLong());
+        assertEquals(List.of("需求", "开发"), names(ProjectPhaseLoader.phasesOf(phasesByProject, 1L)));
+        assertEquals(List.of("测试"), names(ProjectPhaseLoader.phasesOf(phasesByProject, 7L)));
+        assertTrue(ProjectPhaseLoader.phasesOf(phasesByProject, 2L).isEmpty());
+    }
+
+    @Test
+    void shouldSkipQueryForEmptyPage() {
+        assertTrue(loader.loadPhases(List.of()).isEmpty());
+        verifyNoInteractions(projectPhaseRepository);
+    }
+
+    private static ProjectPhase phase(Long id, Long projectId, String name) {
+        ProjectPhase phase = new ProjectPhase(projectId, name);
+        phase.setId(id);
+        return phase;
+    }
+
+    private static List<String> names(List<ProjectPhaseResponse> phases) {
+        return phases.stream().map(ProjectPhaseResponse::getPhaseName).collect(Collectors.toList());
+    }
+}
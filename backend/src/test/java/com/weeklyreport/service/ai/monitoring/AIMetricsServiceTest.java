@@ -0,0 +1,152 @@
+package com.weeklyreport.service.ai.monitoring;
+
+import com.weeklyreport.ai.service.AILatencyMetrics;
+import com.weeklyreport.service.ai.AIServiceType;
+import com.weeklyreport.service.ai.dto.AIAnalysisRequest;
+import com.weeklyreport.service.ai.dto.AIAnalysisResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AI指标环形缓冲测试：写满后覆盖最旧事件、快照按时间顺序、并发记录计数不丢
+ */
+class AIMetricsServiceTest {
+
+    private static final int EVENT_BUFFER_SIZE = 1024;
+
+    private SimpleMeterRegistry registry;
+    private AIMetricsService metricsService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("meterRegistry", registry));
+        metricsService = new AIMetricsService(new AILatencyMetrics(beanFactory.getBeanProvider(MeterRegistry.class), 5));
+    }
+
+    @Test
+    void partlyFilledBufferShouldKeepAllEventsInOrder() {
+        for (long i = 1; i <= 20; i++) {
+            success(i);
+        }
+
+        Map<String, Object> summary = metricsService.getMetricsSummary();
+        assertEquals(20, summary.get("recentEventsCount"));
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), recentProcessingTimes(summary));
+        assertEquals("HEALTHY", metricsService.getHealthStatus());
+    }
+
+    @Test
+    void fullBufferShouldEvictOldestEvents() {
+        // 先记录一批失败，再用成功事件把环转满一圈，失败事件全部被覆盖
+        for (int i = 0; i < 100; i++) {
+            error(1L);
+        }
+        assertEquals("UNHEALTHY", metricsService.getHealthStatus());
+
+        for (long i = 1; i <= EVENT_BUFFER_SIZE + 5; i++) {
+            success(i);
+        }
+
+        Map<String, Object> summary = metricsService.getMetricsSummary();
+        assertEquals(EVENT_BUFFER_SIZE, summary.get("recentEventsCount"));
+        List<Long> lastTen = recentProcessingTimes(summary);
+        assertEquals(10, lastTen.size());
+        for (int i = 0; i < lastTen.size(); i++) {
+            assertEquals(EVENT_BUFFER_SIZE - 4L + i, lastTen.get(i));
+        }
+        assertEquals("HEALTHY", metricsService.getHealthStatus());
+        // 累计计数不受环形缓冲淘汰影响
+        assertEquals(100L + EVENT_BUFFER_SIZE + 5, summary.get("totalRequests"));
+        assertEquals(100L, summary.get("totalErrors"));
+    }
+
+    @Test
+    void resetShouldClearBufferAndCounters() {
+        for (long i = 1; i <= EVENT_BUFFER_SIZE * 2; i++) {
+            success(i);
+        }
+
+        metricsService.resetMetrics();
+
+        assertEquals("NO_DATA", metricsService.getHealthStatus());
+        assertEquals(0, metricsService.getMetricsSummary().get("recentEventsCount"));
+        assertEquals(0L, metricsService.getMetricsSummary().get("totalRequests"));
+
+        success(7L);
+        assertEquals(1, metricsService.getMetricsSummary().get("recentEventsCount"));
+    }
+
+    @Test
+    void concurrentRecordingShouldKeepCountersExact() throws Exception {
+        int threads = 8;
+        int perThread = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                boolean failing = t == 0;
+                executor.execute(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        if (failing) {
+                            error(50L);
+                        } else {
+                            success(100L);
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Map<String, Object> summary = metricsService.getMetricsSummary();
+        assertEquals((long) threads * perThread, summary.get("totalRequests"));
+        assertEquals((long) perThread, summary.get("totalErrors"));
+        assertEquals(EVENT_BUFFER_SIZE, summary.get("recentEventsCount"));
+
+        Map<String, Object> provider = metricsService.getProviderMetrics(AIServiceType.DEEPSEEK);
+        assertEquals((threads - 1L) * perThread, provider.get("successes"));
+        assertEquals((threads - 1L) * perThread * 100 + perThread * 50L, provider.get("totalProcessingTime"));
+
+        Timer latency = registry.find(AILatencyMetrics.LATENCY_METRIC)
+            .tags("provider", "deepseek", "analysis_type", "SUMMARY", "outcome", "success").timer();
+        assertNotNull(latency);
+        assertEquals((threads - 1L) * perThread, latency.count());
+    }
+
+    private void success(long processingTimeMs) {
+        AIAnalysisResponse response = new AIAnalysisResponse("ok", AIAnalysisRequest.AnalysisType.SUMMARY);
+        response.setProcessingTimeMs(processingTimeMs);
+        metricsService.recordSuccess(AIServiceType.DEEPSEEK, request(), response);
+    }
+
+    private void error(long processingTimeMs) {
+        metricsService.recordError(AIServiceType.DEEPSEEK, request(), "timeout", processingTimeMs);
+    }
+
+    private static AIAnalysisRequest request() {
+        return new AIAnalysisRequest("周报内容", AIAnalysisRequest.AnalysisType.SUMMARY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> recentProcessingTimes(Map<String, Object> summary) {
+        return ((List<Map<String, Object>>) summary.get("recentEvents")).stream()
+            .map(event -> (Long) event.get("processingTime"))
+            .toList();
+    }
+}
@@ -0,0 +1,97 @@
+package com.weeklyreport.weeklyreport.controller;
+
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.service.UserService;
+import com.weeklyreport.weeklyreport.dto.SubmissionCompliance;
+import com.weeklyreport.weeklyreport.service.SubmissionComplianceIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 周报提交情况接口测试
+ */
+class WeeklyReportComplianceControllerTest {
+
+    private UserService userService;
+    private SubmissionComplianceIndex complianceIndex;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        complianceIndex = mock(SubmissionComplianceIndex.class);
+        WeeklyReportController controller = new WeeklyReportController();
+        ReflectionTestUtils.setField(controller, "userService", userService);
+        ReflectionTestUtils.setField(controller, "complianceIndex", complianceIndex);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("reviewer", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void reviewerShouldGetComplianceForRequestedWeek() throws Exception {
+        when(userService.getUserProfile("reviewer")).thenReturn(user(User.Role.MANAGER));
+        when(complianceIndex.getCompliance("2026-W42")).thenReturn(new SubmissionCompliance(
+            "2026-W42", LocalDate.of(2026, 10, 12), LocalDate.of(2026, 10, 18), 3, 1,
+            List.of(new SubmissionCompliance.MissingUser(3L, "zhangsan"),
+                    new SubmissionCompliance.MissingUser(8L, "wangwu"))));
+
+        mockMvc.perform(get("/weekly-reports/compliance").param("week", "2026-W42"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.expectedCount").value(3))
+            .andExpect(jsonPath("$.data.submittedCount").value(1))
+            .andExpect(jsonPath("$.data.missingUsers[1].username").value("wangwu"));
+    }
+
+    @Test
+    void invalidWeekShouldBeRejected() throws Exception {
+        when(userService.getUserProfile("reviewer")).thenReturn(user(User.Role.MANAGER));
+
+        mockMvc.perform(get("/weekly-reports/compliance").param("week", "2026-42"))
+            .andExpect(status().isBadRequest());
+
+        verify(complianceIndex, never()).getCompliance(anyString());
+    }
+
+    @Test
+    void nonReviewerShouldBeForbidden() throws Exception {
+        when(userService.getUserProfile("reviewer")).thenReturn(user(User.Role.EMPLOYEE));
+
+        mockMvc.perform(get("/weekly-reports/compliance"))
+            .andExpect(status().isForbidden());
+
+        verify(complianceIndex, never()).getCompliance(anyString());
+    }
+
+    private static User user(User.Role role) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("reviewer");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,80 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weeklyreport.task.entity.Task;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext;
+import com.weeklyreport.weeklyreport.dto.ReportCompositionContext.TaskOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 周报填写上下文缓存测试
+ */
+class ReportCompositionContextServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReportCompositionContextService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new ReportCompositionContextService(jdbcTemplate, new ObjectMapper(), 300);
+        doReturn(List.of()).when(jdbcTemplate).query(startsWith("SELECT p.id"), any(RowMapper.class), eq(7L), eq(7L));
+    }
+
+    @Test
+    void shouldServeFromCacheUntilOwnTaskChanges() {
+        stubTasks(new TaskOption(1L, "日报整理", "按时完成"));
+
+        ReportCompositionContext first = service.getContext(7L);
+        assertSame(first, service.getContext(7L));
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT id, task_name"), any(RowMapper.class), eq(7L));
+
+        // 其他用户的任务变化不影响
+        service.onTaskChanged(task(8L));
+        assertSame(first, service.getContext(7L));
+
+        service.onTaskChanged(task(7L));
+        ReportCompositionContext reloaded = service.getContext(7L);
+        assertNotSame(first, reloaded);
+        // 内容未变时版本号不变，客户端持有的ETag仍然有效
+        assertEquals(first.getVersion(), reloaded.getVersion());
+    }
+
+    @Test
+    void versionShouldChangeWithContent() {
+        stubTasks(new TaskOption(1L, "日报整理", "按时完成"));
+        String before = service.getContext(7L).getVersion();
+
+        stubTasks(new TaskOption(1L, "日报整理", "提前完成"));
+        service.invalidateAll();
+
+        assertNotEquals(before, service.getContext(7L).getVersion());
+    }
+
+    private void stubTasks(TaskOption... tasks) {
+        doReturn(List.of(tasks)).when(jdbcTemplate).query(startsWith("SELECT id, task_name"), any(RowMapper.class), eq(7L));
+    }
+
+    private static Task task(Long createdBy) {
+        Task task = new Task();
+        task.setCreatedBy(createdBy);
+        return task;
+    }
+}
@@ -0,0 +1,162 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.common.util.WeekFormatHelper;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 周报提交合规索引测试
+ */
+class SubmissionComplianceIndexTest {
+
+    private static final String WEEK = "2026-W42";
+
+    private JdbcTemplate jdbcTemplate;
+    private SubmissionComplianceIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        index = new SubmissionComplianceIndex(jdbcTemplate, new String[] {"MANAGER"}, 300);
+        // 应提交用户：3、5、8
+        doAnswer(invocation -> feed(invocation.getArgument(1), 3L, 5L, 8L))
+            .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        // 本周已提交：5
+        doAnswer(invocation -> feed(invocation.getArgument(1), 5L))
+            .when(jdbcTemplate).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void shouldAnswerFromWeekBitsetAndDiffAgainstExpectedUsers() {
+        assertTrue(index.hasSubmitted(5L, WEEK));
+        assertFalse(index.hasSubmitted(3L, WEEK));
+
+        BitSet missing = index.missingUsers(WEEK);
+        assertEquals(BitSet.valueOf(new long[] {(1L << 3) | (1L << 8)}), missing);
+
+        // 同一周只加载一次
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void submittedReportShouldSetBitWithoutReloadingWeek() {
+        index.missingUsers(WEEK);
+
+        index.onReportChanged(report(3L, WeeklyReport.ReportStatus.AI_PROCESSING), false);
+
+        assertTrue(index.hasSubmitted(3L, WEEK));
+        assertEquals(BitSet.valueOf(new long[] {1L << 8}), index.missingUsers(WEEK));
+        verify(jdbcTemplate, times(1)).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void removedReportShouldReloadWeek() {
+        index.missingUsers(WEEK);
+
+        index.onReportChanged(report(5L, WeeklyReport.ReportStatus.APPROVED), true);
+
+        assertTrue(index.hasSubmitted(5L, WEEK));
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void changeDuringLoadShouldNotCacheStaleWeek() throws Exception {
+        // 加载查询进行期间，用户3的周报提交并失效了该周
+        doAnswer(invocation -> {
+            index.onReportChanged(report(3L, WeeklyReport.ReportStatus.DRAFT), false);
+            return feed(invocation.getArgument(1), 5L);
+        }).doAnswer(invocation -> feed(invocation.getArgument(1), 3L, 5L))
+            .when(jdbcTemplate).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+
+        assertFalse(index.hasSubmitted(3L, WEEK));
+        assertTrue(index.hasSubmitted(3L, WEEK));
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void lateSubmissionShouldCountForReportWeek() {
+        String nextWeek = "2026-W43";
+        index.missingUsers(WEEK);
+        index.missingUsers(nextWeek);
+        verify(jdbcTemplate).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class),
+            eq(LocalDate.of(2026, 10, 12)));
+
+        // 第42周的周报在第43周周一补交
+        index.onReportChanged(report(3L, WeeklyReport.ReportStatus.AI_PROCESSING, LocalDateTime.of(2026, 10, 19, 9, 0)), false);
+
+        assertTrue(index.hasSubmitted(3L, WEEK));
+        assertFalse(index.hasSubmitted(3L, nextWeek));
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT DISTINCT user_id"), any(RowCallbackHandler.class), any());
+    }
+
+    @Test
+    void weekStartShouldResolveFromReportWeekText() {
+        LocalDate created = LocalDate.of(2026, 10, 19);
+        assertEquals(LocalDate.of(2026, 10, 12), WeekFormatHelper.resolveWeekStart(WEEK, created));
+        assertEquals(LocalDate.of(2026, 10, 12), WeekFormatHelper.resolveWeekStart("2026-10-18", created));
+        assertEquals(LocalDate.of(2026, 10, 12), WeekFormatHelper.resolveWeekStart("2026/10/14周", created));
+        // 表单标签按周日起算：2026年10月1日是周四，第3周为 10/11（周日）~ 10/17
+        assertEquals(LocalDate.of(2026, 10, 12), WeekFormatHelper.resolveWeekStart("10月第3周（周三）", created));
+        assertEquals(LocalDate.of(2026, 10, 5), WeekFormatHelper.resolveWeekStart("10月第3周（周日）", created));
+        assertEquals(LocalDate.of(2025, 12, 15), WeekFormatHelper.resolveWeekStart("12月第3周（周三）", LocalDate.of(2026, 1, 5)));
+        // 无法识别的文本归入创建日所在周
+        assertEquals(LocalDate.of(2026, 10, 19), WeekFormatHelper.resolveWeekStart("本周", created));
+        assertEquals(LocalDate.of(2026, 10, 19), WeekFormatHelper.resolveWeekStart("2026-13-40", created));
+    }
+
+    @Test
+    void isoWeekKeysShouldFollowWeekBasedYear() {
+        assertEquals("2026-W01", WeekFormatHelper.formatIsoWeek(LocalDate.of(2026, 1, 1)));
+        assertEquals("2026-W53", WeekFormatHelper.formatIsoWeek(LocalDate.of(2027, 1, 1)));
+        assertEquals(LocalDate.of(2026, 12, 28), WeekFormatHelper.parseIsoWeek("2026-W53"));
+        assertEquals(LocalDate.of(2026, 10, 12), WeekFormatHelper.parseIsoWeek(WEEK));
+        assertThrows(IllegalArgumentException.class, () -> WeekFormatHelper.parseIsoWeek("2025-W53"));
+        assertThrows(IllegalArgumentException.class, () -> WeekFormatHelper.parseIsoWeek("2026-42"));
+    }
+
+    private static WeeklyReport report(Long userId, WeeklyReport.ReportStatus status) {
+        return report(userId, status, LocalDateTime.of(2026, 10, 14, 9, 0));
+    }
+
+    private static WeeklyReport report(Long userId, WeeklyReport.ReportStatus status, LocalDateTime submittedAt) {
+        WeeklyReport report = new WeeklyReport();
+        report.setUserId(userId);
+        report.setStatus(status);
+        report.setWeekStart(WeekFormatHelper.parseIsoWeek(WEEK));
+        report.setSubmittedAt(submittedAt);
+        return report;
+    }
+
+    private static Object feed(RowCallbackHandler handler, Long... userIds) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn(userIds[0], Arrays.copyOfRange(userIds, 1, userIds.length));
+        for (int i = 0; i < userIds.length; i++) {
+            handler.processRow(rs);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.notification.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 周报提交提醒测试 - 先认领再写入发件箱，写入失败时释放认领
+ */
+class SubmissionReminderServiceTest {
+
+    private static final String WEEK = "2026-W42";
+    private static final String WEEK_LABEL = "2026-W42（10月12日 - 10月18日）";
+
+    private SubmissionComplianceIndex complianceIndex;
+    private NotificationService notificationService;
+    private JdbcTemplate jdbcTemplate;
+    private SubmissionReminderService reminderService;
+
+    @BeforeEach
+    void setUp() {
+        complianceIndex = mock(SubmissionComplianceIndex.class);
+        notificationService = mock(NotificationService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        reminderService = new SubmissionReminderService(complianceIndex, notificationService, jdbcTemplate);
+
+        BitSet missing = new BitSet();
+        missing.set(3);
+        missing.set(5);
+        missing.set(8);
+        when(complianceIndex.missingUsers(WEEK)).thenReturn(missing);
+        when(complianceIndex.findUsers(missing)).thenReturn(List.of(
+            new SubmissionComplianceIndex.UserContact(3L, "zhangsan", "zhangsan@example.com"),
+            new SubmissionComplianceIndex.UserContact(5L, "lisi", " "),
+            new SubmissionComplianceIndex.UserContact(8L, "wangwu", "wangwu@example.com")));
+    }
+
+    @Test
+    void onlyNewlyClaimedUsersShouldBeReminded() {
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(WEEK), eq(3L))).thenReturn(1);
+        // 用户8本周已被其他实例或上一次运行提醒过
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(WEEK), eq(8L))).thenReturn(0);
+
+        assertEquals(1, reminderService.remind(WEEK));
+
+        verify(notificationService).enqueueSubmissionReminder(3L, "zhangsan", "zhangsan@example.com", WEEK_LABEL);
+        verify(notificationService, never()).enqueueSubmissionReminder(eq(8L), anyString(), anyString(), anyString());
+        // 没有邮箱的用户不认领
+        verify(jdbcTemplate, never()).update(startsWith("INSERT IGNORE"), eq(WEEK), eq(5L));
+    }
+
+    @Test
+    void failedEnqueueShouldReleaseClaimForNextRun() {
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(WEEK), anyLong())).thenReturn(1);
+        doThrow(new RuntimeException("db down")).when(notificationService)
+            .enqueueSubmissionReminder(eq(3L), anyString(), anyString(), anyString());
+
+        assertEquals(1, reminderService.remind(WEEK));
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM weekly_submission_reminders"), eq(WEEK), eq(3L));
+        verify(jdbcTemplate, never()).update(startsWith("DELETE FROM weekly_submission_reminders"), eq(WEEK), eq(8L));
+        verify(notificationService).enqueueSubmissionReminder(8L, "wangwu", "wangwu@example.com", WEEK_LABEL);
+    }
+}
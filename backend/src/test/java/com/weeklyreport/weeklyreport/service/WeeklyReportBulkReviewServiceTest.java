@@ -0,0 +1,111 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.common.dto.BulkReviewRequest;
+import com.weeklyreport.common.dto.BulkReviewResult;
+import com.weeklyreport.notification.event.WeeklyReportsBulkReviewedEvent;
+import com.weeklyreport.user.entity.User;
+import com.weeklyreport.user.repository.UserRepository;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 周报批量审批测试
+ */
+class WeeklyReportBulkReviewServiceTest {
+
+    private WeeklyReportRepository weeklyReportRepository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private WeeklyReportBulkReviewService service;
+    private User reviewer;
+
+    @BeforeEach
+    void setUp() {
+        weeklyReportRepository = mock(WeeklyReportRepository.class);
+        userRepository = mock(UserRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new WeeklyReportBulkReviewService(weeklyReportRepository, userRepository, eventPublisher);
+
+        reviewer = new User();
+        reviewer.setId(9L);
+        reviewer.setUsername("admin");
+    }
+
+    @Test
+    void approveShouldReportOutcomePerItemAndPublishOneEvent() {
+        // 4 已被其他管理员审批：加锁读取到的是已提交的最新状态
+        when(weeklyReportRepository.findReviewSnapshotsByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+            snapshot(1L, WeeklyReport.ReportStatus.ADMIN_REVIEWING),
+            snapshot(2L, WeeklyReport.ReportStatus.DRAFT),
+            snapshot(4L, WeeklyReport.ReportStatus.APPROVED)));
+        when(weeklyReportRepository.approveBatch(eq(List.of(1L)), eq(WeeklyReport.ReportStatus.ADMIN_REVIEWING),
+            eq(WeeklyReport.ReportStatus.APPROVED), eq(9L), any())).thenReturn(1);
+
+        BulkReviewResult result = service.approve(new BulkReviewRequest(List.of(1L, 2L, 3L, 4L, 1L), null), reviewer);
+
+        assertEquals(1, result.getSuccessCount());
+        assertEquals(3, result.getFailureCount());
+        assertEquals(List.of(BulkReviewResult.Outcome.SUCCESS, BulkReviewResult.Outcome.INVALID_STATUS,
+                             BulkReviewResult.Outcome.NOT_FOUND, BulkReviewResult.Outcome.INVALID_STATUS),
+                     result.getItems().stream().map(BulkReviewResult.Item::getOutcome).toList());
+        assertEquals("DRAFT", result.getItems().get(1).getCurrentStatus());
+        assertEquals("APPROVED", result.getItems().get(3).getCurrentStatus());
+
+        ArgumentCaptor<WeeklyReportsBulkReviewedEvent> event = ArgumentCaptor.forClass(WeeklyReportsBulkReviewedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1, event.getValue().getReports().size());
+        assertEquals(1L, event.getValue().getReports().get(0).getWeeklyReportId());
+    }
+
+    @Test
+    void partialUpdateShouldFailWholeBatch() {
+        when(weeklyReportRepository.findReviewSnapshotsByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+            snapshot(1L, WeeklyReport.ReportStatus.ADMIN_REVIEWING),
+            snapshot(2L, WeeklyReport.ReportStatus.ADMIN_REVIEWING)));
+        when(weeklyReportRepository.approveBatch(anyList(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThrows(IllegalStateException.class,
+            () -> service.approve(new BulkReviewRequest(List.of(1L, 2L), null), reviewer));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void rejectShouldRequireReason() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.reject(new BulkReviewRequest(List.of(1L), "  "), reviewer));
+        verifyNoInteractions(weeklyReportRepository);
+    }
+
+    @Test
+    void shouldSkipUpdateWhenNothingIsReviewable() {
+        when(weeklyReportRepository.findReviewSnapshotsByIdIn(List.of(5L))).thenReturn(List.<Object[]>of(
+            snapshot(5L, WeeklyReport.ReportStatus.APPROVED)));
+
+        BulkReviewResult result = service.reject(new BulkReviewRequest(List.of(5L), "内容不完整"), reviewer);
+
+        assertEquals(0, result.getSuccessCount());
+        verify(weeklyReportRepository, never()).rejectBatch(anyList(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static Object[] snapshot(Long id, WeeklyReport.ReportStatus status) {
+        return new Object[] {id, status, "周报" + id, "2026-W42", 100L + id};
+    }
+}
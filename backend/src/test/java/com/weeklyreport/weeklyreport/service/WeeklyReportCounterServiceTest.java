@@ -0,0 +1,52 @@
+package com.weeklyreport.weeklyreport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 周报计数维护测试
+ */
+class WeeklyReportCounterServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private WeeklyReportCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new WeeklyReportCounterService(jdbcTemplate, 500);
+    }
+
+    @Test
+    void reconcileShouldCoverIdRangeInBatches() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(1200L);
+        when(jdbcTemplate.update(anyString(), anyLong(), anyLong())).thenReturn(2);
+
+        assertEquals(6, service.reconcile());
+
+        verify(jdbcTemplate).update(anyString(), eq(0L), eq(500L));
+        verify(jdbcTemplate).update(anyString(), eq(500L), eq(1000L));
+        verify(jdbcTemplate).update(anyString(), eq(1000L), eq(1500L));
+        verify(jdbcTemplate, times(3)).update(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void loadCountersShouldSkipQueryForEmptyPage() {
+        assertTrue(service.loadCounters(List.of()).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
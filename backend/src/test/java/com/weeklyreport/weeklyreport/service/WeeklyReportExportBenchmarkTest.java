@@ -0,0 +1,141 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.weeklyreport.export.CsvExportRowWriter;
+import com.weeklyreport.weeklyreport.export.ExportFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 周报流式导出基准测试
+ * 用合成结果集模拟MySQL流式游标输出20万份周报（每份含一条任务行），导出过程中定期GC后采样存活堆内存，
+ * 存活堆增量必须低于固定上限，即内存占用不随导出行数增长
+ */
+class WeeklyReportExportBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeeklyReportExportBenchmarkTest.class);
+
+    private static final int REPORT_COUNT = 200_000;
+    private static final int ROWS_PER_REPORT = 2;
+    private static final int SAMPLE_INTERVAL = 50_000;
+    private static final long HEAP_CEILING = 32L * 1024 * 1024;
+
+    @ParameterizedTest
+    @EnumSource(ExportFormat.class)
+    void exportShouldStreamWithBoundedHeap(ExportFormat format) throws Exception {
+        SyntheticCursor cursor = new SyntheticCursor(REPORT_COUNT * ROWS_PER_REPORT);
+        WeeklyReportExportService service = new WeeklyReportExportService(cursor);
+        CountingOutputStream out = new CountingOutputStream();
+
+        long started = System.currentTimeMillis();
+        long rows = service.export(format, LocalDate.of(2026, 7, 1), LocalDate.of(2026, 9, 30), null, out);
+        long elapsed = System.currentTimeMillis() - started;
+
+        logger.info("周报流式导出基准: 格式 {}, {} 行, {} MB, {} ms, 存活堆最大增量 {} MB",
+                    format, rows, out.count / 1024 / 1024, elapsed, cursor.maxRetainedDelta / 1024 / 1024);
+
+        assertEquals(REPORT_COUNT * ROWS_PER_REPORT, rows);
+        assertTrue(out.count > 0);
+        assertTrue(cursor.maxRetainedDelta < HEAP_CEILING,
+                   "存活堆内存不应随导出行数增长: " + cursor.maxRetainedDelta);
+    }
+
+    @Test
+    void csvShouldQuoteSpecialCharactersAndNeutralizeFormulas() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvExportRowWriter writer = new CsvExportRowWriter(out, List.of("a", "b", "c"));
+        writer.writeRow(new Object[] {"含,逗号", "说\"明\"", "=SUM(A1)"});
+        writer.writeRow(new Object[] {1L, null, "多\n行"});
+        writer.finish();
+
+        assertEquals("\uFEFFa,b,c\r\n\"含,逗号\",\"说\"\"明\"\"\",'=SUM(A1)\r\n1,,\"多\n行\"\r\n",
+                     out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 合成游标：与MySQL流式结果集一样每次只持有当前一行，逐行回调
+     */
+    private static class SyntheticCursor extends JdbcTemplate {
+
+        private final int rowCount;
+        private long maxRetainedDelta;
+
+        SyntheticCursor(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler handler, Object... args) {
+            long baseline = usedHeapAfterGc();
+            Object[][] current = new Object[1][];
+            ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, methodArgs) -> {
+                    if (method.getName().equals("getObject") && methodArgs.length == 1 && methodArgs[0] instanceof Integer column) {
+                        return current[0][column - 1];
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+            try {
+                for (int i = 0; i < rowCount; i++) {
+                    current[0] = row(i);
+                    handler.processRow(rs);
+                    if ((i + 1) % SAMPLE_INTERVAL == 0) {
+                        maxRetainedDelta = Math.max(maxRetainedDelta, usedHeapAfterGc() - baseline);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Object[] row(int index) {
+            long reportId = index / ROWS_PER_REPORT + 1;
+            boolean reportRow = index % ROWS_PER_REPORT == 0;
+            return new Object[] {
+                reportId, "2026-W" + (27 + reportId % 13), "user" + reportId % 500, "第" + reportId + "份周报",
+                "APPROVED", LocalDateTime.of(2026, 7, 1, 9, 0).plusMinutes(reportId), null,
+                reportRow ? "周报" : "日常任务", reportRow ? null : "日常任务" + reportId % 50, null,
+                reportRow ? null : "本周",
+                "本周完成了第" + reportId + "项工作，进展符合预期，已同步相关同事并整理文档。",
+                reportRow ? null : "无明显差异", reportRow ? 0 : 1
+            };
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            count += length;
+        }
+    }
+}
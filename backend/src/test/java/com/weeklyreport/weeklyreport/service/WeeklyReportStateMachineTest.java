@@ -0,0 +1,86 @@
+package com.weeklyreport.weeklyreport.service;
+
+import com.weeklyreport.weeklyreport.entity.WeeklyReport;
+import com.weeklyreport.weeklyreport.entity.WeeklyReport.ReportStatus;
+import com.weeklyreport.weeklyreport.repository.WeeklyReportRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 周报状态机测试
+ */
+class WeeklyReportStateMachineTest {
+
+    private WeeklyReportRepository weeklyReportRepository;
+    private WeeklyReportStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        weeklyReportRepository = mock(WeeklyReportRepository.class);
+        stateMachine = new WeeklyReportStateMachine(weeklyReportRepository, mock(PlatformTransactionManager.class), 3);
+    }
+
+    @Test
+    void transitionTableShouldOnlyAllowWorkflowEdges() {
+        assertTrue(WeeklyReportStateMachine.canTransition(ReportStatus.DRAFT, ReportStatus.AI_PROCESSING));
+        assertTrue(WeeklyReportStateMachine.canTransition(ReportStatus.ADMIN_REVIEWING, ReportStatus.APPROVED));
+        assertFalse(WeeklyReportStateMachine.canTransition(ReportStatus.DRAFT, ReportStatus.APPROVED));
+        assertFalse(WeeklyReportStateMachine.canTransition(ReportStatus.APPROVED, ReportStatus.REJECTED));
+        assertFalse(WeeklyReportStateMachine.canTransition(null, ReportStatus.DRAFT));
+    }
+
+    @Test
+    void transitionShouldReloadAndRetryOnVersionConflict() {
+        when(weeklyReportRepository.findById(1L))
+            .thenAnswer(invocation -> Optional.of(report(1L, ReportStatus.AI_PROCESSING)));
+        when(weeklyReportRepository.saveAndFlush(any()))
+            .thenThrow(new ObjectOptimisticLockingFailureException(WeeklyReport.class, 1L))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Optional<WeeklyReport> result = stateMachine.transition(
+            1L, ReportStatus.AI_PROCESSING, ReportStatus.ADMIN_REVIEWING, WeeklyReport::aiApprove);
+
+        assertEquals(ReportStatus.ADMIN_REVIEWING, result.orElseThrow().getStatus());
+        verify(weeklyReportRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void transitionShouldSkipWhenAlreadyHandled() {
+        when(weeklyReportRepository.findById(2L)).thenReturn(Optional.of(report(2L, ReportStatus.REJECTED)));
+
+        assertTrue(stateMachine.transition(
+            2L, ReportStatus.AI_PROCESSING, ReportStatus.ADMIN_REVIEWING, WeeklyReport::aiApprove).isEmpty());
+        verify(weeklyReportRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void applyShouldRejectTransitionOutsideTable() {
+        WeeklyReport report = report(3L, ReportStatus.APPROVED);
+
+        assertThrows(IllegalStateException.class,
+            () -> stateMachine.apply(report, ReportStatus.REJECTED, r -> r.setStatus(ReportStatus.REJECTED)));
+        verify(weeklyReportRepository, never()).saveAndFlush(any());
+    }
+
+    private static WeeklyReport report(Long id, ReportStatus status) {
+        WeeklyReport report = new WeeklyReport();
+        report.setId(id);
+        report.setStatus(status);
+        return report;
+    }
+}